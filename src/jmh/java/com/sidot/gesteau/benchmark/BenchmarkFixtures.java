@@ -0,0 +1,115 @@
+package com.sidot.gesteau.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sidot.gesteau.config.JacksonConfiguration;
+import com.sidot.gesteau.domain.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Entities and Spring beans shared by the benchmarks, built the way the application builds them.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * @return a context holding the MapStruct mappers, wired together as in the application.
+     */
+    static AnnotationConfigApplicationContext mapperContext() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.scan("com.sidot.gesteau.service.mapper");
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * @return the {@link ObjectMapper} of the REST endpoints: the modules of {@link JacksonConfiguration} and the Spring Boot
+     * defaults.
+     */
+    static ObjectMapper objectMapper() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        return Jackson2ObjectMapperBuilder
+            .json()
+            .modules(
+                jacksonConfiguration.javaTimeModule(),
+                jacksonConfiguration.jdk8TimeModule(),
+                jacksonConfiguration.hibernate5Module(),
+                jacksonConfiguration.problemModule(),
+                jacksonConfiguration.constraintViolationProblemModule()
+            )
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+    }
+
+    static Centre centre(long id) {
+        return new Centre()
+            .id(id)
+            .libelle("Centre " + id)
+            .responsable("Responsable " + id)
+            .contact("70000000")
+            .centreRegroupement(new CentreRegroupement().id(id % 4 + 1));
+    }
+
+    static Prevision prevision(long id) {
+        return new Prevision()
+            .id(id)
+            .nbLatrine(120)
+            .nbPuisard(80)
+            .nbPublic(4)
+            .nbScolaire(6)
+            .annee(new Annee().id(id % 3 + 1))
+            .centre(centre(id));
+    }
+
+    static FicheSuiviOuvrage ficheSuiviOuvrage(long id) {
+        Instant dateRemiseDevis = Instant.parse("2021-03-01T08:00:00Z").plusSeconds(id * 3600);
+        return new FicheSuiviOuvrage()
+            .id(id)
+            .prjAppuis("PAEA")
+            .nomBenef("Ouedraogo")
+            .prenomBenef("Aminata " + id)
+            .professionBenef("Commercante")
+            .nbUsagers(8L)
+            .contacts("70 00 00 00")
+            .longitude(-1.52f + id * 0.0001f)
+            .latitude(12.37f + id * 0.0001f)
+            .dateRemiseDevis(dateRemiseDevis)
+            .dateDebutTravaux(dateRemiseDevis.plusSeconds(7 * 86400))
+            .dateFinTravaux(dateRemiseDevis.plusSeconds(21 * 86400))
+            .rue("Rue " + id)
+            .porte((int) id)
+            .coutMenage("25000")
+            .subvOnea(50000)
+            .subvProjet(30000)
+            .autreSubv(0)
+            .toles(4)
+            .animateur("Animateur")
+            .superviseur("Superviseur")
+            .controleur("Controleur")
+            .prevision(prevision(id % 10 + 1))
+            .natureouvrage(new NatureOuvrage().id(id % 4 + 1))
+            .typehabitation(new TypeHabitation().id(id % 3 + 1))
+            .sourceapprovep(new SourceApprovEp().id(id % 3 + 1))
+            .modeevacuationeauusee(new ModeEvacuationEauUsee().id(id % 3 + 1))
+            .modeevacexcreta(new ModeEvacExcreta().id(id % 3 + 1))
+            .macon(new Macon().id(id % 20 + 1))
+            .prefabricant(new Prefabricant().id(id % 5 + 1));
+    }
+
+    /**
+     * @param size the number of entities, e.g. the size of a page of the list endpoint.
+     * @return the entities.
+     */
+    static List<FicheSuiviOuvrage> ficheSuiviOuvrages(int size) {
+        List<FicheSuiviOuvrage> ficheSuiviOuvrages = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            ficheSuiviOuvrages.add(ficheSuiviOuvrage(id));
+        }
+        return ficheSuiviOuvrages;
+    }
+}
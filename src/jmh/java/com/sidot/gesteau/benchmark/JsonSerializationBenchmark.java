@@ -0,0 +1,70 @@
+package com.sidot.gesteau.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Benchmarks of the JSON serialization of the {@link FicheSuiviOuvrageDTO} lists returned by the list endpoint, with the
+ * {@link ObjectMapper} configured as in the application.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({ "20", "1000" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter listWriter;
+
+    private List<FicheSuiviOuvrageDTO> page;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        try (AnnotationConfigApplicationContext context = BenchmarkFixtures.mapperContext()) {
+            page = context.getBean(FicheSuiviOuvrageMapper.class).toDto(BenchmarkFixtures.ficheSuiviOuvrages(pageSize));
+        }
+        objectMapper = BenchmarkFixtures.objectMapper();
+        listWriter = objectMapper.writerFor(TypeFactory.defaultInstance().constructCollectionType(List.class, FicheSuiviOuvrageDTO.class));
+    }
+
+    /**
+     * Serialize as Spring MVC does, resolving the serializer from the runtime type of the list.
+     */
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    /**
+     * Serialize with a writer whose serializer is resolved once.
+     */
+    @Benchmark
+    public byte[] serializePageWithTypedWriter() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(page);
+    }
+}
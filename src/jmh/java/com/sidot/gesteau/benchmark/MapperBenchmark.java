@@ -0,0 +1,147 @@
+package com.sidot.gesteau.benchmark;
+
+import com.sidot.gesteau.domain.Centre;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.service.dto.CentreDTO;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.mapper.CentreMapper;
+import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import com.sidot.gesteau.service.mapper.PrevisionMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Benchmarks of the MapStruct mappers on the path of the REST endpoints: the single entity conversions, the partial
+ * update of the PATCH requests, and the conversion of a page of {@link FicheSuiviOuvrage} by the list endpoint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    private PrevisionMapper previsionMapper;
+
+    private CentreMapper centreMapper;
+
+    private FicheSuiviOuvrage ficheSuiviOuvrage;
+
+    private FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO;
+
+    private FicheSuiviOuvrage partialUpdateTarget;
+
+    private FicheSuiviOuvrageDTO partialUpdateDTO;
+
+    private Prevision prevision;
+
+    private PrevisionDTO previsionDTO;
+
+    private Centre centre;
+
+    private CentreDTO centreDTO;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkFixtures.mapperContext();
+        ficheSuiviOuvrageMapper = context.getBean(FicheSuiviOuvrageMapper.class);
+        previsionMapper = context.getBean(PrevisionMapper.class);
+        centreMapper = context.getBean(CentreMapper.class);
+
+        ficheSuiviOuvrage = BenchmarkFixtures.ficheSuiviOuvrage(1);
+        ficheSuiviOuvrageDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+        partialUpdateTarget = BenchmarkFixtures.ficheSuiviOuvrage(2);
+        partialUpdateDTO = new FicheSuiviOuvrageDTO();
+        partialUpdateDTO.setNomBenef("Sawadogo");
+        partialUpdateDTO.setNbUsagers(10L);
+        partialUpdateDTO.setDateFinTravaux(ficheSuiviOuvrage.getDateFinTravaux());
+        prevision = BenchmarkFixtures.prevision(1);
+        previsionDTO = previsionMapper.toDto(prevision);
+        centre = BenchmarkFixtures.centre(1);
+        centreDTO = centreMapper.toDto(centre);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrageDTO ficheSuiviOuvrageToDto() {
+        return ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrage ficheSuiviOuvrageToEntity() {
+        return ficheSuiviOuvrageMapper.toEntity(ficheSuiviOuvrageDTO);
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrage ficheSuiviOuvragePartialUpdate() {
+        ficheSuiviOuvrageMapper.partialUpdate(partialUpdateTarget, partialUpdateDTO);
+        return partialUpdateTarget;
+    }
+
+    @Benchmark
+    public List<FicheSuiviOuvrageDTO> ficheSuiviOuvragePageToDto(Page page) {
+        return ficheSuiviOuvrageMapper.toDto(page.ficheSuiviOuvrages);
+    }
+
+    @Benchmark
+    public PrevisionDTO previsionToDto() {
+        return previsionMapper.toDto(prevision);
+    }
+
+    @Benchmark
+    public Prevision previsionToEntity() {
+        return previsionMapper.toEntity(previsionDTO);
+    }
+
+    @Benchmark
+    public CentreDTO centreToDto() {
+        return centreMapper.toDto(centre);
+    }
+
+    @Benchmark
+    public Centre centreToEntity() {
+        return centreMapper.toEntity(centreDTO);
+    }
+
+    /**
+     * A page of the list endpoint.
+     */
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({ "20", "1000" })
+        public int pageSize;
+
+        private List<FicheSuiviOuvrage> ficheSuiviOuvrages;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            ficheSuiviOuvrages = BenchmarkFixtures.ficheSuiviOuvrages(pageSize);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sidot.gesteau.aop.logging;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aspect for timing the execution of service and Web REST Spring components, the lightweight replacement of the
+ * {@link LoggingAspect} outside of the "dev" profile.
+ *
+ * Only a sample of the calls is recorded in the {@value #TIMER_NAME} timers, tagged with the class and the method.
+ * Every call is measured though, so that the ones slower than {@code application.timing.slow-threshold} are logged
+ * with the types of their arguments, whose values may hold personal data.
+ */
+@Aspect
+public class TimingAspect {
+
+    public static final String TIMER_NAME = "method.timed";
+
+    private final MeterRegistry meterRegistry;
+
+    private final double sampleRate;
+
+    private final long slowThresholdNanos;
+
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimingAspect(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = applicationProperties.getTiming().getSampleRate();
+        this.slowThresholdNanos = applicationProperties.getTiming().getSlowThreshold().toNanos();
+    }
+
+    /**
+     * Pointcut that matches all services and Web REST endpoints.
+     */
+    @Pointcut("within(@org.springframework.stereotype.Service *)" + " || within(@org.springframework.web.bind.annotation.RestController *)")
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's service and Web REST packages.
+     */
+    @Pointcut("within(com.sidot.gesteau.service..*)" + " || within(com.sidot.gesteau.web.rest..*)")
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method, and logs it when it is slow.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the method.
+     */
+    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                timer(joinPoint).record(duration, TimeUnit.NANOSECONDS);
+            }
+            if (duration > slowThresholdNanos) {
+                Logger log = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+                if (log.isWarnEnabled()) {
+                    log.warn(
+                        "Slow call: {}({}) took {} ms",
+                        joinPoint.getSignature().getName(),
+                        argumentTypes(joinPoint.getArgs()),
+                        TimeUnit.NANOSECONDS.toMillis(duration)
+                    );
+                }
+            }
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return timers.computeIfAbsent(
+            signature.getMethod(),
+            method ->
+                Timer
+                    .builder(TIMER_NAME)
+                    .description("Sampled execution time of the service and Web REST methods")
+                    .tag("class", signature.getDeclaringType().getSimpleName())
+                    .tag("method", method.getName())
+                    .register(meterRegistry)
+        );
+    }
+
+    private static String argumentTypes(Object[] args) {
+        return Arrays
+            .stream(args)
+            .map(arg -> arg == null ? "null" : arg.getClass().getSimpleName())
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,81 @@
+package com.sidot.gesteau.aop.metrics;
+
+import com.sidot.gesteau.service.QueryShapeMetrics;
+import com.sidot.gesteau.service.dto.KeysetSlice;
+import java.util.Collection;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import tech.jhipster.service.Criteria;
+
+/**
+ * Aspect recording the timings and row counts of the {@code findByCriteria} and {@code countByCriteria} methods of the
+ * QueryServices, per criteria shape and per source, the database or the criteria result cache.
+ * <p>
+ * The streaming {@code forEachByCriteria} methods are not recorded, their duration being mostly the one of the action
+ * applied to each row.
+ *
+ * @see QueryShapeMetrics
+ */
+@Aspect
+@Component
+public class QueryShapeAspect {
+
+    private final QueryShapeMetrics queryShapeMetrics;
+
+    public QueryShapeAspect(QueryShapeMetrics queryShapeMetrics) {
+        this.queryShapeMetrics = queryShapeMetrics;
+    }
+
+    /**
+     * Pointcut that matches the {@code findByCriteria} and {@code countByCriteria} methods of the QueryServices.
+     */
+    @Pointcut(
+        "execution(public * com.sidot.gesteau.service.*QueryService.findByCriteria(..))" +
+        " || execution(public * com.sidot.gesteau.service.*QueryService.countByCriteria(..))"
+    )
+    public void queryServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a query and counts its rows, tagged with whether the criteria result cache answered it.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the query, which is not recorded.
+     */
+    @Around("queryServicePointcut()")
+    public Object recordAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        if (args.length == 0 || !(args[0] == null || args[0] instanceof Criteria)) {
+            return joinPoint.proceed();
+        }
+        queryShapeMetrics.takeCacheHit();
+        long start = System.nanoTime();
+        Object result = joinPoint.proceed();
+        long durationNanos = System.nanoTime() - start;
+        String source = queryShapeMetrics.takeCacheHit() ? QueryShapeMetrics.CACHE_SOURCE : QueryShapeMetrics.DATABASE_SOURCE;
+        queryShapeMetrics.record((Criteria) args[0], joinPoint.getSignature().getName(), source, durationNanos, rows(result));
+        return result;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof KeysetSlice) {
+            return ((KeysetSlice<?>) result).getContent().size();
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,12 @@
 package com.sidot.gesteau.config;
 
+import com.hazelcast.config.InMemoryFormat;
+import com.sidot.gesteau.service.dto.PrevisionCategory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +16,884 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final Pagination pagination = new Pagination();
+
+    private final Export export = new Export();
+
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    private final Realisation realisation = new Realisation();
+
+    private final Geo geo = new Geo();
+
+    private final Jwt jwt = new Jwt();
+
+    private final Timing timing = new Timing();
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final Hibernate hibernate = new Hibernate();
+
+    private final SyntheticData syntheticData = new SyntheticData();
+
+    private final Cache cache = new Cache();
+
+    private final CriteriaCache criteriaCache = new CriteriaCache();
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public Realisation getRealisation() {
+        return realisation;
+    }
+
+    public Geo getGeo() {
+        return geo;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public Timing getTiming() {
+        return timing;
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public Hibernate getHibernate() {
+        return hibernate;
+    }
+
+    public SyntheticData getSyntheticData() {
+        return syntheticData;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CriteriaCache getCriteriaCache() {
+        return criteriaCache;
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of rows validated, inserted and indexed together. Keep it a multiple of
+         * {@code hibernate.jdbc.batch_size} so that every flush sends full JDBC batches.
+         */
+        private int chunkSize = 500;
+
+        private char csvSeparator = ';';
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public char getCsvSeparator() {
+            return csvSeparator;
+        }
+
+        public void setCsvSeparator(char csvSeparator) {
+            this.csvSeparator = csvSeparator;
+        }
+    }
+
+    public static class Pagination {
+
+        /**
+         * Maximum number of matching rows read by the {@code estimated} count mode of a filtered criteria query.
+         */
+        private int countCap = 1000;
+
+        public int getCountCap() {
+            return countCap;
+        }
+
+        public void setCountCap(int countCap) {
+            this.countCap = countCap;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * Number of rows fetched from the database cursor at once, the persistence context is cleared as often.
+         */
+        private int fetchSize = 1000;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class SearchIndex {
+
+        /**
+         * Whether this instance relays the search index outbox to Elasticsearch.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between two polls of the outbox, as an ISO-8601 duration (read by {@code @Scheduled}).
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of outbox events relayed in a single transaction.
+         */
+        private int batchSize = 500;
+
+        private Duration retryInitialInterval = Duration.ofSeconds(5);
+
+        private Duration retryMaxInterval = Duration.ofMinutes(10);
+
+        private final Reindex reindex = new Reindex();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getRetryInitialInterval() {
+            return retryInitialInterval;
+        }
+
+        public void setRetryInitialInterval(Duration retryInitialInterval) {
+            this.retryInitialInterval = retryInitialInterval;
+        }
+
+        public Duration getRetryMaxInterval() {
+            return retryMaxInterval;
+        }
+
+        public void setRetryMaxInterval(Duration retryMaxInterval) {
+            this.retryMaxInterval = retryMaxInterval;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public static class Reindex {
+
+            /**
+             * Number of id-range partitions read and indexed at the same time, each holding a database connection.
+             */
+            private int parallelism = 4;
+
+            /**
+             * Number of id-range partitions a table is split into, more partitions than workers balance uneven ranges.
+             */
+            private int partitions = 16;
+
+            /**
+             * Number of documents sent in a single Elasticsearch bulk request.
+             */
+            private int bulkSize = 500;
+
+            private int fetchSize = 1000;
+
+            /**
+             * Maximum number of documents sent to Elasticsearch per second by a job, {@code 0} for no limit.
+             */
+            private int maxDocumentsPerSecond = 0;
+
+            /**
+             * Delay between two saves of the partition checkpoints a job resumes from.
+             */
+            private Duration checkpointInterval = Duration.ofSeconds(5);
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getPartitions() {
+                return partitions;
+            }
+
+            public void setPartitions(int partitions) {
+                this.partitions = partitions;
+            }
+
+            public int getBulkSize() {
+                return bulkSize;
+            }
+
+            public void setBulkSize(int bulkSize) {
+                this.bulkSize = bulkSize;
+            }
+
+            public int getFetchSize() {
+                return fetchSize;
+            }
+
+            public void setFetchSize(int fetchSize) {
+                this.fetchSize = fetchSize;
+            }
+
+            public int getMaxDocumentsPerSecond() {
+                return maxDocumentsPerSecond;
+            }
+
+            public void setMaxDocumentsPerSecond(int maxDocumentsPerSecond) {
+                this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+            }
+
+            public Duration getCheckpointInterval() {
+                return checkpointInterval;
+            }
+
+            public void setCheckpointInterval(Duration checkpointInterval) {
+                this.checkpointInterval = checkpointInterval;
+            }
+        }
+    }
+
+    public static class Realisation {
+
+        /**
+         * How long the prevision versus realisation of a given scope is cached.
+         */
+        private int timeToLiveSeconds = 300;
+
+        /**
+         * The libelles of the NatureOuvrages counted as realisations of each planned category, ignoring the case.
+         */
+        private final Map<PrevisionCategory, List<String>> natures = new EnumMap<>(PrevisionCategory.class);
+
+        /**
+         * How long the in-memory realisation counters of a prevision are trusted before being reloaded, which bounds
+         * how long the writes of the other instances stay invisible.
+         */
+        private Duration counterRefreshInterval = Duration.ofMinutes(1);
+
+        /**
+         * When the realisation counters are rebuilt from the FicheSuiviOuvrages, {@code -} to disable.
+         */
+        private String reconciliationCron = "0 0 3 * * ?";
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public Map<PrevisionCategory, List<String>> getNatures() {
+            return natures;
+        }
+
+        public Duration getCounterRefreshInterval() {
+            return counterRefreshInterval;
+        }
+
+        public void setCounterRefreshInterval(Duration counterRefreshInterval) {
+            this.counterRefreshInterval = counterRefreshInterval;
+        }
+
+        public String getReconciliationCron() {
+            return reconciliationCron;
+        }
+
+        public void setReconciliationCron(String reconciliationCron) {
+            this.reconciliationCron = reconciliationCron;
+        }
+    }
+
+    public static class Geo {
+
+        public enum Backend {
+            ELASTICSEARCH,
+            MEMORY,
+        }
+
+        /**
+         * Where the spatial searches are run, the in-memory index also serves as a fallback when Elasticsearch fails.
+         */
+        private Backend backend = Backend.ELASTICSEARCH;
+
+        /**
+         * Maximum number of ouvrages a spatial search can match before the criteria filters are applied.
+         */
+        private int maxCandidates = 5000;
+
+        /**
+         * Size of the cells of the in-memory index, in degrees (0.05 is about 5.5 km at the equator).
+         */
+        private double cellSizeDegrees = 0.05;
+
+        /**
+         * Delay between two rebuilds of the in-memory index and map clusters from the database, which catch up with the
+         * other instances.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Highest geohash precision the map clusters are counted at, 7 is about 150 m. Beyond it the map should show
+         * the ouvrages themselves.
+         */
+        private int clusterMaxPrecision = 7;
+
+        /**
+         * Number of rows fetched from the database cursor at once when the in-memory index and map clusters are rebuilt.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Maximum number of located ouvrages held by the in-memory index, about 200 bytes of heap each. Beyond it, the
+         * spatial searches require Elasticsearch.
+         */
+        private int memoryMaxPositions = 500_000;
+
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(Backend backend) {
+            this.backend = backend;
+        }
+
+        public int getMaxCandidates() {
+            return maxCandidates;
+        }
+
+        public void setMaxCandidates(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+        }
+
+        public double getCellSizeDegrees() {
+            return cellSizeDegrees;
+        }
+
+        public void setCellSizeDegrees(double cellSizeDegrees) {
+            this.cellSizeDegrees = cellSizeDegrees;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public int getClusterMaxPrecision() {
+            return clusterMaxPrecision;
+        }
+
+        public void setClusterMaxPrecision(int clusterMaxPrecision) {
+            this.clusterMaxPrecision = clusterMaxPrecision;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getMemoryMaxPositions() {
+            return memoryMaxPositions;
+        }
+
+        public void setMemoryMaxPositions(int memoryMaxPositions) {
+            this.memoryMaxPositions = memoryMaxPositions;
+        }
+    }
+
+    public static class Jwt {
+
+        /**
+         * Maximum number of verified tokens whose authentication is kept, {@code 0} to parse every token again.
+         */
+        private int cacheMaxSize = 10000;
+
+        public int getCacheMaxSize() {
+            return cacheMaxSize;
+        }
+
+        public void setCacheMaxSize(int cacheMaxSize) {
+            this.cacheMaxSize = cacheMaxSize;
+        }
+    }
+
+    public static class Timing {
+
+        /**
+         * Whether the service and Web REST methods are timed when the "dev" profile, and so the logging aspect, is not active.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of the calls recorded in the timers, between {@code 0} and {@code 1}.
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * Calls lasting longer are logged with the types of their arguments, whether they are sampled or not.
+         */
+        private Duration slowThreshold = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+    }
+
+    public static class QueryMetrics {
+
+        /**
+         * Distinct criteria shapes tagged in the query metrics, the following ones are tagged {@code other}.
+         */
+        private int maxShapes = 500;
+
+        public int getMaxShapes() {
+            return maxShapes;
+        }
+
+        public void setMaxShapes(int maxShapes) {
+            this.maxShapes = maxShapes;
+        }
+    }
+
+    public static class Hibernate {
+
+        /**
+         * Whether the Hibernate statistics are collected at startup, they can be toggled at runtime by the "hibernate"
+         * management endpoint.
+         */
+        private boolean statisticsEnabled = false;
+
+        /**
+         * SQL statements lasting longer are logged by the {@code org.hibernate.SQL_SLOW} logger, {@code 0} to disable it.
+         */
+        private Duration slowQueryThreshold = Duration.ofSeconds(1);
+
+        public boolean isStatisticsEnabled() {
+            return statisticsEnabled;
+        }
+
+        public void setStatisticsEnabled(boolean statisticsEnabled) {
+            this.statisticsEnabled = statisticsEnabled;
+        }
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+    }
+
+    public static class SyntheticData {
+
+        /**
+         * DirectionRegionales generated, each with its CentreRegroupements and their Centres.
+         */
+        private int directions = 13;
+
+        private int regroupementsPerDirection = 3;
+
+        private int centresPerRegroupement = 8;
+
+        /**
+         * The Annees of the generated Previsions span {@code years} years from {@code firstYear}.
+         */
+        private int firstYear = 2016;
+
+        private int years = 6;
+
+        private int macons = 2000;
+
+        private long fiches = 100_000;
+
+        /**
+         * FicheSuiviOuvrages inserted per JDBC batch and per transaction.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Exponent of the Zipf distribution of the Previsions, Macons and lookups among the FicheSuiviOuvrages, {@code 0}
+         * for a uniform distribution.
+         */
+        private double skew = 1.0;
+
+        private long seed = 42;
+
+        /**
+         * Whether the Elasticsearch indices are rebuilt in bulk once the data is generated.
+         */
+        private boolean reindex = true;
+
+        public int getDirections() {
+            return directions;
+        }
+
+        public void setDirections(int directions) {
+            this.directions = directions;
+        }
+
+        public int getRegroupementsPerDirection() {
+            return regroupementsPerDirection;
+        }
+
+        public void setRegroupementsPerDirection(int regroupementsPerDirection) {
+            this.regroupementsPerDirection = regroupementsPerDirection;
+        }
+
+        public int getCentresPerRegroupement() {
+            return centresPerRegroupement;
+        }
+
+        public void setCentresPerRegroupement(int centresPerRegroupement) {
+            this.centresPerRegroupement = centresPerRegroupement;
+        }
+
+        public int getFirstYear() {
+            return firstYear;
+        }
+
+        public void setFirstYear(int firstYear) {
+            this.firstYear = firstYear;
+        }
+
+        public int getYears() {
+            return years;
+        }
+
+        public void setYears(int years) {
+            this.years = years;
+        }
+
+        public int getMacons() {
+            return macons;
+        }
+
+        public void setMacons(int macons) {
+            this.macons = macons;
+        }
+
+        public long getFiches() {
+            return fiches;
+        }
+
+        public void setFiches(long fiches) {
+            this.fiches = fiches;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public double getSkew() {
+            return skew;
+        }
+
+        public void setSkew(double skew) {
+            this.skew = skew;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public boolean isReindex() {
+            return reindex;
+        }
+
+        public void setReindex(boolean reindex) {
+            this.reindex = reindex;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Settings of every Hibernate second-level cache region, unless overridden in {@code regions}.
+         */
+        private final Region domainDefaults = new Region();
+
+        /**
+         * Settings of the regions, by entity simple class name or {@code Entity.collection} role.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final NearCache nearCache = new NearCache();
+
+        public Region getDomainDefaults() {
+            return domainDefaults;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public NearCache getNearCache() {
+            return nearCache;
+        }
+
+        /**
+         * The settings of the Hazelcast map of a region, {@code null} when inherited.
+         */
+        public static class Region {
+
+            /**
+             * Entries kept by each member before the least recently used ones are evicted, {@code 0} for no bound.
+             */
+            private Integer maxEntries;
+
+            private Integer timeToLiveSeconds;
+
+            private Integer backupCount;
+
+            private InMemoryFormat inMemoryFormat;
+
+            /**
+             * Whether every member keeps a near-cache of the region, invalidated when an entry changes.
+             */
+            private Boolean nearCache;
+
+            public Integer getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Integer maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Integer getBackupCount() {
+                return backupCount;
+            }
+
+            public void setBackupCount(Integer backupCount) {
+                this.backupCount = backupCount;
+            }
+
+            public InMemoryFormat getInMemoryFormat() {
+                return inMemoryFormat;
+            }
+
+            public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+                this.inMemoryFormat = inMemoryFormat;
+            }
+
+            public Boolean getNearCache() {
+                return nearCache;
+            }
+
+            public void setNearCache(Boolean nearCache) {
+                this.nearCache = nearCache;
+            }
+        }
+
+        public static class NearCache {
+
+            /**
+             * Entries kept by the near-cache of a region on each member.
+             */
+            private int maxEntries = 10000;
+
+            /**
+             * Bounds the staleness of an entry whose invalidation was lost, {@code 0} to keep entries until invalidated.
+             */
+            private int timeToLiveSeconds = 600;
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class CriteriaCache {
+
+        /**
+         * Whether the pages and counts of the criteria listings are cached in the cluster.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Bounds the memory used by the results of outdated versions, which are never read again.
+         */
+        private int timeToLiveSeconds = 300;
+
+        /**
+         * Results kept by each member of every cache before the least recently used ones are evicted.
+         */
+        private int maxEntries = 5000;
+
+        private final Count count = new Count();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Count getCount() {
+            return count;
+        }
+
+        public static class Count {
+
+            /**
+             * Whether the counts of the criteria listings are cached in the cluster, and the unfiltered ones kept in memory.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Bounds the staleness of a count whose entities were written outside the services.
+             */
+            private int timeToLiveSeconds = 60;
+
+            /**
+             * How long the in-memory count of all the entities of a type is trusted before being reloaded, which bounds
+             * how long the inserts and deletes of the other instances stay invisible.
+             */
+            private Duration counterRefreshInterval = Duration.ofMinutes(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Duration getCounterRefreshInterval() {
+                return counterRefreshInterval;
+            }
+
+            public void setCounterRefreshInterval(Duration counterRefreshInterval) {
+                this.counterRefreshInterval = counterRefreshInterval;
+            }
+        }
+    }
+}
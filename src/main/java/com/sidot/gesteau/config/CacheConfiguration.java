@@ -3,7 +3,11 @@ package com.sidot.gesteau.config;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.sidot.gesteau.service.CriteriaResultCache;
+import com.sidot.gesteau.service.PrevisionRealisationService;
+import java.util.Map;
 import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +31,8 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    public static final String DOMAIN_REGION_PREFIX = "com.sidot.gesteau.domain.";
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
@@ -38,12 +44,20 @@ public class CacheConfiguration {
 
     private final DiscoveryClient discoveryClient;
 
+    private final ApplicationProperties applicationProperties;
+
     private Registration registration;
 
-    public CacheConfiguration(Environment env, ServerProperties serverProperties, DiscoveryClient discoveryClient) {
+    public CacheConfiguration(
+        Environment env,
+        ServerProperties serverProperties,
+        DiscoveryClient discoveryClient,
+        ApplicationProperties applicationProperties
+    ) {
         this.env = env;
         this.serverProperties = serverProperties;
         this.discoveryClient = discoveryClient;
+        this.applicationProperties = applicationProperties;
     }
 
     @Autowired(required = false)
@@ -107,6 +121,17 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        for (Map.Entry<String, ApplicationProperties.Cache.Region> region : applicationProperties.getCache().getRegions().entrySet()) {
+            config.addMapConfig(initializeRegionMapConfig(DOMAIN_REGION_PREFIX + region.getKey(), region.getValue(), jHipsterProperties));
+        }
+        config.addMapConfig(initializePrevisionRealisationMapConfig());
+        ApplicationProperties.CriteriaCache criteriaCache = applicationProperties.getCriteriaCache();
+        config.addMapConfig(
+            initializeCriteriaResultMapConfig(CriteriaResultCache.RESULT_CACHE_PREFIX, criteriaCache.getTimeToLiveSeconds())
+        );
+        config.addMapConfig(
+            initializeCriteriaResultMapConfig(CriteriaResultCache.COUNT_CACHE_PREFIX, criteriaCache.getCount().getTimeToLiveSeconds())
+        );
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -141,8 +166,76 @@ public class CacheConfiguration {
     }
 
     private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties) {
-        MapConfig mapConfig = new MapConfig("com.sidot.gesteau.domain.*");
-        mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
+        return initializeRegionMapConfig(DOMAIN_REGION_PREFIX + "*", new ApplicationProperties.Cache.Region(), jHipsterProperties);
+    }
+
+    /**
+     * The map of Hibernate second-level cache regions, the settings missing from the region are taken from
+     * {@code application.cache.domain-defaults}, then from {@code jhipster.cache.hazelcast}.
+     */
+    private MapConfig initializeRegionMapConfig(
+        String name,
+        ApplicationProperties.Cache.Region region,
+        JHipsterProperties jHipsterProperties
+    ) {
+        ApplicationProperties.Cache.Region defaults = applicationProperties.getCache().getDomainDefaults();
+        JHipsterProperties.Cache.Hazelcast hazelcast = jHipsterProperties.getCache().getHazelcast();
+        MapConfig mapConfig = new MapConfig(name);
+        mapConfig.setTimeToLiveSeconds(
+            ObjectUtils.firstNonNull(region.getTimeToLiveSeconds(), defaults.getTimeToLiveSeconds(), hazelcast.getTimeToLiveSeconds())
+        );
+        mapConfig.setBackupCount(ObjectUtils.firstNonNull(region.getBackupCount(), defaults.getBackupCount(), hazelcast.getBackupCount()));
+        mapConfig.setInMemoryFormat(
+            ObjectUtils.firstNonNull(region.getInMemoryFormat(), defaults.getInMemoryFormat(), InMemoryFormat.BINARY)
+        );
+
+        int maxEntries = ObjectUtils.firstNonNull(region.getMaxEntries(), defaults.getMaxEntries(), 0);
+        if (maxEntries > 0) {
+            mapConfig
+                .getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(maxEntries);
+        }
+        if (ObjectUtils.firstNonNull(region.getNearCache(), defaults.getNearCache(), false)) {
+            mapConfig.setNearCacheConfig(initializeNearCacheConfig());
+        }
+        return mapConfig;
+    }
+
+    /**
+     * Near-cache of a read-mostly region: entries are kept deserialized, including those owned by the member itself,
+     * and dropped when they change on any member.
+     */
+    private NearCacheConfig initializeNearCacheConfig() {
+        ApplicationProperties.Cache.NearCache properties = applicationProperties.getCache().getNearCache();
+        NearCacheConfig nearCacheConfig = new NearCacheConfig()
+            .setInMemoryFormat(InMemoryFormat.OBJECT)
+            .setInvalidateOnChange(true)
+            .setCacheLocalEntries(true)
+            .setTimeToLiveSeconds(properties.getTimeToLiveSeconds());
+        nearCacheConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+            .setSize(properties.getMaxEntries());
+        return nearCacheConfig;
+    }
+
+    private MapConfig initializePrevisionRealisationMapConfig() {
+        MapConfig mapConfig = new MapConfig(PrevisionRealisationService.PREVISION_REALISATION_CACHE);
+        mapConfig.setTimeToLiveSeconds(applicationProperties.getRealisation().getTimeToLiveSeconds());
+        return mapConfig;
+    }
+
+    private MapConfig initializeCriteriaResultMapConfig(String prefix, int timeToLiveSeconds) {
+        MapConfig mapConfig = new MapConfig(prefix + "*");
+        mapConfig.setTimeToLiveSeconds(timeToLiveSeconds);
+        mapConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(applicationProperties.getCriteriaCache().getMaxEntries());
         return mapConfig;
     }
 
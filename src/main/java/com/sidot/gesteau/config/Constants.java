@@ -7,5 +7,10 @@ public final class Constants {
 
     public static final String SYSTEM = "system";
 
+    /**
+     * Spring profile generating a production-scale dataset at startup, see {@code application.synthetic-data}.
+     */
+    public static final String SPRING_PROFILE_SYNTHETIC_DATA = "synthetic-data";
+
     private Constants() {}
 }
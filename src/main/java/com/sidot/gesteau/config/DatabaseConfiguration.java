@@ -1,8 +1,10 @@
 package com.sidot.gesteau.config;
 
 import java.sql.SQLException;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -43,6 +45,22 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Log the SQL statements slower than {@code application.hibernate.slow-query-threshold}.
+     *
+     * @param applicationProperties the application properties.
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryLogCustomizer(ApplicationProperties applicationProperties) {
+        long thresholdMillis = applicationProperties.getHibernate().getSlowQueryThreshold().toMillis();
+        return hibernateProperties -> {
+            if (thresholdMillis > 0) {
+                hibernateProperties.put(AvailableSettings.LOG_SLOW_QUERY, thresholdMillis);
+            }
+        };
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
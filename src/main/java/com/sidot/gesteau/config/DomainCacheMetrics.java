@@ -0,0 +1,109 @@
+package com.sidot.gesteau.config;
+
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.DistributedObjectEvent;
+import com.hazelcast.core.DistributedObjectListener;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.query.Predicates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.HazelcastCacheMetrics;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the metrics of the Hazelcast maps of the Hibernate second-level cache regions, as they are created.
+ * <p>
+ * Every region gets the {@link HazelcastCacheMetrics} of Micrometer (gets, puts, entries, and the requests and
+ * evictions of its near-cache when it has one), and the {@code cache.evictions} and {@code cache.expirations} counters
+ * of the entries owned by this member, which Hazelcast does not report in its statistics.
+ */
+@Component
+public class DomainCacheMetrics implements DistributedObjectListener {
+
+    private static final Tags CACHE_MANAGER = Tags.of("cacheManager", "hibernate");
+
+    private final Logger log = LoggerFactory.getLogger(DomainCacheMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> monitored = ConcurrentHashMap.newKeySet();
+
+    public DomainCacheMetrics(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        hazelcastInstance.addDistributedObjectListener(this);
+        for (DistributedObject distributedObject : hazelcastInstance.getDistributedObjects()) {
+            if (distributedObject instanceof IMap) {
+                monitor((IMap<?, ?>) distributedObject);
+            }
+        }
+    }
+
+    @Override
+    public void distributedObjectCreated(DistributedObjectEvent event) {
+        if (event.getDistributedObject() instanceof IMap) {
+            monitor((IMap<?, ?>) event.getDistributedObject());
+        }
+    }
+
+    @Override
+    public void distributedObjectDestroyed(DistributedObjectEvent event) {
+        // The meters of a region are kept, Hibernate does not destroy its regions while running
+    }
+
+    /**
+     * Bind the meters of a region, once.
+     *
+     * @param map the map, ignored if it does not hold a region of the domain.
+     */
+    <K, V> void monitor(IMap<K, V> map) {
+        String name = map.getName();
+        if (!name.startsWith(CacheConfiguration.DOMAIN_REGION_PREFIX) || !monitored.add(name)) {
+            return;
+        }
+        log.debug("Publishing the metrics of the {} cache region", name);
+        new HazelcastCacheMetrics(map, CACHE_MANAGER).bindTo(meterRegistry);
+        Tags tags = CACHE_MANAGER.and("cache", name);
+        Counter evictions = Counter
+            .builder("cache.evictions")
+            .description("Entries of the cache owned by this member evicted by its size bound")
+            .tags(tags)
+            .register(meterRegistry);
+        Counter expirations = Counter
+            .builder("cache.expirations")
+            .description("Entries of the cache owned by this member expired by its time to live")
+            .tags(tags)
+            .register(meterRegistry);
+        map.addLocalEntryListener(new EvictionListener<K, V>(evictions, expirations), Predicates.alwaysTrue(), false);
+    }
+
+    private static final class EvictionListener<K, V> implements EntryEvictedListener<K, V>, EntryExpiredListener<K, V> {
+
+        private final Counter evictions;
+
+        private final Counter expirations;
+
+        private EvictionListener(Counter evictions, Counter expirations) {
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<K, V> event) {
+            evictions.increment();
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<K, V> event) {
+            expirations.increment();
+        }
+    }
+}
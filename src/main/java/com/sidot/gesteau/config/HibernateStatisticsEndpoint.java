@@ -0,0 +1,48 @@
+package com.sidot.gesteau.config;
+
+import com.sidot.gesteau.service.HibernateStatisticsService;
+import com.sidot.gesteau.service.dto.HibernateStatisticsDTO;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint of the Hibernate statistics, exposed as {@code /management/hibernate}.
+ * <p>
+ * {@code GET} with an optional {@code limit} (20 by default) of slowest queries returns the statistics, {@code POST}
+ * with an optional {@code enabled} flag starts or stops collecting them, and with {@code clear} resets them.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HibernateStatisticsService hibernateStatisticsService;
+
+    public HibernateStatisticsEndpoint(HibernateStatisticsService hibernateStatisticsService) {
+        this.hibernateStatisticsService = hibernateStatisticsService;
+    }
+
+    @ReadOperation
+    public HibernateStatisticsDTO statistics(@Nullable Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidEndpointRequestException("The limit must be positive: " + limit, "Invalid limit");
+        }
+        return hibernateStatisticsService.getStatistics(limit == null ? DEFAULT_LIMIT : limit);
+    }
+
+    @WriteOperation
+    public HibernateStatisticsDTO configure(@Nullable Boolean enabled, @Nullable Boolean clear) {
+        if (enabled != null) {
+            hibernateStatisticsService.setEnabled(enabled);
+        }
+        if (Boolean.TRUE.equals(clear)) {
+            hibernateStatisticsService.clear();
+        }
+        return hibernateStatisticsService.getStatistics(DEFAULT_LIMIT);
+    }
+}
@@ -1,6 +1,9 @@
 package com.sidot.gesteau.config;
 
 import com.sidot.gesteau.aop.logging.LoggingAspect;
+import com.sidot.gesteau.aop.logging.TimingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import tech.jhipster.config.JHipsterConstants;
@@ -14,4 +17,11 @@ public class LoggingAspectConfiguration {
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    @Profile("!" + JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+    @ConditionalOnProperty(prefix = "application.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TimingAspect timingAspect(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        return new TimingAspect(applicationProperties, meterRegistry);
+    }
 }
@@ -0,0 +1,38 @@
+package com.sidot.gesteau.config;
+
+import com.sidot.gesteau.service.QueryShapeMetrics;
+import com.sidot.gesteau.service.dto.QueryShapeDTO;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint listing the slowest criteria shapes of the QueryServices, exposed as
+ * {@code /management/queryshapes}.
+ * <p>
+ * {@code GET} with an optional {@code limit} (20 by default) returns the shapes by decreasing mean time, the filtered
+ * fields needing an index being the ones of the first shapes.
+ */
+@Component
+@Endpoint(id = "queryshapes")
+public class QueryShapeEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final QueryShapeMetrics queryShapeMetrics;
+
+    public QueryShapeEndpoint(QueryShapeMetrics queryShapeMetrics) {
+        this.queryShapeMetrics = queryShapeMetrics;
+    }
+
+    @ReadOperation
+    public List<QueryShapeDTO> slowest(@Nullable Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidEndpointRequestException("The limit must be positive: " + limit, "Invalid limit");
+        }
+        return queryShapeMetrics.findSlowest(limit == null ? DEFAULT_LIMIT : limit);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sidot.gesteau.config;
+
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.dto.ExportFormat;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configure the converters of the enum request parameters, so that they accept the lowercase values.
+ */
+@Configuration
+public class RequestParameterConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CountMode.class, CountMode::fromParameter);
+        registry.addConverter(String.class, ExportFormat.class, ExportFormat::fromParameter);
+    }
+}
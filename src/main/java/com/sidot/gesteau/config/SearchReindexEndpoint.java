@@ -0,0 +1,42 @@
+package com.sidot.gesteau.config;
+
+import com.sidot.gesteau.service.SearchReindexService;
+import com.sidot.gesteau.service.dto.SearchReindexJobDTO;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint rebuilding the Elasticsearch indices, exposed as {@code /management/searchreindex}.
+ * <p>
+ * {@code GET} returns the progress of the reindex jobs, {@code POST} with an optional {@code entity} (simple class
+ * name of an indexed entity, all of them when missing) and {@code restart} flag queues new jobs.
+ */
+@Component
+@Endpoint(id = "searchreindex")
+public class SearchReindexEndpoint {
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexEndpoint(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    @ReadOperation
+    public List<SearchReindexJobDTO> jobs() {
+        return searchReindexService.findAll();
+    }
+
+    @WriteOperation
+    public List<SearchReindexJobDTO> reindex(@Nullable String entity, @Nullable Boolean restart) {
+        try {
+            return searchReindexService.reindex(entity, Boolean.TRUE.equals(restart));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Not an indexed entity");
+        }
+    }
+}
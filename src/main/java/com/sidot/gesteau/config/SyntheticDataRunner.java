@@ -0,0 +1,29 @@
+package com.sidot.gesteau.config;
+
+import com.sidot.gesteau.service.SyntheticDataGenerator;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generate a production-scale dataset at startup, when the {@link Constants#SPRING_PROFILE_SYNTHETIC_DATA} profile is
+ * active, as configured by {@code application.synthetic-data}.
+ */
+@Component
+@Profile(Constants.SPRING_PROFILE_SYNTHETIC_DATA)
+public class SyntheticDataRunner implements CommandLineRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SyntheticDataRunner(SyntheticDataGenerator syntheticDataGenerator, ApplicationProperties applicationProperties) {
+        this.syntheticDataGenerator = syntheticDataGenerator;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public void run(String... args) {
+        syntheticDataGenerator.generate(applicationProperties.getSyntheticData());
+    }
+}
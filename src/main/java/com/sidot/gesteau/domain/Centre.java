@@ -24,6 +24,13 @@ public class Centre implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    /**
+     * Incremented by Hibernate on every update: the optimistic lock of the entity, and its {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
     private String libelle;
@@ -58,6 +65,14 @@ public class Centre implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
@@ -26,6 +26,13 @@ public class CentreRegroupement implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    /**
+     * Incremented by Hibernate on every update: the optimistic lock of the entity, and its {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
     private String libelle;
@@ -61,6 +68,14 @@ public class CentreRegroupement implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
@@ -26,6 +26,13 @@ public class DirectionRegionale implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    /**
+     * Incremented by Hibernate on every update: the optimistic lock of the entity, and its {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
     private String libelle;
@@ -57,6 +64,14 @@ public class DirectionRegionale implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
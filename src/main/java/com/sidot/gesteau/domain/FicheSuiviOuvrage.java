@@ -1,5 +1,6 @@
 package com.sidot.gesteau.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import java.time.Instant;
@@ -8,6 +9,8 @@ import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 
 /**
  * A FicheSuiviOuvrage.
@@ -25,6 +28,13 @@ public class FicheSuiviOuvrage implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    /**
+     * Incremented by Hibernate on every update: the optimistic lock of the entity, and its {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @NotNull
     @Column(name = "prj_appuis", nullable = false)
     private String prjAppuis;
@@ -140,6 +150,14 @@ public class FicheSuiviOuvrage implements Serializable {
     @JsonIgnoreProperties(value = { "ficheSuiviOuvrages" }, allowSetters = true)
     private Prefabricant prefabricant;
 
+    /**
+     * The position as an Elasticsearch {@code geo_point}, derived from the latitude and longitude and not persisted.
+     */
+    @Transient
+    @JsonIgnore
+    @GeoPointField
+    private GeoPoint location;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -154,6 +172,14 @@ public class FicheSuiviOuvrage implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getPrjAppuis() {
         return this.prjAppuis;
     }
@@ -531,6 +557,17 @@ public class FicheSuiviOuvrage implements Serializable {
         this.prefabricant = prefabricant;
     }
 
+    public GeoPoint getLocation() {
+        return this.location;
+    }
+
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void updateLocation() {
+        this.location = latitude == null || longitude == null ? null : new GeoPoint(latitude, longitude);
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
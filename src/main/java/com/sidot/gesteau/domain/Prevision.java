@@ -26,6 +26,13 @@ public class Prevision implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    /**
+     * Incremented by Hibernate on every update: the optimistic lock of the entity, and its {@code ETag}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @NotNull
     @Column(name = "nb_latrine", nullable = false)
     private Integer nbLatrine;
@@ -83,6 +90,14 @@ public class Prevision implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Integer getNbLatrine() {
         return this.nbLatrine;
     }
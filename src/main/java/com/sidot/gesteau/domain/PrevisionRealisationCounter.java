@@ -0,0 +1,155 @@
+package com.sidot.gesteau.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.*;
+
+/**
+ * Running count of the FicheSuiviOuvrages of a {@link Prevision} for a {@link NatureOuvrage}.
+ * <p>
+ * Maintained in the transaction writing the FicheSuiviOuvrages, and rebuilt from them by the reconciliation job.
+ */
+@Entity
+@Table(name = "prevision_realisation_counter")
+@IdClass(PrevisionRealisationCounter.Key.class)
+public class PrevisionRealisationCounter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "prevision_id", nullable = false)
+    private Long previsionId;
+
+    @Id
+    @Column(name = "natureouvrage_id", nullable = false)
+    private Long natureOuvrageId;
+
+    @Column(name = "realised", nullable = false)
+    private long realised;
+
+    public Long getPrevisionId() {
+        return this.previsionId;
+    }
+
+    public PrevisionRealisationCounter previsionId(Long previsionId) {
+        this.previsionId = previsionId;
+        return this;
+    }
+
+    public void setPrevisionId(Long previsionId) {
+        this.previsionId = previsionId;
+    }
+
+    public Long getNatureOuvrageId() {
+        return this.natureOuvrageId;
+    }
+
+    public PrevisionRealisationCounter natureOuvrageId(Long natureOuvrageId) {
+        this.natureOuvrageId = natureOuvrageId;
+        return this;
+    }
+
+    public void setNatureOuvrageId(Long natureOuvrageId) {
+        this.natureOuvrageId = natureOuvrageId;
+    }
+
+    public long getRealised() {
+        return this.realised;
+    }
+
+    public PrevisionRealisationCounter realised(long realised) {
+        this.realised = realised;
+        return this;
+    }
+
+    public void setRealised(long realised) {
+        this.realised = realised;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrevisionRealisationCounter)) {
+            return false;
+        }
+        PrevisionRealisationCounter other = (PrevisionRealisationCounter) o;
+        return previsionId != null && previsionId.equals(other.previsionId) && Objects.equals(natureOuvrageId, other.natureOuvrageId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PrevisionRealisationCounter{" +
+            "previsionId=" + getPrevisionId() +
+            ", natureOuvrageId=" + getNatureOuvrageId() +
+            ", realised=" + getRealised() +
+            "}";
+    }
+
+    /**
+     * The (prevision, nature) a FicheSuiviOuvrage is counted for.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long previsionId;
+
+        private Long natureOuvrageId;
+
+        protected Key() {}
+
+        public Key(Long previsionId, Long natureOuvrageId) {
+            this.previsionId = previsionId;
+            this.natureOuvrageId = natureOuvrageId;
+        }
+
+        /**
+         * @return the key the ficheSuiviOuvrage is counted for, {@code null} if it has no prevision or no nature.
+         */
+        public static Key of(FicheSuiviOuvrage ficheSuiviOuvrage) {
+            if (ficheSuiviOuvrage.getPrevision() == null || ficheSuiviOuvrage.getNatureouvrage() == null) {
+                return null;
+            }
+            return new Key(ficheSuiviOuvrage.getPrevision().getId(), ficheSuiviOuvrage.getNatureouvrage().getId());
+        }
+
+        public Long getPrevisionId() {
+            return previsionId;
+        }
+
+        public Long getNatureOuvrageId() {
+            return natureOuvrageId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(previsionId, other.previsionId) && Objects.equals(natureOuvrageId, other.natureOuvrageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(previsionId, natureOuvrageId);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + previsionId + ", " + natureOuvrageId + ")";
+        }
+    }
+}
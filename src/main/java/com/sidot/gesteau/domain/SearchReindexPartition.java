@@ -0,0 +1,186 @@
+package com.sidot.gesteau.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * Checkpoint of a bulk reindex: an id range of an indexed entity and how far it has been reindexed.
+ * <p>
+ * The range is {@code (rangeStart, rangeEnd]}, {@code lastId} being the last id already sent to Elasticsearch.
+ */
+@Entity
+@Table(name = "search_reindex_partition")
+public class SearchReindexPartition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    private Long id;
+
+    @NotNull
+    @Size(max = 100)
+    @Column(name = "entity_type", length = 100, nullable = false)
+    private String entityType;
+
+    @NotNull
+    @Column(name = "range_start", nullable = false)
+    private Long rangeStart;
+
+    @NotNull
+    @Column(name = "range_end", nullable = false)
+    private Long rangeEnd;
+
+    @NotNull
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "indexed", nullable = false)
+    private long indexed;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @NotNull
+    @Column(name = "last_modified_date", nullable = false)
+    private Instant lastModifiedDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public SearchReindexPartition id(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getEntityType() {
+        return this.entityType;
+    }
+
+    public SearchReindexPartition entityType(String entityType) {
+        this.entityType = entityType;
+        return this;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getRangeStart() {
+        return this.rangeStart;
+    }
+
+    public SearchReindexPartition rangeStart(Long rangeStart) {
+        this.rangeStart = rangeStart;
+        return this;
+    }
+
+    public void setRangeStart(Long rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+
+    public Long getRangeEnd() {
+        return this.rangeEnd;
+    }
+
+    public SearchReindexPartition rangeEnd(Long rangeEnd) {
+        this.rangeEnd = rangeEnd;
+        return this;
+    }
+
+    public void setRangeEnd(Long rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+
+    public Long getLastId() {
+        return this.lastId;
+    }
+
+    public SearchReindexPartition lastId(Long lastId) {
+        this.lastId = lastId;
+        return this;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getIndexed() {
+        return this.indexed;
+    }
+
+    public SearchReindexPartition indexed(long indexed) {
+        this.indexed = indexed;
+        return this;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    public SearchReindexPartition completed(boolean completed) {
+        this.completed = completed;
+        return this;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public SearchReindexPartition lastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+        return this;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchReindexPartition)) {
+            return false;
+        }
+        return id != null && id.equals(((SearchReindexPartition) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchReindexPartition{" +
+            "id=" + getId() +
+            ", entityType='" + getEntityType() + "'" +
+            ", rangeStart=" + getRangeStart() +
+            ", rangeEnd=" + getRangeEnd() +
+            ", lastId=" + getLastId() +
+            ", indexed=" + getIndexed() +
+            ", completed='" + isCompleted() + "'" +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
+            "}";
+    }
+}
@@ -1,6 +1,8 @@
 package com.sidot.gesteau.repository;
 
 import com.sidot.gesteau.domain.Annee;
+import java.util.List;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,11 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AnneeRepository extends JpaRepository<Annee, Long>, JpaSpecificationExecutor<Annee> {}
+public interface AnneeRepository extends JpaRepository<Annee, Long>, JpaSpecificationExecutor<Annee> {
+    /**
+     * The prevision is fetched, even though always null, so that Hibernate does not select the inverse one-to-one of
+     * every annee again.
+     */
+    @Query("select annee from Annee annee left join fetch annee.prevision prevision where prevision.id is null")
+    List<Annee> findAllWherePrevisionIsNull(Sort sort);
+}
@@ -1,6 +1,8 @@
 package com.sidot.gesteau.repository;
 
 import com.sidot.gesteau.domain.Centre;
+import java.util.List;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,11 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CentreRepository extends JpaRepository<Centre, Long>, JpaSpecificationExecutor<Centre> {}
+public interface CentreRepository extends JpaRepository<Centre, Long>, JpaSpecificationExecutor<Centre> {
+    /**
+     * The prevision is fetched, even though always null, so that Hibernate does not select the inverse one-to-one of
+     * every centre again.
+     */
+    @Query("select centre from Centre centre left join fetch centre.prevision prevision where prevision.id is null")
+    List<Centre> findAllWherePrevisionIsNull(Sort sort);
+}
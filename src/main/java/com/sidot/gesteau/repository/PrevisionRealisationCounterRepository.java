@@ -0,0 +1,75 @@
+package com.sidot.gesteau.repository;
+
+import com.sidot.gesteau.domain.PrevisionRealisationCounter;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the PrevisionRealisationCounter entity.
+ */
+@Repository
+public interface PrevisionRealisationCounterRepository extends JpaRepository<PrevisionRealisationCounter, PrevisionRealisationCounter.Key> {
+    /**
+     * @return the (natureOuvrageId, realised) pairs of the counters of the prevision.
+     */
+    @Query(
+        "select counter.natureOuvrageId, counter.realised from PrevisionRealisationCounter counter" +
+        " where counter.previsionId = :previsionId"
+    )
+    List<Object[]> findRealisedByPrevisionId(@Param("previsionId") Long previsionId);
+
+    /**
+     * Lock the prevision row, serializing the counter writes and the reconciliations of a prevision.
+     *
+     * @return the id of the prevision, {@code null} if it does not exist.
+     */
+    @Query(value = "select id from prevision where id = :previsionId for update", nativeQuery = true)
+    Long lockPrevision(@Param("previsionId") Long previsionId);
+
+    @Query("select prevision.id from Prevision prevision order by prevision.id")
+    List<Long> findAllPrevisionIds();
+
+    @Modifying
+    @Query(
+        "update PrevisionRealisationCounter counter set counter.realised = counter.realised + :delta" +
+        " where counter.previsionId = :previsionId and counter.natureOuvrageId = :natureOuvrageId"
+    )
+    int increment(@Param("previsionId") Long previsionId, @Param("natureOuvrageId") Long natureOuvrageId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(
+        value = "insert into prevision_realisation_counter (prevision_id, natureouvrage_id, realised)" +
+        " values (:previsionId, :natureOuvrageId, :realised)",
+        nativeQuery = true
+    )
+    int insert(@Param("previsionId") Long previsionId, @Param("natureOuvrageId") Long natureOuvrageId, @Param("realised") long realised);
+
+    /**
+     * Delete the counter once its last FicheSuiviOuvrage is gone, so that it does not prevent deleting the prevision or the nature.
+     */
+    @Modifying
+    @Query(
+        "delete from PrevisionRealisationCounter counter" +
+        " where counter.previsionId = :previsionId and counter.natureOuvrageId = :natureOuvrageId and counter.realised <= 0"
+    )
+    int deleteIfEmpty(@Param("previsionId") Long previsionId, @Param("natureOuvrageId") Long natureOuvrageId);
+
+    @Modifying
+    @Query("delete from PrevisionRealisationCounter counter where counter.previsionId = :previsionId")
+    int deleteByPrevisionId(@Param("previsionId") Long previsionId);
+
+    /**
+     * Recount the FicheSuiviOuvrages of a prevision, once its counters are deleted.
+     */
+    @Modifying
+    @Query(
+        value = "insert into prevision_realisation_counter (prevision_id, natureouvrage_id, realised)" +
+        " select prevision_id, natureouvrage_id, count(*) from fiche_suivi_ouvrage" +
+        " where prevision_id = :previsionId and natureouvrage_id is not null" +
+        " group by prevision_id, natureouvrage_id",
+        nativeQuery = true
+    )
+    int insertFromFicheSuiviOuvrages(@Param("previsionId") Long previsionId);
+}
@@ -0,0 +1,30 @@
+package com.sidot.gesteau.repository;
+
+import com.sidot.gesteau.domain.SearchIndexEvent;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SearchIndexEvent entity.
+ */
+@Repository
+public interface SearchIndexEventRepository extends JpaRepository<SearchIndexEvent, Long> {
+    /**
+     * Lock the oldest events due at the given instant. Rows already locked by another relay are skipped
+     * ({@code FOR UPDATE SKIP LOCKED} on PostgreSQL), so that several instances can drain the outbox together.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select event from SearchIndexEvent event where event.nextAttemptAt <= :now order by event.id")
+    List<SearchIndexEvent> findReady(@Param("now") Instant now, Pageable pageable);
+
+    @Query("select min(event.createdDate) from SearchIndexEvent event")
+    Optional<Instant> findOldestCreatedDate();
+}
@@ -0,0 +1,19 @@
+package com.sidot.gesteau.repository;
+
+import com.sidot.gesteau.domain.SearchReindexPartition;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SearchReindexPartition entity.
+ */
+@Repository
+public interface SearchReindexPartitionRepository extends JpaRepository<SearchReindexPartition, Long> {
+    List<SearchReindexPartition> findByEntityTypeOrderByRangeStart(String entityType);
+
+    @Modifying
+    @Query("delete from SearchReindexPartition searchReindexPartition where searchReindexPartition.entityType = :entityType")
+    void deleteByEntityType(@Param("entityType") String entityType);
+}
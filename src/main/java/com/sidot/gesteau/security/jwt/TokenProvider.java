@@ -1,10 +1,16 @@
 package com.sidot.gesteau.security.jwt;
 
+import com.sidot.gesteau.config.ApplicationProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -18,6 +24,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates the JWTs of the authenticated users, and authenticates the requests holding one.
+ * <p>
+ * A token is parsed and verified once: the resulting principal is cached under the digest of the token until the
+ * token expires. The cache keeps the {@code application.jwt.cache-max-size} most recently used tokens, the least
+ * recently used one being evicted in constant time when a token is added to a full cache.
+ */
 @Component
 public class TokenProvider {
 
@@ -33,7 +46,15 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final int cacheMaxSize;
+
+    private final Map<String, CachedToken> cache;
+
+    private final Counter cacheHits;
+
+    private final Counter cacheMisses;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -51,6 +72,27 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.cacheMaxSize = applicationProperties.getJwt().getCacheMaxSize();
+        this.cache =
+            Collections.synchronizedMap(
+                new LinkedHashMap<String, CachedToken>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                        return size() > cacheMaxSize;
+                    }
+                }
+            );
+        this.cacheHits = cacheCounter("hit", meterRegistry);
+        this.cacheMisses = cacheCounter("miss", meterRegistry);
+        Gauge.builder("security.jwt.cache.size", cache, Map::size).description("Number of verified JWTs cached").register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(String result, MeterRegistry meterRegistry) {
+        return Counter
+            .builder("security.jwt.cache.requests")
+            .description("Lookups of the authentication of a JWT in the verified token cache")
+            .tag("result", result)
+            .register(meterRegistry);
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -75,16 +117,41 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        User principal = toPrincipal(claims);
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Authenticate a token, parsing and verifying it only if it is not cached yet.
+     *
+     * @param token the JWT.
+     * @return its authentication, or {@code null} if the token is not valid.
+     */
+    public Authentication resolveAuthentication(String token) {
+        String digest = cacheMaxSize > 0 ? digest(token) : null;
+        CachedToken cached = digest == null ? null : cache.get(digest);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return new UsernamePasswordAuthenticationToken(cached.principal, token, cached.principal.getAuthorities());
+        }
+        cacheMisses.increment();
+        if (cached != null) {
+            cache.remove(digest, cached);
+        }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return null;
+        }
+        User principal = toPrincipal(claims);
+        if (digest != null && claims.getExpiration() != null) {
+            cache.put(digest, new CachedToken(principal, claims.getExpiration().getTime()));
+        }
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
     }
 
     public boolean validateToken(String authToken) {
@@ -97,4 +164,35 @@ public class TokenProvider {
         }
         return false;
     }
+
+    private User toPrincipal(Claims claims) {
+        Collection<? extends GrantedAuthority> grantedAuthorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+
+        return new User(claims.getSubject(), "", grantedAuthorities);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class CachedToken {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        private CachedToken(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
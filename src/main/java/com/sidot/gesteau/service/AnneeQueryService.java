@@ -5,14 +5,19 @@ import com.sidot.gesteau.domain.Annee;
 import com.sidot.gesteau.repository.AnneeRepository;
 import com.sidot.gesteau.repository.search.AnneeSearchRepository;
 import com.sidot.gesteau.service.criteria.AnneeCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.AnneeDTO;
 import com.sidot.gesteau.service.mapper.AnneeMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,10 +41,22 @@ public class AnneeQueryService extends QueryService<Annee> {
 
     private final AnneeSearchRepository anneeSearchRepository;
 
-    public AnneeQueryService(AnneeRepository anneeRepository, AnneeMapper anneeMapper, AnneeSearchRepository anneeSearchRepository) {
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public AnneeQueryService(
+        AnneeRepository anneeRepository,
+        AnneeMapper anneeMapper,
+        AnneeSearchRepository anneeSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.anneeRepository = anneeRepository;
         this.anneeMapper = anneeMapper;
         this.anneeSearchRepository = anneeSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -55,28 +72,32 @@ public class AnneeQueryService extends QueryService<Annee> {
     }
 
     /**
-     * Return a {@link Page} of {@link AnneeDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link AnneeDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<AnneeDTO> findByCriteria(AnneeCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<AnneeDTO> findByCriteria(AnneeCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<Annee> specification = createSpecification(criteria);
-        return anneeRepository.findAll(specification, page).map(anneeMapper::toDto);
+        return criteriaPageExecutor.findAll(anneeRepository, Annee.class, specification, page, countMode).map(anneeMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(AnneeCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Annee> specification = createSpecification(criteria);
-        return anneeRepository.count(specification);
+        if (criteria == null || criteria.equals(new AnneeCriteria())) {
+            return criteriaResultCache.getTotalCount(Annee.class, anneeRepository::count);
+        }
+        return criteriaResultCache.getCount(Annee.class, criteria, () -> anneeRepository.count(createSpecification(criteria)));
     }
 
     /**
@@ -94,12 +115,35 @@ public class AnneeQueryService extends QueryService<Annee> {
                 specification = specification.and(buildStringSpecification(criteria.getLibelle(), Annee_.libelle));
             }
             if (criteria.getPrevisionId() != null) {
-                specification =
-                    specification.and(
-                        buildSpecification(criteria.getPrevisionId(), root -> root.join(Annee_.prevision, JoinType.LEFT).get(Prevision_.id))
-                    );
+                if (Boolean.FALSE.equals(criteria.getPrevisionId().getSpecified())) {
+                    specification = specification.and(withoutPrevision());
+                } else {
+                    specification =
+                        specification.and(
+                            buildSpecification(
+                                criteria.getPrevisionId(),
+                                root -> root.join(Annee_.prevision, JoinType.LEFT).get(Prevision_.id)
+                            )
+                        );
+                }
             }
         }
         return specification;
     }
+
+    /**
+     * Anti-join on the previsions. The prevision, always null, is fetched by the queries of entities so that Hibernate
+     * does not select the inverse one-to-one of every annee again.
+     */
+    private static Specification<Annee> withoutPrevision() {
+        return (root, query, builder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch(Annee_.prevision, JoinType.LEFT);
+            }
+            Subquery<Long> prevision = query.subquery(Long.class);
+            Root<Prevision> previsionRoot = prevision.from(Prevision.class);
+            prevision.select(previsionRoot.get(Prevision_.id)).where(builder.equal(previsionRoot.get(Prevision_.annee), root));
+            return builder.not(builder.exists(prevision));
+        };
+    }
 }
@@ -7,11 +7,9 @@ import com.sidot.gesteau.repository.AnneeRepository;
 import com.sidot.gesteau.repository.search.AnneeSearchRepository;
 import com.sidot.gesteau.service.dto.AnneeDTO;
 import com.sidot.gesteau.service.mapper.AnneeMapper;
-import java.util.LinkedList;
-import java.util.List;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -34,10 +32,30 @@ public class AnneeService {
 
     private final AnneeSearchRepository anneeSearchRepository;
 
-    public AnneeService(AnneeRepository anneeRepository, AnneeMapper anneeMapper, AnneeSearchRepository anneeSearchRepository) {
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final PrevisionFreeSlotsService previsionFreeSlotsService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public AnneeService(
+        AnneeRepository anneeRepository,
+        AnneeMapper anneeMapper,
+        AnneeSearchRepository anneeSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        PrevisionFreeSlotsService previsionFreeSlotsService,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.anneeRepository = anneeRepository;
         this.anneeMapper = anneeMapper;
         this.anneeSearchRepository = anneeSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.previsionFreeSlotsService = previsionFreeSlotsService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +69,54 @@ public class AnneeService {
         Annee annee = anneeMapper.toEntity(anneeDTO);
         annee = anneeRepository.save(annee);
         AnneeDTO result = anneeMapper.toDto(annee);
-        anneeSearchRepository.save(annee);
+        searchIndexOutbox.enqueue(Annee.class, annee.getId());
+        criteriaResultCache.invalidate(Annee.class, anneeDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(Annee.class);
+        previsionFreeSlotsService.evict();
         return result;
     }
 
+    /**
+     * Update a annee, loaded once and updated in place.
+     *
+     * @param anneeDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<AnneeDTO> update(AnneeDTO anneeDTO) {
+        log.debug("Request to update Annee : {}", anneeDTO);
+        return update(anneeDTO, anneeMapper::update);
+    }
+
     /**
      * Partially update a annee.
      *
      * @param anneeDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<AnneeDTO> partialUpdate(AnneeDTO anneeDTO) {
         log.debug("Request to partially update Annee : {}", anneeDTO);
+        return update(anneeDTO, anneeMapper::partialUpdate);
+    }
 
+    private Optional<AnneeDTO> update(AnneeDTO anneeDTO, BiConsumer<Annee, AnneeDTO> mapping) {
         return anneeRepository
             .findById(anneeDTO.getId())
             .map(
                 existingAnnee -> {
-                    anneeMapper.partialUpdate(existingAnnee, anneeDTO);
+                    OptimisticLocking.checkVersion(Annee.class, existingAnnee.getId(), existingAnnee.getVersion(), anneeDTO.getVersion());
+                    mapping.accept(existingAnnee, anneeDTO);
                     return existingAnnee;
                 }
             )
-            .map(anneeRepository::save)
+            .map(anneeRepository::saveAndFlush)
             .map(
                 savedAnnee -> {
-                    anneeSearchRepository.save(savedAnnee);
+                    searchIndexOutbox.enqueue(Annee.class, savedAnnee.getId());
+                    criteriaResultCache.invalidate(Annee.class);
+                    referenceDataService.invalidate(Annee.class);
+                    previsionFreeSlotsService.evict();
 
                     return savedAnnee;
                 }
@@ -95,20 +136,6 @@ public class AnneeService {
         return anneeRepository.findAll(pageable).map(anneeMapper::toDto);
     }
 
-    /**
-     *  Get all the annees where Prevision is {@code null}.
-     *  @return the list of entities.
-     */
-    @Transactional(readOnly = true)
-    public List<AnneeDTO> findAllWherePrevisionIsNull() {
-        log.debug("Request to get all annees where Prevision is null");
-        return StreamSupport
-            .stream(anneeRepository.findAll().spliterator(), false)
-            .filter(annee -> annee.getPrevision() == null)
-            .map(anneeMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
-    }
-
     /**
      * Get one annee by id.
      *
@@ -129,7 +156,10 @@ public class AnneeService {
     public void delete(Long id) {
         log.debug("Request to delete Annee : {}", id);
         anneeRepository.deleteById(id);
-        anneeSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(Annee.class, id);
+        criteriaResultCache.invalidate(Annee.class, -1);
+        referenceDataService.invalidate(Annee.class);
+        previsionFreeSlotsService.evict();
     }
 
     /**
@@ -5,14 +5,19 @@ import com.sidot.gesteau.domain.Centre;
 import com.sidot.gesteau.repository.CentreRepository;
 import com.sidot.gesteau.repository.search.CentreSearchRepository;
 import com.sidot.gesteau.service.criteria.CentreCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.CentreDTO;
 import com.sidot.gesteau.service.mapper.CentreMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,10 +41,22 @@ public class CentreQueryService extends QueryService<Centre> {
 
     private final CentreSearchRepository centreSearchRepository;
 
-    public CentreQueryService(CentreRepository centreRepository, CentreMapper centreMapper, CentreSearchRepository centreSearchRepository) {
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public CentreQueryService(
+        CentreRepository centreRepository,
+        CentreMapper centreMapper,
+        CentreSearchRepository centreSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.centreRepository = centreRepository;
         this.centreMapper = centreMapper;
         this.centreSearchRepository = centreSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -55,28 +72,32 @@ public class CentreQueryService extends QueryService<Centre> {
     }
 
     /**
-     * Return a {@link Page} of {@link CentreDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link CentreDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<CentreDTO> findByCriteria(CentreCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<CentreDTO> findByCriteria(CentreCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<Centre> specification = createSpecification(criteria);
-        return centreRepository.findAll(specification, page).map(centreMapper::toDto);
+        return criteriaPageExecutor.findAll(centreRepository, Centre.class, specification, page, countMode).map(centreMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(CentreCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Centre> specification = createSpecification(criteria);
-        return centreRepository.count(specification);
+        if (criteria == null || criteria.equals(new CentreCriteria())) {
+            return criteriaResultCache.getTotalCount(Centre.class, centreRepository::count);
+        }
+        return criteriaResultCache.getCount(Centre.class, criteria, () -> centreRepository.count(createSpecification(criteria)));
     }
 
     /**
@@ -100,13 +121,17 @@ public class CentreQueryService extends QueryService<Centre> {
                 specification = specification.and(buildStringSpecification(criteria.getContact(), Centre_.contact));
             }
             if (criteria.getPrevisionId() != null) {
-                specification =
-                    specification.and(
-                        buildSpecification(
-                            criteria.getPrevisionId(),
-                            root -> root.join(Centre_.prevision, JoinType.LEFT).get(Prevision_.id)
-                        )
-                    );
+                if (Boolean.FALSE.equals(criteria.getPrevisionId().getSpecified())) {
+                    specification = specification.and(withoutPrevision());
+                } else {
+                    specification =
+                        specification.and(
+                            buildSpecification(
+                                criteria.getPrevisionId(),
+                                root -> root.join(Centre_.prevision, JoinType.LEFT).get(Prevision_.id)
+                            )
+                        );
+                }
             }
             if (criteria.getCentreRegroupementId() != null) {
                 specification =
@@ -120,4 +145,20 @@ public class CentreQueryService extends QueryService<Centre> {
         }
         return specification;
     }
+
+    /**
+     * Anti-join on the previsions. The prevision, always null, is fetched by the queries of entities so that Hibernate
+     * does not select the inverse one-to-one of every centre again.
+     */
+    private static Specification<Centre> withoutPrevision() {
+        return (root, query, builder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch(Centre_.prevision, JoinType.LEFT);
+            }
+            Subquery<Long> prevision = query.subquery(Long.class);
+            Root<Prevision> previsionRoot = prevision.from(Prevision.class);
+            prevision.select(previsionRoot.get(Prevision_.id)).where(builder.equal(previsionRoot.get(Prevision_.centre), root));
+            return builder.not(builder.exists(prevision));
+        };
+    }
 }
@@ -5,14 +5,17 @@ import com.sidot.gesteau.domain.CentreRegroupement;
 import com.sidot.gesteau.repository.CentreRegroupementRepository;
 import com.sidot.gesteau.repository.search.CentreRegroupementSearchRepository;
 import com.sidot.gesteau.service.criteria.CentreRegroupementCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.CentreRegroupementDTO;
 import com.sidot.gesteau.service.mapper.CentreRegroupementMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class CentreRegroupementQueryService extends QueryService<CentreRegroupem
 
     private final CentreRegroupementSearchRepository centreRegroupementSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public CentreRegroupementQueryService(
         CentreRegroupementRepository centreRegroupementRepository,
         CentreRegroupementMapper centreRegroupementMapper,
-        CentreRegroupementSearchRepository centreRegroupementSearchRepository
+        CentreRegroupementSearchRepository centreRegroupementSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.centreRegroupementRepository = centreRegroupementRepository;
         this.centreRegroupementMapper = centreRegroupementMapper;
         this.centreRegroupementSearchRepository = centreRegroupementSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class CentreRegroupementQueryService extends QueryService<CentreRegroupem
     }
 
     /**
-     * Return a {@link Page} of {@link CentreRegroupementDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link CentreRegroupementDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<CentreRegroupementDTO> findByCriteria(CentreRegroupementCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<CentreRegroupementDTO> findByCriteria(CentreRegroupementCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<CentreRegroupement> specification = createSpecification(criteria);
-        return centreRegroupementRepository.findAll(specification, page).map(centreRegroupementMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(centreRegroupementRepository, CentreRegroupement.class, specification, page, countMode)
+            .map(centreRegroupementMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(CentreRegroupementCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<CentreRegroupement> specification = createSpecification(criteria);
-        return centreRegroupementRepository.count(specification);
+        if (criteria == null || criteria.equals(new CentreRegroupementCriteria())) {
+            return criteriaResultCache.getTotalCount(CentreRegroupement.class, centreRegroupementRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            CentreRegroupement.class,
+            criteria,
+            () -> centreRegroupementRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
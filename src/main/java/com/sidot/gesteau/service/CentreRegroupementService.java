@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.CentreRegroupementRepository;
 import com.sidot.gesteau.repository.search.CentreRegroupementSearchRepository;
 import com.sidot.gesteau.service.dto.CentreRegroupementDTO;
 import com.sidot.gesteau.service.mapper.CentreRegroupementMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,22 @@ public class CentreRegroupementService {
 
     private final CentreRegroupementSearchRepository centreRegroupementSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public CentreRegroupementService(
         CentreRegroupementRepository centreRegroupementRepository,
         CentreRegroupementMapper centreRegroupementMapper,
-        CentreRegroupementSearchRepository centreRegroupementSearchRepository
+        CentreRegroupementSearchRepository centreRegroupementSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.centreRegroupementRepository = centreRegroupementRepository;
         this.centreRegroupementMapper = centreRegroupementMapper;
         this.centreRegroupementSearchRepository = centreRegroupementSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +61,58 @@ public class CentreRegroupementService {
         CentreRegroupement centreRegroupement = centreRegroupementMapper.toEntity(centreRegroupementDTO);
         centreRegroupement = centreRegroupementRepository.save(centreRegroupement);
         CentreRegroupementDTO result = centreRegroupementMapper.toDto(centreRegroupement);
-        centreRegroupementSearchRepository.save(centreRegroupement);
+        searchIndexOutbox.enqueue(CentreRegroupement.class, centreRegroupement.getId());
+        criteriaResultCache.invalidate(CentreRegroupement.class, centreRegroupementDTO.getId() == null ? 1 : 0);
         return result;
     }
 
+    /**
+     * Update a centreRegroupement, loaded once and updated in place.
+     *
+     * @param centreRegroupementDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<CentreRegroupementDTO> update(CentreRegroupementDTO centreRegroupementDTO) {
+        log.debug("Request to update CentreRegroupement : {}", centreRegroupementDTO);
+        return update(centreRegroupementDTO, centreRegroupementMapper::update);
+    }
+
     /**
      * Partially update a centreRegroupement.
      *
      * @param centreRegroupementDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<CentreRegroupementDTO> partialUpdate(CentreRegroupementDTO centreRegroupementDTO) {
         log.debug("Request to partially update CentreRegroupement : {}", centreRegroupementDTO);
+        return update(centreRegroupementDTO, centreRegroupementMapper::partialUpdate);
+    }
 
+    private Optional<CentreRegroupementDTO> update(
+        CentreRegroupementDTO centreRegroupementDTO,
+        BiConsumer<CentreRegroupement, CentreRegroupementDTO> mapping
+    ) {
         return centreRegroupementRepository
             .findById(centreRegroupementDTO.getId())
             .map(
                 existingCentreRegroupement -> {
-                    centreRegroupementMapper.partialUpdate(existingCentreRegroupement, centreRegroupementDTO);
+                    OptimisticLocking.checkVersion(
+                        CentreRegroupement.class,
+                        existingCentreRegroupement.getId(),
+                        existingCentreRegroupement.getVersion(),
+                        centreRegroupementDTO.getVersion()
+                    );
+                    mapping.accept(existingCentreRegroupement, centreRegroupementDTO);
                     return existingCentreRegroupement;
                 }
             )
-            .map(centreRegroupementRepository::save)
+            .map(centreRegroupementRepository::saveAndFlush)
             .map(
                 savedCentreRegroupement -> {
-                    centreRegroupementSearchRepository.save(savedCentreRegroupement);
+                    searchIndexOutbox.enqueue(CentreRegroupement.class, savedCentreRegroupement.getId());
+                    criteriaResultCache.invalidate(CentreRegroupement.class);
 
                     return savedCentreRegroupement;
                 }
@@ -115,7 +152,8 @@ public class CentreRegroupementService {
     public void delete(Long id) {
         log.debug("Request to delete CentreRegroupement : {}", id);
         centreRegroupementRepository.deleteById(id);
-        centreRegroupementSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(CentreRegroupement.class, id);
+        criteriaResultCache.invalidate(CentreRegroupement.class, -1);
     }
 
     /**
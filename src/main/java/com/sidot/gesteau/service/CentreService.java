@@ -7,11 +7,9 @@ import com.sidot.gesteau.repository.CentreRepository;
 import com.sidot.gesteau.repository.search.CentreSearchRepository;
 import com.sidot.gesteau.service.dto.CentreDTO;
 import com.sidot.gesteau.service.mapper.CentreMapper;
-import java.util.LinkedList;
-import java.util.List;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -34,10 +32,26 @@ public class CentreService {
 
     private final CentreSearchRepository centreSearchRepository;
 
-    public CentreService(CentreRepository centreRepository, CentreMapper centreMapper, CentreSearchRepository centreSearchRepository) {
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final PrevisionFreeSlotsService previsionFreeSlotsService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public CentreService(
+        CentreRepository centreRepository,
+        CentreMapper centreMapper,
+        CentreSearchRepository centreSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        PrevisionFreeSlotsService previsionFreeSlotsService,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.centreRepository = centreRepository;
         this.centreMapper = centreMapper;
         this.centreSearchRepository = centreSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.previsionFreeSlotsService = previsionFreeSlotsService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class CentreService {
         Centre centre = centreMapper.toEntity(centreDTO);
         centre = centreRepository.save(centre);
         CentreDTO result = centreMapper.toDto(centre);
-        centreSearchRepository.save(centre);
+        searchIndexOutbox.enqueue(Centre.class, centre.getId());
+        criteriaResultCache.invalidate(Centre.class, centreDTO.getId() == null ? 1 : 0);
+        previsionFreeSlotsService.evict();
         return result;
     }
 
+    /**
+     * Update a centre, loaded once and updated in place.
+     *
+     * @param centreDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<CentreDTO> update(CentreDTO centreDTO) {
+        log.debug("Request to update Centre : {}", centreDTO);
+        return update(centreDTO, centreMapper::update);
+    }
+
     /**
      * Partially update a centre.
      *
      * @param centreDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<CentreDTO> partialUpdate(CentreDTO centreDTO) {
         log.debug("Request to partially update Centre : {}", centreDTO);
+        return update(centreDTO, centreMapper::partialUpdate);
+    }
 
+    private Optional<CentreDTO> update(CentreDTO centreDTO, BiConsumer<Centre, CentreDTO> mapping) {
         return centreRepository
             .findById(centreDTO.getId())
             .map(
                 existingCentre -> {
-                    centreMapper.partialUpdate(existingCentre, centreDTO);
+                    OptimisticLocking.checkVersion(
+                        Centre.class,
+                        existingCentre.getId(),
+                        existingCentre.getVersion(),
+                        centreDTO.getVersion()
+                    );
+                    mapping.accept(existingCentre, centreDTO);
                     return existingCentre;
                 }
             )
-            .map(centreRepository::save)
+            .map(centreRepository::saveAndFlush)
             .map(
                 savedCentre -> {
-                    centreSearchRepository.save(savedCentre);
+                    searchIndexOutbox.enqueue(Centre.class, savedCentre.getId());
+                    criteriaResultCache.invalidate(Centre.class);
+                    previsionFreeSlotsService.evict();
 
                     return savedCentre;
                 }
@@ -95,20 +135,6 @@ public class CentreService {
         return centreRepository.findAll(pageable).map(centreMapper::toDto);
     }
 
-    /**
-     *  Get all the centres where Prevision is {@code null}.
-     *  @return the list of entities.
-     */
-    @Transactional(readOnly = true)
-    public List<CentreDTO> findAllWherePrevisionIsNull() {
-        log.debug("Request to get all centres where Prevision is null");
-        return StreamSupport
-            .stream(centreRepository.findAll().spliterator(), false)
-            .filter(centre -> centre.getPrevision() == null)
-            .map(centreMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
-    }
-
     /**
      * Get one centre by id.
      *
@@ -129,7 +155,9 @@ public class CentreService {
     public void delete(Long id) {
         log.debug("Request to delete Centre : {}", id);
         centreRepository.deleteById(id);
-        centreSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(Centre.class, id);
+        criteriaResultCache.invalidate(Centre.class, -1);
+        previsionFreeSlotsService.evict();
     }
 
     /**
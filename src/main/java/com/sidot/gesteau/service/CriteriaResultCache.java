@@ -0,0 +1,382 @@
+package com.sidot.gesteau.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.IAtomicLong;
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.Annee;
+import com.sidot.gesteau.domain.Centre;
+import com.sidot.gesteau.domain.CentreRegroupement;
+import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.ModeEvacExcreta;
+import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prefabricant;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SourceApprovEp;
+import com.sidot.gesteau.domain.TypeHabitation;
+import com.sidot.gesteau.service.criteria.CountMode;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Service caching the pages and counts of the criteria listings in the cluster, when
+ * {@code application.criteria-cache.enabled} and {@code application.criteria-cache.count.enabled} are set.
+ * <p>
+ * A result is keyed by the version of the listing of its entity, the criteria, the page and the count mode. The
+ * services writing an entity bump the versions of the listings which can filter on it once their transaction commits,
+ * so the results of the previous versions are never read again and wait for their time to live or eviction. As the
+ * version is read before the query runs, a result computed while a write commits is stored under the outdated version.
+ * <p>
+ * The unfiltered counts are kept in memory by each instance, updated once the inserts and deletes of this instance
+ * commit and reloaded every {@code application.criteria-cache.count.counter-refresh-interval} to catch up with the
+ * other instances. A count loaded while an insert or delete commits may or may not hold it: such a count is dropped
+ * rather than updated, and reloaded by the next read, so that the write is neither lost nor counted twice.
+ */
+@Service
+public class CriteriaResultCache {
+
+    public static final String RESULT_CACHE_PREFIX = "criteriaResult.";
+
+    public static final String COUNT_CACHE_PREFIX = "criteriaCount.";
+
+    private static final String VERSION_PREFIX = "criteriaResultVersion.";
+
+    /**
+     * The listings whose criteria can filter on an entity, besides its own: a write moving a foreign key changes the
+     * results of the listings filtering on either side of the relationship.
+     */
+    private static final Map<Class<?>, Set<Class<?>>> FILTERING_LISTINGS = new HashMap<>();
+
+    static {
+        FILTERING_LISTINGS.put(
+            FicheSuiviOuvrage.class,
+            Set.of(
+                Prevision.class,
+                NatureOuvrage.class,
+                TypeHabitation.class,
+                SourceApprovEp.class,
+                ModeEvacuationEauUsee.class,
+                ModeEvacExcreta.class,
+                Macon.class,
+                Prefabricant.class
+            )
+        );
+        FILTERING_LISTINGS.put(Prevision.class, Set.of(Annee.class, Centre.class));
+        FILTERING_LISTINGS.put(Centre.class, Set.of(CentreRegroupement.class));
+        FILTERING_LISTINGS.put(CentreRegroupement.class, Set.of(DirectionRegionale.class));
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CriteriaResultCache.class);
+
+    private final CacheManager cacheManager;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final QueryShapeMetrics queryShapeMetrics;
+
+    private final long counterRefreshIntervalNanos;
+
+    private final ConcurrentMap<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence of the inserts and deletes, taken before they commit.
+     */
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    /**
+     * Sequence of the commits of the inserts and deletes, and the last one of each entity.
+     */
+    private final AtomicLong commitSequence = new AtomicLong();
+
+    private final ConcurrentMap<Class<?>, Long> lastCommits = new ConcurrentHashMap<>();
+
+    public CriteriaResultCache(
+        CacheManager cacheManager,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties,
+        QueryShapeMetrics queryShapeMetrics
+    ) {
+        this.cacheManager = cacheManager;
+        this.hazelcastInstance = hazelcastInstance;
+        this.applicationProperties = applicationProperties;
+        this.queryShapeMetrics = queryShapeMetrics;
+        this.counterRefreshIntervalNanos = applicationProperties.getCriteriaCache().getCount().getCounterRefreshInterval().toNanos();
+    }
+
+    /**
+     * Get a page of a criteria listing from the cache, or run the query and cache its result.
+     *
+     * @param entityClass the entity of the listing.
+     * @param criteria the filters, identified by their {@code toString()}.
+     * @param page the page, which should be returned.
+     * @param countMode how the total number of matching entities is computed.
+     * @param query the query, run when the result is not cached.
+     * @param <T> the type of the DTOs, which must be serializable.
+     * @return the matching DTOs.
+     */
+    public <T> Slice<T> getSlice(Class<?> entityClass, Object criteria, Pageable page, CountMode countMode, Supplier<Slice<T>> query) {
+        if (!applicationProperties.getCriteriaCache().isEnabled()) {
+            return query.get();
+        }
+        Cache cache = getCache(RESULT_CACHE_PREFIX, entityClass);
+        String key = key(entityClass, criteria + "|" + page + "|" + countMode);
+        CachedSlice<T> cached = cast(cache.get(key, CachedSlice.class));
+        if (cached != null) {
+            log.debug("Criteria result cache hit for {}: {}, page: {}", entityClass.getSimpleName(), criteria, page);
+            queryShapeMetrics.markCacheHit();
+            return cached.toSlice(page);
+        }
+        Slice<T> slice = query.get();
+        cache.put(key, new CachedSlice<>(slice));
+        return slice;
+    }
+
+    /**
+     * Get a count of a criteria listing from the cache, or run the query and cache its result.
+     *
+     * @param entityClass the entity of the listing.
+     * @param criteria the filters, identified by their {@code toString()}.
+     * @param query the query, run when the result is not cached.
+     * @return the number of matching entities.
+     */
+    public long getCount(Class<?> entityClass, Object criteria, LongSupplier query) {
+        if (!applicationProperties.getCriteriaCache().getCount().isEnabled()) {
+            return query.getAsLong();
+        }
+        Cache cache = getCache(COUNT_CACHE_PREFIX, entityClass);
+        String key = key(entityClass, String.valueOf(criteria));
+        Long cached = cache.get(key, Long.class);
+        if (cached != null) {
+            log.debug("Criteria count cache hit for {}: {}", entityClass.getSimpleName(), criteria);
+            queryShapeMetrics.markCacheHit();
+            return cached;
+        }
+        long count = query.getAsLong();
+        cache.put(key, count);
+        return count;
+    }
+
+    /**
+     * Get the number of all the entities of a type, from memory when possible.
+     *
+     * @param entityClass the type of the entities.
+     * @param query the query, run when the count is not in memory or is too old.
+     * @return the number of entities.
+     */
+    public long getTotalCount(Class<?> entityClass, LongSupplier query) {
+        if (!applicationProperties.getCriteriaCache().getCount().isEnabled()) {
+            return query.getAsLong();
+        }
+        Counter counter = counters.get(entityClass);
+        if (counter == null || System.nanoTime() - counter.loadedAt > counterRefreshIntervalNanos) {
+            counter = loadCounter(entityClass, query);
+        } else {
+            queryShapeMetrics.markCacheHit();
+        }
+        return counter.count.get();
+    }
+
+    /**
+     * Get the version of a criteria listing, which changes once a write to its entity, or to an entity its criteria
+     * can filter on, commits.
+     * <p>
+     * The first version is the current time, so that the versions do not start over when the whole cluster restarts.
+     *
+     * @param entityClass the entity of the listing.
+     * @return the version of the listing.
+     */
+    public long getVersion(Class<?> entityClass) {
+        IAtomicLong version = versionOf(entityClass);
+        long current = version.get();
+        if (current == 0) {
+            version.compareAndSet(0, System.currentTimeMillis());
+            current = version.get();
+        }
+        return current;
+    }
+
+    /**
+     * Drop the cached results depending on an updated entity once the current transaction commits, or right away
+     * without transaction.
+     *
+     * @param entityClass the type of the written entity.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidate(Class<?> entityClass) {
+        invalidate(entityClass, 0);
+    }
+
+    /**
+     * Drop the cached results depending on inserted or deleted entities once the current transaction commits, or right
+     * away without transaction, and update the in-memory count of the entities.
+     *
+     * @param entityClass the type of the written entities.
+     * @param countDelta the number of inserted entities, negative for deleted ones.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidate(Class<?> entityClass, long countDelta) {
+        long write = countDelta != 0 ? writeSequence.incrementAndGet() : 0;
+        afterCommit(
+            () -> {
+                bumpVersion(entityClass);
+                FILTERING_LISTINGS.getOrDefault(entityClass, Set.of()).forEach(this::bumpVersion);
+                if (countDelta == 0) {
+                    return;
+                }
+                lastCommits.merge(entityClass, commitSequence.incrementAndGet(), Math::max);
+                Counter counter = counters.get(entityClass);
+                if (counter == null) {
+                    return;
+                }
+                if (counter.lastWrite < write) {
+                    // Counted before this write, which it cannot hold
+                    counter.count.addAndGet(countDelta);
+                } else {
+                    // Counted while this write committed: it may already hold it
+                    counters.remove(entityClass, counter);
+                }
+            }
+        );
+    }
+
+    /**
+     * Drop all the cached results and in-memory counts once the current transaction commits, or right away without
+     * transaction, after writes to several entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidateAll() {
+        afterCommit(
+            () -> {
+                Set<Class<?>> listings = new HashSet<>(FILTERING_LISTINGS.keySet());
+                FILTERING_LISTINGS.values().forEach(listings::addAll);
+                listings.forEach(this::bumpVersion);
+                counters.clear();
+            }
+        );
+    }
+
+    /**
+     * Count the entities of a type, and keep the count unless an insert or delete committed while it was read.
+     */
+    private Counter loadCounter(Class<?> entityClass, LongSupplier query) {
+        long lastCommit = commitSequence.get();
+        long count = query.getAsLong();
+        // Taken once the count is read: the writes of a higher sequence are not committed yet
+        Counter counter = new Counter(count, writeSequence.get());
+        counters.put(entityClass, counter);
+        // A write committing meanwhile may have missed the count just kept
+        if (lastCommits.getOrDefault(entityClass, 0L) > lastCommit) {
+            counters.remove(entityClass, counter);
+        }
+        return counter;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private void bumpVersion(Class<?> entityClass) {
+        getVersion(entityClass);
+        long version = versionOf(entityClass).incrementAndGet();
+        log.debug("Criteria results of {} moved to version {}", entityClass.getSimpleName(), version);
+    }
+
+    private IAtomicLong versionOf(Class<?> entityClass) {
+        return hazelcastInstance.getCPSubsystem().getAtomicLong(VERSION_PREFIX + entityClass.getSimpleName());
+    }
+
+    private String key(Class<?> entityClass, String identity) {
+        long version = getVersion(entityClass);
+        return version + ":" + DigestUtils.md5DigestAsHex(identity.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cache getCache(String prefix, Class<?> entityClass) {
+        return Objects.requireNonNull(cacheManager.getCache(prefix + entityClass.getSimpleName()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CachedSlice<T> cast(CachedSlice<?> cached) {
+        return (CachedSlice<T>) cached;
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong count;
+
+        private final long loadedAt = System.nanoTime();
+
+        private final long lastWrite;
+
+        private Counter(long count, long lastWrite) {
+            this.count = new AtomicLong(count);
+            this.lastWrite = lastWrite;
+        }
+    }
+
+    /**
+     * The content of a page and its total, or whether a following page exists when it was not counted.
+     */
+    static final class CachedSlice<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<T> content;
+
+        private final Long total;
+
+        private final boolean hasNext;
+
+        CachedSlice(Slice<T> slice) {
+            this.content = new ArrayList<>(slice.getContent());
+            this.total = slice instanceof Page ? ((Page<T>) slice).getTotalElements() : null;
+            this.hasNext = slice.hasNext();
+        }
+
+        Slice<T> toSlice(Pageable page) {
+            List<T> rows = new ArrayList<>(content);
+            return total != null ? new PageImpl<>(rows, page, total) : new SliceImpl<>(rows, page, hasNext);
+        }
+    }
+}
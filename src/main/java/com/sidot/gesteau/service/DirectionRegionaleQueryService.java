@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.DirectionRegionale;
 import com.sidot.gesteau.repository.DirectionRegionaleRepository;
 import com.sidot.gesteau.repository.search.DirectionRegionaleSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.DirectionRegionaleCriteria;
 import com.sidot.gesteau.service.dto.DirectionRegionaleDTO;
 import com.sidot.gesteau.service.mapper.DirectionRegionaleMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class DirectionRegionaleQueryService extends QueryService<DirectionRegion
 
     private final DirectionRegionaleSearchRepository directionRegionaleSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public DirectionRegionaleQueryService(
         DirectionRegionaleRepository directionRegionaleRepository,
         DirectionRegionaleMapper directionRegionaleMapper,
-        DirectionRegionaleSearchRepository directionRegionaleSearchRepository
+        DirectionRegionaleSearchRepository directionRegionaleSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.directionRegionaleRepository = directionRegionaleRepository;
         this.directionRegionaleMapper = directionRegionaleMapper;
         this.directionRegionaleSearchRepository = directionRegionaleSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class DirectionRegionaleQueryService extends QueryService<DirectionRegion
     }
 
     /**
-     * Return a {@link Page} of {@link DirectionRegionaleDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link DirectionRegionaleDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<DirectionRegionaleDTO> findByCriteria(DirectionRegionaleCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<DirectionRegionaleDTO> findByCriteria(DirectionRegionaleCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<DirectionRegionale> specification = createSpecification(criteria);
-        return directionRegionaleRepository.findAll(specification, page).map(directionRegionaleMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(directionRegionaleRepository, DirectionRegionale.class, specification, page, countMode)
+            .map(directionRegionaleMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(DirectionRegionaleCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<DirectionRegionale> specification = createSpecification(criteria);
-        return directionRegionaleRepository.count(specification);
+        if (criteria == null || criteria.equals(new DirectionRegionaleCriteria())) {
+            return criteriaResultCache.getTotalCount(DirectionRegionale.class, directionRegionaleRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            DirectionRegionale.class,
+            criteria,
+            () -> directionRegionaleRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
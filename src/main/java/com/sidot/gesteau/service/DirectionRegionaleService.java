@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.DirectionRegionaleRepository;
 import com.sidot.gesteau.repository.search.DirectionRegionaleSearchRepository;
 import com.sidot.gesteau.service.dto.DirectionRegionaleDTO;
 import com.sidot.gesteau.service.mapper.DirectionRegionaleMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,22 @@ public class DirectionRegionaleService {
 
     private final DirectionRegionaleSearchRepository directionRegionaleSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public DirectionRegionaleService(
         DirectionRegionaleRepository directionRegionaleRepository,
         DirectionRegionaleMapper directionRegionaleMapper,
-        DirectionRegionaleSearchRepository directionRegionaleSearchRepository
+        DirectionRegionaleSearchRepository directionRegionaleSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.directionRegionaleRepository = directionRegionaleRepository;
         this.directionRegionaleMapper = directionRegionaleMapper;
         this.directionRegionaleSearchRepository = directionRegionaleSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +61,58 @@ public class DirectionRegionaleService {
         DirectionRegionale directionRegionale = directionRegionaleMapper.toEntity(directionRegionaleDTO);
         directionRegionale = directionRegionaleRepository.save(directionRegionale);
         DirectionRegionaleDTO result = directionRegionaleMapper.toDto(directionRegionale);
-        directionRegionaleSearchRepository.save(directionRegionale);
+        searchIndexOutbox.enqueue(DirectionRegionale.class, directionRegionale.getId());
+        criteriaResultCache.invalidate(DirectionRegionale.class, directionRegionaleDTO.getId() == null ? 1 : 0);
         return result;
     }
 
+    /**
+     * Update a directionRegionale, loaded once and updated in place.
+     *
+     * @param directionRegionaleDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<DirectionRegionaleDTO> update(DirectionRegionaleDTO directionRegionaleDTO) {
+        log.debug("Request to update DirectionRegionale : {}", directionRegionaleDTO);
+        return update(directionRegionaleDTO, directionRegionaleMapper::update);
+    }
+
     /**
      * Partially update a directionRegionale.
      *
      * @param directionRegionaleDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<DirectionRegionaleDTO> partialUpdate(DirectionRegionaleDTO directionRegionaleDTO) {
         log.debug("Request to partially update DirectionRegionale : {}", directionRegionaleDTO);
+        return update(directionRegionaleDTO, directionRegionaleMapper::partialUpdate);
+    }
 
+    private Optional<DirectionRegionaleDTO> update(
+        DirectionRegionaleDTO directionRegionaleDTO,
+        BiConsumer<DirectionRegionale, DirectionRegionaleDTO> mapping
+    ) {
         return directionRegionaleRepository
             .findById(directionRegionaleDTO.getId())
             .map(
                 existingDirectionRegionale -> {
-                    directionRegionaleMapper.partialUpdate(existingDirectionRegionale, directionRegionaleDTO);
+                    OptimisticLocking.checkVersion(
+                        DirectionRegionale.class,
+                        existingDirectionRegionale.getId(),
+                        existingDirectionRegionale.getVersion(),
+                        directionRegionaleDTO.getVersion()
+                    );
+                    mapping.accept(existingDirectionRegionale, directionRegionaleDTO);
                     return existingDirectionRegionale;
                 }
             )
-            .map(directionRegionaleRepository::save)
+            .map(directionRegionaleRepository::saveAndFlush)
             .map(
                 savedDirectionRegionale -> {
-                    directionRegionaleSearchRepository.save(savedDirectionRegionale);
+                    searchIndexOutbox.enqueue(DirectionRegionale.class, savedDirectionRegionale.getId());
+                    criteriaResultCache.invalidate(DirectionRegionale.class);
 
                     return savedDirectionRegionale;
                 }
@@ -115,7 +152,8 @@ public class DirectionRegionaleService {
     public void delete(Long id) {
         log.debug("Request to delete DirectionRegionale : {}", id);
         directionRegionaleRepository.deleteById(id);
-        directionRegionaleSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(DirectionRegionale.class, id);
+        criteriaResultCache.invalidate(DirectionRegionale.class, -1);
     }
 
     /**
@@ -0,0 +1,531 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageClusterCriteria;
+import com.sidot.gesteau.service.criteria.PrevisionCriteria;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageClusterDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.util.Geohash;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.hibernate.annotations.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Service counting the {@link FicheSuiviOuvrage}s per geohash cell, for the clusters of the map.
+ * <p>
+ * Every ouvrage is counted in the cell holding it at each precision up to {@code application.geo.cluster-max-precision},
+ * per Prevision and NatureOuvrage, so that a map tile is served from the cells of one precision without reading the
+ * ouvrages. The buckets are loaded on first use, updated once the writes of this instance commit, and rebuilt every
+ * {@code application.geo.refresh-interval} to catch up with the other instances. The writes committed while the
+ * buckets are read from the database are replayed on them before they are swapped in.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FicheSuiviOuvrageClusterService {
+
+    /**
+     * The highest zoom level of the web mercator tiles.
+     */
+    public static final int MAX_ZOOM = 22;
+
+    /**
+     * The minimum number of cells across a tile, so that its ouvrages are split in several clusters.
+     */
+    private static final int CELLS_PER_TILE = 4;
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageClusterService.class);
+
+    private final EntityManager entityManager;
+
+    private final PrevisionQueryService previsionQueryService;
+
+    private final int maxPrecision;
+
+    private final int fetchSize;
+
+    private volatile Buckets buckets;
+
+    /**
+     * The updates committed during a load, replayed on the loaded buckets; {@code null} when no load is running.
+     */
+    private List<Consumer<Buckets>> missedUpdates;
+
+    private final Object updateLock = new Object();
+
+    public FicheSuiviOuvrageClusterService(
+        EntityManager entityManager,
+        PrevisionQueryService previsionQueryService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.previsionQueryService = previsionQueryService;
+        this.maxPrecision = applicationProperties.getGeo().getClusterMaxPrecision();
+        this.fetchSize = applicationProperties.getGeo().getFetchSize();
+        if (maxPrecision < 1 || maxPrecision > Geohash.MAX_PRECISION) {
+            throw new IllegalArgumentException("application.geo.cluster-max-precision must be between 1 and " + Geohash.MAX_PRECISION);
+        }
+    }
+
+    /**
+     * Get the clusters of the ficheSuiviOuvrages matching the criteria in a web mercator tile.
+     *
+     * @param zoom the zoom level of the tile.
+     * @param x the column of the tile, from the west.
+     * @param y the row of the tile, from the north.
+     * @param criteria the criteria which the ouvrages should match.
+     * @return the non-empty clusters whose cell center lies in the tile, by geohash.
+     * @throws IllegalArgumentException if the tile or the criteria are not valid.
+     */
+    public List<FicheSuiviOuvrageClusterDTO> findClusters(int zoom, int x, int y, FicheSuiviOuvrageClusterCriteria criteria) {
+        log.debug("Request to get the clusters of FicheSuiviOuvrages of tile {}/{}/{} by criteria: {}", zoom, x, y, criteria);
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("The zoom must be between 0 and " + MAX_ZOOM);
+        }
+        long tiles = 1L << zoom;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("The tile " + x + "/" + y + " does not exist at zoom " + zoom);
+        }
+        double west = x * 360.0 / tiles - 180;
+        double east = (x + 1) * 360.0 / tiles - 180;
+        double north = tileLatitude(y, tiles);
+        double south = tileLatitude(y + 1, tiles);
+        Predicate<Group> filter = filter(criteria);
+
+        int precision = precision(east - west);
+        int coarsePrecision = coarsePrecision(east - west, north - south, precision);
+        NavigableMap<String, ConcurrentMap<Group, Counter>> cells = buckets().cells.get(precision - 1);
+        List<FicheSuiviOuvrageClusterDTO> result = new ArrayList<>();
+        if (coarsePrecision == 0) {
+            cells.forEach((geohash, counters) -> addCluster(geohash, counters, filter, south, west, north, east, result));
+        } else {
+            // The cells of the tile share the prefix of one of the few larger cells overlapping it
+            for (String prefix : Geohash.covering(south, west, north, east, coarsePrecision)) {
+                cells
+                    .subMap(prefix, true, prefix + '~', false)
+                    .forEach((geohash, counters) -> addCluster(geohash, counters, filter, south, west, north, east, result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find how a ficheSuiviOuvrage is counted in the clusters.
+     *
+     * @param id the id of the entity.
+     * @return its entry, or {@code null} if it does not exist.
+     */
+    public Entry findEntry(Long id) {
+        return entityManager
+            .createQuery(
+                "select f.latitude, f.longitude, prevision.id, natureouvrage.id from FicheSuiviOuvrage f" +
+                " left join f.prevision prevision left join f.natureouvrage natureouvrage where f.id = :id",
+                Object[].class
+            )
+            .setParameter("id", id)
+            .getResultList()
+            .stream()
+            .findFirst()
+            .map(FicheSuiviOuvrageClusterService::toEntry)
+            .orElse(null);
+    }
+
+    /**
+     * Move a ficheSuiviOuvrage between clusters, once the current transaction commits.
+     *
+     * @param previous how it was counted, {@code null} if it was not.
+     * @param current how it is counted now, {@code null} if it is deleted.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void move(Entry previous, Entry current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        afterCommit(
+            loaded -> {
+                if (previous != null) {
+                    loaded.add(previous, -1);
+                }
+                if (current != null) {
+                    loaded.add(current, 1);
+                }
+            }
+        );
+    }
+
+    /**
+     * Count inserted ficheSuiviOuvrages in the clusters, once the current transaction commits.
+     *
+     * @param inserted the inserted entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void countInserted(Collection<FicheSuiviOuvrage> inserted) {
+        List<Entry> entries = inserted.stream().map(Entry::of).filter(Objects::nonNull).collect(Collectors.toList());
+        afterCommit(loaded -> entries.forEach(entry -> loaded.add(entry, 1)));
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.geo.refresh-interval:PT5M}",
+        initialDelayString = "${application.geo.refresh-interval:PT5M}"
+    )
+    public void scheduleRefresh() {
+        if (buckets != null) {
+            refresh();
+        }
+    }
+
+    /**
+     * Rebuild the clusters from the database.
+     */
+    public void refresh() {
+        refresh(() -> {});
+    }
+
+    /**
+     * Rebuild the clusters from the database, running an action once the query is started.
+     *
+     * @param whileLoading the action, run while the ouvrages are read.
+     */
+    synchronized void refresh(Runnable whileLoading) {
+        // Started before the query, so that no commit it misses is lost: only a write committing right as the query
+        // starts can be replayed although the query counts it, until the next refresh
+        synchronized (updateLock) {
+            missedUpdates = new ArrayList<>();
+        }
+        try {
+            Buckets loaded = load(whileLoading);
+            synchronized (updateLock) {
+                missedUpdates.forEach(update -> update.accept(loaded));
+                buckets = loaded;
+            }
+        } finally {
+            synchronized (updateLock) {
+                missedUpdates = null;
+            }
+        }
+    }
+
+    private void addCluster(
+        String geohash,
+        Map<Group, Counter> counters,
+        Predicate<Group> filter,
+        double south,
+        double west,
+        double north,
+        double east,
+        List<FicheSuiviOuvrageClusterDTO> result
+    ) {
+        // A cell belongs to the tile holding its center, so that adjacent tiles never draw it twice
+        double[] center = Geohash.decode(geohash);
+        if (center[0] < south || center[0] >= north || center[1] < west || center[1] >= east) {
+            return;
+        }
+        long count = 0;
+        double latitudeSum = 0;
+        double longitudeSum = 0;
+        for (Map.Entry<Group, Counter> entry : counters.entrySet()) {
+            if (filter.test(entry.getKey())) {
+                Counter counter = entry.getValue();
+                count += counter.count.sum();
+                latitudeSum += counter.latitudeSum.sum();
+                longitudeSum += counter.longitudeSum.sum();
+            }
+        }
+        if (count > 0) {
+            result.add(new FicheSuiviOuvrageClusterDTO(geohash, latitudeSum / count, longitudeSum / count, count));
+        }
+    }
+
+    private Predicate<Group> filter(FicheSuiviOuvrageClusterCriteria criteria) {
+        checkFilter(criteria.getNatureouvrageId());
+        checkFilter(criteria.getPrevisionId());
+        Set<Long> previsionIds;
+        if (criteria.getAnneeId() != null || criteria.getCentreId() != null) {
+            PrevisionCriteria previsionCriteria = new PrevisionCriteria();
+            previsionCriteria.setAnneeId(criteria.getAnneeId());
+            previsionCriteria.setCentreId(criteria.getCentreId());
+            previsionIds =
+                previsionQueryService.findByCriteria(previsionCriteria).stream().map(PrevisionDTO::getId).collect(Collectors.toSet());
+        } else {
+            previsionIds = null;
+        }
+        return group ->
+            matches(criteria.getNatureouvrageId(), group.natureOuvrageId) &&
+            matches(criteria.getPrevisionId(), group.previsionId) &&
+            (previsionIds == null || previsionIds.contains(group.previsionId));
+    }
+
+    private static void checkFilter(LongFilter filter) {
+        if (
+            filter != null &&
+            (
+                filter.getGreaterThan() != null ||
+                filter.getGreaterThanOrEqual() != null ||
+                filter.getLessThan() != null ||
+                filter.getLessThanOrEqual() != null
+            )
+        ) {
+            throw new IllegalArgumentException("Only the equals, notEquals, in, notIn and specified filters are supported by the clusters");
+        }
+    }
+
+    private static boolean matches(LongFilter filter, Long value) {
+        if (filter == null) {
+            return true;
+        }
+        return (
+            (filter.getSpecified() == null || filter.getSpecified() == (value != null)) &&
+            (filter.getEquals() == null || filter.getEquals().equals(value)) &&
+            (filter.getNotEquals() == null || !filter.getNotEquals().equals(value)) &&
+            (filter.getIn() == null || filter.getIn().contains(value)) &&
+            (filter.getNotIn() == null || !filter.getNotIn().contains(value))
+        );
+    }
+
+    /**
+     * @return the lowest precision whose cells split the width of a tile in {@value #CELLS_PER_TILE} at least.
+     */
+    private int precision(double tileWidth) {
+        for (int precision = 1; precision < maxPrecision; precision++) {
+            if (Geohash.cellWidth(precision) <= tileWidth / CELLS_PER_TILE) {
+                return precision;
+            }
+        }
+        return maxPrecision;
+    }
+
+    /**
+     * @return the highest precision whose cells are larger than a tile, {@code 0} if there is none.
+     */
+    private static int coarsePrecision(double tileWidth, double tileHeight, int precision) {
+        for (int coarse = precision; coarse > 0; coarse--) {
+            if (Geohash.cellWidth(coarse) >= tileWidth && Geohash.cellHeight(coarse) >= tileHeight) {
+                return coarse;
+            }
+        }
+        return 0;
+    }
+
+    private static double tileLatitude(long y, long tiles) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / tiles))));
+    }
+
+    private Buckets buckets() {
+        Buckets loaded = buckets;
+        if (loaded == null) {
+            synchronized (this) {
+                if (buckets == null) {
+                    refresh();
+                }
+                loaded = buckets;
+            }
+        }
+        return loaded;
+    }
+
+    private Buckets load(Runnable whileLoading) {
+        Buckets loaded = new Buckets(maxPrecision);
+        try (
+            Stream<Object[]> rows = entityManager
+                .createQuery(
+                    "select f.latitude, f.longitude, prevision.id, natureouvrage.id from FicheSuiviOuvrage f" +
+                    " left join f.prevision prevision left join f.natureouvrage natureouvrage",
+                    Object[].class
+                )
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream()
+        ) {
+            whileLoading.run();
+            rows.map(FicheSuiviOuvrageClusterService::toEntry).filter(Objects::nonNull).forEach(entry -> loaded.add(entry, 1));
+        }
+        log.debug("Loaded the clusters of FicheSuiviOuvrages up to precision {}", maxPrecision);
+        return loaded;
+    }
+
+    private void afterCommit(Consumer<Buckets> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            }
+        );
+    }
+
+    private void apply(Consumer<Buckets> update) {
+        Buckets loaded;
+        synchronized (updateLock) {
+            if (missedUpdates != null) {
+                missedUpdates.add(update);
+            }
+            loaded = buckets;
+        }
+        // Buckets not loaded yet count the committed ouvrages from the database
+        if (loaded != null) {
+            update.accept(loaded);
+        }
+    }
+
+    private static Entry toEntry(Object[] row) {
+        if (row[0] == null || row[1] == null) {
+            return null;
+        }
+        return new Entry((Float) row[0], (Float) row[1], (Long) row[2], (Long) row[3]);
+    }
+
+    /**
+     * How a FicheSuiviOuvrage is counted in the clusters: its position, Prevision and NatureOuvrage.
+     */
+    public static final class Entry {
+
+        private final double latitude;
+
+        private final double longitude;
+
+        private final Group group;
+
+        Entry(double latitude, double longitude, Long previsionId, Long natureOuvrageId) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.group = new Group(previsionId, natureOuvrageId);
+        }
+
+        /**
+         * @param ficheSuiviOuvrage an entity.
+         * @return its entry, {@code null} if it has no position.
+         */
+        public static Entry of(FicheSuiviOuvrage ficheSuiviOuvrage) {
+            if (ficheSuiviOuvrage.getLatitude() == null || ficheSuiviOuvrage.getLongitude() == null) {
+                return null;
+            }
+            return new Entry(
+                ficheSuiviOuvrage.getLatitude(),
+                ficheSuiviOuvrage.getLongitude(),
+                ficheSuiviOuvrage.getPrevision() == null ? null : ficheSuiviOuvrage.getPrevision().getId(),
+                ficheSuiviOuvrage.getNatureouvrage() == null ? null : ficheSuiviOuvrage.getNatureouvrage().getId()
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return latitude == other.latitude && longitude == other.longitude && group.equals(other.group);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(latitude, longitude, group);
+        }
+    }
+
+    private static final class Group {
+
+        private final Long previsionId;
+
+        private final Long natureOuvrageId;
+
+        Group(Long previsionId, Long natureOuvrageId) {
+            this.previsionId = previsionId;
+            this.natureOuvrageId = natureOuvrageId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Group)) {
+                return false;
+            }
+            Group other = (Group) o;
+            return Objects.equals(previsionId, other.previsionId) && Objects.equals(natureOuvrageId, other.natureOuvrageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(previsionId, natureOuvrageId);
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        private final DoubleAdder latitudeSum = new DoubleAdder();
+
+        private final DoubleAdder longitudeSum = new DoubleAdder();
+    }
+
+    /**
+     * The counters of the cells of every precision, by geohash and then by group.
+     * <p>
+     * The updates are serialized, so that the counters and cells they empty are removed; the reads do not lock.
+     */
+    private static final class Buckets {
+
+        private final int maxPrecision;
+
+        private final List<ConcurrentSkipListMap<String, ConcurrentMap<Group, Counter>>> cells = new ArrayList<>();
+
+        Buckets(int maxPrecision) {
+            this.maxPrecision = maxPrecision;
+            for (int precision = 1; precision <= maxPrecision; precision++) {
+                cells.add(new ConcurrentSkipListMap<>());
+            }
+        }
+
+        synchronized void add(Entry entry, int delta) {
+            String geohash = Geohash.encode(entry.latitude, entry.longitude, maxPrecision);
+            for (int precision = 1; precision <= maxPrecision; precision++) {
+                String cell = geohash.substring(0, precision);
+                ConcurrentMap<Group, Counter> counters = cells.get(precision - 1).computeIfAbsent(cell, key -> new ConcurrentHashMap<>());
+                Counter counter = counters.computeIfAbsent(entry.group, key -> new Counter());
+                counter.count.add(delta);
+                counter.latitudeSum.add(delta * entry.latitude);
+                counter.longitudeSum.add(delta * entry.longitude);
+                if (counter.count.sum() == 0) {
+                    counters.remove(entry.group);
+                    if (counters.isEmpty()) {
+                        cells.get(precision - 1).remove(cell);
+                    }
+                }
+            }
+        }
+    }
+}
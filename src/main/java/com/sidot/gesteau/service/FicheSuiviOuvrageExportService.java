@@ -0,0 +1,146 @@
+package com.sidot.gesteau.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import com.sidot.gesteau.service.dto.ExportFormat;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.util.CsvWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting all the {@link FicheSuiviOuvrage} matching some criteria in one response.
+ * <p>
+ * Rows are read from a database cursor by {@link FicheSuiviOuvrageQueryService#forEachByCriteria} and written to the
+ * output stream one at a time, so that neither the entities nor the content are ever held in memory as a whole.
+ */
+@Service
+public class FicheSuiviOuvrageExportService {
+
+    private static final Map<String, Function<FicheSuiviOuvrageDTO, Object>> CSV_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CSV_COLUMNS.put("id", FicheSuiviOuvrageDTO::getId);
+        CSV_COLUMNS.put("prjAppuis", FicheSuiviOuvrageDTO::getPrjAppuis);
+        CSV_COLUMNS.put("nomBenef", FicheSuiviOuvrageDTO::getNomBenef);
+        CSV_COLUMNS.put("prenomBenef", FicheSuiviOuvrageDTO::getPrenomBenef);
+        CSV_COLUMNS.put("professionBenef", FicheSuiviOuvrageDTO::getProfessionBenef);
+        CSV_COLUMNS.put("nbUsagers", FicheSuiviOuvrageDTO::getNbUsagers);
+        CSV_COLUMNS.put("contacts", FicheSuiviOuvrageDTO::getContacts);
+        CSV_COLUMNS.put("longitude", FicheSuiviOuvrageDTO::getLongitude);
+        CSV_COLUMNS.put("latitude", FicheSuiviOuvrageDTO::getLatitude);
+        CSV_COLUMNS.put("dateRemiseDevis", FicheSuiviOuvrageDTO::getDateRemiseDevis);
+        CSV_COLUMNS.put("dateDebutTravaux", FicheSuiviOuvrageDTO::getDateDebutTravaux);
+        CSV_COLUMNS.put("dateFinTravaux", FicheSuiviOuvrageDTO::getDateFinTravaux);
+        CSV_COLUMNS.put("rue", FicheSuiviOuvrageDTO::getRue);
+        CSV_COLUMNS.put("porte", FicheSuiviOuvrageDTO::getPorte);
+        CSV_COLUMNS.put("coutMenage", FicheSuiviOuvrageDTO::getCoutMenage);
+        CSV_COLUMNS.put("subvOnea", FicheSuiviOuvrageDTO::getSubvOnea);
+        CSV_COLUMNS.put("subvProjet", FicheSuiviOuvrageDTO::getSubvProjet);
+        CSV_COLUMNS.put("autreSubv", FicheSuiviOuvrageDTO::getAutreSubv);
+        CSV_COLUMNS.put("toles", FicheSuiviOuvrageDTO::getToles);
+        CSV_COLUMNS.put("animateur", FicheSuiviOuvrageDTO::getAnimateur);
+        CSV_COLUMNS.put("superviseur", FicheSuiviOuvrageDTO::getSuperviseur);
+        CSV_COLUMNS.put("controleur", FicheSuiviOuvrageDTO::getControleur);
+        CSV_COLUMNS.put("previsionId", dto -> dto.getPrevision() == null ? null : dto.getPrevision().getId());
+        CSV_COLUMNS.put("natureouvrageId", dto -> dto.getNatureouvrage() == null ? null : dto.getNatureouvrage().getId());
+        CSV_COLUMNS.put("typehabitationId", dto -> dto.getTypehabitation() == null ? null : dto.getTypehabitation().getId());
+        CSV_COLUMNS.put("sourceapprovepId", dto -> dto.getSourceapprovep() == null ? null : dto.getSourceapprovep().getId());
+        CSV_COLUMNS.put(
+            "modeevacuationeauuseeId",
+            dto -> dto.getModeevacuationeauusee() == null ? null : dto.getModeevacuationeauusee().getId()
+        );
+        CSV_COLUMNS.put("modeevacexcretaId", dto -> dto.getModeevacexcreta() == null ? null : dto.getModeevacexcreta().getId());
+        CSV_COLUMNS.put("maconId", dto -> dto.getMacon() == null ? null : dto.getMacon().getId());
+        CSV_COLUMNS.put("prefabricantId", dto -> dto.getPrefabricant() == null ? null : dto.getPrefabricant().getId());
+    }
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageExportService.class);
+
+    private final FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FicheSuiviOuvrageExportService(
+        FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ficheSuiviOuvrageQueryService = ficheSuiviOuvrageQueryService;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Write all the ficheSuiviOuvrages matching the criteria, in id order.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the content format.
+     * @param out the stream the UTF-8 content is written to, it is flushed but not closed.
+     * @return the number of exported entities.
+     * @throws IOException if the content could not be written.
+     */
+    @Transactional(readOnly = true)
+    public long export(FicheSuiviOuvrageCriteria criteria, ExportFormat format, OutputStream out) throws IOException {
+        log.debug("Request to export FicheSuiviOuvrages as {} by criteria: {}", format, criteria);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Consumer<FicheSuiviOuvrageDTO> rowWriter = format == ExportFormat.CSV ? csvRowWriter(writer) : ndjsonRowWriter(writer);
+        try {
+            long count = ficheSuiviOuvrageQueryService.forEachByCriteria(
+                criteria,
+                applicationProperties.getExport().getFetchSize(),
+                rowWriter
+            );
+            writer.flush();
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Consumer<FicheSuiviOuvrageDTO> csvRowWriter(Writer writer) throws IOException {
+        CsvWriter csvWriter = new CsvWriter(writer, applicationProperties.getBulk().getCsvSeparator());
+        csvWriter.writeRecord(new ArrayList<>(CSV_COLUMNS.keySet()));
+        return dto -> {
+            List<Object> cells = new ArrayList<>(CSV_COLUMNS.size());
+            CSV_COLUMNS.values().forEach(column -> cells.add(column.apply(dto)));
+            try {
+                csvWriter.writeRecord(cells);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private Consumer<FicheSuiviOuvrageDTO> ndjsonRowWriter(Writer writer) {
+        ObjectWriter objectWriter = objectMapper.writerFor(FicheSuiviOuvrageDTO.class);
+        return dto -> {
+            try {
+                writer.write(objectWriter.writeValueAsString(dto));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
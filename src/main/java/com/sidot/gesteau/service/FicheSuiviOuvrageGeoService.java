@@ -0,0 +1,437 @@
+package com.sidot.gesteau.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.util.GeoGridIndex;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.hibernate.annotations.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service for the spatial searches over {@link FicheSuiviOuvrage}s: within a bounding box, within a radius, and nearest.
+ * <p>
+ * The spatial part of a search selects candidate ids, from the {@code location} geo_point of the Elasticsearch
+ * documents or from an in-memory {@link GeoGridIndex}, then the criteria filters and the pagination are applied by the
+ * database on those ids. The in-memory index is loaded on first use, updated once the writes of this instance commit,
+ * and rebuilt every {@code application.geo.refresh-interval} to catch up with the other instances. The writes committed
+ * while the positions are read from the database are replayed on the loaded index before it is swapped in.
+ * <p>
+ * The in-memory index costs about 200 bytes of heap per located ouvrage, so it is only built up to
+ * {@code application.geo.memory-max-positions} positions: beyond them, the spatial searches require the Elasticsearch
+ * backend, and fail with it instead of falling back.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FicheSuiviOuvrageGeoService {
+
+    private static final String LOCATION = "location";
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageGeoService.class);
+
+    private final EntityManager entityManager;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService;
+
+    private final ApplicationProperties.Geo properties;
+
+    private volatile GeoGridIndex memoryIndex;
+
+    private volatile boolean memoryIndexTooLarge;
+
+    /**
+     * The updates committed during a load, replayed on the loaded index; {@code null} when no load is running.
+     */
+    private List<Consumer<GeoGridIndex>> missedUpdates;
+
+    private final Object updateLock = new Object();
+
+    public FicheSuiviOuvrageGeoService(
+        EntityManager entityManager,
+        ElasticsearchOperations elasticsearchOperations,
+        FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.ficheSuiviOuvrageQueryService = ficheSuiviOuvrageQueryService;
+        this.properties = applicationProperties.getGeo();
+    }
+
+    /**
+     * Map the location of an index created before it existed, the documents get it when they are indexed again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void addLocationMapping() {
+        if (properties.getBackend() != ApplicationProperties.Geo.Backend.ELASTICSEARCH) {
+            return;
+        }
+        try {
+            IndexOperations indexOperations = elasticsearchOperations.indexOps(FicheSuiviOuvrage.class);
+            if (indexOperations.exists()) {
+                indexOperations.putMapping(Document.from(Map.of("properties", Map.of(LOCATION, Map.of("type", "geo_point")))));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not map the location of the FicheSuiviOuvrage index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the ficheSuiviOuvrages inside a bounding box which match the criteria.
+     *
+     * @param south the minimum latitude.
+     * @param west the western longitude, the box crosses the antimeridian when it is greater than {@code east}.
+     * @param north the maximum latitude.
+     * @param east the eastern longitude.
+     * @param criteria the criteria which the entities should match.
+     * @param page the pagination information.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the box is not valid, or holds more than {@code application.geo.max-candidates} ouvrages.
+     */
+    public Page<FicheSuiviOuvrageDTO> findWithinBox(
+        double south,
+        double west,
+        double north,
+        double east,
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable page
+    ) {
+        log.debug("Request to get FicheSuiviOuvrages within [{}, {}, {}, {}] by criteria: {}", south, west, north, east, criteria);
+        checkLatitude(south);
+        checkLatitude(north);
+        checkLongitude(west);
+        checkLongitude(east);
+        if (south > north) {
+            throw new IllegalArgumentException("The south of the box must not be above its north");
+        }
+        List<Long> ids = candidates(
+            () -> searchIds(geoBoundingBoxQuery(LOCATION).setCorners(north, west, south, east), null, properties.getMaxCandidates() + 1),
+            index -> index.withinBox(south, west, north, east)
+        );
+        return ficheSuiviOuvrageQueryService.findByCriteria(criteria, checkCandidates(ids), page);
+    }
+
+    /**
+     * Get the ficheSuiviOuvrages within a distance of a center which match the criteria.
+     *
+     * @param latitude the latitude of the center.
+     * @param longitude the longitude of the center.
+     * @param radiusKm the maximum distance to the center, in kilometers.
+     * @param criteria the criteria which the entities should match.
+     * @param page the pagination information.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the circle is not valid, or holds more than {@code application.geo.max-candidates} ouvrages.
+     */
+    public Page<FicheSuiviOuvrageDTO> findWithinRadius(
+        double latitude,
+        double longitude,
+        double radiusKm,
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable page
+    ) {
+        log.debug("Request to get FicheSuiviOuvrages within {} km of [{}, {}] by criteria: {}", radiusKm, latitude, longitude, criteria);
+        checkLatitude(latitude);
+        checkLongitude(longitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("The radius must be positive");
+        }
+        List<Long> ids = candidates(
+            () ->
+                searchIds(
+                    geoDistanceQuery(LOCATION).point(latitude, longitude).distance(radiusKm, DistanceUnit.KILOMETERS),
+                    null,
+                    properties.getMaxCandidates() + 1
+                ),
+            index -> index.withinRadius(latitude, longitude, radiusKm)
+        );
+        return ficheSuiviOuvrageQueryService.findByCriteria(criteria, checkCandidates(ids), page);
+    }
+
+    /**
+     * Get the ficheSuiviOuvrages nearest to a center which match the criteria.
+     * <p>
+     * The nearest ouvrages are filtered by the criteria in growing batches, up to {@code application.geo.max-candidates}:
+     * fewer than {@code count} are returned when the criteria discard all the others.
+     *
+     * @param latitude the latitude of the center.
+     * @param longitude the longitude of the center.
+     * @param count the maximum number of entities.
+     * @param criteria the criteria which the entities should match.
+     * @return the matching entities, nearest first.
+     * @throws IllegalArgumentException if the center or the count is not valid.
+     */
+    public List<FicheSuiviOuvrageDTO> findNearest(double latitude, double longitude, int count, FicheSuiviOuvrageCriteria criteria) {
+        log.debug("Request to get the {} FicheSuiviOuvrages nearest to [{}, {}] by criteria: {}", count, latitude, longitude, criteria);
+        checkLatitude(latitude);
+        checkLongitude(longitude);
+        if (count < 1 || count > properties.getMaxCandidates()) {
+            throw new IllegalArgumentException("The count must be between 1 and " + properties.getMaxCandidates());
+        }
+        int limit = count;
+        while (true) {
+            int batchSize = limit;
+            List<Long> ids = candidates(
+                () ->
+                    searchIds(
+                        existsQuery(LOCATION),
+                        SortBuilders.geoDistanceSort(LOCATION, latitude, longitude).unit(DistanceUnit.KILOMETERS).order(SortOrder.ASC),
+                        batchSize
+                    ),
+                index -> index.nearest(latitude, longitude, batchSize)
+            );
+            Map<Long, FicheSuiviOuvrageDTO> matching = ficheSuiviOuvrageQueryService
+                .findByCriteria(criteria, ids, Pageable.unpaged())
+                .stream()
+                .collect(Collectors.toMap(FicheSuiviOuvrageDTO::getId, Function.identity()));
+            if (matching.size() >= count || ids.size() < limit || limit >= properties.getMaxCandidates()) {
+                return ids.stream().map(matching::get).filter(Objects::nonNull).limit(count).collect(Collectors.toList());
+            }
+            limit = (int) Math.min(limit * 4L, properties.getMaxCandidates());
+        }
+    }
+
+    /**
+     * Update the position of ficheSuiviOuvrages in the in-memory index, once the current transaction commits.
+     *
+     * @param ficheSuiviOuvrages the saved entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void track(Collection<FicheSuiviOuvrage> ficheSuiviOuvrages) {
+        List<Object[]> positions = new ArrayList<>(ficheSuiviOuvrages.size());
+        for (FicheSuiviOuvrage ficheSuiviOuvrage : ficheSuiviOuvrages) {
+            positions.add(new Object[] { ficheSuiviOuvrage.getId(), ficheSuiviOuvrage.getLatitude(), ficheSuiviOuvrage.getLongitude() });
+        }
+        afterCommit(
+            index ->
+                positions.forEach(
+                    position -> {
+                        if (position[1] == null || position[2] == null) {
+                            index.remove((Long) position[0]);
+                        } else {
+                            index.put((Long) position[0], (Float) position[1], (Float) position[2]);
+                        }
+                    }
+                )
+        );
+    }
+
+    /**
+     * Remove a ficheSuiviOuvrage from the in-memory index, once the current transaction commits.
+     *
+     * @param id the id of the deleted entity.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void untrack(Long id) {
+        afterCommit(index -> index.remove(id));
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.geo.refresh-interval:PT5M}",
+        initialDelayString = "${application.geo.refresh-interval:PT5M}"
+    )
+    public void scheduleRefresh() {
+        if (memoryIndex != null || memoryIndexTooLarge) {
+            try {
+                refresh();
+            } catch (IllegalStateException e) {
+                log.warn("Could not rebuild the in-memory spatial index: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuild the in-memory index from the database.
+     *
+     * @throws IllegalStateException if there are more than {@code application.geo.memory-max-positions} located ouvrages.
+     */
+    public void refresh() {
+        refresh(() -> {});
+    }
+
+    /**
+     * Rebuild the in-memory index from the database, running an action once the query is started.
+     *
+     * @param whileLoading the action, run while the positions are read.
+     * @throws IllegalStateException if there are more than {@code application.geo.memory-max-positions} located ouvrages.
+     */
+    synchronized void refresh(Runnable whileLoading) {
+        // Started before the query, so that no commit it misses is lost: replaying a position it already read is harmless
+        synchronized (updateLock) {
+            missedUpdates = new ArrayList<>();
+        }
+        try {
+            GeoGridIndex loaded = load(whileLoading);
+            synchronized (updateLock) {
+                missedUpdates.forEach(update -> update.accept(loaded));
+                memoryIndex = loaded;
+            }
+        } finally {
+            synchronized (updateLock) {
+                missedUpdates = null;
+            }
+        }
+    }
+
+    private List<Long> candidates(Supplier<List<Long>> elasticsearch, Function<GeoGridIndex, List<Long>> memory) {
+        if (properties.getBackend() == ApplicationProperties.Geo.Backend.ELASTICSEARCH) {
+            try {
+                return elasticsearch.get();
+            } catch (RuntimeException e) {
+                if (memoryIndexTooLarge) {
+                    throw e;
+                }
+                log.warn("Spatial search failed on Elasticsearch, falling back to the in-memory index: {}", e.getMessage());
+            }
+        }
+        return memory.apply(memoryIndex());
+    }
+
+    private List<Long> searchIds(QueryBuilder query, SortBuilder<?> sort, int limit) {
+        NativeSearchQueryBuilder builder = new NativeSearchQueryBuilder()
+            .withQuery(query)
+            .withSourceFilter(new FetchSourceFilter(new String[] { "id" }, null))
+            .withPageable(PageRequest.of(0, limit));
+        if (sort != null) {
+            builder.withSort(sort);
+        }
+        return elasticsearchOperations
+            .search(builder.build(), FicheSuiviOuvrage.class)
+            .getSearchHits()
+            .stream()
+            .map(hit -> Long.valueOf(hit.getId()))
+            .collect(Collectors.toList());
+    }
+
+    private List<Long> checkCandidates(List<Long> ids) {
+        if (ids.size() > properties.getMaxCandidates()) {
+            throw new IllegalArgumentException("More than " + properties.getMaxCandidates() + " ouvrages in the area, narrow it down");
+        }
+        return ids;
+    }
+
+    private GeoGridIndex memoryIndex() {
+        if (memoryIndexTooLarge) {
+            throw tooManyPositions();
+        }
+        GeoGridIndex index = memoryIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (memoryIndex == null) {
+                    refresh();
+                }
+                index = memoryIndex;
+            }
+        }
+        return index;
+    }
+
+    private GeoGridIndex load(Runnable whileLoading) {
+        GeoGridIndex index = new GeoGridIndex(properties.getCellSizeDegrees());
+        try (
+            Stream<Object[]> rows = entityManager
+                .createQuery(
+                    "select f.id, f.latitude, f.longitude from FicheSuiviOuvrage f" +
+                    " where f.latitude is not null and f.longitude is not null",
+                    Object[].class
+                )
+                .setHint(QueryHints.FETCH_SIZE, properties.getFetchSize())
+                .setHint(QueryHints.READ_ONLY, true)
+                .setMaxResults(properties.getMemoryMaxPositions() + 1)
+                .getResultStream()
+        ) {
+            whileLoading.run();
+            rows.forEach(row -> index.put((Long) row[0], (Float) row[1], (Float) row[2]));
+        }
+        memoryIndexTooLarge = index.size() > properties.getMemoryMaxPositions();
+        if (memoryIndexTooLarge) {
+            memoryIndex = null;
+            throw tooManyPositions();
+        }
+        log.debug("Loaded {} FicheSuiviOuvrage positions in the in-memory index", index.size());
+        return index;
+    }
+
+    private IllegalStateException tooManyPositions() {
+        return new IllegalStateException(
+            "More than " + properties.getMemoryMaxPositions() + " located ouvrages for the in-memory spatial index, use Elasticsearch"
+        );
+    }
+
+    private void afterCommit(Consumer<GeoGridIndex> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            }
+        );
+    }
+
+    private void apply(Consumer<GeoGridIndex> update) {
+        GeoGridIndex index;
+        synchronized (updateLock) {
+            if (missedUpdates != null) {
+                missedUpdates.add(update);
+            }
+            index = memoryIndex;
+        }
+        // An index not loaded yet reads the committed positions from the database
+        if (index != null) {
+            update.accept(index);
+        }
+    }
+
+    private static void checkLatitude(double latitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("A latitude must be in [-90, 90]: " + latitude);
+        }
+    }
+
+    private static void checkLongitude(double longitude) {
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("A longitude must be in [-180, 180]: " + longitude);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.sidot.gesteau.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.ModeEvacExcreta;
+import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prefabricant;
+import com.sidot.gesteau.domain.SourceApprovEp;
+import com.sidot.gesteau.domain.TypeHabitation;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageImportReportDTO;
+import com.sidot.gesteau.service.dto.MaconDTO;
+import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
+import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
+import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
+import com.sidot.gesteau.service.dto.PrefabricantDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.dto.SourceApprovEpDTO;
+import com.sidot.gesteau.service.dto.TypeHabitationDTO;
+import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import com.sidot.gesteau.service.util.CsvReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for importing large volumes of {@link FicheSuiviOuvrage} in one request.
+ * <p>
+ * Rows are read one at a time from the request body, validated and grouped in chunks. Every chunk is
+ * inserted in its own transaction, so that Hibernate sends the inserts as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}), together with the {@link SearchIndexOutbox} events that index it.
+ * A chunk rejected by the database is retried row by row, each row in its own transaction, so that only the faulty
+ * rows are reported. Lookup entities are referenced by their {@code libelle}, resolved against a dictionary loaded
+ * once per import.
+ */
+@Service
+public class FicheSuiviOuvrageImportService {
+
+    public static final String PREVISION_ID = "previsionId";
+    public static final String NATUREOUVRAGE = "natureouvrage";
+    public static final String TYPEHABITATION = "typehabitation";
+    public static final String SOURCEAPPROVEP = "sourceapprovep";
+    public static final String MODEEVACUATIONEAUUSEE = "modeevacuationeauusee";
+    public static final String MODEEVACEXCRETA = "modeevacexcreta";
+    public static final String MACON = "macon";
+    public static final String PREFABRICANT = "prefabricant";
+
+    private static final Map<String, BiConsumer<FicheSuiviOuvrageDTO, String>> SCALAR_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        SCALAR_COLUMNS.put("prjAppuis", FicheSuiviOuvrageDTO::setPrjAppuis);
+        SCALAR_COLUMNS.put("nomBenef", FicheSuiviOuvrageDTO::setNomBenef);
+        SCALAR_COLUMNS.put("prenomBenef", FicheSuiviOuvrageDTO::setPrenomBenef);
+        SCALAR_COLUMNS.put("professionBenef", FicheSuiviOuvrageDTO::setProfessionBenef);
+        SCALAR_COLUMNS.put("nbUsagers", (dto, value) -> dto.setNbUsagers(Long.valueOf(value)));
+        SCALAR_COLUMNS.put("contacts", FicheSuiviOuvrageDTO::setContacts);
+        SCALAR_COLUMNS.put("longitude", (dto, value) -> dto.setLongitude(Float.valueOf(value)));
+        SCALAR_COLUMNS.put("latitude", (dto, value) -> dto.setLatitude(Float.valueOf(value)));
+        SCALAR_COLUMNS.put("dateRemiseDevis", (dto, value) -> dto.setDateRemiseDevis(parseInstant(value)));
+        SCALAR_COLUMNS.put("dateDebutTravaux", (dto, value) -> dto.setDateDebutTravaux(parseInstant(value)));
+        SCALAR_COLUMNS.put("dateFinTravaux", (dto, value) -> dto.setDateFinTravaux(parseInstant(value)));
+        SCALAR_COLUMNS.put("rue", FicheSuiviOuvrageDTO::setRue);
+        SCALAR_COLUMNS.put("porte", (dto, value) -> dto.setPorte(Integer.valueOf(value)));
+        SCALAR_COLUMNS.put("coutMenage", FicheSuiviOuvrageDTO::setCoutMenage);
+        SCALAR_COLUMNS.put("subvOnea", (dto, value) -> dto.setSubvOnea(Integer.valueOf(value)));
+        SCALAR_COLUMNS.put("subvProjet", (dto, value) -> dto.setSubvProjet(Integer.valueOf(value)));
+        SCALAR_COLUMNS.put("autreSubv", (dto, value) -> dto.setAutreSubv(Integer.valueOf(value)));
+        SCALAR_COLUMNS.put("toles", (dto, value) -> dto.setToles(Integer.valueOf(value)));
+        SCALAR_COLUMNS.put("animateur", FicheSuiviOuvrageDTO::setAnimateur);
+        SCALAR_COLUMNS.put("superviseur", FicheSuiviOuvrageDTO::setSuperviseur);
+        SCALAR_COLUMNS.put("controleur", FicheSuiviOuvrageDTO::setControleur);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageImportService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    private final FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FicheSuiviOuvrageImportService(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
+        SearchIndexOutbox searchIndexOutbox,
+        PrevisionRealisationCounterService previsionRealisationCounterService,
+        FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        CriteriaResultCache criteriaResultCache,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.previsionRealisationCounterService = previsionRealisationCounterService;
+        this.ficheSuiviOuvrageGeoService = ficheSuiviOuvrageGeoService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.criteriaResultCache = criteriaResultCache;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Import ficheSuiviOuvrages from CSV content, the first line being the header.
+     *
+     * @param content the CSV content, UTF-8 encoded.
+     * @return the import report.
+     */
+    public FicheSuiviOuvrageImportReportDTO importCsv(InputStream content) {
+        log.debug("Request to import FicheSuiviOuvrages from CSV");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+        FicheSuiviOuvrageImportReportDTO report = new FicheSuiviOuvrageImportReportDTO();
+        try {
+            importRows(new CsvReader(reader, applicationProperties.getBulk().getCsvSeparator()), report);
+        } catch (UncheckedIOException e) {
+            abort(report, e.getCause());
+        }
+        return report;
+    }
+
+    /**
+     * Import ficheSuiviOuvrages from a JSON array of objects.
+     *
+     * @param content the JSON content.
+     * @return the import report.
+     */
+    public FicheSuiviOuvrageImportReportDTO importJson(InputStream content) {
+        log.debug("Request to import FicheSuiviOuvrages from JSON");
+        FicheSuiviOuvrageImportReportDTO report = new FicheSuiviOuvrageImportReportDTO();
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(content);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                report.setAbortedReason("The content must be a JSON array of ficheSuiviOuvrages");
+                return report;
+            }
+            importRows(new JsonRowIterator(parser), report);
+        } catch (IOException e) {
+            abort(report, e);
+        } catch (UncheckedIOException e) {
+            abort(report, e.getCause());
+        }
+        return report;
+    }
+
+    private void abort(FicheSuiviOuvrageImportReportDTO report, IOException e) {
+        log.warn("FicheSuiviOuvrage import aborted after {} rows: {}", report.getTotal(), e.getMessage());
+        report.setAbortedReason("Unreadable content after row " + report.getTotal() + ": " + e.getMessage());
+    }
+
+    private void importRows(Iterator<Map<String, String>> rows, FicheSuiviOuvrageImportReportDTO report) {
+        LookupDictionary dictionary = new LookupDictionary();
+        int chunkSize = applicationProperties.getBulk().getChunkSize();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            Map<String, String> row = rows.next();
+            long rowNumber = report.getTotal() + 1;
+            report.setTotal(rowNumber);
+            List<String> errors = new ArrayList<>();
+            FicheSuiviOuvrageDTO dto = toDto(row, dictionary, errors);
+            if (errors.isEmpty()) {
+                chunk.add(new ParsedRow(rowNumber, dto));
+            } else {
+                report.addError(rowNumber, errors);
+            }
+            if (chunk.size() >= chunkSize) {
+                insertChunk(chunk, report);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, report);
+        }
+        log.info("Imported {} of {} FicheSuiviOuvrages, {} rejected", report.getImported(), report.getTotal(), report.getFailed());
+    }
+
+    private FicheSuiviOuvrageDTO toDto(Map<String, String> row, LookupDictionary dictionary, List<String> errors) {
+        FicheSuiviOuvrageDTO dto = new FicheSuiviOuvrageDTO();
+        SCALAR_COLUMNS.forEach(
+            (column, binder) -> {
+                String value = row.get(column);
+                if (value == null) {
+                    return;
+                }
+                try {
+                    binder.accept(dto, value.trim());
+                } catch (RuntimeException e) {
+                    errors.add(column + ": invalid value '" + value + "'");
+                }
+            }
+        );
+        for (ConstraintViolation<FicheSuiviOuvrageDTO> violation : validator.validate(dto)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+
+        String previsionId = row.get(PREVISION_ID);
+        if (previsionId != null) {
+            try {
+                Long id = Long.valueOf(previsionId.trim());
+                if (dictionary.previsionIds.contains(id)) {
+                    PrevisionDTO prevision = new PrevisionDTO();
+                    prevision.setId(id);
+                    dto.setPrevision(prevision);
+                } else {
+                    errors.add(PREVISION_ID + ": unknown prevision " + id);
+                }
+            } catch (NumberFormatException e) {
+                errors.add(PREVISION_ID + ": invalid value '" + previsionId + "'");
+            }
+        }
+        dto.setNatureouvrage(dictionary.resolve(row, NATUREOUVRAGE, NatureOuvrageDTO::new, NatureOuvrageDTO::setId, errors));
+        dto.setTypehabitation(dictionary.resolve(row, TYPEHABITATION, TypeHabitationDTO::new, TypeHabitationDTO::setId, errors));
+        dto.setSourceapprovep(dictionary.resolve(row, SOURCEAPPROVEP, SourceApprovEpDTO::new, SourceApprovEpDTO::setId, errors));
+        dto.setModeevacuationeauusee(
+            dictionary.resolve(row, MODEEVACUATIONEAUUSEE, ModeEvacuationEauUseeDTO::new, ModeEvacuationEauUseeDTO::setId, errors)
+        );
+        dto.setModeevacexcreta(dictionary.resolve(row, MODEEVACEXCRETA, ModeEvacExcretaDTO::new, ModeEvacExcretaDTO::setId, errors));
+        dto.setMacon(dictionary.resolve(row, MACON, MaconDTO::new, MaconDTO::setId, errors));
+        dto.setPrefabricant(dictionary.resolve(row, PREFABRICANT, PrefabricantDTO::new, PrefabricantDTO::setId, errors));
+        return dto;
+    }
+
+    private void insertChunk(List<ParsedRow> chunk, FicheSuiviOuvrageImportReportDTO report) {
+        int inserted = 0;
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk));
+            inserted = chunk.size();
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Chunk of {} FicheSuiviOuvrages rejected, retrying row by row: {}", chunk.size(), chunkFailure.getMessage());
+            for (ParsedRow parsed : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(parsed)));
+                    inserted++;
+                } catch (RuntimeException rowFailure) {
+                    report.addError(parsed.rowNumber, List.of("rejected by the database: " + mostSpecificMessage(rowFailure)));
+                }
+            }
+        }
+        report.setImported(report.getImported() + inserted);
+    }
+
+    /**
+     * Insert rows, with entities built from their DTO on each attempt: those of a rolled back transaction still hold
+     * the ids and versions it assigned.
+     */
+    private void persist(List<ParsedRow> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<FicheSuiviOuvrage> entities = new ArrayList<>(rows.size());
+        for (ParsedRow parsed : rows) {
+            FicheSuiviOuvrage entity = ficheSuiviOuvrageMapper.toEntity(parsed.dto);
+            entityManager.persist(entity);
+            ids.add(entity.getId());
+            entities.add(entity);
+        }
+        searchIndexOutbox.enqueueAll(FicheSuiviOuvrage.class, ids);
+        previsionRealisationCounterService.countInserted(entities);
+        ficheSuiviOuvrageGeoService.track(entities);
+        ficheSuiviOuvrageClusterService.countInserted(entities);
+        criteriaResultCache.invalidate(FicheSuiviOuvrage.class, rows.size());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String mostSpecificMessage(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private static final class ParsedRow {
+
+        private final long rowNumber;
+
+        private final FicheSuiviOuvrageDTO dto;
+
+        private ParsedRow(long rowNumber, FicheSuiviOuvrageDTO dto) {
+            this.rowNumber = rowNumber;
+            this.dto = dto;
+        }
+    }
+
+    /**
+     * Lookup {@code libelle} to id dictionary, loaded with one scalar query per lookup table.
+     */
+    private final class LookupDictionary {
+
+        private final Map<String, Map<String, Long>> idsByLibelle = new HashMap<>();
+
+        private final Set<Long> previsionIds;
+
+        private LookupDictionary() {
+            idsByLibelle.put(NATUREOUVRAGE, load(NatureOuvrage.class));
+            idsByLibelle.put(TYPEHABITATION, load(TypeHabitation.class));
+            idsByLibelle.put(SOURCEAPPROVEP, load(SourceApprovEp.class));
+            idsByLibelle.put(MODEEVACUATIONEAUUSEE, load(ModeEvacuationEauUsee.class));
+            idsByLibelle.put(MODEEVACEXCRETA, load(ModeEvacExcreta.class));
+            idsByLibelle.put(MACON, load(Macon.class));
+            idsByLibelle.put(PREFABRICANT, load(Prefabricant.class));
+            previsionIds = new HashSet<>(entityManager.createQuery("select p.id from Prevision p", Long.class).getResultList());
+        }
+
+        private Map<String, Long> load(Class<?> lookupClass) {
+            Map<String, Long> ids = new HashMap<>();
+            entityManager
+                .createQuery("select e.id, e.libelle from " + lookupClass.getSimpleName() + " e", Object[].class)
+                .getResultList()
+                .forEach(tuple -> ids.putIfAbsent(normalize((String) tuple[1]), (Long) tuple[0]));
+            return ids;
+        }
+
+        private <D> D resolve(
+            Map<String, String> row,
+            String column,
+            Supplier<D> factory,
+            BiConsumer<D, Long> idSetter,
+            List<String> errors
+        ) {
+            String libelle = row.get(column);
+            if (libelle == null || libelle.isBlank()) {
+                return null;
+            }
+            Long id = idsByLibelle.get(column).get(normalize(libelle));
+            if (id == null) {
+                errors.add(column + ": unknown libelle '" + libelle + "'");
+                return null;
+            }
+            D reference = factory.get();
+            idSetter.accept(reference, id);
+            return reference;
+        }
+    }
+
+    /**
+     * Dates are expected in ISO-8601, but epoch seconds (as written by Jackson by default) are accepted too.
+     */
+    private static Instant parseInstant(String value) {
+        if (!value.isEmpty() && (Character.isDigit(value.charAt(0)) || value.charAt(0) == '-') && value.indexOf('T') < 0) {
+            BigDecimal seconds = new BigDecimal(value);
+            return Instant.ofEpochSecond(seconds.longValue(), seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+        }
+        return Instant.parse(value);
+    }
+
+    private static String normalize(String libelle) {
+        return libelle == null ? "" : libelle.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the elements of a JSON array one at a time, as flat column to text maps.
+     */
+    private static final class JsonRowIterator implements Iterator<Map<String, String>> {
+
+        private final JsonParser parser;
+
+        private JsonToken current;
+
+        private JsonRowIterator(JsonParser parser) throws IOException {
+            this.parser = parser;
+            this.current = parser.nextToken();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null && current != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                JsonNode node = parser.readValueAsTree();
+                Map<String, String> row = new HashMap<>();
+                node
+                    .fields()
+                    .forEachRemaining(
+                        field -> row.put(field.getKey(), field.getValue().isNull() ? null : toText(field.getValue()))
+                    );
+                current = parser.nextToken();
+                return row;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String toText(JsonNode value) {
+            return value.isValueNode() ? value.asText() : value.toString();
+        }
+    }
+}
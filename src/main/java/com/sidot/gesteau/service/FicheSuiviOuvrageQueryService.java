@@ -4,15 +4,31 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
 import com.sidot.gesteau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
 import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.KeysetCursor;
+import com.sidot.gesteau.service.dto.KeysetSlice;
 import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageProjection;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,11 +39,32 @@ import tech.jhipster.service.QueryService;
  * The main input is a {@link FicheSuiviOuvrageCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
  * It returns a {@link List} of {@link FicheSuiviOuvrageDTO} or a {@link Page} of {@link FicheSuiviOuvrageDTO} which fulfills the criteria.
+ * The DTOs are projected straight from the selected columns by {@link FicheSuiviOuvrageProjection}, no entity is loaded.
  */
 @Service
 @Transactional(readOnly = true)
 public class FicheSuiviOuvrageQueryService extends QueryService<FicheSuiviOuvrage> {
 
+    /**
+     * Properties a keyset listing can be sorted on: they are all non-nullable, and can be read back from the DTO
+     * and parsed again from the cursor.
+     */
+    private static final Map<String, KeysetProperty> KEYSET_PROPERTIES = new HashMap<>();
+
+    static {
+        KEYSET_PROPERTIES.put("id", new KeysetProperty(FicheSuiviOuvrageDTO::getId, Long::valueOf));
+        KEYSET_PROPERTIES.put("prjAppuis", new KeysetProperty(FicheSuiviOuvrageDTO::getPrjAppuis, Function.identity()));
+        KEYSET_PROPERTIES.put("nomBenef", new KeysetProperty(FicheSuiviOuvrageDTO::getNomBenef, Function.identity()));
+        KEYSET_PROPERTIES.put("prenomBenef", new KeysetProperty(FicheSuiviOuvrageDTO::getPrenomBenef, Function.identity()));
+        KEYSET_PROPERTIES.put("nbUsagers", new KeysetProperty(FicheSuiviOuvrageDTO::getNbUsagers, Long::valueOf));
+        KEYSET_PROPERTIES.put("dateRemiseDevis", new KeysetProperty(FicheSuiviOuvrageDTO::getDateRemiseDevis, Instant::parse));
+        KEYSET_PROPERTIES.put("dateDebutTravaux", new KeysetProperty(FicheSuiviOuvrageDTO::getDateDebutTravaux, Instant::parse));
+        KEYSET_PROPERTIES.put("dateFinTravaux", new KeysetProperty(FicheSuiviOuvrageDTO::getDateFinTravaux, Instant::parse));
+        KEYSET_PROPERTIES.put("animateur", new KeysetProperty(FicheSuiviOuvrageDTO::getAnimateur, Function.identity()));
+        KEYSET_PROPERTIES.put("superviseur", new KeysetProperty(FicheSuiviOuvrageDTO::getSuperviseur, Function.identity()));
+        KEYSET_PROPERTIES.put("controleur", new KeysetProperty(FicheSuiviOuvrageDTO::getControleur, Function.identity()));
+    }
+
     private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageQueryService.class);
 
     private final FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
@@ -36,14 +73,22 @@ public class FicheSuiviOuvrageQueryService extends QueryService<FicheSuiviOuvrag
 
     private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public FicheSuiviOuvrageQueryService(
         FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
         FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
-        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
         this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
         this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -55,32 +100,162 @@ public class FicheSuiviOuvrageQueryService extends QueryService<FicheSuiviOuvrag
     public List<FicheSuiviOuvrageDTO> findByCriteria(FicheSuiviOuvrageCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<FicheSuiviOuvrage> specification = createSpecification(criteria);
-        return ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrageRepository.findAll(specification));
+        return criteriaPageExecutor
+            .findAll(FicheSuiviOuvrage.class, specification, FicheSuiviOuvrageProjection.INSTANCE, Pageable.unpaged())
+            .getContent();
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link FicheSuiviOuvrageDTO} which matches the criteria from the database,
+     * starting right after the cursor position.
+     * <p>
+     * Instead of skipping an offset, the query seeks on {@code (sort key, id)}, so every page costs the same
+     * whatever its depth.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The position after which the page starts, it also holds the sort.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities, and the cursor of the next page if there is one.
+     * @throws IllegalArgumentException if the cursor sort property is not supported, or its last value cannot be parsed.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<FicheSuiviOuvrageDTO> findByCriteria(FicheSuiviOuvrageCriteria criteria, KeysetCursor cursor, int size) {
+        log.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        KeysetProperty keysetProperty = KEYSET_PROPERTIES.get(cursor.getProperty());
+        if (keysetProperty == null) {
+            throw new IllegalArgumentException("Unsupported sort property for a cursor: " + cursor.getProperty());
+        }
+        Specification<FicheSuiviOuvrage> specification = createSpecification(criteria);
+        if (!cursor.isFirst()) {
+            Comparable<?> lastValue;
+            try {
+                lastValue = keysetProperty.parser.apply(cursor.getLastValue());
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Invalid cursor value for " + cursor.getProperty() + ": " + cursor.getLastValue(), e);
+            }
+            specification = specification.and(seek(cursor, lastValue));
+        }
+        Sort sort = "id".equals(cursor.getProperty())
+            ? Sort.by(cursor.getDirection(), "id")
+            : Sort.by(cursor.getDirection(), cursor.getProperty(), "id");
+        Slice<FicheSuiviOuvrageDTO> slice = criteriaPageExecutor.findAll(
+            FicheSuiviOuvrage.class,
+            specification,
+            FicheSuiviOuvrageProjection.INSTANCE,
+            PageRequest.of(0, size, sort),
+            CountMode.NONE
+        );
+
+        KeysetCursor next = null;
+        if (slice.hasNext()) {
+            FicheSuiviOuvrageDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = cursor.after(last.getId(), String.valueOf(keysetProperty.getter.apply(last)));
+        }
+        return new KeysetSlice<>(slice.getContent(), next);
     }
 
     /**
-     * Return a {@link Page} of {@link FicheSuiviOuvrageDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link FicheSuiviOuvrageDTO} which matches the criteria from the database,
+     * or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
+     */
+    @Transactional(readOnly = true)
+    public Slice<FicheSuiviOuvrageDTO> findByCriteria(FicheSuiviOuvrageCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
+        return criteriaResultCache.getSlice(
+            FicheSuiviOuvrage.class,
+            criteria,
+            page,
+            countMode,
+            () -> {
+                final Specification<FicheSuiviOuvrage> specification = createSpecification(criteria);
+                return criteriaPageExecutor.findAll(
+                    FicheSuiviOuvrage.class,
+                    specification,
+                    FicheSuiviOuvrageProjection.INSTANCE,
+                    page,
+                    countMode
+                );
+            }
+        );
+    }
+
+    /**
+     * Return a {@link Page} of {@link FicheSuiviOuvrageDTO} which matches the criteria from the database, among the given ids.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param ids The ids the entities are restricted to, typically found by a spatial index.
+     * @param page The page, which should be returned.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public Page<FicheSuiviOuvrageDTO> findByCriteria(FicheSuiviOuvrageCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Page<FicheSuiviOuvrageDTO> findByCriteria(FicheSuiviOuvrageCriteria criteria, Collection<Long> ids, Pageable page) {
+        log.debug("find by criteria : {}, among {} ids, page: {}", criteria, ids.size(), page);
+        if (ids.isEmpty()) {
+            return Page.empty(page);
+        }
+        final Specification<FicheSuiviOuvrage> specification = createSpecification(criteria).and(idIn(ids));
+        return criteriaPageExecutor.findAll(FicheSuiviOuvrage.class, specification, FicheSuiviOuvrageProjection.INSTANCE, page);
+    }
+
+    /**
+     * Apply an action to every {@link FicheSuiviOuvrageDTO} which matches the criteria from the database, in id order.
+     * <p>
+     * The rows are read through a forward-only cursor and projected straight to the DTO, so that the memory used does
+     * not depend on the number of matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fetchSize The number of rows fetched from the database at once.
+     * @param action The action applied to every matching entity.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long forEachByCriteria(FicheSuiviOuvrageCriteria criteria, int fetchSize, Consumer<FicheSuiviOuvrageDTO> action) {
+        log.debug("for each by criteria : {}, fetch size: {}", criteria, fetchSize);
         final Specification<FicheSuiviOuvrage> specification = createSpecification(criteria);
-        return ficheSuiviOuvrageRepository.findAll(specification, page).map(ficheSuiviOuvrageMapper::toDto);
+        return criteriaPageExecutor.forEach(
+            FicheSuiviOuvrage.class,
+            specification,
+            FicheSuiviOuvrageProjection.INSTANCE,
+            Sort.by("id"),
+            fetchSize,
+            action
+        );
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(FicheSuiviOuvrageCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<FicheSuiviOuvrage> specification = createSpecification(criteria);
-        return ficheSuiviOuvrageRepository.count(specification);
+        if (criteria == null || criteria.equals(new FicheSuiviOuvrageCriteria())) {
+            return criteriaResultCache.getTotalCount(FicheSuiviOuvrage.class, ficheSuiviOuvrageRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            FicheSuiviOuvrage.class,
+            criteria,
+            () -> ficheSuiviOuvrageRepository.count(createSpecification(criteria))
+        );
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Specification<FicheSuiviOuvrage> seek(KeysetCursor cursor, Comparable lastValue) {
+        return (root, query, cb) -> {
+            Path<Comparable> key = root.get(cursor.getProperty());
+            Path<Long> id = root.get(FicheSuiviOuvrage_.id);
+            if (cursor.getDirection().isAscending()) {
+                return cb.or(cb.greaterThan(key, lastValue), cb.and(cb.equal(key, lastValue), cb.greaterThan(id, cursor.getLastId())));
+            }
+            return cb.or(cb.lessThan(key, lastValue), cb.and(cb.equal(key, lastValue), cb.lessThan(id, cursor.getLastId())));
+        };
+    }
+
+    private static Specification<FicheSuiviOuvrage> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get(FicheSuiviOuvrage_.id).in(ids);
     }
 
     /**
@@ -232,4 +407,16 @@ public class FicheSuiviOuvrageQueryService extends QueryService<FicheSuiviOuvrag
         }
         return specification;
     }
+
+    private static final class KeysetProperty {
+
+        private final Function<FicheSuiviOuvrageDTO, Object> getter;
+
+        private final Function<String, ? extends Comparable<?>> parser;
+
+        private KeysetProperty(Function<FicheSuiviOuvrageDTO, Object> getter, Function<String, ? extends Comparable<?>> parser) {
+            this.getter = getter;
+            this.parser = parser;
+        }
+    }
 }
@@ -3,11 +3,15 @@ package com.sidot.gesteau.service;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.PrevisionRealisationCounter;
 import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
 import com.sidot.gesteau.repository.search.FicheSuiviOuvrageSearchRepository;
 import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
 import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +34,34 @@ public class FicheSuiviOuvrageService {
 
     private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    private final FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public FicheSuiviOuvrageService(
         FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
         FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
-        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        PrevisionRealisationCounterService previsionRealisationCounterService,
+        FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
         this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
         this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.previsionRealisationCounterService = previsionRealisationCounterService;
+        this.ficheSuiviOuvrageGeoService = ficheSuiviOuvrageGeoService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -48,34 +72,80 @@ public class FicheSuiviOuvrageService {
      */
     public FicheSuiviOuvrageDTO save(FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO) {
         log.debug("Request to save FicheSuiviOuvrage : {}", ficheSuiviOuvrageDTO);
+        PrevisionRealisationCounter.Key previousKey = ficheSuiviOuvrageDTO.getId() == null
+            ? null
+            : previsionRealisationCounterService.findKey(ficheSuiviOuvrageDTO.getId());
+        FicheSuiviOuvrageClusterService.Entry previousEntry = ficheSuiviOuvrageDTO.getId() == null
+            ? null
+            : ficheSuiviOuvrageClusterService.findEntry(ficheSuiviOuvrageDTO.getId());
         FicheSuiviOuvrage ficheSuiviOuvrage = ficheSuiviOuvrageMapper.toEntity(ficheSuiviOuvrageDTO);
         ficheSuiviOuvrage = ficheSuiviOuvrageRepository.save(ficheSuiviOuvrage);
+        previsionRealisationCounterService.move(previousKey, PrevisionRealisationCounter.Key.of(ficheSuiviOuvrage));
+        ficheSuiviOuvrageGeoService.track(List.of(ficheSuiviOuvrage));
+        ficheSuiviOuvrageClusterService.move(previousEntry, FicheSuiviOuvrageClusterService.Entry.of(ficheSuiviOuvrage));
         FicheSuiviOuvrageDTO result = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
-        ficheSuiviOuvrageSearchRepository.save(ficheSuiviOuvrage);
+        searchIndexOutbox.enqueue(FicheSuiviOuvrage.class, ficheSuiviOuvrage.getId());
+        criteriaResultCache.invalidate(FicheSuiviOuvrage.class, ficheSuiviOuvrageDTO.getId() == null ? 1 : 0);
         return result;
     }
 
+    /**
+     * Update a ficheSuiviOuvrage, loaded once and updated in place.
+     *
+     * @param ficheSuiviOuvrageDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<FicheSuiviOuvrageDTO> update(FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO) {
+        log.debug("Request to update FicheSuiviOuvrage : {}", ficheSuiviOuvrageDTO);
+        return update(ficheSuiviOuvrageDTO, ficheSuiviOuvrageMapper::update);
+    }
+
     /**
      * Partially update a ficheSuiviOuvrage.
      *
      * @param ficheSuiviOuvrageDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<FicheSuiviOuvrageDTO> partialUpdate(FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO) {
         log.debug("Request to partially update FicheSuiviOuvrage : {}", ficheSuiviOuvrageDTO);
+        return update(ficheSuiviOuvrageDTO, ficheSuiviOuvrageMapper::partialUpdate);
+    }
 
+    private Optional<FicheSuiviOuvrageDTO> update(
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO,
+        BiConsumer<FicheSuiviOuvrage, FicheSuiviOuvrageDTO> mapping
+    ) {
         return ficheSuiviOuvrageRepository
             .findById(ficheSuiviOuvrageDTO.getId())
             .map(
                 existingFicheSuiviOuvrage -> {
-                    ficheSuiviOuvrageMapper.partialUpdate(existingFicheSuiviOuvrage, ficheSuiviOuvrageDTO);
+                    OptimisticLocking.checkVersion(
+                        FicheSuiviOuvrage.class,
+                        existingFicheSuiviOuvrage.getId(),
+                        existingFicheSuiviOuvrage.getVersion(),
+                        ficheSuiviOuvrageDTO.getVersion()
+                    );
+                    PrevisionRealisationCounter.Key previousKey = PrevisionRealisationCounter.Key.of(existingFicheSuiviOuvrage);
+                    FicheSuiviOuvrageClusterService.Entry previousEntry = FicheSuiviOuvrageClusterService.Entry.of(
+                        existingFicheSuiviOuvrage
+                    );
+                    mapping.accept(existingFicheSuiviOuvrage, ficheSuiviOuvrageDTO);
+                    previsionRealisationCounterService.move(previousKey, PrevisionRealisationCounter.Key.of(existingFicheSuiviOuvrage));
+                    ficheSuiviOuvrageClusterService.move(
+                        previousEntry,
+                        FicheSuiviOuvrageClusterService.Entry.of(existingFicheSuiviOuvrage)
+                    );
                     return existingFicheSuiviOuvrage;
                 }
             )
-            .map(ficheSuiviOuvrageRepository::save)
+            .map(ficheSuiviOuvrageRepository::saveAndFlush)
             .map(
                 savedFicheSuiviOuvrage -> {
-                    ficheSuiviOuvrageSearchRepository.save(savedFicheSuiviOuvrage);
+                    searchIndexOutbox.enqueue(FicheSuiviOuvrage.class, savedFicheSuiviOuvrage.getId());
+                    ficheSuiviOuvrageGeoService.track(List.of(savedFicheSuiviOuvrage));
+                    criteriaResultCache.invalidate(FicheSuiviOuvrage.class);
 
                     return savedFicheSuiviOuvrage;
                 }
@@ -114,8 +184,14 @@ public class FicheSuiviOuvrageService {
      */
     public void delete(Long id) {
         log.debug("Request to delete FicheSuiviOuvrage : {}", id);
+        PrevisionRealisationCounter.Key previousKey = previsionRealisationCounterService.findKey(id);
+        FicheSuiviOuvrageClusterService.Entry previousEntry = ficheSuiviOuvrageClusterService.findEntry(id);
         ficheSuiviOuvrageRepository.deleteById(id);
-        ficheSuiviOuvrageSearchRepository.deleteById(id);
+        previsionRealisationCounterService.move(previousKey, null);
+        ficheSuiviOuvrageGeoService.untrack(id);
+        ficheSuiviOuvrageClusterService.move(previousEntry, null);
+        searchIndexOutbox.enqueue(FicheSuiviOuvrage.class, id);
+        criteriaResultCache.invalidate(FicheSuiviOuvrage.class, -1);
     }
 
     /**
@@ -0,0 +1,187 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.service.dto.HibernateStatisticsDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service toggling and reading the Hibernate statistics.
+ * <p>
+ * The statistics are published in the {@code hibernate.statistics.*} meters, which only grow while the statistics are
+ * enabled: the entity and collection operations, the query executions, and the hits, misses and puts of every second
+ * level cache region.
+ */
+@Service
+public class HibernateStatisticsService {
+
+    private final Logger log = LoggerFactory.getLogger(HibernateStatisticsService.class);
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsService(
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (applicationProperties.getHibernate().isStatisticsEnabled()) {
+            statistics.setStatisticsEnabled(true);
+        }
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * @return whether the statistics are collected.
+     */
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    /**
+     * Start or stop collecting the statistics.
+     *
+     * @param enabled whether the statistics are collected.
+     */
+    public void setEnabled(boolean enabled) {
+        log.info("Hibernate statistics {}", enabled ? "enabled" : "disabled");
+        statistics.setStatisticsEnabled(enabled);
+    }
+
+    /**
+     * Reset the statistics.
+     */
+    public void clear() {
+        log.debug("Request to clear the Hibernate statistics");
+        statistics.clear();
+    }
+
+    /**
+     * Take a snapshot of the statistics.
+     *
+     * @param limit the maximum number of slowest queries.
+     * @return the statistics.
+     */
+    public HibernateStatisticsDTO getStatistics(int limit) {
+        HibernateStatisticsDTO hibernateStatistics = new HibernateStatisticsDTO();
+        hibernateStatistics.setEnabled(statistics.isStatisticsEnabled());
+        hibernateStatistics.setSince(Instant.ofEpochMilli(statistics.getStartTime()));
+        hibernateStatistics.setEntityLoadCount(statistics.getEntityLoadCount());
+        hibernateStatistics.setEntityFetchCount(statistics.getEntityFetchCount());
+        hibernateStatistics.setEntityInsertCount(statistics.getEntityInsertCount());
+        hibernateStatistics.setEntityUpdateCount(statistics.getEntityUpdateCount());
+        hibernateStatistics.setEntityDeleteCount(statistics.getEntityDeleteCount());
+        hibernateStatistics.setCollectionLoadCount(statistics.getCollectionLoadCount());
+        hibernateStatistics.setCollectionFetchCount(statistics.getCollectionFetchCount());
+        hibernateStatistics.setPrepareStatementCount(statistics.getPrepareStatementCount());
+        hibernateStatistics.setQueryExecutionCount(statistics.getQueryExecutionCount());
+        hibernateStatistics.setCacheRegions(
+            Arrays
+                .stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(this::toCacheRegion)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+        );
+        hibernateStatistics.setSlowestQueries(
+            Arrays
+                .stream(statistics.getQueries())
+                .map(this::toQuery)
+                .sorted(
+                    Comparator
+                        .comparingLong(HibernateStatisticsDTO.Query::getExecutionAvgTimeMillis)
+                        .thenComparingLong(HibernateStatisticsDTO.Query::getExecutionMaxTimeMillis)
+                        .reversed()
+                )
+                .limit(limit)
+                .collect(Collectors.toList())
+        );
+        return hibernateStatistics;
+    }
+
+    private HibernateStatisticsDTO.CacheRegion toCacheRegion(String regionName) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(regionName);
+        if (regionStatistics == null) {
+            return null;
+        }
+        HibernateStatisticsDTO.CacheRegion cacheRegion = new HibernateStatisticsDTO.CacheRegion();
+        cacheRegion.setRegion(regionName);
+        cacheRegion.setHitCount(regionStatistics.getHitCount());
+        cacheRegion.setMissCount(regionStatistics.getMissCount());
+        cacheRegion.setPutCount(regionStatistics.getPutCount());
+        return cacheRegion;
+    }
+
+    private HibernateStatisticsDTO.Query toQuery(String queryString) {
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(queryString);
+        HibernateStatisticsDTO.Query query = new HibernateStatisticsDTO.Query();
+        query.setQuery(queryString);
+        query.setExecutionCount(queryStatistics.getExecutionCount());
+        query.setExecutionAvgTimeMillis(queryStatistics.getExecutionAvgTime());
+        query.setExecutionMaxTimeMillis(queryStatistics.getExecutionMaxTime());
+        query.setExecutionRowCount(queryStatistics.getExecutionRowCount());
+        return query;
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        String entities = "hibernate.statistics.entities";
+        counter(meterRegistry, entities, "Entity operations", Statistics::getEntityLoadCount, "operation", "load");
+        counter(meterRegistry, entities, "Entity operations", Statistics::getEntityFetchCount, "operation", "fetch");
+        counter(meterRegistry, entities, "Entity operations", Statistics::getEntityInsertCount, "operation", "insert");
+        counter(meterRegistry, entities, "Entity operations", Statistics::getEntityUpdateCount, "operation", "update");
+        counter(meterRegistry, entities, "Entity operations", Statistics::getEntityDeleteCount, "operation", "delete");
+        String collections = "hibernate.statistics.collections";
+        counter(meterRegistry, collections, "Collection operations", Statistics::getCollectionLoadCount, "operation", "load");
+        counter(meterRegistry, collections, "Collection operations", Statistics::getCollectionFetchCount, "operation", "fetch");
+        counter(meterRegistry, "hibernate.statistics.statements", "Prepared JDBC statements", Statistics::getPrepareStatementCount);
+        counter(meterRegistry, "hibernate.statistics.queries", "Executed HQL queries", Statistics::getQueryExecutionCount);
+        Gauge
+            .builder("hibernate.statistics.query.max.time", statistics, Statistics::getQueryExecutionMaxTime)
+            .description("Longest HQL query execution")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            if (statistics.getDomainDataRegionStatistics(region) == null) {
+                continue;
+            }
+            String requests = "hibernate.statistics.cache.requests";
+            String lookups = "Second level cache lookups";
+            counter(meterRegistry, requests, lookups, s -> regionHits(s, region), "region", region, "result", "hit");
+            counter(meterRegistry, requests, lookups, s -> regionMisses(s, region), "region", region, "result", "miss");
+            String puts = "hibernate.statistics.cache.puts";
+            counter(meterRegistry, puts, "Second level cache puts", s -> regionPuts(s, region), "region", region);
+        }
+    }
+
+    private static long regionHits(Statistics statistics, String region) {
+        return statistics.getDomainDataRegionStatistics(region).getHitCount();
+    }
+
+    private static long regionMisses(Statistics statistics, String region) {
+        return statistics.getDomainDataRegionStatistics(region).getMissCount();
+    }
+
+    private static long regionPuts(Statistics statistics, String region) {
+        return statistics.getDomainDataRegionStatistics(region).getPutCount();
+    }
+
+    private void counter(MeterRegistry meterRegistry, String name, String description, ToDoubleFunction<Statistics> count, String... tags) {
+        FunctionCounter.builder(name, statistics, count).description(description).tags(tags).register(meterRegistry);
+    }
+}
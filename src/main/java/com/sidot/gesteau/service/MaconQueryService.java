@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.Macon;
 import com.sidot.gesteau.repository.MaconRepository;
 import com.sidot.gesteau.repository.search.MaconSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.MaconCriteria;
 import com.sidot.gesteau.service.dto.MaconDTO;
 import com.sidot.gesteau.service.mapper.MaconMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,10 +39,22 @@ public class MaconQueryService extends QueryService<Macon> {
 
     private final MaconSearchRepository maconSearchRepository;
 
-    public MaconQueryService(MaconRepository maconRepository, MaconMapper maconMapper, MaconSearchRepository maconSearchRepository) {
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public MaconQueryService(
+        MaconRepository maconRepository,
+        MaconMapper maconMapper,
+        MaconSearchRepository maconSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.maconRepository = maconRepository;
         this.maconMapper = maconMapper;
         this.maconSearchRepository = maconSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -55,28 +70,32 @@ public class MaconQueryService extends QueryService<Macon> {
     }
 
     /**
-     * Return a {@link Page} of {@link MaconDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link MaconDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<MaconDTO> findByCriteria(MaconCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<MaconDTO> findByCriteria(MaconCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<Macon> specification = createSpecification(criteria);
-        return maconRepository.findAll(specification, page).map(maconMapper::toDto);
+        return criteriaPageExecutor.findAll(maconRepository, Macon.class, specification, page, countMode).map(maconMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(MaconCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Macon> specification = createSpecification(criteria);
-        return maconRepository.count(specification);
+        if (criteria == null || criteria.equals(new MaconCriteria())) {
+            return criteriaResultCache.getTotalCount(Macon.class, maconRepository::count);
+        }
+        return criteriaResultCache.getCount(Macon.class, criteria, () -> maconRepository.count(createSpecification(criteria)));
     }
 
     /**
@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.MaconRepository;
 import com.sidot.gesteau.repository.search.MaconSearchRepository;
 import com.sidot.gesteau.service.dto.MaconDTO;
 import com.sidot.gesteau.service.mapper.MaconMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,10 +32,26 @@ public class MaconService {
 
     private final MaconSearchRepository maconSearchRepository;
 
-    public MaconService(MaconRepository maconRepository, MaconMapper maconMapper, MaconSearchRepository maconSearchRepository) {
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    public MaconService(
+        MaconRepository maconRepository,
+        MaconMapper maconMapper,
+        MaconSearchRepository maconSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
+    ) {
         this.maconRepository = maconRepository;
         this.maconMapper = maconMapper;
         this.maconSearchRepository = maconSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -47,31 +65,52 @@ public class MaconService {
         Macon macon = maconMapper.toEntity(maconDTO);
         macon = maconRepository.save(macon);
         MaconDTO result = maconMapper.toDto(macon);
-        maconSearchRepository.save(macon);
+        searchIndexOutbox.enqueue(Macon.class, macon.getId());
+        criteriaResultCache.invalidate(Macon.class, maconDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(Macon.class);
         return result;
     }
 
+    /**
+     * Update a macon, loaded once and updated in place.
+     *
+     * @param maconDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<MaconDTO> update(MaconDTO maconDTO) {
+        log.debug("Request to update Macon : {}", maconDTO);
+        return update(maconDTO, maconMapper::update);
+    }
+
     /**
      * Partially update a macon.
      *
      * @param maconDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<MaconDTO> partialUpdate(MaconDTO maconDTO) {
         log.debug("Request to partially update Macon : {}", maconDTO);
+        return update(maconDTO, maconMapper::partialUpdate);
+    }
 
+    private Optional<MaconDTO> update(MaconDTO maconDTO, BiConsumer<Macon, MaconDTO> mapping) {
         return maconRepository
             .findById(maconDTO.getId())
             .map(
                 existingMacon -> {
-                    maconMapper.partialUpdate(existingMacon, maconDTO);
+                    OptimisticLocking.checkVersion(Macon.class, existingMacon.getId(), existingMacon.getVersion(), maconDTO.getVersion());
+                    mapping.accept(existingMacon, maconDTO);
                     return existingMacon;
                 }
             )
-            .map(maconRepository::save)
+            .map(maconRepository::saveAndFlush)
             .map(
                 savedMacon -> {
-                    maconSearchRepository.save(savedMacon);
+                    searchIndexOutbox.enqueue(Macon.class, savedMacon.getId());
+                    criteriaResultCache.invalidate(Macon.class);
+                    referenceDataService.invalidate(Macon.class);
 
                     return savedMacon;
                 }
@@ -111,7 +150,9 @@ public class MaconService {
     public void delete(Long id) {
         log.debug("Request to delete Macon : {}", id);
         maconRepository.deleteById(id);
-        maconSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(Macon.class, id);
+        criteriaResultCache.invalidate(Macon.class, -1);
+        referenceDataService.invalidate(Macon.class);
     }
 
     /**
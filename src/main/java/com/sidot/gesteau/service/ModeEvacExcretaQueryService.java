@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.ModeEvacExcreta;
 import com.sidot.gesteau.repository.ModeEvacExcretaRepository;
 import com.sidot.gesteau.repository.search.ModeEvacExcretaSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.ModeEvacExcretaCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
 import com.sidot.gesteau.service.mapper.ModeEvacExcretaMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class ModeEvacExcretaQueryService extends QueryService<ModeEvacExcreta> {
 
     private final ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacExcretaQueryService(
         ModeEvacExcretaRepository modeEvacExcretaRepository,
         ModeEvacExcretaMapper modeEvacExcretaMapper,
-        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository
+        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacExcretaRepository = modeEvacExcretaRepository;
         this.modeEvacExcretaMapper = modeEvacExcretaMapper;
         this.modeEvacExcretaSearchRepository = modeEvacExcretaSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class ModeEvacExcretaQueryService extends QueryService<ModeEvacExcreta> {
     }
 
     /**
-     * Return a {@link Page} of {@link ModeEvacExcretaDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link ModeEvacExcretaDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<ModeEvacExcretaDTO> findByCriteria(ModeEvacExcretaCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<ModeEvacExcretaDTO> findByCriteria(ModeEvacExcretaCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<ModeEvacExcreta> specification = createSpecification(criteria);
-        return modeEvacExcretaRepository.findAll(specification, page).map(modeEvacExcretaMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(modeEvacExcretaRepository, ModeEvacExcreta.class, specification, page, countMode)
+            .map(modeEvacExcretaMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(ModeEvacExcretaCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<ModeEvacExcreta> specification = createSpecification(criteria);
-        return modeEvacExcretaRepository.count(specification);
+        if (criteria == null || criteria.equals(new ModeEvacExcretaCriteria())) {
+            return criteriaResultCache.getTotalCount(ModeEvacExcreta.class, modeEvacExcretaRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            ModeEvacExcreta.class,
+            criteria,
+            () -> modeEvacExcretaRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
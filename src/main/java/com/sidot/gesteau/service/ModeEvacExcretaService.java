@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.ModeEvacExcretaRepository;
 import com.sidot.gesteau.repository.search.ModeEvacExcretaSearchRepository;
 import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
 import com.sidot.gesteau.service.mapper.ModeEvacExcretaMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class ModeEvacExcretaService {
 
     private final ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacExcretaService(
         ModeEvacExcretaRepository modeEvacExcretaRepository,
         ModeEvacExcretaMapper modeEvacExcretaMapper,
-        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository
+        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacExcretaRepository = modeEvacExcretaRepository;
         this.modeEvacExcretaMapper = modeEvacExcretaMapper;
         this.modeEvacExcretaSearchRepository = modeEvacExcretaSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,60 @@ public class ModeEvacExcretaService {
         ModeEvacExcreta modeEvacExcreta = modeEvacExcretaMapper.toEntity(modeEvacExcretaDTO);
         modeEvacExcreta = modeEvacExcretaRepository.save(modeEvacExcreta);
         ModeEvacExcretaDTO result = modeEvacExcretaMapper.toDto(modeEvacExcreta);
-        modeEvacExcretaSearchRepository.save(modeEvacExcreta);
+        searchIndexOutbox.enqueue(ModeEvacExcreta.class, modeEvacExcreta.getId());
+        criteriaResultCache.invalidate(ModeEvacExcreta.class, modeEvacExcretaDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(ModeEvacExcreta.class);
         return result;
     }
 
+    /**
+     * Update a modeEvacExcreta, loaded once and updated in place.
+     *
+     * @param modeEvacExcretaDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<ModeEvacExcretaDTO> update(ModeEvacExcretaDTO modeEvacExcretaDTO) {
+        log.debug("Request to update ModeEvacExcreta : {}", modeEvacExcretaDTO);
+        return update(modeEvacExcretaDTO, modeEvacExcretaMapper::update);
+    }
+
     /**
      * Partially update a modeEvacExcreta.
      *
      * @param modeEvacExcretaDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<ModeEvacExcretaDTO> partialUpdate(ModeEvacExcretaDTO modeEvacExcretaDTO) {
         log.debug("Request to partially update ModeEvacExcreta : {}", modeEvacExcretaDTO);
+        return update(modeEvacExcretaDTO, modeEvacExcretaMapper::partialUpdate);
+    }
 
+    private Optional<ModeEvacExcretaDTO> update(
+        ModeEvacExcretaDTO modeEvacExcretaDTO,
+        BiConsumer<ModeEvacExcreta, ModeEvacExcretaDTO> mapping
+    ) {
         return modeEvacExcretaRepository
             .findById(modeEvacExcretaDTO.getId())
             .map(
                 existingModeEvacExcreta -> {
-                    modeEvacExcretaMapper.partialUpdate(existingModeEvacExcreta, modeEvacExcretaDTO);
+                    OptimisticLocking.checkVersion(
+                        ModeEvacExcreta.class,
+                        existingModeEvacExcreta.getId(),
+                        existingModeEvacExcreta.getVersion(),
+                        modeEvacExcretaDTO.getVersion()
+                    );
+                    mapping.accept(existingModeEvacExcreta, modeEvacExcretaDTO);
                     return existingModeEvacExcreta;
                 }
             )
-            .map(modeEvacExcretaRepository::save)
+            .map(modeEvacExcretaRepository::saveAndFlush)
             .map(
                 savedModeEvacExcreta -> {
-                    modeEvacExcretaSearchRepository.save(savedModeEvacExcreta);
+                    searchIndexOutbox.enqueue(ModeEvacExcreta.class, savedModeEvacExcreta.getId());
+                    criteriaResultCache.invalidate(ModeEvacExcreta.class);
+                    referenceDataService.invalidate(ModeEvacExcreta.class);
 
                     return savedModeEvacExcreta;
                 }
@@ -115,7 +158,9 @@ public class ModeEvacExcretaService {
     public void delete(Long id) {
         log.debug("Request to delete ModeEvacExcreta : {}", id);
         modeEvacExcretaRepository.deleteById(id);
-        modeEvacExcretaSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(ModeEvacExcreta.class, id);
+        criteriaResultCache.invalidate(ModeEvacExcreta.class, -1);
+        referenceDataService.invalidate(ModeEvacExcreta.class);
     }
 
     /**
@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
 import com.sidot.gesteau.repository.ModeEvacuationEauUseeRepository;
 import com.sidot.gesteau.repository.search.ModeEvacuationEauUseeSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.ModeEvacuationEauUseeCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
 import com.sidot.gesteau.service.mapper.ModeEvacuationEauUseeMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class ModeEvacuationEauUseeQueryService extends QueryService<ModeEvacuati
 
     private final ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacuationEauUseeQueryService(
         ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
         ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper,
-        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository
+        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
         this.modeEvacuationEauUseeMapper = modeEvacuationEauUseeMapper;
         this.modeEvacuationEauUseeSearchRepository = modeEvacuationEauUseeSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class ModeEvacuationEauUseeQueryService extends QueryService<ModeEvacuati
     }
 
     /**
-     * Return a {@link Page} of {@link ModeEvacuationEauUseeDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link ModeEvacuationEauUseeDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<ModeEvacuationEauUseeDTO> findByCriteria(ModeEvacuationEauUseeCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<ModeEvacuationEauUseeDTO> findByCriteria(ModeEvacuationEauUseeCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<ModeEvacuationEauUsee> specification = createSpecification(criteria);
-        return modeEvacuationEauUseeRepository.findAll(specification, page).map(modeEvacuationEauUseeMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(modeEvacuationEauUseeRepository, ModeEvacuationEauUsee.class, specification, page, countMode)
+            .map(modeEvacuationEauUseeMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(ModeEvacuationEauUseeCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<ModeEvacuationEauUsee> specification = createSpecification(criteria);
-        return modeEvacuationEauUseeRepository.count(specification);
+        if (criteria == null || criteria.equals(new ModeEvacuationEauUseeCriteria())) {
+            return criteriaResultCache.getTotalCount(ModeEvacuationEauUsee.class, modeEvacuationEauUseeRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            ModeEvacuationEauUsee.class,
+            criteria,
+            () -> modeEvacuationEauUseeRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
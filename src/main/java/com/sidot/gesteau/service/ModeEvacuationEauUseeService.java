@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.ModeEvacuationEauUseeRepository;
 import com.sidot.gesteau.repository.search.ModeEvacuationEauUseeSearchRepository;
 import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
 import com.sidot.gesteau.service.mapper.ModeEvacuationEauUseeMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class ModeEvacuationEauUseeService {
 
     private final ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacuationEauUseeService(
         ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
         ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper,
-        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository
+        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
         this.modeEvacuationEauUseeMapper = modeEvacuationEauUseeMapper;
         this.modeEvacuationEauUseeSearchRepository = modeEvacuationEauUseeSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,60 @@ public class ModeEvacuationEauUseeService {
         ModeEvacuationEauUsee modeEvacuationEauUsee = modeEvacuationEauUseeMapper.toEntity(modeEvacuationEauUseeDTO);
         modeEvacuationEauUsee = modeEvacuationEauUseeRepository.save(modeEvacuationEauUsee);
         ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUsee);
-        modeEvacuationEauUseeSearchRepository.save(modeEvacuationEauUsee);
+        searchIndexOutbox.enqueue(ModeEvacuationEauUsee.class, modeEvacuationEauUsee.getId());
+        criteriaResultCache.invalidate(ModeEvacuationEauUsee.class, modeEvacuationEauUseeDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(ModeEvacuationEauUsee.class);
         return result;
     }
 
+    /**
+     * Update a modeEvacuationEauUsee, loaded once and updated in place.
+     *
+     * @param modeEvacuationEauUseeDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<ModeEvacuationEauUseeDTO> update(ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO) {
+        log.debug("Request to update ModeEvacuationEauUsee : {}", modeEvacuationEauUseeDTO);
+        return update(modeEvacuationEauUseeDTO, modeEvacuationEauUseeMapper::update);
+    }
+
     /**
      * Partially update a modeEvacuationEauUsee.
      *
      * @param modeEvacuationEauUseeDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<ModeEvacuationEauUseeDTO> partialUpdate(ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO) {
         log.debug("Request to partially update ModeEvacuationEauUsee : {}", modeEvacuationEauUseeDTO);
+        return update(modeEvacuationEauUseeDTO, modeEvacuationEauUseeMapper::partialUpdate);
+    }
 
+    private Optional<ModeEvacuationEauUseeDTO> update(
+        ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO,
+        BiConsumer<ModeEvacuationEauUsee, ModeEvacuationEauUseeDTO> mapping
+    ) {
         return modeEvacuationEauUseeRepository
             .findById(modeEvacuationEauUseeDTO.getId())
             .map(
                 existingModeEvacuationEauUsee -> {
-                    modeEvacuationEauUseeMapper.partialUpdate(existingModeEvacuationEauUsee, modeEvacuationEauUseeDTO);
+                    OptimisticLocking.checkVersion(
+                        ModeEvacuationEauUsee.class,
+                        existingModeEvacuationEauUsee.getId(),
+                        existingModeEvacuationEauUsee.getVersion(),
+                        modeEvacuationEauUseeDTO.getVersion()
+                    );
+                    mapping.accept(existingModeEvacuationEauUsee, modeEvacuationEauUseeDTO);
                     return existingModeEvacuationEauUsee;
                 }
             )
-            .map(modeEvacuationEauUseeRepository::save)
+            .map(modeEvacuationEauUseeRepository::saveAndFlush)
             .map(
                 savedModeEvacuationEauUsee -> {
-                    modeEvacuationEauUseeSearchRepository.save(savedModeEvacuationEauUsee);
+                    searchIndexOutbox.enqueue(ModeEvacuationEauUsee.class, savedModeEvacuationEauUsee.getId());
+                    criteriaResultCache.invalidate(ModeEvacuationEauUsee.class);
+                    referenceDataService.invalidate(ModeEvacuationEauUsee.class);
 
                     return savedModeEvacuationEauUsee;
                 }
@@ -115,7 +158,9 @@ public class ModeEvacuationEauUseeService {
     public void delete(Long id) {
         log.debug("Request to delete ModeEvacuationEauUsee : {}", id);
         modeEvacuationEauUseeRepository.deleteById(id);
-        modeEvacuationEauUseeSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(ModeEvacuationEauUsee.class, id);
+        criteriaResultCache.invalidate(ModeEvacuationEauUsee.class, -1);
+        referenceDataService.invalidate(ModeEvacuationEauUsee.class);
     }
 
     /**
@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.NatureOuvrage;
 import com.sidot.gesteau.repository.NatureOuvrageRepository;
 import com.sidot.gesteau.repository.search.NatureOuvrageSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.NatureOuvrageCriteria;
 import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
 import com.sidot.gesteau.service.mapper.NatureOuvrageMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class NatureOuvrageQueryService extends QueryService<NatureOuvrage> {
 
     private final NatureOuvrageSearchRepository natureOuvrageSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public NatureOuvrageQueryService(
         NatureOuvrageRepository natureOuvrageRepository,
         NatureOuvrageMapper natureOuvrageMapper,
-        NatureOuvrageSearchRepository natureOuvrageSearchRepository
+        NatureOuvrageSearchRepository natureOuvrageSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.natureOuvrageRepository = natureOuvrageRepository;
         this.natureOuvrageMapper = natureOuvrageMapper;
         this.natureOuvrageSearchRepository = natureOuvrageSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class NatureOuvrageQueryService extends QueryService<NatureOuvrage> {
     }
 
     /**
-     * Return a {@link Page} of {@link NatureOuvrageDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link NatureOuvrageDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<NatureOuvrageDTO> findByCriteria(NatureOuvrageCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<NatureOuvrageDTO> findByCriteria(NatureOuvrageCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<NatureOuvrage> specification = createSpecification(criteria);
-        return natureOuvrageRepository.findAll(specification, page).map(natureOuvrageMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(natureOuvrageRepository, NatureOuvrage.class, specification, page, countMode)
+            .map(natureOuvrageMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(NatureOuvrageCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<NatureOuvrage> specification = createSpecification(criteria);
-        return natureOuvrageRepository.count(specification);
+        if (criteria == null || criteria.equals(new NatureOuvrageCriteria())) {
+            return criteriaResultCache.getTotalCount(NatureOuvrage.class, natureOuvrageRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            NatureOuvrage.class,
+            criteria,
+            () -> natureOuvrageRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.NatureOuvrageRepository;
 import com.sidot.gesteau.repository.search.NatureOuvrageSearchRepository;
 import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
 import com.sidot.gesteau.service.mapper.NatureOuvrageMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class NatureOuvrageService {
 
     private final NatureOuvrageSearchRepository natureOuvrageSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public NatureOuvrageService(
         NatureOuvrageRepository natureOuvrageRepository,
         NatureOuvrageMapper natureOuvrageMapper,
-        NatureOuvrageSearchRepository natureOuvrageSearchRepository
+        NatureOuvrageSearchRepository natureOuvrageSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.natureOuvrageRepository = natureOuvrageRepository;
         this.natureOuvrageMapper = natureOuvrageMapper;
         this.natureOuvrageSearchRepository = natureOuvrageSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class NatureOuvrageService {
         NatureOuvrage natureOuvrage = natureOuvrageMapper.toEntity(natureOuvrageDTO);
         natureOuvrage = natureOuvrageRepository.save(natureOuvrage);
         NatureOuvrageDTO result = natureOuvrageMapper.toDto(natureOuvrage);
-        natureOuvrageSearchRepository.save(natureOuvrage);
+        searchIndexOutbox.enqueue(NatureOuvrage.class, natureOuvrage.getId());
+        criteriaResultCache.invalidate(NatureOuvrage.class, natureOuvrageDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(NatureOuvrage.class);
         return result;
     }
 
+    /**
+     * Update a natureOuvrage, loaded once and updated in place.
+     *
+     * @param natureOuvrageDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<NatureOuvrageDTO> update(NatureOuvrageDTO natureOuvrageDTO) {
+        log.debug("Request to update NatureOuvrage : {}", natureOuvrageDTO);
+        return update(natureOuvrageDTO, natureOuvrageMapper::update);
+    }
+
     /**
      * Partially update a natureOuvrage.
      *
      * @param natureOuvrageDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<NatureOuvrageDTO> partialUpdate(NatureOuvrageDTO natureOuvrageDTO) {
         log.debug("Request to partially update NatureOuvrage : {}", natureOuvrageDTO);
+        return update(natureOuvrageDTO, natureOuvrageMapper::partialUpdate);
+    }
 
+    private Optional<NatureOuvrageDTO> update(NatureOuvrageDTO natureOuvrageDTO, BiConsumer<NatureOuvrage, NatureOuvrageDTO> mapping) {
         return natureOuvrageRepository
             .findById(natureOuvrageDTO.getId())
             .map(
                 existingNatureOuvrage -> {
-                    natureOuvrageMapper.partialUpdate(existingNatureOuvrage, natureOuvrageDTO);
+                    OptimisticLocking.checkVersion(
+                        NatureOuvrage.class,
+                        existingNatureOuvrage.getId(),
+                        existingNatureOuvrage.getVersion(),
+                        natureOuvrageDTO.getVersion()
+                    );
+                    mapping.accept(existingNatureOuvrage, natureOuvrageDTO);
                     return existingNatureOuvrage;
                 }
             )
-            .map(natureOuvrageRepository::save)
+            .map(natureOuvrageRepository::saveAndFlush)
             .map(
                 savedNatureOuvrage -> {
-                    natureOuvrageSearchRepository.save(savedNatureOuvrage);
+                    searchIndexOutbox.enqueue(NatureOuvrage.class, savedNatureOuvrage.getId());
+                    criteriaResultCache.invalidate(NatureOuvrage.class);
+                    referenceDataService.invalidate(NatureOuvrage.class);
 
                     return savedNatureOuvrage;
                 }
@@ -115,7 +155,9 @@ public class NatureOuvrageService {
     public void delete(Long id) {
         log.debug("Request to delete NatureOuvrage : {}", id);
         natureOuvrageRepository.deleteById(id);
-        natureOuvrageSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(NatureOuvrage.class, id);
+        criteriaResultCache.invalidate(NatureOuvrage.class, -1);
+        referenceDataService.invalidate(NatureOuvrage.class);
     }
 
     /**
@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.Prefabricant;
 import com.sidot.gesteau.repository.PrefabricantRepository;
 import com.sidot.gesteau.repository.search.PrefabricantSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.PrefabricantCriteria;
 import com.sidot.gesteau.service.dto.PrefabricantDTO;
 import com.sidot.gesteau.service.mapper.PrefabricantMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class PrefabricantQueryService extends QueryService<Prefabricant> {
 
     private final PrefabricantSearchRepository prefabricantSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrefabricantQueryService(
         PrefabricantRepository prefabricantRepository,
         PrefabricantMapper prefabricantMapper,
-        PrefabricantSearchRepository prefabricantSearchRepository
+        PrefabricantSearchRepository prefabricantSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.prefabricantRepository = prefabricantRepository;
         this.prefabricantMapper = prefabricantMapper;
         this.prefabricantSearchRepository = prefabricantSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class PrefabricantQueryService extends QueryService<Prefabricant> {
     }
 
     /**
-     * Return a {@link Page} of {@link PrefabricantDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link PrefabricantDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<PrefabricantDTO> findByCriteria(PrefabricantCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<PrefabricantDTO> findByCriteria(PrefabricantCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<Prefabricant> specification = createSpecification(criteria);
-        return prefabricantRepository.findAll(specification, page).map(prefabricantMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(prefabricantRepository, Prefabricant.class, specification, page, countMode)
+            .map(prefabricantMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(PrefabricantCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Prefabricant> specification = createSpecification(criteria);
-        return prefabricantRepository.count(specification);
+        if (criteria == null || criteria.equals(new PrefabricantCriteria())) {
+            return criteriaResultCache.getTotalCount(Prefabricant.class, prefabricantRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            Prefabricant.class,
+            criteria,
+            () -> prefabricantRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.PrefabricantRepository;
 import com.sidot.gesteau.repository.search.PrefabricantSearchRepository;
 import com.sidot.gesteau.service.dto.PrefabricantDTO;
 import com.sidot.gesteau.service.mapper.PrefabricantMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class PrefabricantService {
 
     private final PrefabricantSearchRepository prefabricantSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrefabricantService(
         PrefabricantRepository prefabricantRepository,
         PrefabricantMapper prefabricantMapper,
-        PrefabricantSearchRepository prefabricantSearchRepository
+        PrefabricantSearchRepository prefabricantSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.prefabricantRepository = prefabricantRepository;
         this.prefabricantMapper = prefabricantMapper;
         this.prefabricantSearchRepository = prefabricantSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class PrefabricantService {
         Prefabricant prefabricant = prefabricantMapper.toEntity(prefabricantDTO);
         prefabricant = prefabricantRepository.save(prefabricant);
         PrefabricantDTO result = prefabricantMapper.toDto(prefabricant);
-        prefabricantSearchRepository.save(prefabricant);
+        searchIndexOutbox.enqueue(Prefabricant.class, prefabricant.getId());
+        criteriaResultCache.invalidate(Prefabricant.class, prefabricantDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(Prefabricant.class);
         return result;
     }
 
+    /**
+     * Update a prefabricant, loaded once and updated in place.
+     *
+     * @param prefabricantDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<PrefabricantDTO> update(PrefabricantDTO prefabricantDTO) {
+        log.debug("Request to update Prefabricant : {}", prefabricantDTO);
+        return update(prefabricantDTO, prefabricantMapper::update);
+    }
+
     /**
      * Partially update a prefabricant.
      *
      * @param prefabricantDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<PrefabricantDTO> partialUpdate(PrefabricantDTO prefabricantDTO) {
         log.debug("Request to partially update Prefabricant : {}", prefabricantDTO);
+        return update(prefabricantDTO, prefabricantMapper::partialUpdate);
+    }
 
+    private Optional<PrefabricantDTO> update(PrefabricantDTO prefabricantDTO, BiConsumer<Prefabricant, PrefabricantDTO> mapping) {
         return prefabricantRepository
             .findById(prefabricantDTO.getId())
             .map(
                 existingPrefabricant -> {
-                    prefabricantMapper.partialUpdate(existingPrefabricant, prefabricantDTO);
+                    OptimisticLocking.checkVersion(
+                        Prefabricant.class,
+                        existingPrefabricant.getId(),
+                        existingPrefabricant.getVersion(),
+                        prefabricantDTO.getVersion()
+                    );
+                    mapping.accept(existingPrefabricant, prefabricantDTO);
                     return existingPrefabricant;
                 }
             )
-            .map(prefabricantRepository::save)
+            .map(prefabricantRepository::saveAndFlush)
             .map(
                 savedPrefabricant -> {
-                    prefabricantSearchRepository.save(savedPrefabricant);
+                    searchIndexOutbox.enqueue(Prefabricant.class, savedPrefabricant.getId());
+                    criteriaResultCache.invalidate(Prefabricant.class);
+                    referenceDataService.invalidate(Prefabricant.class);
 
                     return savedPrefabricant;
                 }
@@ -115,7 +155,9 @@ public class PrefabricantService {
     public void delete(Long id) {
         log.debug("Request to delete Prefabricant : {}", id);
         prefabricantRepository.deleteById(id);
-        prefabricantSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(Prefabricant.class, id);
+        criteriaResultCache.invalidate(Prefabricant.class, -1);
+        referenceDataService.invalidate(Prefabricant.class);
     }
 
     /**
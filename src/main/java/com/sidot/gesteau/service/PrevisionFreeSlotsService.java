@@ -0,0 +1,94 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.repository.AnneeRepository;
+import com.sidot.gesteau.repository.CentreRepository;
+import com.sidot.gesteau.service.dto.PrevisionFreeSlotsDTO;
+import com.sidot.gesteau.service.mapper.AnneeMapper;
+import com.sidot.gesteau.service.mapper.CentreMapper;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service listing the centres and annees without {@link Prevision}, for the prevision creation form.
+ * <p>
+ * The list is cached in the cluster, and evicted once a transaction writing a prevision, a centre or an annee commits.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PrevisionFreeSlotsService {
+
+    public static final String PREVISION_FREE_SLOTS_CACHE = "previsionFreeSlots";
+
+    private final Logger log = LoggerFactory.getLogger(PrevisionFreeSlotsService.class);
+
+    private final CentreRepository centreRepository;
+
+    private final CentreMapper centreMapper;
+
+    private final AnneeRepository anneeRepository;
+
+    private final AnneeMapper anneeMapper;
+
+    private final CacheManager cacheManager;
+
+    public PrevisionFreeSlotsService(
+        CentreRepository centreRepository,
+        CentreMapper centreMapper,
+        AnneeRepository anneeRepository,
+        AnneeMapper anneeMapper,
+        CacheManager cacheManager
+    ) {
+        this.centreRepository = centreRepository;
+        this.centreMapper = centreMapper;
+        this.anneeRepository = anneeRepository;
+        this.anneeMapper = anneeMapper;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the centres and the annees without prevision.
+     *
+     * @return the free centres and annees, sorted by libelle.
+     */
+    @Cacheable(PREVISION_FREE_SLOTS_CACHE)
+    public PrevisionFreeSlotsDTO findFreeSlots() {
+        log.debug("Request to get the Centres and Annees without Prevision");
+        PrevisionFreeSlotsDTO result = new PrevisionFreeSlotsDTO();
+        result.setCentres(centreMapper.toDto(centreRepository.findAllWherePrevisionIsNull(Sort.by("libelle", "id"))));
+        result.setAnnees(anneeMapper.toDto(anneeRepository.findAllWherePrevisionIsNull(Sort.by("libelle", "id"))));
+        return result;
+    }
+
+    /**
+     * Evict the free slots once the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void evict() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clearCache();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearCache();
+                }
+            }
+        );
+    }
+
+    private void clearCache() {
+        Objects.requireNonNull(cacheManager.getCache(PREVISION_FREE_SLOTS_CACHE)).clear();
+    }
+}
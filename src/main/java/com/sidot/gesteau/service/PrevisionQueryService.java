@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.Prevision;
 import com.sidot.gesteau.repository.PrevisionRepository;
 import com.sidot.gesteau.repository.search.PrevisionSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.PrevisionCriteria;
 import com.sidot.gesteau.service.dto.PrevisionDTO;
 import com.sidot.gesteau.service.mapper.PrevisionMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class PrevisionQueryService extends QueryService<Prevision> {
 
     private final PrevisionSearchRepository previsionSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrevisionQueryService(
         PrevisionRepository previsionRepository,
         PrevisionMapper previsionMapper,
-        PrevisionSearchRepository previsionSearchRepository
+        PrevisionSearchRepository previsionSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.previsionRepository = previsionRepository;
         this.previsionMapper = previsionMapper;
         this.previsionSearchRepository = previsionSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,43 @@ public class PrevisionQueryService extends QueryService<Prevision> {
     }
 
     /**
-     * Return a {@link Page} of {@link PrevisionDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link PrevisionDTO} which matches the criteria from the database,
+     * or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<PrevisionDTO> findByCriteria(PrevisionCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
-        final Specification<Prevision> specification = createSpecification(criteria);
-        return previsionRepository.findAll(specification, page).map(previsionMapper::toDto);
+    public Slice<PrevisionDTO> findByCriteria(PrevisionCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
+        return criteriaResultCache.getSlice(
+            Prevision.class,
+            criteria,
+            page,
+            countMode,
+            () -> {
+                final Specification<Prevision> specification = createSpecification(criteria);
+                return criteriaPageExecutor
+                    .findAll(previsionRepository, Prevision.class, specification, page, countMode)
+                    .map(previsionMapper::toDto);
+            }
+        );
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(PrevisionCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Prevision> specification = createSpecification(criteria);
-        return previsionRepository.count(specification);
+        if (criteria == null || criteria.equals(new PrevisionCriteria())) {
+            return criteriaResultCache.getTotalCount(Prevision.class, previsionRepository::count);
+        }
+        return criteriaResultCache.getCount(Prevision.class, criteria, () -> previsionRepository.count(createSpecification(criteria)));
     }
 
     /**
@@ -0,0 +1,330 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.PrevisionRealisationCounter;
+import com.sidot.gesteau.repository.PrevisionRealisationCounterRepository;
+import com.sidot.gesteau.service.dto.PrevisionRealisationCounterDTO;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the {@link PrevisionRealisationCounter}s, the number of FicheSuiviOuvrages of each
+ * {@link Prevision} per NatureOuvrage.
+ * <p>
+ * The counters are updated in the transaction writing the FicheSuiviOuvrages, the writes to a prevision being
+ * serialized by a lock on its row. Reads are served by an in-memory copy per prevision, updated once the writes of
+ * this instance commit and reloaded every {@code application.realisation.counter-refresh-interval} to catch up with
+ * the other instances. A nightly reconciliation rebuilds the counters from the FicheSuiviOuvrages.
+ * <p>
+ * A copy loaded while a write commits may or may not hold it: such a copy is dropped rather than updated, and reloaded
+ * by the next read, so that the write is neither lost nor counted twice.
+ */
+@Service
+@Transactional
+public class PrevisionRealisationCounterService {
+
+    private final Logger log = LoggerFactory.getLogger(PrevisionRealisationCounterService.class);
+
+    private final PrevisionRealisationCounterRepository previsionRealisationCounterRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long refreshIntervalNanos;
+
+    private final ConcurrentMap<Long, CachedCounters> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence of the writes, taken before they commit.
+     */
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    /**
+     * Sequence of the commits of the writes, and the last one of each prevision.
+     */
+    private final AtomicLong commitSequence = new AtomicLong();
+
+    private final ConcurrentMap<Long, Long> lastCommits = new ConcurrentHashMap<>();
+
+    public PrevisionRealisationCounterService(
+        PrevisionRealisationCounterRepository previsionRealisationCounterRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.previsionRealisationCounterRepository = previsionRealisationCounterRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshIntervalNanos = applicationProperties.getRealisation().getCounterRefreshInterval().toNanos();
+    }
+
+    /**
+     * Get the key a stored ficheSuiviOuvrage is currently counted for, before it is updated or deleted.
+     *
+     * @param ficheSuiviOuvrageId the id of the ficheSuiviOuvrage.
+     * @return the key, {@code null} if the ficheSuiviOuvrage does not exist or is not counted.
+     */
+    public PrevisionRealisationCounter.Key findKey(Long ficheSuiviOuvrageId) {
+        List<Object[]> rows = entityManager
+            .createQuery(
+                "select prevision.id, natureOuvrage.id from FicheSuiviOuvrage ficheSuiviOuvrage" +
+                " left join ficheSuiviOuvrage.prevision prevision" +
+                " left join ficheSuiviOuvrage.natureouvrage natureOuvrage" +
+                " where ficheSuiviOuvrage.id = :id",
+                Object[].class
+            )
+            .setParameter("id", ficheSuiviOuvrageId)
+            .getResultList();
+        if (rows.isEmpty() || rows.get(0)[0] == null || rows.get(0)[1] == null) {
+            return null;
+        }
+        return new PrevisionRealisationCounter.Key((Long) rows.get(0)[0], (Long) rows.get(0)[1]);
+    }
+
+    /**
+     * Move a ficheSuiviOuvrage from one counter to another, when it is created, reassigned or deleted.
+     *
+     * @param from the key it was counted for, {@code null} if it was not counted.
+     * @param to the key it is now counted for, {@code null} if it is no more counted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(PrevisionRealisationCounter.Key from, PrevisionRealisationCounter.Key to) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        Map<PrevisionRealisationCounter.Key, Long> deltas = new HashMap<>();
+        if (from != null) {
+            deltas.merge(from, -1L, Long::sum);
+        }
+        if (to != null) {
+            deltas.merge(to, 1L, Long::sum);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Count the given ficheSuiviOuvrages, just inserted.
+     *
+     * @param ficheSuiviOuvrages the inserted ficheSuiviOuvrages.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void countInserted(Iterable<FicheSuiviOuvrage> ficheSuiviOuvrages) {
+        Map<PrevisionRealisationCounter.Key, Long> deltas = new HashMap<>();
+        for (FicheSuiviOuvrage ficheSuiviOuvrage : ficheSuiviOuvrages) {
+            PrevisionRealisationCounter.Key key = PrevisionRealisationCounter.Key.of(ficheSuiviOuvrage);
+            if (key != null) {
+                deltas.merge(key, 1L, Long::sum);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Get the number of FicheSuiviOuvrages of a prevision per NatureOuvrage, from memory when possible.
+     *
+     * @param previsionId the id of the prevision.
+     * @return the counters, by NatureOuvrage id.
+     */
+    @Transactional(readOnly = true)
+    public List<PrevisionRealisationCounterDTO> findByPrevision(Long previsionId) {
+        log.debug("Request to get the realisation counters of Prevision : {}", previsionId);
+        CachedCounters cached = cache.get(previsionId);
+        if (cached == null || System.nanoTime() - cached.loadedAt > refreshIntervalNanos) {
+            cached = load(previsionId);
+        }
+        List<PrevisionRealisationCounterDTO> result = new ArrayList<>();
+        new TreeMap<>(cached.realisedByNature).forEach(
+            (natureOuvrageId, realised) -> {
+                if (realised.sum() > 0) {
+                    result.add(new PrevisionRealisationCounterDTO(natureOuvrageId, realised.sum()));
+                }
+            }
+        );
+        return result;
+    }
+
+    @Scheduled(cron = "${application.realisation.reconciliation-cron:0 0 3 * * ?}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduleReconciliation() {
+        reconcileAll();
+    }
+
+    /**
+     * Rebuild the counters of every prevision from the FicheSuiviOuvrages, one prevision per transaction.
+     *
+     * @return the number of previsions whose counters had drifted.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int reconcileAll() {
+        int drifted = 0;
+        for (Long previsionId : previsionRealisationCounterRepository.findAllPrevisionIds()) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcile(previsionId)))) {
+                drifted++;
+            }
+        }
+        if (drifted > 0) {
+            log.warn("Realisation counters of {} previsions had drifted and were rebuilt", drifted);
+        }
+        return drifted;
+    }
+
+    /**
+     * Rebuild the counters of a prevision from its FicheSuiviOuvrages.
+     *
+     * @param previsionId the id of the prevision.
+     * @return whether the counters had drifted.
+     */
+    public boolean reconcile(Long previsionId) {
+        if (previsionRealisationCounterRepository.lockPrevision(previsionId) == null) {
+            return false;
+        }
+        List<Object[]> before = previsionRealisationCounterRepository.findRealisedByPrevisionId(previsionId);
+        previsionRealisationCounterRepository.deleteByPrevisionId(previsionId);
+        previsionRealisationCounterRepository.insertFromFicheSuiviOuvrages(previsionId);
+        List<Object[]> after = previsionRealisationCounterRepository.findRealisedByPrevisionId(previsionId);
+        afterCommit(
+            () -> {
+                committed(previsionId);
+                cache.remove(previsionId);
+            }
+        );
+        boolean drifted = !toMap(before).equals(toMap(after));
+        if (drifted) {
+            log.debug("Realisation counters of Prevision {} rebuilt: {} instead of {}", previsionId, toMap(after), toMap(before));
+        }
+        return drifted;
+    }
+
+    private void apply(Map<PrevisionRealisationCounter.Key, Long> deltas) {
+        // Lock the previsions in a fixed order, so that concurrent reassignments between them cannot deadlock
+        deltas
+            .keySet()
+            .stream()
+            .map(PrevisionRealisationCounter.Key::getPrevisionId)
+            .distinct()
+            .sorted()
+            .forEach(previsionRealisationCounterRepository::lockPrevision);
+        deltas.forEach(this::applyDelta);
+        long write = writeSequence.incrementAndGet();
+        afterCommit(
+            () ->
+                deltas.forEach(
+                    (key, delta) -> {
+                        Long previsionId = key.getPrevisionId();
+                        committed(previsionId);
+                        CachedCounters cached = cache.get(previsionId);
+                        if (cached == null) {
+                            return;
+                        }
+                        if (cached.lastWrite < write) {
+                            // Read before this write, which it cannot hold
+                            cached.add(key.getNatureOuvrageId(), delta);
+                        } else {
+                            // Read while this write committed: it may already hold it
+                            cache.remove(previsionId, cached);
+                        }
+                    }
+                )
+        );
+    }
+
+    /**
+     * Load the counters of a prevision, and cache them unless a write committed while they were read.
+     */
+    private CachedCounters load(Long previsionId) {
+        long lastCommit = commitSequence.get();
+        List<Object[]> rows = previsionRealisationCounterRepository.findRealisedByPrevisionId(previsionId);
+        // Taken once the rows are read: the writes of a higher sequence are not committed yet
+        CachedCounters loaded = new CachedCounters(writeSequence.get());
+        for (Object[] row : rows) {
+            loaded.add((Long) row[0], (Long) row[1]);
+        }
+        cache.put(previsionId, loaded);
+        // A write committing meanwhile may have missed the copy just cached
+        if (lastCommits.getOrDefault(previsionId, 0L) > lastCommit) {
+            cache.remove(previsionId, loaded);
+        }
+        return loaded;
+    }
+
+    private void committed(Long previsionId) {
+        lastCommits.merge(previsionId, commitSequence.incrementAndGet(), Math::max);
+    }
+
+    private void applyDelta(PrevisionRealisationCounter.Key key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        Long previsionId = key.getPrevisionId();
+        Long natureOuvrageId = key.getNatureOuvrageId();
+        if (previsionRealisationCounterRepository.increment(previsionId, natureOuvrageId, delta) > 0) {
+            if (delta < 0) {
+                previsionRealisationCounterRepository.deleteIfEmpty(previsionId, natureOuvrageId);
+            }
+        } else if (delta > 0) {
+            // The prevision lock guarantees that no other transaction is creating the same counter
+            previsionRealisationCounterRepository.insert(previsionId, natureOuvrageId, delta);
+        } else {
+            log.warn("Realisation counter {} is missing, left to the reconciliation", key);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private static Map<Long, Long> toMap(List<Object[]> rows) {
+        Map<Long, Long> result = new HashMap<>();
+        rows.forEach(row -> result.put((Long) row[0], (Long) row[1]));
+        return result;
+    }
+
+    /**
+     * The counters of a prevision, striped so that concurrent commits do not contend.
+     */
+    private static final class CachedCounters {
+
+        private final long loadedAt = System.nanoTime();
+
+        private final long lastWrite;
+
+        private final ConcurrentMap<Long, LongAdder> realisedByNature = new ConcurrentHashMap<>();
+
+        private CachedCounters(long lastWrite) {
+            this.lastWrite = lastWrite;
+        }
+
+        private void add(Long natureOuvrageId, long delta) {
+            realisedByNature.computeIfAbsent(natureOuvrageId, id -> new LongAdder()).add(delta);
+        }
+    }
+}
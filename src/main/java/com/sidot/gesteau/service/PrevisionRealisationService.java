@@ -0,0 +1,180 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.PrevisionRealisationCounter;
+import com.sidot.gesteau.service.dto.PrevisionCategory;
+import com.sidot.gesteau.service.dto.PrevisionRealisationDTO;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service comparing the ouvrages planned by the {@link Prevision}s with the FicheSuiviOuvrages realised.
+ * <p>
+ * The realised ouvrages are read from the {@link PrevisionRealisationCounter}s in a single query, and the comparison
+ * is cached per scope for {@code application.realisation.time-to-live-seconds}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PrevisionRealisationService {
+
+    public static final String PREVISION_REALISATION_CACHE = "previsionRealisation";
+
+    private final Logger log = LoggerFactory.getLogger(PrevisionRealisationService.class);
+
+    private final EntityManager entityManager;
+
+    private final Map<String, PrevisionCategory> categoriesByNature = new HashMap<>();
+
+    public PrevisionRealisationService(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        applicationProperties
+            .getRealisation()
+            .getNatures()
+            .forEach((category, libelles) -> libelles.forEach(libelle -> categoriesByNature.put(normalize(libelle), category)));
+    }
+
+    /**
+     * Compare the planned and realised ouvrages of the previsions of an annee.
+     *
+     * @param anneeId the id of the annee.
+     * @param centreId the id of the centre of the previsions, {@code null} for any.
+     * @param centreRegroupementId the id of the regroupement of the centre of the previsions, {@code null} for any.
+     * @param directionRegionaleId the id of the direction of the regroupement of the previsions, {@code null} for any.
+     * @return the comparison.
+     */
+    @Cacheable(PREVISION_REALISATION_CACHE)
+    public PrevisionRealisationDTO findRealisation(Long anneeId, Long centreId, Long centreRegroupementId, Long directionRegionaleId) {
+        log.debug(
+            "Request to get the realisation of the Previsions of Annee {} (Centre {}, CentreRegroupement {}, DirectionRegionale {})",
+            anneeId,
+            centreId,
+            centreRegroupementId,
+            directionRegionaleId
+        );
+        StringBuilder jpql = new StringBuilder(
+            "select prevision.id, prevision.nbLatrine, prevision.nbPuisard, prevision.nbPublic, prevision.nbScolaire," +
+            " natureOuvrage.id, natureOuvrage.libelle, counter.realised" +
+            " from Prevision prevision" +
+            " left join PrevisionRealisationCounter counter on counter.previsionId = prevision.id" +
+            " left join NatureOuvrage natureOuvrage on natureOuvrage.id = counter.natureOuvrageId"
+        );
+        if (centreRegroupementId != null || directionRegionaleId != null) {
+            jpql.append(" join prevision.centre centre");
+        }
+        if (directionRegionaleId != null) {
+            jpql.append(" join centre.centreRegroupement centreRegroupement");
+        }
+        jpql.append(" where prevision.annee.id = :anneeId");
+        if (centreId != null) {
+            jpql.append(" and prevision.centre.id = :centreId");
+        }
+        if (centreRegroupementId != null) {
+            jpql.append(" and centre.centreRegroupement.id = :centreRegroupementId");
+        }
+        if (directionRegionaleId != null) {
+            jpql.append(" and centreRegroupement.directionRegionale.id = :directionRegionaleId");
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class).setParameter("anneeId", anneeId);
+        if (centreId != null) {
+            query.setParameter("centreId", centreId);
+        }
+        if (centreRegroupementId != null) {
+            query.setParameter("centreRegroupementId", centreRegroupementId);
+        }
+        if (directionRegionaleId != null) {
+            query.setParameter("directionRegionaleId", directionRegionaleId);
+        }
+        return toDto(query.getResultList(), anneeId, centreId, centreRegroupementId, directionRegionaleId);
+    }
+
+    private PrevisionRealisationDTO toDto(
+        List<Object[]> rows,
+        Long anneeId,
+        Long centreId,
+        Long centreRegroupementId,
+        Long directionRegionaleId
+    ) {
+        Set<Long> previsionIds = new HashSet<>();
+        Map<PrevisionCategory, Long> planned = new EnumMap<>(PrevisionCategory.class);
+        Map<PrevisionCategory, Long> realised = new EnumMap<>(PrevisionCategory.class);
+        Map<Long, PrevisionRealisationDTO.NatureRealisation> natures = new HashMap<>();
+        for (PrevisionCategory category : PrevisionCategory.values()) {
+            planned.put(category, 0L);
+            realised.put(category, 0L);
+        }
+        for (Object[] row : rows) {
+            // The planned counts are repeated on the row of every nature of the prevision
+            if (previsionIds.add((Long) row[0])) {
+                planned.merge(PrevisionCategory.LATRINE, toLong(row[1]), Long::sum);
+                planned.merge(PrevisionCategory.PUISARD, toLong(row[2]), Long::sum);
+                planned.merge(PrevisionCategory.PUBLIC, toLong(row[3]), Long::sum);
+                planned.merge(PrevisionCategory.SCOLAIRE, toLong(row[4]), Long::sum);
+            }
+            Long natureOuvrageId = (Long) row[5];
+            if (natureOuvrageId == null) {
+                continue;
+            }
+            long count = (Long) row[7];
+            PrevisionRealisationDTO.NatureRealisation nature = natures.computeIfAbsent(
+                natureOuvrageId,
+                id -> {
+                    PrevisionRealisationDTO.NatureRealisation created = new PrevisionRealisationDTO.NatureRealisation();
+                    created.setNatureOuvrageId(id);
+                    created.setLibelle((String) row[6]);
+                    created.setCategory(categoriesByNature.get(normalize((String) row[6])));
+                    return created;
+                }
+            );
+            nature.setRealised(nature.getRealised() + count);
+            if (nature.getCategory() != null) {
+                realised.merge(nature.getCategory(), count, Long::sum);
+            }
+        }
+
+        PrevisionRealisationDTO result = new PrevisionRealisationDTO();
+        result.setAnneeId(anneeId);
+        result.setCentreId(centreId);
+        result.setCentreRegroupementId(centreRegroupementId);
+        result.setDirectionRegionaleId(directionRegionaleId);
+        result.setPrevisions(previsionIds.size());
+        for (PrevisionCategory category : PrevisionCategory.values()) {
+            PrevisionRealisationDTO.CategoryRealisation categoryRealisation = new PrevisionRealisationDTO.CategoryRealisation();
+            categoryRealisation.setCategory(category);
+            categoryRealisation.setPlanned(planned.get(category));
+            categoryRealisation.setRealised(realised.get(category));
+            if (planned.get(category) > 0) {
+                categoryRealisation.setPercentage(realised.get(category) * 100.0 / planned.get(category));
+            }
+            result.getCategories().add(categoryRealisation);
+        }
+        natures
+            .values()
+            .stream()
+            .sorted(Comparator.comparing(PrevisionRealisationDTO.NatureRealisation::getNatureOuvrageId))
+            .forEach(result.getNatures()::add);
+        return result;
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static String normalize(String libelle) {
+        return libelle == null ? null : libelle.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.PrevisionRepository;
 import com.sidot.gesteau.repository.search.PrevisionSearchRepository;
 import com.sidot.gesteau.service.dto.PrevisionDTO;
 import com.sidot.gesteau.service.mapper.PrevisionMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class PrevisionService {
 
     private final PrevisionSearchRepository previsionSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final PrevisionFreeSlotsService previsionFreeSlotsService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrevisionService(
         PrevisionRepository previsionRepository,
         PrevisionMapper previsionMapper,
-        PrevisionSearchRepository previsionSearchRepository
+        PrevisionSearchRepository previsionSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        PrevisionFreeSlotsService previsionFreeSlotsService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.previsionRepository = previsionRepository;
         this.previsionMapper = previsionMapper;
         this.previsionSearchRepository = previsionSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.previsionFreeSlotsService = previsionFreeSlotsService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class PrevisionService {
         Prevision prevision = previsionMapper.toEntity(previsionDTO);
         prevision = previsionRepository.save(prevision);
         PrevisionDTO result = previsionMapper.toDto(prevision);
-        previsionSearchRepository.save(prevision);
+        searchIndexOutbox.enqueue(Prevision.class, prevision.getId());
+        previsionFreeSlotsService.evict();
+        criteriaResultCache.invalidate(Prevision.class, previsionDTO.getId() == null ? 1 : 0);
         return result;
     }
 
+    /**
+     * Update a prevision, loaded once and updated in place.
+     *
+     * @param previsionDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<PrevisionDTO> update(PrevisionDTO previsionDTO) {
+        log.debug("Request to update Prevision : {}", previsionDTO);
+        return update(previsionDTO, previsionMapper::update);
+    }
+
     /**
      * Partially update a prevision.
      *
      * @param previsionDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<PrevisionDTO> partialUpdate(PrevisionDTO previsionDTO) {
         log.debug("Request to partially update Prevision : {}", previsionDTO);
+        return update(previsionDTO, previsionMapper::partialUpdate);
+    }
 
+    private Optional<PrevisionDTO> update(PrevisionDTO previsionDTO, BiConsumer<Prevision, PrevisionDTO> mapping) {
         return previsionRepository
             .findById(previsionDTO.getId())
             .map(
                 existingPrevision -> {
-                    previsionMapper.partialUpdate(existingPrevision, previsionDTO);
+                    OptimisticLocking.checkVersion(
+                        Prevision.class,
+                        existingPrevision.getId(),
+                        existingPrevision.getVersion(),
+                        previsionDTO.getVersion()
+                    );
+                    mapping.accept(existingPrevision, previsionDTO);
                     return existingPrevision;
                 }
             )
-            .map(previsionRepository::save)
+            .map(previsionRepository::saveAndFlush)
             .map(
                 savedPrevision -> {
-                    previsionSearchRepository.save(savedPrevision);
+                    searchIndexOutbox.enqueue(Prevision.class, savedPrevision.getId());
+                    previsionFreeSlotsService.evict();
+                    criteriaResultCache.invalidate(Prevision.class);
 
                     return savedPrevision;
                 }
@@ -115,7 +155,9 @@ public class PrevisionService {
     public void delete(Long id) {
         log.debug("Request to delete Prevision : {}", id);
         previsionRepository.deleteById(id);
-        previsionSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(Prevision.class, id);
+        previsionFreeSlotsService.evict();
+        criteriaResultCache.invalidate(Prevision.class, -1);
     }
 
     /**
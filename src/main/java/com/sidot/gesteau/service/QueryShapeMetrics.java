@@ -0,0 +1,214 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.service.dto.QueryShapeDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Metrics of the QueryService methods per criteria shape: the filtered fields and their operators, without the values
+ * so that the number of tags stays bounded. {@code specified} is the only operator whose value is part of the shape,
+ * {@code false} being queried with an anti-join.
+ * <p>
+ * The queries are recorded by the {@link com.sidot.gesteau.aop.metrics.QueryShapeAspect}, in the {@value #TIMER_NAME}
+ * timers and {@value #ROWS_NAME} distribution summaries tagged with the {@code criteria} class, the {@code operation},
+ * the {@code shape} and the {@code source}: {@value #CACHE_SOURCE} for the queries the {@link CriteriaResultCache}
+ * answered without reading the database, {@value #DATABASE_SOURCE} for the others. Beyond
+ * {@code application.query-metrics.max-shapes} shapes, the new ones are tagged {@value #OTHER_SHAPE}.
+ */
+@Service
+public class QueryShapeMetrics {
+
+    public static final String TIMER_NAME = "query.criteria";
+
+    public static final String ROWS_NAME = "query.criteria.rows";
+
+    public static final String NO_FILTER_SHAPE = "none";
+
+    public static final String OTHER_SHAPE = "other";
+
+    public static final String DATABASE_SOURCE = "database";
+
+    public static final String CACHE_SOURCE = "cache";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxShapes;
+
+    private final ConcurrentMap<Class<?>, List<Field>> filterFields = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Boolean> shapes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Boolean> cacheHit = new ThreadLocal<>();
+
+    public QueryShapeMetrics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.maxShapes = applicationProperties.getQueryMetrics().getMaxShapes();
+    }
+
+    /**
+     * Compute the shape of a criteria.
+     *
+     * @param criteria the criteria, may be {@code null}.
+     * @return the sorted {@code field.operator} of its filters, separated by commas.
+     */
+    public String shapeOf(Criteria criteria) {
+        if (criteria == null) {
+            return NO_FILTER_SHAPE;
+        }
+        List<String> operators = new ArrayList<>();
+        for (Field field : filterFields.computeIfAbsent(criteria.getClass(), QueryShapeMetrics::findFilterFields)) {
+            Filter<?> filter = (Filter<?>) ReflectionUtils.getField(field, criteria);
+            if (filter != null) {
+                addOperators(field.getName(), filter, operators);
+            }
+        }
+        return operators.isEmpty() ? NO_FILTER_SHAPE : operators.stream().sorted().collect(Collectors.joining(","));
+    }
+
+    /**
+     * Mark the query running on the current thread as answered by the {@link CriteriaResultCache}.
+     */
+    public void markCacheHit() {
+        cacheHit.set(Boolean.TRUE);
+    }
+
+    /**
+     * Check whether the query running on the current thread was answered by the {@link CriteriaResultCache}, and clear
+     * the mark for the next query.
+     *
+     * @return {@code true} if {@link #markCacheHit()} was called since the previous call.
+     */
+    public boolean takeCacheHit() {
+        boolean hit = cacheHit.get() != null;
+        cacheHit.remove();
+        return hit;
+    }
+
+    /**
+     * Record a query.
+     *
+     * @param criteria the criteria of the query.
+     * @param operation the QueryService method.
+     * @param source {@value #CACHE_SOURCE} if the query was answered by the cache, {@value #DATABASE_SOURCE} otherwise.
+     * @param durationNanos the duration of the query.
+     * @param rows the number of rows returned, or counted.
+     */
+    public void record(Criteria criteria, String operation, String source, long durationNanos, long rows) {
+        String criteriaName = criteria == null ? "none" : criteria.getClass().getSimpleName();
+        String shape = boundedShape(criteriaName, shapeOf(criteria));
+        Timer
+            .builder(TIMER_NAME)
+            .description("Queries of the QueryServices per criteria shape")
+            .tags("criteria", criteriaName, "operation", operation, "shape", shape, "source", source)
+            .register(meterRegistry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary
+            .builder(ROWS_NAME)
+            .description("Rows returned or counted by the queries of the QueryServices per criteria shape")
+            .tags("criteria", criteriaName, "operation", operation, "shape", shape, "source", source)
+            .register(meterRegistry)
+            .record(rows);
+    }
+
+    /**
+     * List the slowest criteria shapes.
+     *
+     * @param limit the maximum number of shapes.
+     * @return the shapes, by decreasing mean time.
+     */
+    public List<QueryShapeDTO> findSlowest(int limit) {
+        return meterRegistry
+            .find(TIMER_NAME)
+            .timers()
+            .stream()
+            .map(this::toDto)
+            .sorted(Comparator.comparingDouble(QueryShapeDTO::getMeanTimeMillis).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    private String boundedShape(String criteriaName, String shape) {
+        String key = criteriaName + ' ' + shape;
+        if (!shapes.containsKey(key)) {
+            if (shapes.size() >= maxShapes) {
+                return OTHER_SHAPE;
+            }
+            shapes.putIfAbsent(key, Boolean.TRUE);
+        }
+        return shape;
+    }
+
+    private QueryShapeDTO toDto(Timer timer) {
+        QueryShapeDTO queryShape = new QueryShapeDTO();
+        queryShape.setCriteria(timer.getId().getTag("criteria"));
+        queryShape.setOperation(timer.getId().getTag("operation"));
+        queryShape.setShape(timer.getId().getTag("shape"));
+        queryShape.setSource(timer.getId().getTag("source"));
+        queryShape.setCount(timer.count());
+        queryShape.setTotalTimeMillis(timer.totalTime(TimeUnit.MILLISECONDS));
+        queryShape.setMeanTimeMillis(timer.mean(TimeUnit.MILLISECONDS));
+        queryShape.setMaxTimeMillis(timer.max(TimeUnit.MILLISECONDS));
+        DistributionSummary rows = meterRegistry.find(ROWS_NAME).tags(timer.getId().getTags()).summary();
+        if (rows != null) {
+            queryShape.setMeanRows(rows.mean());
+        }
+        return queryShape;
+    }
+
+    private static List<Field> findFilterFields(Class<?> criteriaClass) {
+        List<Field> fields = new ArrayList<>();
+        ReflectionUtils.doWithFields(
+            criteriaClass,
+            field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            },
+            field -> Filter.class.isAssignableFrom(field.getType())
+        );
+        return fields;
+    }
+
+    private static void addOperators(String name, Filter<?> filter, List<String> operators) {
+        addOperator(name, "equals", filter.getEquals(), operators);
+        addOperator(name, "notEquals", filter.getNotEquals(), operators);
+        addOperator(name, "in", filter.getIn(), operators);
+        addOperator(name, "notIn", filter.getNotIn(), operators);
+        if (filter.getSpecified() != null) {
+            operators.add(name + ".specified=" + filter.getSpecified());
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter<?> rangeFilter = (RangeFilter<?>) filter;
+            addOperator(name, "greaterThan", rangeFilter.getGreaterThan(), operators);
+            addOperator(name, "greaterThanOrEqual", rangeFilter.getGreaterThanOrEqual(), operators);
+            addOperator(name, "lessThan", rangeFilter.getLessThan(), operators);
+            addOperator(name, "lessThanOrEqual", rangeFilter.getLessThanOrEqual(), operators);
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            addOperator(name, "contains", stringFilter.getContains(), operators);
+            addOperator(name, "doesNotContain", stringFilter.getDoesNotContain(), operators);
+        }
+    }
+
+    private static void addOperator(String name, String operator, Object value, List<String> operators) {
+        if (value != null) {
+            operators.add(name + '.' + operator);
+        }
+    }
+}
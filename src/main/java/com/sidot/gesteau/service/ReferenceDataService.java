@@ -0,0 +1,219 @@
+package com.sidot.gesteau.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.sidot.gesteau.repository.AnneeRepository;
+import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.repository.ModeEvacExcretaRepository;
+import com.sidot.gesteau.repository.ModeEvacuationEauUseeRepository;
+import com.sidot.gesteau.repository.NatureOuvrageRepository;
+import com.sidot.gesteau.repository.PrefabricantRepository;
+import com.sidot.gesteau.repository.SourceApprovEpRepository;
+import com.sidot.gesteau.repository.TypeHabitationRepository;
+import com.sidot.gesteau.service.dto.ReferenceDataDTO;
+import com.sidot.gesteau.service.mapper.AnneeMapper;
+import com.sidot.gesteau.service.mapper.MaconMapper;
+import com.sidot.gesteau.service.mapper.ModeEvacExcretaMapper;
+import com.sidot.gesteau.service.mapper.ModeEvacuationEauUseeMapper;
+import com.sidot.gesteau.service.mapper.NatureOuvrageMapper;
+import com.sidot.gesteau.service.mapper.PrefabricantMapper;
+import com.sidot.gesteau.service.mapper.SourceApprovEpMapper;
+import com.sidot.gesteau.service.mapper.TypeHabitationMapper;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Service serving all the lookup entities of the fiche form from an immutable in-memory snapshot.
+ * <p>
+ * The snapshot is built on the first read and dropped once a transaction writing a lookup entity commits, on this
+ * instance and, through a Hazelcast topic, on the rest of the cluster.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReferenceDataService {
+
+    public static final String INVALIDATION_TOPIC = "referenceDataInvalidation";
+
+    private final Logger log = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    private final MaconRepository maconRepository;
+
+    private final MaconMapper maconMapper;
+
+    private final PrefabricantRepository prefabricantRepository;
+
+    private final PrefabricantMapper prefabricantMapper;
+
+    private final NatureOuvrageRepository natureOuvrageRepository;
+
+    private final NatureOuvrageMapper natureOuvrageMapper;
+
+    private final TypeHabitationRepository typeHabitationRepository;
+
+    private final TypeHabitationMapper typeHabitationMapper;
+
+    private final SourceApprovEpRepository sourceApprovEpRepository;
+
+    private final SourceApprovEpMapper sourceApprovEpMapper;
+
+    private final ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository;
+
+    private final ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper;
+
+    private final ModeEvacExcretaRepository modeEvacExcretaRepository;
+
+    private final ModeEvacExcretaMapper modeEvacExcretaMapper;
+
+    private final AnneeRepository anneeRepository;
+
+    private final AnneeMapper anneeMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final ITopic<String> invalidationTopic;
+
+    /**
+     * Incremented by every invalidation, so that a snapshot built concurrently with one is not kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile ReferenceDataDTO snapshot;
+
+    public ReferenceDataService(
+        MaconRepository maconRepository,
+        MaconMapper maconMapper,
+        PrefabricantRepository prefabricantRepository,
+        PrefabricantMapper prefabricantMapper,
+        NatureOuvrageRepository natureOuvrageRepository,
+        NatureOuvrageMapper natureOuvrageMapper,
+        TypeHabitationRepository typeHabitationRepository,
+        TypeHabitationMapper typeHabitationMapper,
+        SourceApprovEpRepository sourceApprovEpRepository,
+        SourceApprovEpMapper sourceApprovEpMapper,
+        ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
+        ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper,
+        ModeEvacExcretaRepository modeEvacExcretaRepository,
+        ModeEvacExcretaMapper modeEvacExcretaMapper,
+        AnneeRepository anneeRepository,
+        AnneeMapper anneeMapper,
+        ObjectMapper objectMapper,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.maconRepository = maconRepository;
+        this.maconMapper = maconMapper;
+        this.prefabricantRepository = prefabricantRepository;
+        this.prefabricantMapper = prefabricantMapper;
+        this.natureOuvrageRepository = natureOuvrageRepository;
+        this.natureOuvrageMapper = natureOuvrageMapper;
+        this.typeHabitationRepository = typeHabitationRepository;
+        this.typeHabitationMapper = typeHabitationMapper;
+        this.sourceApprovEpRepository = sourceApprovEpRepository;
+        this.sourceApprovEpMapper = sourceApprovEpMapper;
+        this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
+        this.modeEvacuationEauUseeMapper = modeEvacuationEauUseeMapper;
+        this.modeEvacExcretaRepository = modeEvacExcretaRepository;
+        this.modeEvacExcretaMapper = modeEvacExcretaMapper;
+        this.anneeRepository = anneeRepository;
+        this.anneeMapper = anneeMapper;
+        this.objectMapper = objectMapper;
+        this.invalidationTopic = hazelcastInstance.getTopic(INVALIDATION_TOPIC);
+        invalidationTopic.addMessageListener(this::onInvalidation);
+    }
+
+    /**
+     * Get the snapshot of the reference data, building it if needed.
+     *
+     * @return the snapshot, not to be modified.
+     */
+    public ReferenceDataDTO getSnapshot() {
+        ReferenceDataDTO current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null) {
+                long buildGeneration = generation.get();
+                current = build();
+                if (generation.get() == buildGeneration) {
+                    snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Drop the snapshot of every instance once the current transaction commits.
+     *
+     * @param entityClass the lookup entity written.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidate(Class<?> entityClass) {
+        String entityName = entityClass.getSimpleName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishInvalidation(entityName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(entityName);
+                }
+            }
+        );
+    }
+
+    private void publishInvalidation(String entityName) {
+        evict();
+        invalidationTopic.publish(entityName);
+    }
+
+    private void onInvalidation(Message<String> message) {
+        // The snapshot of this instance is dropped when publishing
+        if (!message.getPublishingMember().localMember()) {
+            log.debug("{} changed on {}, dropping the reference data snapshot", message.getMessageObject(), message.getPublishingMember());
+            evict();
+        }
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private ReferenceDataDTO build() {
+        log.debug("Building the reference data snapshot");
+        Sort byId = Sort.by("id");
+        ReferenceDataDTO result = new ReferenceDataDTO();
+        result.setMacons(Collections.unmodifiableList(maconMapper.toDto(maconRepository.findAll(byId))));
+        result.setPrefabricants(Collections.unmodifiableList(prefabricantMapper.toDto(prefabricantRepository.findAll(byId))));
+        result.setNatureOuvrages(Collections.unmodifiableList(natureOuvrageMapper.toDto(natureOuvrageRepository.findAll(byId))));
+        result.setTypeHabitations(Collections.unmodifiableList(typeHabitationMapper.toDto(typeHabitationRepository.findAll(byId))));
+        result.setSourceApprovEps(Collections.unmodifiableList(sourceApprovEpMapper.toDto(sourceApprovEpRepository.findAll(byId))));
+        result.setModeEvacuationEauUsees(
+            Collections.unmodifiableList(modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUseeRepository.findAll(byId)))
+        );
+        result.setModeEvacExcretas(Collections.unmodifiableList(modeEvacExcretaMapper.toDto(modeEvacExcretaRepository.findAll(byId))));
+        result.setAnnees(Collections.unmodifiableList(anneeMapper.toDto(anneeRepository.findAll(byId))));
+        try {
+            result.setVersion(DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(result)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the reference data", e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.domain.SearchIndexEvent;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records that indexed entities changed, in the transaction that changes them.
+ * <p>
+ * The event commits or rolls back with the change itself, so Elasticsearch can neither miss a committed change
+ * nor index one that was rolled back. {@link SearchIndexRelay} brings the index up to date afterwards.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class SearchIndexOutbox {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexOutbox.class);
+
+    private final SearchIndexEventRepository searchIndexEventRepository;
+
+    public SearchIndexOutbox(SearchIndexEventRepository searchIndexEventRepository) {
+        this.searchIndexEventRepository = searchIndexEventRepository;
+    }
+
+    /**
+     * Queue the (re)indexing of an entity, or the removal of its document if it no longer exists when relayed.
+     *
+     * @param entityType the indexed entity class.
+     * @param id the id of the entity.
+     */
+    public void enqueue(Class<?> entityType, Long id) {
+        log.debug("Request to queue the indexing of {} : {}", entityType.getSimpleName(), id);
+        searchIndexEventRepository.save(newEvent(entityType, id, Instant.now()));
+    }
+
+    /**
+     * Queue the (re)indexing of several entities of the same type.
+     *
+     * @param entityType the indexed entity class.
+     * @param ids the ids of the entities.
+     */
+    public void enqueueAll(Class<?> entityType, Collection<Long> ids) {
+        log.debug("Request to queue the indexing of {} {}", ids.size(), entityType.getSimpleName());
+        Instant now = Instant.now();
+        List<SearchIndexEvent> events = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            events.add(newEvent(entityType, id, now));
+        }
+        searchIndexEventRepository.saveAll(events);
+    }
+
+    private static SearchIndexEvent newEvent(Class<?> entityType, Long id, Instant now) {
+        return new SearchIndexEvent().entityType(entityType.getSimpleName()).entityId(id).createdDate(now).nextAttemptAt(now);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sidot.gesteau.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * The indexed entities, each with the {@code repository.search} repository of its Elasticsearch index.
+ * <p>
+ * Entities are named by their simple class name, the name stored in the search index outbox.
+ */
+@Component
+public class SearchIndexRegistry {
+
+    private final Map<String, Target<?>> targets = new TreeMap<>();
+
+    public SearchIndexRegistry(List<ElasticsearchRepository<?, ?>> searchRepositories) {
+        for (ElasticsearchRepository<?, ?> searchRepository : searchRepositories) {
+            Class<?> entityType = ResolvableType.forClass(searchRepository.getClass()).as(ElasticsearchRepository.class).resolveGeneric(0);
+            if (entityType != null) {
+                targets.put(entityType.getSimpleName(), target(entityType, searchRepository));
+            }
+        }
+    }
+
+    /**
+     * @param name the simple class name of the entity.
+     * @return the indexed entity, empty if there is no search repository for it.
+     */
+    public Optional<Target<?>> find(String name) {
+        return Optional.ofNullable(targets.get(name));
+    }
+
+    /**
+     * @return all the indexed entities, sorted by name.
+     */
+    public Collection<Target<?>> findAll() {
+        return Collections.unmodifiableCollection(targets.values());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Target<T> target(Class<T> entityType, ElasticsearchRepository<?, ?> searchRepository) {
+        return new Target<>(entityType, (ElasticsearchRepository<T, Long>) searchRepository);
+    }
+
+    /**
+     * An indexed entity.
+     *
+     * @param <T> the type of the entity.
+     */
+    public static final class Target<T> {
+
+        private final Class<T> entityType;
+
+        private final ElasticsearchRepository<T, Long> searchRepository;
+
+        private Target(Class<T> entityType, ElasticsearchRepository<T, Long> searchRepository) {
+            this.entityType = entityType;
+            this.searchRepository = searchRepository;
+        }
+
+        public String getName() {
+            return entityType.getSimpleName();
+        }
+
+        public Class<T> getEntityType() {
+            return entityType;
+        }
+
+        public ElasticsearchRepository<T, Long> getSearchRepository() {
+            return searchRepository;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.SearchIndexEvent;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays the {@link SearchIndexOutbox} to Elasticsearch.
+ * <p>
+ * The outbox is polled on the application {@code taskExecutor}. Every batch of due events is locked, the events of
+ * the same entity are coalesced, each entity type is written with a single bulk request and the relayed events are
+ * deleted in the same transaction. The events of an entity type that could not be written are kept and retried with
+ * an exponential backoff. The age of the oldest pending event and the number of pending events are published as the
+ * {@code search.index.lag} and {@code search.index.pending} gauges, read from the outbox on each scrape so that they
+ * keep growing while the relay is stuck.
+ */
+@Service
+public class SearchIndexRelay {
+
+    private static final int LAST_ERROR_MAX_LENGTH = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexRelay.class);
+
+    private final SearchIndexEventRepository searchIndexEventRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.SearchIndex properties;
+
+    private final SearchIndexRegistry searchIndexRegistry;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public SearchIndexRelay(
+        SearchIndexEventRepository searchIndexEventRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties,
+        SearchIndexRegistry searchIndexRegistry,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchIndexEventRepository = searchIndexEventRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.properties = applicationProperties.getSearchIndex();
+        this.searchIndexRegistry = searchIndexRegistry;
+        Gauge
+            .builder("search.index.lag", this, SearchIndexRelay::lagSeconds)
+            .description("Age of the oldest search index event not relayed to Elasticsearch yet")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge
+            .builder("search.index.pending", this, SearchIndexRelay::pending)
+            .description("Number of search index events not relayed to Elasticsearch yet")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Start draining the outbox on the {@code taskExecutor}, unless a previous drain is still running.
+     */
+    @Scheduled(fixedDelayString = "${application.search-index.poll-interval:PT1S}")
+    public void schedule() {
+        if (!properties.isEnabled() || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::drainAll);
+        } catch (RejectedExecutionException e) {
+            log.debug("Search index relay postponed, the task executor is saturated");
+            draining.set(false);
+        }
+    }
+
+    private void drainAll() {
+        try {
+            while (drain() >= properties.getBatchSize()) {
+                log.debug("Search index outbox batch relayed, draining the next one");
+            }
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Relay one batch of due events to Elasticsearch.
+     *
+     * @return the number of events read, relayed or rescheduled.
+     */
+    public int drain() {
+        Integer read = transactionTemplate.execute(
+            status -> relay(searchIndexEventRepository.findReady(Instant.now(), PageRequest.of(0, properties.getBatchSize())))
+        );
+        return read == null ? 0 : read;
+    }
+
+    private int relay(List<SearchIndexEvent> events) {
+        Map<String, List<SearchIndexEvent>> eventsByType = events
+            .stream()
+            .collect(Collectors.groupingBy(SearchIndexEvent::getEntityType, LinkedHashMap::new, Collectors.toList()));
+        Instant now = Instant.now();
+        eventsByType.forEach(
+            (entityType, typeEvents) -> {
+                SearchIndexRegistry.Target<?> target = searchIndexRegistry.find(entityType).orElse(null);
+                if (target == null) {
+                    log.warn("Dropping {} search index events of {}, it has no search repository", typeEvents.size(), entityType);
+                    searchIndexEventRepository.deleteInBatch(typeEvents);
+                    return;
+                }
+                try {
+                    index(target, typeEvents);
+                    searchIndexEventRepository.deleteInBatch(typeEvents);
+                } catch (RuntimeException e) {
+                    log.warn("Could not index {} {}, will retry: {}", typeEvents.size(), entityType, e.getMessage());
+                    typeEvents.forEach(event -> reschedule(event, e, now));
+                }
+            }
+        );
+        return events.size();
+    }
+
+    private <T> void index(SearchIndexRegistry.Target<T> target, List<SearchIndexEvent> events) {
+        Set<Long> ids = events.stream().map(SearchIndexEvent::getEntityId).collect(Collectors.toCollection(LinkedHashSet::new));
+        CriteriaQuery<T> query = entityManager.getCriteriaBuilder().createQuery(target.getEntityType());
+        Root<T> root = query.from(target.getEntityType());
+        List<T> entities = entityManager.createQuery(query.select(root).where(root.get("id").in(ids))).getResultList();
+        if (!entities.isEmpty()) {
+            target.getSearchRepository().saveAll(entities);
+        }
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        entities.forEach(entity -> ids.remove(persistenceUnitUtil.getIdentifier(entity)));
+        ids.forEach(target.getSearchRepository()::deleteById);
+    }
+
+    private void reschedule(SearchIndexEvent event, RuntimeException failure, Instant now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plus(backoff(attempts)));
+        event.setLastError(StringUtils.abbreviate(String.valueOf(failure.getMessage()), LAST_ERROR_MAX_LENGTH));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getRetryInitialInterval().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(properties.getRetryMaxInterval()) > 0 ? properties.getRetryMaxInterval() : delay;
+    }
+
+    private double lagSeconds() {
+        try {
+            Instant now = Instant.now();
+            return searchIndexEventRepository.findOldestCreatedDate().map(oldest -> Duration.between(oldest, now).getSeconds()).orElse(0L);
+        } catch (RuntimeException e) {
+            log.debug("Could not read the search index lag: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private double pending() {
+        try {
+            return searchIndexEventRepository.count();
+        } catch (RuntimeException e) {
+            log.debug("Could not count the pending search index events: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
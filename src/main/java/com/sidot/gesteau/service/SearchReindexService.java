@@ -0,0 +1,474 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.SearchReindexPartition;
+import com.sidot.gesteau.repository.SearchReindexPartitionRepository;
+import com.sidot.gesteau.service.dto.SearchReindexJobDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service rebuilding the Elasticsearch indices from the database.
+ * <p>
+ * A job splits the table of an indexed entity in id ranges, reads the partitions in parallel, each through its own
+ * read-only cursor, and sends the rows to Elasticsearch in bulk requests of a fixed size, optionally throttled.
+ * The position reached in every partition is saved periodically, so a job interrupted by a crash or a shutdown resumes
+ * from its last checkpoint when started again. Rows created after a job planned its partitions are not part of it,
+ * the {@link SearchIndexOutbox} indexes them.
+ * <p>
+ * Jobs run one after the other on a dedicated thread, their partitions on a dedicated pool of workers.
+ */
+@Service
+public class SearchReindexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final SearchIndexRegistry searchIndexRegistry;
+
+    private final SearchReindexPartitionRepository searchReindexPartitionRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ApplicationProperties.SearchIndex.Reindex properties;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("search-reindex-"));
+
+    private final ExecutorService workers;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public SearchReindexService(
+        SearchIndexRegistry searchIndexRegistry,
+        SearchReindexPartitionRepository searchReindexPartitionRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.searchIndexRegistry = searchIndexRegistry;
+        this.searchReindexPartitionRepository = searchReindexPartitionRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.properties = applicationProperties.getSearchIndex().getReindex();
+        this.workers = Executors.newFixedThreadPool(properties.getParallelism(), new CustomizableThreadFactory("search-reindex-worker-"));
+    }
+
+    /**
+     * Queue the reindex of an indexed entity, or of all of them.
+     * <p>
+     * The job resumes from the checkpoints of an interrupted job of the same entity, unless {@code restart} is set.
+     * An entity already queued or being reindexed is left alone.
+     *
+     * @param entityType the simple class name of the entity, {@code null} for all the indexed entities.
+     * @param restart whether to discard the checkpoints of an interrupted job.
+     * @return the queued or running jobs of the entities.
+     * @throws IllegalArgumentException if the entity is not indexed.
+     */
+    public List<SearchReindexJobDTO> reindex(String entityType, boolean restart) {
+        log.debug("Request to reindex {}", entityType == null ? "all the indexed entities" : entityType);
+        Collection<SearchIndexRegistry.Target<?>> targets = entityType == null
+            ? searchIndexRegistry.findAll()
+            : List.of(
+                searchIndexRegistry.find(entityType).orElseThrow(() -> new IllegalArgumentException("Not an indexed entity: " + entityType))
+            );
+        List<SearchReindexJobDTO> started = new ArrayList<>(targets.size());
+        for (SearchIndexRegistry.Target<?> target : targets) {
+            Job job = jobs.compute(target.getName(), (name, current) -> current != null && current.isActive() ? current : new Job(name));
+            if (job.queue()) {
+                coordinator.execute(() -> run(target, job, restart));
+            }
+            started.add(job.toDto());
+        }
+        return started;
+    }
+
+    /**
+     * Get the progress of the last job of every entity reindexed since the application started.
+     *
+     * @return the jobs, sorted by entity.
+     */
+    public List<SearchReindexJobDTO> findAll() {
+        return jobs
+            .values()
+            .stream()
+            .map(Job::toDto)
+            .sorted(Comparator.comparing(SearchReindexJobDTO::getEntityType))
+            .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::cancel);
+        coordinator.shutdownNow();
+        workers.shutdown();
+    }
+
+    private <T> void run(SearchIndexRegistry.Target<T> target, Job job, boolean restart) {
+        job.start();
+        try {
+            List<SearchReindexPartition> checkpoints = transactionTemplate.execute(status -> plan(target, restart));
+            long total = readOnlyTransactionTemplate.execute(
+                status -> entityManager.createQuery("select count(e) from " + target.getName() + " e", Long.class).getSingleResult()
+            );
+            List<Partition> partitions = checkpoints.stream().map(Partition::new).collect(Collectors.toList());
+            job.plan(partitions, total);
+            log.info("Reindexing {} {} in {} partitions{}", total, target.getName(), partitions.size(), job.resumed ? " (resumed)" : "");
+
+            Throttle throttle = new Throttle(properties.getMaxDocumentsPerSecond());
+            List<Future<?>> futures = new ArrayList<>(partitions.size());
+            for (Partition partition : partitions) {
+                if (!partition.completed) {
+                    futures.add(workers.submit(() -> reindexPartition(target, partition, job, throttle)));
+                }
+            }
+            RuntimeException failure = await(futures, partitions, job);
+            if (failure != null) {
+                throw failure;
+            }
+            transactionTemplate.executeWithoutResult(status -> searchReindexPartitionRepository.deleteByEntityType(target.getName()));
+            job.complete();
+            log.info("Reindexed {} {} at {} documents/s", job.indexed.get(), target.getName(), String.format("%.1f", job.throughput()));
+        } catch (RuntimeException e) {
+            log.error("Reindex of {} failed, it resumes from its last checkpoint when started again", target.getName(), e);
+            job.fail(e);
+        }
+    }
+
+    private List<SearchReindexPartition> plan(SearchIndexRegistry.Target<?> target, boolean restart) {
+        List<SearchReindexPartition> checkpoints = searchReindexPartitionRepository.findByEntityTypeOrderByRangeStart(target.getName());
+        if (!restart && checkpoints.stream().anyMatch(checkpoint -> !checkpoint.isCompleted())) {
+            return checkpoints;
+        }
+        searchReindexPartitionRepository.deleteByEntityType(target.getName());
+        Object[] bounds = entityManager
+            .createQuery("select min(e.id), max(e.id) from " + target.getName() + " e", Object[].class)
+            .getSingleResult();
+        if (bounds[0] == null) {
+            return List.of();
+        }
+        long start = ((Long) bounds[0]) - 1;
+        long end = (Long) bounds[1];
+        long count = Math.max(1, Math.min(properties.getPartitions(), end - start));
+        long step = (end - start + count - 1) / count;
+        Instant now = Instant.now();
+        List<SearchReindexPartition> planned = new ArrayList<>();
+        for (long rangeStart = start; rangeStart < end; rangeStart += step) {
+            planned.add(
+                new SearchReindexPartition()
+                    .entityType(target.getName())
+                    .rangeStart(rangeStart)
+                    .rangeEnd(Math.min(rangeStart + step, end))
+                    .lastId(rangeStart)
+                    .indexed(0)
+                    .completed(false)
+                    .lastModifiedDate(now)
+            );
+        }
+        return searchReindexPartitionRepository.saveAll(planned);
+    }
+
+    private <T> void reindexPartition(SearchIndexRegistry.Target<T> target, Partition partition, Job job, Throttle throttle) {
+        readOnlyTransactionTemplate.executeWithoutResult(
+            status -> {
+                PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+                ScrollableResults results = entityManager
+                    .createQuery(
+                        "select e from " + target.getName() + " e where e.id > :lastId and e.id <= :rangeEnd order by e.id",
+                        target.getEntityType()
+                    )
+                    .setParameter("lastId", partition.lastId)
+                    .setParameter("rangeEnd", partition.rangeEnd)
+                    .unwrap(Query.class)
+                    .setFetchSize(properties.getFetchSize())
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+                try {
+                    List<T> bulk = new ArrayList<>(properties.getBulkSize());
+                    while (!job.cancelled && results.next()) {
+                        bulk.add(target.getEntityType().cast(results.get(0)));
+                        if (bulk.size() >= properties.getBulkSize()) {
+                            send(target, bulk, partition, job, throttle, persistenceUnitUtil);
+                            bulk = new ArrayList<>(properties.getBulkSize());
+                        }
+                    }
+                    if (!job.cancelled) {
+                        if (!bulk.isEmpty()) {
+                            send(target, bulk, partition, job, throttle, persistenceUnitUtil);
+                        }
+                        partition.completed = true;
+                        job.completedPartitions.incrementAndGet();
+                    }
+                } finally {
+                    results.close();
+                }
+            }
+        );
+    }
+
+    private <T> void send(
+        SearchIndexRegistry.Target<T> target,
+        List<T> bulk,
+        Partition partition,
+        Job job,
+        Throttle throttle,
+        PersistenceUnitUtil persistenceUnitUtil
+    ) {
+        throttle.acquire(bulk.size());
+        target.getSearchRepository().saveAll(bulk);
+        partition.advance((Long) persistenceUnitUtil.getIdentifier(bulk.get(bulk.size() - 1)), bulk.size());
+        job.indexed.addAndGet(bulk.size());
+        job.indexedInRun.addAndGet(bulk.size());
+        // The documents are sent, the rows no longer need to be managed
+        entityManager.clear();
+    }
+
+    private RuntimeException await(List<Future<?>> futures, List<Partition> partitions, Job job) {
+        long interval = properties.getCheckpointInterval().toMillis();
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(interval, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    checkpoint(partitions);
+                    log.info(
+                        "Reindexing {}: {}/{} documents, {}/{} partitions, {} documents/s",
+                        job.entityType,
+                        job.indexed.get(),
+                        job.total,
+                        job.completedPartitions.get(),
+                        partitions.size(),
+                        String.format("%.1f", job.throughput())
+                    );
+                } catch (ExecutionException e) {
+                    job.cancel();
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    job.cancel();
+                    checkpoint(partitions);
+                    return new IllegalStateException("Reindex of " + job.entityType + " interrupted");
+                }
+            }
+        }
+        checkpoint(partitions);
+        return failure;
+    }
+
+    private void checkpoint(List<Partition> partitions) {
+        Map<Long, Partition> byId = partitions.stream().collect(Collectors.toMap(partition -> partition.id, Function.identity()));
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(
+            status ->
+                searchReindexPartitionRepository
+                    .findAllById(byId.keySet())
+                    .forEach(
+                        checkpoint -> {
+                            Partition partition = byId.get(checkpoint.getId());
+                            checkpoint.lastId(partition.lastId).indexed(partition.indexed).completed(partition.completed);
+                            checkpoint.setLastModifiedDate(now);
+                        }
+                    )
+        );
+    }
+
+    /**
+     * The in-memory progress of a partition, written by its worker and saved by the job thread.
+     */
+    private static final class Partition {
+
+        private final Long id;
+
+        private final long rangeEnd;
+
+        private volatile long lastId;
+
+        private volatile long indexed;
+
+        private volatile boolean completed;
+
+        private Partition(SearchReindexPartition checkpoint) {
+            this.id = checkpoint.getId();
+            this.rangeEnd = checkpoint.getRangeEnd();
+            this.lastId = checkpoint.getLastId();
+            this.indexed = checkpoint.getIndexed();
+            this.completed = checkpoint.isCompleted();
+        }
+
+        private void advance(long lastId, int documents) {
+            this.lastId = lastId;
+            this.indexed += documents;
+        }
+    }
+
+    /**
+     * Spaces the bulk requests of a job so that it does not send more documents per second than allowed.
+     */
+    private static final class Throttle {
+
+        private final long nanosPerDocument;
+
+        private long nextFree = System.nanoTime();
+
+        private Throttle(int maxDocumentsPerSecond) {
+            this.nanosPerDocument = maxDocumentsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxDocumentsPerSecond : 0;
+        }
+
+        private void acquire(int documents) {
+            if (nanosPerDocument == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(nextFree, now);
+                nextFree = start + documents * nanosPerDocument;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Reindex interrupted", e);
+                }
+            }
+        }
+    }
+
+    private static final class Job {
+
+        private final String entityType;
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private final AtomicLong indexedInRun = new AtomicLong();
+
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+
+        private volatile SearchReindexJobDTO.State state;
+
+        private volatile boolean cancelled;
+
+        private volatile boolean resumed;
+
+        private volatile long total;
+
+        private volatile int partitions;
+
+        private volatile Instant startedAt;
+
+        private volatile Instant finishedAt;
+
+        private volatile String error;
+
+        private Job(String entityType) {
+            this.entityType = entityType;
+        }
+
+        private synchronized boolean queue() {
+            if (state != null) {
+                return false;
+            }
+            state = SearchReindexJobDTO.State.QUEUED;
+            return true;
+        }
+
+        private boolean isActive() {
+            return state == SearchReindexJobDTO.State.QUEUED || state == SearchReindexJobDTO.State.RUNNING;
+        }
+
+        private void start() {
+            startedAt = Instant.now();
+            state = SearchReindexJobDTO.State.RUNNING;
+        }
+
+        private void plan(List<Partition> planned, long total) {
+            this.total = total;
+            this.partitions = planned.size();
+            this.resumed = planned.stream().anyMatch(partition -> partition.indexed > 0 || partition.completed);
+            this.indexed.set(planned.stream().mapToLong(partition -> partition.indexed).sum());
+            this.completedPartitions.set((int) planned.stream().filter(partition -> partition.completed).count());
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        private void complete() {
+            finishedAt = Instant.now();
+            state = SearchReindexJobDTO.State.COMPLETED;
+        }
+
+        private void fail(RuntimeException e) {
+            error = e.getMessage();
+            finishedAt = Instant.now();
+            state = SearchReindexJobDTO.State.FAILED;
+        }
+
+        private double throughput() {
+            if (startedAt == null) {
+                return 0;
+            }
+            long millis = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+            return millis == 0 ? 0 : indexedInRun.get() * 1000.0 / millis;
+        }
+
+        private SearchReindexJobDTO toDto() {
+            SearchReindexJobDTO dto = new SearchReindexJobDTO();
+            dto.setEntityType(entityType);
+            dto.setState(state);
+            dto.setResumed(resumed);
+            dto.setTotal(total);
+            dto.setIndexed(indexed.get());
+            dto.setPartitions(partitions);
+            dto.setCompletedPartitions(completedPartitions.get());
+            dto.setDocumentsPerSecond(throughput());
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.SourceApprovEp;
 import com.sidot.gesteau.repository.SourceApprovEpRepository;
 import com.sidot.gesteau.repository.search.SourceApprovEpSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.SourceApprovEpCriteria;
 import com.sidot.gesteau.service.dto.SourceApprovEpDTO;
 import com.sidot.gesteau.service.mapper.SourceApprovEpMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class SourceApprovEpQueryService extends QueryService<SourceApprovEp> {
 
     private final SourceApprovEpSearchRepository sourceApprovEpSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public SourceApprovEpQueryService(
         SourceApprovEpRepository sourceApprovEpRepository,
         SourceApprovEpMapper sourceApprovEpMapper,
-        SourceApprovEpSearchRepository sourceApprovEpSearchRepository
+        SourceApprovEpSearchRepository sourceApprovEpSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.sourceApprovEpRepository = sourceApprovEpRepository;
         this.sourceApprovEpMapper = sourceApprovEpMapper;
         this.sourceApprovEpSearchRepository = sourceApprovEpSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class SourceApprovEpQueryService extends QueryService<SourceApprovEp> {
     }
 
     /**
-     * Return a {@link Page} of {@link SourceApprovEpDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link SourceApprovEpDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<SourceApprovEpDTO> findByCriteria(SourceApprovEpCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<SourceApprovEpDTO> findByCriteria(SourceApprovEpCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<SourceApprovEp> specification = createSpecification(criteria);
-        return sourceApprovEpRepository.findAll(specification, page).map(sourceApprovEpMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(sourceApprovEpRepository, SourceApprovEp.class, specification, page, countMode)
+            .map(sourceApprovEpMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(SourceApprovEpCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<SourceApprovEp> specification = createSpecification(criteria);
-        return sourceApprovEpRepository.count(specification);
+        if (criteria == null || criteria.equals(new SourceApprovEpCriteria())) {
+            return criteriaResultCache.getTotalCount(SourceApprovEp.class, sourceApprovEpRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            SourceApprovEp.class,
+            criteria,
+            () -> sourceApprovEpRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
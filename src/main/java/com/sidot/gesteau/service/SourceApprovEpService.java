@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.SourceApprovEpRepository;
 import com.sidot.gesteau.repository.search.SourceApprovEpSearchRepository;
 import com.sidot.gesteau.service.dto.SourceApprovEpDTO;
 import com.sidot.gesteau.service.mapper.SourceApprovEpMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class SourceApprovEpService {
 
     private final SourceApprovEpSearchRepository sourceApprovEpSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public SourceApprovEpService(
         SourceApprovEpRepository sourceApprovEpRepository,
         SourceApprovEpMapper sourceApprovEpMapper,
-        SourceApprovEpSearchRepository sourceApprovEpSearchRepository
+        SourceApprovEpSearchRepository sourceApprovEpSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.sourceApprovEpRepository = sourceApprovEpRepository;
         this.sourceApprovEpMapper = sourceApprovEpMapper;
         this.sourceApprovEpSearchRepository = sourceApprovEpSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class SourceApprovEpService {
         SourceApprovEp sourceApprovEp = sourceApprovEpMapper.toEntity(sourceApprovEpDTO);
         sourceApprovEp = sourceApprovEpRepository.save(sourceApprovEp);
         SourceApprovEpDTO result = sourceApprovEpMapper.toDto(sourceApprovEp);
-        sourceApprovEpSearchRepository.save(sourceApprovEp);
+        searchIndexOutbox.enqueue(SourceApprovEp.class, sourceApprovEp.getId());
+        criteriaResultCache.invalidate(SourceApprovEp.class, sourceApprovEpDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(SourceApprovEp.class);
         return result;
     }
 
+    /**
+     * Update a sourceApprovEp, loaded once and updated in place.
+     *
+     * @param sourceApprovEpDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<SourceApprovEpDTO> update(SourceApprovEpDTO sourceApprovEpDTO) {
+        log.debug("Request to update SourceApprovEp : {}", sourceApprovEpDTO);
+        return update(sourceApprovEpDTO, sourceApprovEpMapper::update);
+    }
+
     /**
      * Partially update a sourceApprovEp.
      *
      * @param sourceApprovEpDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<SourceApprovEpDTO> partialUpdate(SourceApprovEpDTO sourceApprovEpDTO) {
         log.debug("Request to partially update SourceApprovEp : {}", sourceApprovEpDTO);
+        return update(sourceApprovEpDTO, sourceApprovEpMapper::partialUpdate);
+    }
 
+    private Optional<SourceApprovEpDTO> update(SourceApprovEpDTO sourceApprovEpDTO, BiConsumer<SourceApprovEp, SourceApprovEpDTO> mapping) {
         return sourceApprovEpRepository
             .findById(sourceApprovEpDTO.getId())
             .map(
                 existingSourceApprovEp -> {
-                    sourceApprovEpMapper.partialUpdate(existingSourceApprovEp, sourceApprovEpDTO);
+                    OptimisticLocking.checkVersion(
+                        SourceApprovEp.class,
+                        existingSourceApprovEp.getId(),
+                        existingSourceApprovEp.getVersion(),
+                        sourceApprovEpDTO.getVersion()
+                    );
+                    mapping.accept(existingSourceApprovEp, sourceApprovEpDTO);
                     return existingSourceApprovEp;
                 }
             )
-            .map(sourceApprovEpRepository::save)
+            .map(sourceApprovEpRepository::saveAndFlush)
             .map(
                 savedSourceApprovEp -> {
-                    sourceApprovEpSearchRepository.save(savedSourceApprovEp);
+                    searchIndexOutbox.enqueue(SourceApprovEp.class, savedSourceApprovEp.getId());
+                    criteriaResultCache.invalidate(SourceApprovEp.class);
+                    referenceDataService.invalidate(SourceApprovEp.class);
 
                     return savedSourceApprovEp;
                 }
@@ -115,7 +155,9 @@ public class SourceApprovEpService {
     public void delete(Long id) {
         log.debug("Request to delete SourceApprovEp : {}", id);
         sourceApprovEpRepository.deleteById(id);
-        sourceApprovEpSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(SourceApprovEp.class, id);
+        criteriaResultCache.invalidate(SourceApprovEp.class, -1);
+        referenceDataService.invalidate(SourceApprovEp.class);
     }
 
     /**
@@ -0,0 +1,572 @@
+package com.sidot.gesteau.service;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.Annee;
+import com.sidot.gesteau.domain.Centre;
+import com.sidot.gesteau.domain.CentreRegroupement;
+import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.ModeEvacExcreta;
+import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prefabricant;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SourceApprovEp;
+import com.sidot.gesteau.domain.TypeHabitation;
+import com.sidot.gesteau.service.dto.PrevisionCategory;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service generating a production-scale dataset: DirectionRegionale, CentreRegroupement and Centre hierarchies, a
+ * Prevision with its Annee for every Centre, Macons, and FicheSuiviOuvrages.
+ * <p>
+ * The FicheSuiviOuvrages are spread over the Previsions, the Macons and the lookups along Zipf distributions, around the
+ * location of the Centre of their Prevision, and over the dry season of its year. They are inserted in JDBC batches of
+ * {@code batchSize} rows, one transaction per batch, without going through the second-level cache nor the
+ * {@link SearchIndexOutbox}: the Elasticsearch indices are rebuilt in bulk by the {@link SearchReindexService} once
+ * the data is generated.
+ * <p>
+ * Every run appends a new hierarchy, the lookups are reused by their {@code libelle}.
+ */
+@Service
+public class SyntheticDataGenerator {
+
+    private static final double MIN_LATITUDE = 9.4;
+    private static final double MAX_LATITUDE = 15.1;
+    private static final double MIN_LONGITUDE = -5.5;
+    private static final double MAX_LONGITUDE = 2.4;
+
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private static final List<String> NOMS = List.of(
+        "Ouedraogo",
+        "Sawadogo",
+        "Kabore",
+        "Traore",
+        "Zongo",
+        "Compaore",
+        "Ilboudo",
+        "Kone",
+        "Zoungrana",
+        "Nikiema",
+        "Ouattara",
+        "Sanou",
+        "Diallo",
+        "Tapsoba",
+        "Yameogo",
+        "Kafando"
+    );
+
+    private static final List<String> PRENOMS = List.of(
+        "Aminata",
+        "Adama",
+        "Salif",
+        "Mariam",
+        "Boureima",
+        "Fatimata",
+        "Issouf",
+        "Awa",
+        "Souleymane",
+        "Rasmata",
+        "Hamidou",
+        "Safiatou",
+        "Moussa",
+        "Alimata"
+    );
+
+    private static final List<String> PROFESSIONS = List.of(
+        "Commercant",
+        "Cultivateur",
+        "Menagere",
+        "Fonctionnaire",
+        "Artisan",
+        "Eleveur",
+        "Enseignant",
+        "Retraite"
+    );
+
+    private static final List<String> PROJETS = List.of("PAEA", "PN-AEUE", "PACVU", "ONEA");
+
+    private static final List<String> TYPE_HABITATIONS = List.of("Cour commune", "Concession", "Villa", "Immeuble");
+
+    private static final List<String> SOURCE_APPROV_EPS = List.of("Borne fontaine", "Branchement ONEA", "Forage", "Puits");
+
+    private static final List<String> MODE_EVACUATION_EAU_USEES = List.of("Rue", "Puisard", "Caniveau", "Fosse septique");
+
+    private static final List<String> MODE_EVAC_EXCRETAS = List.of("Latrine traditionnelle", "Nature", "Latrine VIP", "Fosse septique");
+
+    private static final List<String> PREFABRICANTS = List.of("Atelier central", "Cooperative des macons", "Prefa Burkina");
+
+    private static final Map<PrevisionCategory, String> DEFAULT_NATURES = new EnumMap<>(
+        Map.of(
+            PrevisionCategory.LATRINE,
+            "Latrine",
+            PrevisionCategory.PUISARD,
+            "Puisard",
+            PrevisionCategory.PUBLIC,
+            "Latrine publique",
+            PrevisionCategory.SCOLAIRE,
+            "Latrine scolaire"
+        )
+    );
+
+    /**
+     * Share of the FicheSuiviOuvrages of each {@link PrevisionCategory}, in declaration order.
+     */
+    private static final double[] NATURE_SHARES = { 0.6, 0.3, 0.05, 0.05 };
+
+    /**
+     * Relative activity of the months, most works are done during the dry season.
+     */
+    private static final Distribution MONTHS = new Distribution(
+        new double[] { 1.3, 1.3, 1.2, 1.1, 0.9, 0.6, 0.4, 0.3, 0.5, 0.9, 1.2, 1.3 }
+    );
+
+    private final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    private final FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final SearchReindexService searchReindexService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SyntheticDataGenerator(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ReferenceDataService referenceDataService,
+        PrevisionRealisationCounterService previsionRealisationCounterService,
+        FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        SearchReindexService searchReindexService,
+        CriteriaResultCache criteriaResultCache,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.referenceDataService = referenceDataService;
+        this.previsionRealisationCounterService = previsionRealisationCounterService;
+        this.ficheSuiviOuvrageGeoService = ficheSuiviOuvrageGeoService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.searchReindexService = searchReindexService;
+        this.criteriaResultCache = criteriaResultCache;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Generate a dataset, then queue the reindex of the indexed entities if requested.
+     *
+     * @param settings the volumes and distributions of the dataset.
+     * @return the number of FicheSuiviOuvrages generated.
+     */
+    public long generate(ApplicationProperties.SyntheticData settings) {
+        log.info(
+            "Generating {} FicheSuiviOuvrages over {} Centres",
+            settings.getFiches(),
+            settings.getDirections() * settings.getRegroupementsPerDirection() * settings.getCentresPerRegroupement()
+        );
+        Random random = new Random(settings.getSeed());
+        Dataset dataset = transactionTemplate.execute(status -> generateReferenceData(settings, random));
+
+        long start = System.nanoTime();
+        long generated = 0;
+        while (generated < settings.getFiches()) {
+            int size = (int) Math.min(settings.getBatchSize(), settings.getFiches() - generated);
+            transactionTemplate.executeWithoutResult(status -> insertFicheSuiviOuvrages(dataset, size, random));
+            generated += size;
+            if (generated / PROGRESS_INTERVAL != (generated - size) / PROGRESS_INTERVAL) {
+                long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                log.info(
+                    "Generated {} of {} FicheSuiviOuvrages, {} per second",
+                    generated,
+                    settings.getFiches(),
+                    generated * 1000 / elapsedMillis
+                );
+            }
+        }
+        log.info("Generated {} FicheSuiviOuvrages in {} s", generated, (System.nanoTime() - start) / 1_000_000_000);
+        criteriaResultCache.invalidateAll();
+
+        if (settings.isReindex() && applicationProperties.getSearchIndex().isEnabled()) {
+            searchReindexService.reindex(null, true);
+            log.info("Reindex of the generated data queued, follow it on the 'searchreindex' management endpoint");
+        }
+        return generated;
+    }
+
+    private Dataset generateReferenceData(ApplicationProperties.SyntheticData settings, Random random) {
+        configureBatching(settings.getBatchSize());
+        Dataset dataset = new Dataset(settings.getBatchSize());
+
+        List<String> natures = new ArrayList<>();
+        for (PrevisionCategory category : PrevisionCategory.values()) {
+            List<String> configured = applicationProperties.getRealisation().getNatures().get(category);
+            natures.add(configured == null || configured.isEmpty() ? DEFAULT_NATURES.get(category) : configured.get(0));
+        }
+        dataset.natures = new Lookup(
+            ensureLookups(NatureOuvrage.class, natures, libelle -> new NatureOuvrage().libelle(libelle), NatureOuvrage::getId),
+            new Distribution(NATURE_SHARES)
+        );
+        dataset.typeHabitations = zipf(
+            ensureLookups(TypeHabitation.class, TYPE_HABITATIONS, libelle -> new TypeHabitation().libelle(libelle), TypeHabitation::getId),
+            settings.getSkew()
+        );
+        dataset.sourceApprovEps = zipf(
+            ensureLookups(SourceApprovEp.class, SOURCE_APPROV_EPS, libelle -> new SourceApprovEp().libelle(libelle), SourceApprovEp::getId),
+            settings.getSkew()
+        );
+        dataset.modeEvacuationEauUsees = zipf(
+            ensureLookups(
+                ModeEvacuationEauUsee.class,
+                MODE_EVACUATION_EAU_USEES,
+                libelle -> new ModeEvacuationEauUsee().libelle(libelle),
+                ModeEvacuationEauUsee::getId
+            ),
+            settings.getSkew()
+        );
+        dataset.modeEvacExcretas = zipf(
+            ensureLookups(
+                ModeEvacExcreta.class,
+                MODE_EVAC_EXCRETAS,
+                libelle -> new ModeEvacExcreta().libelle(libelle),
+                ModeEvacExcreta::getId
+            ),
+            settings.getSkew()
+        );
+        dataset.prefabricants = zipf(
+            ensureLookups(Prefabricant.class, PREFABRICANTS, libelle -> new Prefabricant().libelle(libelle), Prefabricant::getId),
+            settings.getSkew()
+        );
+
+        List<Long> maconIds = new ArrayList<>(settings.getMacons());
+        for (int i = 0; i < settings.getMacons(); i++) {
+            Macon macon = new Macon().libelle(personName(random));
+            entityManager.persist(macon);
+            maconIds.add(macon.getId());
+        }
+        // The most active macons are not the first ones created
+        Collections.shuffle(maconIds, random);
+        dataset.macons = zipf(maconIds, settings.getSkew());
+        referenceDataService.invalidate(Macon.class);
+
+        List<Site> centres = new ArrayList<>();
+        for (int d = 1; d <= settings.getDirections(); d++) {
+            double[] directionLocation = {
+                uniform(random, MIN_LATITUDE + 0.5, MAX_LATITUDE - 0.5),
+                uniform(random, MIN_LONGITUDE + 0.5, MAX_LONGITUDE - 0.5),
+            };
+            DirectionRegionale directionRegionale = new DirectionRegionale()
+                .libelle("Direction regionale " + d)
+                .responsable(personName(random))
+                .contact(phoneNumber(random));
+            entityManager.persist(directionRegionale);
+            for (int r = 1; r <= settings.getRegroupementsPerDirection(); r++) {
+                double[] regroupementLocation = near(directionLocation, 0.4, random);
+                CentreRegroupement centreRegroupement = new CentreRegroupement()
+                    .libelle("Regroupement " + d + "." + r)
+                    .responsable(personName(random))
+                    .contact(phoneNumber(random))
+                    .directionRegionale(directionRegionale);
+                entityManager.persist(centreRegroupement);
+                for (int c = 1; c <= settings.getCentresPerRegroupement(); c++) {
+                    Centre centre = new Centre()
+                        .libelle("Centre " + d + "." + r + "." + c)
+                        .responsable(personName(random))
+                        .contact(phoneNumber(random))
+                        .centreRegroupement(centreRegroupement);
+                    entityManager.persist(centre);
+                    centres.add(new Site(centre, near(regroupementLocation, 0.15, random)));
+                }
+            }
+        }
+
+        // A Prevision has its own Centre and Annee, the busiest Centres are spread over the directions
+        Collections.shuffle(centres, random);
+        dataset.previsions = Distribution.zipf(centres.size(), settings.getSkew());
+        for (int i = 0; i < centres.size(); i++) {
+            Site site = centres.get(i);
+            int year = settings.getFirstYear() + i % Math.max(1, settings.getYears());
+            Annee annee = new Annee().libelle(String.valueOf(year));
+            entityManager.persist(annee);
+            double expected = settings.getFiches() * dataset.previsions.probability(i);
+            Prevision prevision = new Prevision()
+                .nbLatrine(planned(expected, NATURE_SHARES[PrevisionCategory.LATRINE.ordinal()], random))
+                .nbPuisard(planned(expected, NATURE_SHARES[PrevisionCategory.PUISARD.ordinal()], random))
+                .nbPublic(planned(expected, NATURE_SHARES[PrevisionCategory.PUBLIC.ordinal()], random))
+                .nbScolaire(planned(expected, NATURE_SHARES[PrevisionCategory.SCOLAIRE.ordinal()], random))
+                .annee(annee)
+                .centre(site.centre);
+            entityManager.persist(prevision);
+            site.previsionId = prevision.getId();
+            site.year = year;
+        }
+        dataset.sites = centres;
+        entityManager.flush();
+        entityManager.clear();
+        return dataset;
+    }
+
+    private void insertFicheSuiviOuvrages(Dataset dataset, int size, Random random) {
+        configureBatching(dataset.batchSize);
+        List<FicheSuiviOuvrage> inserted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            FicheSuiviOuvrage ficheSuiviOuvrage = generateFicheSuiviOuvrage(dataset, random);
+            entityManager.persist(ficheSuiviOuvrage);
+            inserted.add(ficheSuiviOuvrage);
+        }
+        previsionRealisationCounterService.countInserted(inserted);
+        ficheSuiviOuvrageGeoService.track(inserted);
+        ficheSuiviOuvrageClusterService.countInserted(inserted);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private FicheSuiviOuvrage generateFicheSuiviOuvrage(Dataset dataset, Random random) {
+        Site site = dataset.sites.get(dataset.previsions.sample(random));
+        int natureIndex = dataset.natures.distribution.sample(random);
+        boolean collective = natureIndex == PrevisionCategory.PUBLIC.ordinal() || natureIndex == PrevisionCategory.SCOLAIRE.ordinal();
+        double[] location = near(site.location, 0.03, random);
+
+        int month = MONTHS.sample(random) + 1;
+        LocalDate firstDay = LocalDate.of(site.year, month, 1);
+        Instant dateRemiseDevis = firstDay
+            .plusDays(random.nextInt(firstDay.lengthOfMonth()))
+            .atTime(7 + random.nextInt(10), random.nextInt(60))
+            .toInstant(ZoneOffset.UTC);
+        Instant dateDebutTravaux = dateRemiseDevis.plus(2 + random.nextInt(28), ChronoUnit.DAYS);
+        Instant dateFinTravaux = dateDebutTravaux.plus(3 + exponential(random, 12), ChronoUnit.DAYS);
+
+        return new FicheSuiviOuvrage()
+            .prjAppuis(PROJETS.get(Math.min(exponential(random, 0.8), PROJETS.size() - 1)))
+            .nomBenef(pick(NOMS, random))
+            .prenomBenef(pick(PRENOMS, random))
+            .professionBenef(collective ? "Etablissement" : pick(PROFESSIONS, random))
+            .nbUsagers(collective ? 50L + random.nextInt(450) : 2L + exponential(random, 6))
+            .contacts(phoneNumber(random))
+            .longitude((float) location[1])
+            .latitude((float) location[0])
+            .dateRemiseDevis(dateRemiseDevis)
+            .dateDebutTravaux(dateDebutTravaux)
+            .dateFinTravaux(dateFinTravaux)
+            .rue("Rue " + (1 + random.nextInt(400)))
+            .porte(1 + random.nextInt(999))
+            .coutMenage(String.valueOf(5000 * (3 + random.nextInt(8))))
+            .subvOnea(collective ? 250000 : 50000)
+            .subvProjet(random.nextInt(3) * 25000)
+            .autreSubv(random.nextInt(10) == 0 ? 5000 * (1 + random.nextInt(4)) : 0)
+            .toles(2 + random.nextInt(5))
+            .animateur(personName(random))
+            .superviseur(personName(random))
+            .controleur(personName(random))
+            .prevision(new Prevision().id(site.previsionId))
+            .natureouvrage(new NatureOuvrage().id(dataset.natures.ids.get(natureIndex)))
+            .typehabitation(new TypeHabitation().id(dataset.typeHabitations.sample(random)))
+            .sourceapprovep(new SourceApprovEp().id(dataset.sourceApprovEps.sample(random)))
+            .modeevacuationeauusee(new ModeEvacuationEauUsee().id(dataset.modeEvacuationEauUsees.sample(random)))
+            .modeevacexcreta(new ModeEvacExcreta().id(dataset.modeEvacExcretas.sample(random)))
+            // Some works are still waiting for their macon
+            .macon(random.nextInt(20) == 0 || dataset.macons.ids.isEmpty() ? null : new Macon().id(dataset.macons.sample(random)))
+            .prefabricant(new Prefabricant().id(dataset.prefabricants.sample(random)));
+    }
+
+    /**
+     * Send the inserts of the current session in JDBC batches of the given size, and keep the generated entities out of
+     * the second-level cache.
+     */
+    private void configureBatching(int batchSize) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        session.setCacheMode(CacheMode.IGNORE);
+    }
+
+    private <T> List<Long> ensureLookups(Class<T> lookupClass, List<String> libelles, Function<String, T> factory, Function<T, Long> id) {
+        Map<String, Long> existing = new HashMap<>();
+        entityManager
+            .createQuery("select e.id, e.libelle from " + lookupClass.getSimpleName() + " e", Object[].class)
+            .getResultList()
+            .forEach(tuple -> existing.putIfAbsent(((String) tuple[1]).trim().toLowerCase(Locale.ROOT), (Long) tuple[0]));
+        List<Long> ids = new ArrayList<>(libelles.size());
+        boolean created = false;
+        for (String libelle : libelles) {
+            Long lookupId = existing.get(libelle.toLowerCase(Locale.ROOT));
+            if (lookupId == null) {
+                T lookup = factory.apply(libelle);
+                entityManager.persist(lookup);
+                lookupId = id.apply(lookup);
+                created = true;
+            }
+            ids.add(lookupId);
+        }
+        if (created) {
+            referenceDataService.invalidate(lookupClass);
+        }
+        return ids;
+    }
+
+    private static Lookup zipf(List<Long> ids, double skew) {
+        return new Lookup(ids, Distribution.zipf(ids.size(), skew));
+    }
+
+    private static int planned(double expected, double share, Random random) {
+        return (int) Math.round(expected * share * uniform(random, 0.8, 1.25));
+    }
+
+    private static double[] near(double[] location, double spreadDegrees, Random random) {
+        return new double[] {
+            Math.max(MIN_LATITUDE, Math.min(MAX_LATITUDE, location[0] + random.nextGaussian() * spreadDegrees)),
+            Math.max(MIN_LONGITUDE, Math.min(MAX_LONGITUDE, location[1] + random.nextGaussian() * spreadDegrees)),
+        };
+    }
+
+    private static double uniform(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+
+    private static int exponential(Random random, double mean) {
+        return (int) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    private static String pick(List<String> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String personName(Random random) {
+        return pick(PRENOMS, random) + " " + pick(NOMS, random);
+    }
+
+    private static String phoneNumber(Random random) {
+        return String.format("%02d %02d %02d %02d", 50 + random.nextInt(30), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+    }
+
+    /**
+     * The Previsions, Macons and lookups the FicheSuiviOuvrages are generated for.
+     */
+    private static final class Dataset {
+
+        private final int batchSize;
+
+        private List<Site> sites;
+
+        private Distribution previsions;
+
+        private Lookup natures;
+
+        private Lookup typeHabitations;
+
+        private Lookup sourceApprovEps;
+
+        private Lookup modeEvacuationEauUsees;
+
+        private Lookup modeEvacExcretas;
+
+        private Lookup prefabricants;
+
+        private Lookup macons;
+
+        private Dataset(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * A Centre and its location, then its Prevision and the year of its Annee once created.
+     */
+    private static final class Site {
+
+        private final Centre centre;
+
+        private final double[] location;
+
+        private Long previsionId;
+
+        private int year;
+
+        private Site(Centre centre, double[] location) {
+            this.centre = centre;
+            this.location = location;
+        }
+    }
+
+    private static final class Lookup {
+
+        private final List<Long> ids;
+
+        private final Distribution distribution;
+
+        private Lookup(List<Long> ids, Distribution distribution) {
+            this.ids = ids;
+            this.distribution = distribution;
+        }
+
+        private Long sample(Random random) {
+            return ids.get(distribution.sample(random));
+        }
+    }
+
+    /**
+     * A discrete distribution over {@code [0, weights.length)}, sampled by binary search of the cumulative weights.
+     */
+    private static final class Distribution {
+
+        private final double[] cumulative;
+
+        private Distribution(double[] weights) {
+            cumulative = new double[weights.length];
+            double total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulative[i] = total;
+            }
+        }
+
+        private static Distribution zipf(int size, double exponent) {
+            double[] weights = new double[size];
+            for (int i = 0; i < size; i++) {
+                weights[i] = 1 / Math.pow(i + 1, exponent);
+            }
+            return new Distribution(weights);
+        }
+
+        private double probability(int index) {
+            return (cumulative[index] - (index == 0 ? 0 : cumulative[index - 1])) / cumulative[cumulative.length - 1];
+        }
+
+        private int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return index >= 0 ? Math.min(index + 1, cumulative.length - 1) : -index - 1;
+        }
+    }
+}
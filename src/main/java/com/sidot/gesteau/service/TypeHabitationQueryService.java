@@ -4,15 +4,18 @@ import com.sidot.gesteau.domain.*; // for static metamodels
 import com.sidot.gesteau.domain.TypeHabitation;
 import com.sidot.gesteau.repository.TypeHabitationRepository;
 import com.sidot.gesteau.repository.search.TypeHabitationSearchRepository;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.TypeHabitationCriteria;
 import com.sidot.gesteau.service.dto.TypeHabitationDTO;
 import com.sidot.gesteau.service.mapper.TypeHabitationMapper;
+import com.sidot.gesteau.service.util.CriteriaPageExecutor;
 import java.util.List;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class TypeHabitationQueryService extends QueryService<TypeHabitation> {
 
     private final TypeHabitationSearchRepository typeHabitationSearchRepository;
 
+    private final CriteriaPageExecutor criteriaPageExecutor;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public TypeHabitationQueryService(
         TypeHabitationRepository typeHabitationRepository,
         TypeHabitationMapper typeHabitationMapper,
-        TypeHabitationSearchRepository typeHabitationSearchRepository
+        TypeHabitationSearchRepository typeHabitationSearchRepository,
+        CriteriaPageExecutor criteriaPageExecutor,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.typeHabitationRepository = typeHabitationRepository;
         this.typeHabitationMapper = typeHabitationMapper;
         this.typeHabitationSearchRepository = typeHabitationSearchRepository;
+        this.criteriaPageExecutor = criteriaPageExecutor;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -59,28 +70,38 @@ public class TypeHabitationQueryService extends QueryService<TypeHabitation> {
     }
 
     /**
-     * Return a {@link Page} of {@link TypeHabitationDTO} which matches the criteria from the database.
+     * Return a {@link Slice} of {@link TypeHabitationDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @param countMode How the total number of matching entities is computed.
+     * @return the matching entities, in a {@link Page} unless the count mode is {@link CountMode#NONE}, or the estimated
+     * count is capped.
      */
     @Transactional(readOnly = true)
-    public Page<TypeHabitationDTO> findByCriteria(TypeHabitationCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+    public Slice<TypeHabitationDTO> findByCriteria(TypeHabitationCriteria criteria, Pageable page, CountMode countMode) {
+        log.debug("find by criteria : {}, page: {}, count: {}", criteria, page, countMode);
         final Specification<TypeHabitation> specification = createSpecification(criteria);
-        return typeHabitationRepository.findAll(specification, page).map(typeHabitationMapper::toDto);
+        return criteriaPageExecutor
+            .findAll(typeHabitationRepository, TypeHabitation.class, specification, page, countMode)
+            .map(typeHabitationMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database, or from the {@link CriteriaResultCache} when it is enabled.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(TypeHabitationCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<TypeHabitation> specification = createSpecification(criteria);
-        return typeHabitationRepository.count(specification);
+        if (criteria == null || criteria.equals(new TypeHabitationCriteria())) {
+            return criteriaResultCache.getTotalCount(TypeHabitation.class, typeHabitationRepository::count);
+        }
+        return criteriaResultCache.getCount(
+            TypeHabitation.class,
+            criteria,
+            () -> typeHabitationRepository.count(createSpecification(criteria))
+        );
     }
 
     /**
@@ -7,7 +7,9 @@ import com.sidot.gesteau.repository.TypeHabitationRepository;
 import com.sidot.gesteau.repository.search.TypeHabitationSearchRepository;
 import com.sidot.gesteau.service.dto.TypeHabitationDTO;
 import com.sidot.gesteau.service.mapper.TypeHabitationMapper;
+import com.sidot.gesteau.service.util.OptimisticLocking;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -30,14 +32,26 @@ public class TypeHabitationService {
 
     private final TypeHabitationSearchRepository typeHabitationSearchRepository;
 
+    private final SearchIndexOutbox searchIndexOutbox;
+
+    private final ReferenceDataService referenceDataService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public TypeHabitationService(
         TypeHabitationRepository typeHabitationRepository,
         TypeHabitationMapper typeHabitationMapper,
-        TypeHabitationSearchRepository typeHabitationSearchRepository
+        TypeHabitationSearchRepository typeHabitationSearchRepository,
+        SearchIndexOutbox searchIndexOutbox,
+        ReferenceDataService referenceDataService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.typeHabitationRepository = typeHabitationRepository;
         this.typeHabitationMapper = typeHabitationMapper;
         this.typeHabitationSearchRepository = typeHabitationSearchRepository;
+        this.searchIndexOutbox = searchIndexOutbox;
+        this.referenceDataService = referenceDataService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -51,31 +65,57 @@ public class TypeHabitationService {
         TypeHabitation typeHabitation = typeHabitationMapper.toEntity(typeHabitationDTO);
         typeHabitation = typeHabitationRepository.save(typeHabitation);
         TypeHabitationDTO result = typeHabitationMapper.toDto(typeHabitation);
-        typeHabitationSearchRepository.save(typeHabitation);
+        searchIndexOutbox.enqueue(TypeHabitation.class, typeHabitation.getId());
+        criteriaResultCache.invalidate(TypeHabitation.class, typeHabitationDTO.getId() == null ? 1 : 0);
+        referenceDataService.invalidate(TypeHabitation.class);
         return result;
     }
 
+    /**
+     * Update a typeHabitation, loaded once and updated in place.
+     *
+     * @param typeHabitationDTO the entity to update, with the version the client read if it has it.
+     * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
+     */
+    public Optional<TypeHabitationDTO> update(TypeHabitationDTO typeHabitationDTO) {
+        log.debug("Request to update TypeHabitation : {}", typeHabitationDTO);
+        return update(typeHabitationDTO, typeHabitationMapper::update);
+    }
+
     /**
      * Partially update a typeHabitation.
      *
      * @param typeHabitationDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws org.springframework.dao.ConcurrencyFailureException if the entity was updated since the client read it.
      */
     public Optional<TypeHabitationDTO> partialUpdate(TypeHabitationDTO typeHabitationDTO) {
         log.debug("Request to partially update TypeHabitation : {}", typeHabitationDTO);
+        return update(typeHabitationDTO, typeHabitationMapper::partialUpdate);
+    }
 
+    private Optional<TypeHabitationDTO> update(TypeHabitationDTO typeHabitationDTO, BiConsumer<TypeHabitation, TypeHabitationDTO> mapping) {
         return typeHabitationRepository
             .findById(typeHabitationDTO.getId())
             .map(
                 existingTypeHabitation -> {
-                    typeHabitationMapper.partialUpdate(existingTypeHabitation, typeHabitationDTO);
+                    OptimisticLocking.checkVersion(
+                        TypeHabitation.class,
+                        existingTypeHabitation.getId(),
+                        existingTypeHabitation.getVersion(),
+                        typeHabitationDTO.getVersion()
+                    );
+                    mapping.accept(existingTypeHabitation, typeHabitationDTO);
                     return existingTypeHabitation;
                 }
             )
-            .map(typeHabitationRepository::save)
+            .map(typeHabitationRepository::saveAndFlush)
             .map(
                 savedTypeHabitation -> {
-                    typeHabitationSearchRepository.save(savedTypeHabitation);
+                    searchIndexOutbox.enqueue(TypeHabitation.class, savedTypeHabitation.getId());
+                    criteriaResultCache.invalidate(TypeHabitation.class);
+                    referenceDataService.invalidate(TypeHabitation.class);
 
                     return savedTypeHabitation;
                 }
@@ -115,7 +155,9 @@ public class TypeHabitationService {
     public void delete(Long id) {
         log.debug("Request to delete TypeHabitation : {}", id);
         typeHabitationRepository.deleteById(id);
-        typeHabitationSearchRepository.deleteById(id);
+        searchIndexOutbox.enqueue(TypeHabitation.class, id);
+        criteriaResultCache.invalidate(TypeHabitation.class, -1);
+        referenceDataService.invalidate(TypeHabitation.class);
     }
 
     /**
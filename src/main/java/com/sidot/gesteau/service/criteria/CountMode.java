@@ -0,0 +1,42 @@
+package com.sidot.gesteau.service.criteria;
+
+import java.util.Locale;
+
+/**
+ * How the total number of matching entities is computed when a page of a criteria query is requested.
+ */
+public enum CountMode {
+    /**
+     * Run a {@code COUNT(*)} with the same filters, the total is exact.
+     */
+    EXACT,
+
+    /**
+     * Use the database statistics when there is no filter, otherwise count the matching rows up to a cap. Past the cap,
+     * there is no total: the page only tells whether a following page exists, as with {@link #NONE}.
+     */
+    ESTIMATED,
+
+    /**
+     * Do not count, only tell whether a following page exists.
+     */
+    NONE;
+
+    /**
+     * Parse a request parameter value, ignoring the case.
+     *
+     * @param value the parameter value.
+     * @return the count mode.
+     * @throws IllegalArgumentException if the value is not a count mode.
+     */
+    public static CountMode fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the value as it appears in request parameters and response headers.
+     */
+    public String toParameter() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
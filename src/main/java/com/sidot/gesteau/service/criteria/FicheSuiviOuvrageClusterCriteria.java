@@ -0,0 +1,136 @@
+package com.sidot.gesteau.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Criteria class for the clusters of {@link com.sidot.gesteau.domain.FicheSuiviOuvrage}. This class is used
+ * in {@link com.sidot.gesteau.web.rest.FicheSuiviOuvrageResource} to receive the filtering options of the map from
+ * the Http GET request parameters, the annee and centre being the ones of the prevision.
+ * For example the following could be a valid request:
+ * {@code /fiche-suivi-ouvrages/clusters/5/15/14?natureouvrageId.equals=2&anneeId.in=1,2}
+ * Only the {@code equals}, {@code notEquals}, {@code in}, {@code notIn} and {@code specified} conditions of the
+ * {@link Filter}s are supported.
+ */
+public class FicheSuiviOuvrageClusterCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter natureouvrageId;
+
+    private LongFilter previsionId;
+
+    private LongFilter anneeId;
+
+    private LongFilter centreId;
+
+    public FicheSuiviOuvrageClusterCriteria() {}
+
+    public FicheSuiviOuvrageClusterCriteria(FicheSuiviOuvrageClusterCriteria other) {
+        this.natureouvrageId = other.natureouvrageId == null ? null : other.natureouvrageId.copy();
+        this.previsionId = other.previsionId == null ? null : other.previsionId.copy();
+        this.anneeId = other.anneeId == null ? null : other.anneeId.copy();
+        this.centreId = other.centreId == null ? null : other.centreId.copy();
+    }
+
+    @Override
+    public FicheSuiviOuvrageClusterCriteria copy() {
+        return new FicheSuiviOuvrageClusterCriteria(this);
+    }
+
+    public LongFilter getNatureouvrageId() {
+        return natureouvrageId;
+    }
+
+    public LongFilter natureouvrageId() {
+        if (natureouvrageId == null) {
+            natureouvrageId = new LongFilter();
+        }
+        return natureouvrageId;
+    }
+
+    public void setNatureouvrageId(LongFilter natureouvrageId) {
+        this.natureouvrageId = natureouvrageId;
+    }
+
+    public LongFilter getPrevisionId() {
+        return previsionId;
+    }
+
+    public LongFilter previsionId() {
+        if (previsionId == null) {
+            previsionId = new LongFilter();
+        }
+        return previsionId;
+    }
+
+    public void setPrevisionId(LongFilter previsionId) {
+        this.previsionId = previsionId;
+    }
+
+    public LongFilter getAnneeId() {
+        return anneeId;
+    }
+
+    public LongFilter anneeId() {
+        if (anneeId == null) {
+            anneeId = new LongFilter();
+        }
+        return anneeId;
+    }
+
+    public void setAnneeId(LongFilter anneeId) {
+        this.anneeId = anneeId;
+    }
+
+    public LongFilter getCentreId() {
+        return centreId;
+    }
+
+    public LongFilter centreId() {
+        if (centreId == null) {
+            centreId = new LongFilter();
+        }
+        return centreId;
+    }
+
+    public void setCentreId(LongFilter centreId) {
+        this.centreId = centreId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final FicheSuiviOuvrageClusterCriteria that = (FicheSuiviOuvrageClusterCriteria) o;
+        return (
+            Objects.equals(natureouvrageId, that.natureouvrageId) &&
+            Objects.equals(previsionId, that.previsionId) &&
+            Objects.equals(anneeId, that.anneeId) &&
+            Objects.equals(centreId, that.centreId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(natureouvrageId, previsionId, anneeId, centreId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvrageClusterCriteria{" +
+            (natureouvrageId != null ? "natureouvrageId=" + natureouvrageId + ", " : "") +
+            (previsionId != null ? "previsionId=" + previsionId + ", " : "") +
+            (anneeId != null ? "anneeId=" + anneeId + ", " : "") +
+            (centreId != null ? "centreId=" + centreId + ", " : "") +
+            "}";
+    }
+}
@@ -11,6 +11,8 @@ public class CentreDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String libelle;
 
@@ -30,6 +32,14 @@ public class CentreDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return libelle;
     }
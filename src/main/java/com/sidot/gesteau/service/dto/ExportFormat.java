@@ -0,0 +1,46 @@
+package com.sidot.gesteau.service.dto;
+
+import java.util.Locale;
+
+/**
+ * Content format of a streamed export.
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * RFC 4180 CSV, with a header record.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Parse a request parameter value, ignoring the case.
+     *
+     * @param value the parameter value.
+     * @return the export format.
+     * @throws IllegalArgumentException if the value is not an export format.
+     */
+    public static ExportFormat fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The FicheSuiviOuvrages of a geohash cell, drawn as a single marker on the map.
+ */
+public class FicheSuiviOuvrageClusterDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String geohash;
+
+    private double latitude;
+
+    private double longitude;
+
+    private long count;
+
+    public FicheSuiviOuvrageClusterDTO() {}
+
+    public FicheSuiviOuvrageClusterDTO(String geohash, double latitude, double longitude, long count) {
+        this.geohash = geohash;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
+    /**
+     * @return the mean latitude of the ouvrages of the cell.
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    /**
+     * @return the mean longitude of the ouvrages of the cell.
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvrageClusterDTO{" +
+            "geohash='" + getGeohash() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
+            ", count=" + getCount() +
+            "}";
+    }
+}
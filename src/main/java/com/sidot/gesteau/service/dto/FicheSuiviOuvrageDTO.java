@@ -12,6 +12,8 @@ public class FicheSuiviOuvrageDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String prjAppuis;
 
@@ -98,6 +100,14 @@ public class FicheSuiviOuvrageDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPrjAppuis() {
         return prjAppuis;
     }
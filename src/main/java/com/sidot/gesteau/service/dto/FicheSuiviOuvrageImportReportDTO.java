@@ -0,0 +1,102 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import of {@link com.sidot.gesteau.domain.FicheSuiviOuvrage} rows.
+ * <p>
+ * Row numbers are 1-based and count data rows only (the CSV header is not a row).
+ */
+public class FicheSuiviOuvrageImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long total;
+
+    private long imported;
+
+    private long failed;
+
+    private String abortedReason;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public String getAbortedReason() {
+        return abortedReason;
+    }
+
+    public void setAbortedReason(String abortedReason) {
+        this.abortedReason = abortedReason;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void addError(long row, List<String> messages) {
+        this.errors.add(new RowError(row, messages));
+        this.failed++;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvrageImportReportDTO{" +
+            "total=" + getTotal() +
+            ", imported=" + getImported() +
+            ", failed=" + getFailed() +
+            ", abortedReason='" + getAbortedReason() + "'" +
+            "}";
+    }
+
+    /**
+     * The reasons why a single row was rejected.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long row;
+
+        private final List<String> messages;
+
+        public RowError(long row, List<String> messages) {
+            this.row = row;
+            this.messages = messages;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public List<String> getMessages() {
+            return messages;
+        }
+    }
+}
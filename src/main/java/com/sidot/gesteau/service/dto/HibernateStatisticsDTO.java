@@ -0,0 +1,295 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A snapshot of the Hibernate statistics, collected since {@link #getSince()}.
+ */
+public class HibernateStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private boolean enabled;
+
+    private Instant since;
+
+    private long entityLoadCount;
+
+    private long entityFetchCount;
+
+    private long entityInsertCount;
+
+    private long entityUpdateCount;
+
+    private long entityDeleteCount;
+
+    private long collectionLoadCount;
+
+    private long collectionFetchCount;
+
+    private long prepareStatementCount;
+
+    private long queryExecutionCount;
+
+    private List<CacheRegion> cacheRegions = new ArrayList<>();
+
+    private List<Query> slowestQueries = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public void setSince(Instant since) {
+        this.since = since;
+    }
+
+    public long getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    public void setEntityLoadCount(long entityLoadCount) {
+        this.entityLoadCount = entityLoadCount;
+    }
+
+    public long getEntityFetchCount() {
+        return entityFetchCount;
+    }
+
+    public void setEntityFetchCount(long entityFetchCount) {
+        this.entityFetchCount = entityFetchCount;
+    }
+
+    public long getEntityInsertCount() {
+        return entityInsertCount;
+    }
+
+    public void setEntityInsertCount(long entityInsertCount) {
+        this.entityInsertCount = entityInsertCount;
+    }
+
+    public long getEntityUpdateCount() {
+        return entityUpdateCount;
+    }
+
+    public void setEntityUpdateCount(long entityUpdateCount) {
+        this.entityUpdateCount = entityUpdateCount;
+    }
+
+    public long getEntityDeleteCount() {
+        return entityDeleteCount;
+    }
+
+    public void setEntityDeleteCount(long entityDeleteCount) {
+        this.entityDeleteCount = entityDeleteCount;
+    }
+
+    public long getCollectionLoadCount() {
+        return collectionLoadCount;
+    }
+
+    public void setCollectionLoadCount(long collectionLoadCount) {
+        this.collectionLoadCount = collectionLoadCount;
+    }
+
+    public long getCollectionFetchCount() {
+        return collectionFetchCount;
+    }
+
+    public void setCollectionFetchCount(long collectionFetchCount) {
+        this.collectionFetchCount = collectionFetchCount;
+    }
+
+    public long getPrepareStatementCount() {
+        return prepareStatementCount;
+    }
+
+    public void setPrepareStatementCount(long prepareStatementCount) {
+        this.prepareStatementCount = prepareStatementCount;
+    }
+
+    public long getQueryExecutionCount() {
+        return queryExecutionCount;
+    }
+
+    public void setQueryExecutionCount(long queryExecutionCount) {
+        this.queryExecutionCount = queryExecutionCount;
+    }
+
+    /**
+     * @return the second level cache regions.
+     */
+    public List<CacheRegion> getCacheRegions() {
+        return cacheRegions;
+    }
+
+    public void setCacheRegions(List<CacheRegion> cacheRegions) {
+        this.cacheRegions = cacheRegions;
+    }
+
+    /**
+     * @return the HQL queries, by decreasing mean execution time.
+     */
+    public List<Query> getSlowestQueries() {
+        return slowestQueries;
+    }
+
+    public void setSlowestQueries(List<Query> slowestQueries) {
+        this.slowestQueries = slowestQueries;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HibernateStatisticsDTO{" +
+            "enabled=" + isEnabled() +
+            ", since=" + getSince() +
+            ", entityLoadCount=" + getEntityLoadCount() +
+            ", entityFetchCount=" + getEntityFetchCount() +
+            ", queryExecutionCount=" + getQueryExecutionCount() +
+            ", cacheRegions=" + getCacheRegions().size() +
+            ", slowestQueries=" + getSlowestQueries().size() +
+            "}";
+    }
+
+    public static class CacheRegion implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String region;
+
+        private long hitCount;
+
+        private long missCount;
+
+        private long putCount;
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public void setHitCount(long hitCount) {
+            this.hitCount = hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public void setMissCount(long missCount) {
+            this.missCount = missCount;
+        }
+
+        public long getPutCount() {
+            return putCount;
+        }
+
+        public void setPutCount(long putCount) {
+            this.putCount = putCount;
+        }
+
+        /**
+         * @return the ratio of the lookups found in the cache, {@code 0} when there were none.
+         */
+        public double getHitRatio() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "CacheRegion{" +
+                "region='" + getRegion() + "'" +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", putCount=" + getPutCount() +
+                "}";
+        }
+    }
+
+    public static class Query implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String query;
+
+        private long executionCount;
+
+        private long executionAvgTimeMillis;
+
+        private long executionMaxTimeMillis;
+
+        private long executionRowCount;
+
+        public String getQuery() {
+            return query;
+        }
+
+        public void setQuery(String query) {
+            this.query = query;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public void setExecutionCount(long executionCount) {
+            this.executionCount = executionCount;
+        }
+
+        public long getExecutionAvgTimeMillis() {
+            return executionAvgTimeMillis;
+        }
+
+        public void setExecutionAvgTimeMillis(long executionAvgTimeMillis) {
+            this.executionAvgTimeMillis = executionAvgTimeMillis;
+        }
+
+        public long getExecutionMaxTimeMillis() {
+            return executionMaxTimeMillis;
+        }
+
+        public void setExecutionMaxTimeMillis(long executionMaxTimeMillis) {
+            this.executionMaxTimeMillis = executionMaxTimeMillis;
+        }
+
+        public long getExecutionRowCount() {
+            return executionRowCount;
+        }
+
+        public void setExecutionRowCount(long executionRowCount) {
+            this.executionRowCount = executionRowCount;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Query{" +
+                "query='" + getQuery() + "'" +
+                ", executionCount=" + getExecutionCount() +
+                ", executionAvgTimeMillis=" + getExecutionAvgTimeMillis() +
+                ", executionMaxTimeMillis=" + getExecutionMaxTimeMillis() +
+                ", executionRowCount=" + getExecutionRowCount() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a keyset (seek) paginated listing: the sort key and the id of the last row already returned.
+ * <p>
+ * It travels as an opaque, URL-safe token. A cursor without position is the start of the listing.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = ",";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long lastId;
+
+    private final String lastValue;
+
+    private KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = Objects.requireNonNull(property);
+        this.direction = Objects.requireNonNull(direction);
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Cursor positioned before the first row of a listing.
+     *
+     * @param property the sort property, the id being always used as tie-breaker.
+     * @param direction the sort direction, applied to both the property and the id.
+     * @return the cursor.
+     */
+    public static KeysetCursor first(String property, Sort.Direction direction) {
+        return new KeysetCursor(property, direction, null, null);
+    }
+
+    /**
+     * Cursor positioned right after the given row.
+     *
+     * @param lastId the id of the last returned row.
+     * @param lastValue the sort property value of the last returned row, as text.
+     * @return the cursor.
+     */
+    public KeysetCursor after(Long lastId, String lastValue) {
+        return new KeysetCursor(property, direction, Objects.requireNonNull(lastId), Objects.requireNonNull(lastValue));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the opaque token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + getProperty() + "'" +
+            ", direction=" + getDirection() +
+            ", lastId=" + getLastId() +
+            ", lastValue='" + getLastValue() + "'" +
+            "}";
+    }
+}
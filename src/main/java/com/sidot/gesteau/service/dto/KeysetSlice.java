@@ -0,0 +1,35 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of a keyset (seek) paginated listing.
+ *
+ * @param <T> the type of the content.
+ */
+public class KeysetSlice<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> content;
+
+    private final KeysetCursor next;
+
+    public KeysetSlice(List<T> content, KeysetCursor next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the following page, empty when this page is the last one.
+     */
+    public Optional<KeysetCursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+}
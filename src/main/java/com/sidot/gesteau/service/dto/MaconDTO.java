@@ -11,6 +11,8 @@ public class MaconDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String libelle;
 
@@ -22,6 +24,14 @@ public class MaconDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return libelle;
     }
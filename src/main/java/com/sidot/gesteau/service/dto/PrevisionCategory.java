@@ -0,0 +1,26 @@
+package com.sidot.gesteau.service.dto;
+
+/**
+ * The kinds of ouvrage planned by a {@link com.sidot.gesteau.domain.Prevision}, one per planned count.
+ */
+public enum PrevisionCategory {
+    /**
+     * Planned by {@code nbLatrine}.
+     */
+    LATRINE,
+
+    /**
+     * Planned by {@code nbPuisard}.
+     */
+    PUISARD,
+
+    /**
+     * Planned by {@code nbPublic}.
+     */
+    PUBLIC,
+
+    /**
+     * Planned by {@code nbScolaire}.
+     */
+    SCOLAIRE,
+}
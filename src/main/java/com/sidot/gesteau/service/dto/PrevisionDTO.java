@@ -11,6 +11,8 @@ public class PrevisionDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private Integer nbLatrine;
 
@@ -35,6 +37,14 @@ public class PrevisionDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getNbLatrine() {
         return nbLatrine;
     }
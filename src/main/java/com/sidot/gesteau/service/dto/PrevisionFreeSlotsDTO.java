@@ -0,0 +1,42 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The centres and the annees a new Prevision can still be assigned to, each of them having at most one prevision.
+ */
+public class PrevisionFreeSlotsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<CentreDTO> centres = new ArrayList<>();
+
+    private List<AnneeDTO> annees = new ArrayList<>();
+
+    public List<CentreDTO> getCentres() {
+        return centres;
+    }
+
+    public void setCentres(List<CentreDTO> centres) {
+        this.centres = centres;
+    }
+
+    public List<AnneeDTO> getAnnees() {
+        return annees;
+    }
+
+    public void setAnnees(List<AnneeDTO> annees) {
+        this.annees = annees;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PrevisionFreeSlotsDTO{" +
+            "centres=" + getCentres().size() +
+            ", annees=" + getAnnees().size() +
+            "}";
+    }
+}
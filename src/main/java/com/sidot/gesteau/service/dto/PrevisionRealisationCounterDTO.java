@@ -0,0 +1,47 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The number of FicheSuiviOuvrages of a Prevision for a NatureOuvrage.
+ */
+public class PrevisionRealisationCounterDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long natureOuvrageId;
+
+    private long realised;
+
+    public PrevisionRealisationCounterDTO() {}
+
+    public PrevisionRealisationCounterDTO(Long natureOuvrageId, long realised) {
+        this.natureOuvrageId = natureOuvrageId;
+        this.realised = realised;
+    }
+
+    public Long getNatureOuvrageId() {
+        return natureOuvrageId;
+    }
+
+    public void setNatureOuvrageId(Long natureOuvrageId) {
+        this.natureOuvrageId = natureOuvrageId;
+    }
+
+    public long getRealised() {
+        return realised;
+    }
+
+    public void setRealised(long realised) {
+        this.realised = realised;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PrevisionRealisationCounterDTO{" +
+            "natureOuvrageId=" + getNatureOuvrageId() +
+            ", realised=" + getRealised() +
+            "}";
+    }
+}
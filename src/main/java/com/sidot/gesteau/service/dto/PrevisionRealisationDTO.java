@@ -0,0 +1,225 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The planned versus realised ouvrages of the {@link com.sidot.gesteau.domain.Prevision}s of an Annee, optionally
+ * restricted to a Centre, a CentreRegroupement or a DirectionRegionale.
+ */
+public class PrevisionRealisationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long anneeId;
+
+    private Long centreId;
+
+    private Long centreRegroupementId;
+
+    private Long directionRegionaleId;
+
+    private int previsions;
+
+    private List<CategoryRealisation> categories = new ArrayList<>();
+
+    private List<NatureRealisation> natures = new ArrayList<>();
+
+    public Long getAnneeId() {
+        return anneeId;
+    }
+
+    public void setAnneeId(Long anneeId) {
+        this.anneeId = anneeId;
+    }
+
+    public Long getCentreId() {
+        return centreId;
+    }
+
+    public void setCentreId(Long centreId) {
+        this.centreId = centreId;
+    }
+
+    public Long getCentreRegroupementId() {
+        return centreRegroupementId;
+    }
+
+    public void setCentreRegroupementId(Long centreRegroupementId) {
+        this.centreRegroupementId = centreRegroupementId;
+    }
+
+    public Long getDirectionRegionaleId() {
+        return directionRegionaleId;
+    }
+
+    public void setDirectionRegionaleId(Long directionRegionaleId) {
+        this.directionRegionaleId = directionRegionaleId;
+    }
+
+    /**
+     * @return the number of previsions aggregated.
+     */
+    public int getPrevisions() {
+        return previsions;
+    }
+
+    public void setPrevisions(int previsions) {
+        this.previsions = previsions;
+    }
+
+    public List<CategoryRealisation> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryRealisation> categories) {
+        this.categories = categories;
+    }
+
+    public List<NatureRealisation> getNatures() {
+        return natures;
+    }
+
+    public void setNatures(List<NatureRealisation> natures) {
+        this.natures = natures;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PrevisionRealisationDTO{" +
+            "anneeId=" + getAnneeId() +
+            ", centreId=" + getCentreId() +
+            ", centreRegroupementId=" + getCentreRegroupementId() +
+            ", directionRegionaleId=" + getDirectionRegionaleId() +
+            ", previsions=" + getPrevisions() +
+            ", categories=" + getCategories() +
+            ", natures=" + getNatures() +
+            "}";
+    }
+
+    /**
+     * The planned and realised ouvrages of a category.
+     */
+    public static class CategoryRealisation implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private PrevisionCategory category;
+
+        private long planned;
+
+        private long realised;
+
+        private Double percentage;
+
+        public PrevisionCategory getCategory() {
+            return category;
+        }
+
+        public void setCategory(PrevisionCategory category) {
+            this.category = category;
+        }
+
+        public long getPlanned() {
+            return planned;
+        }
+
+        public void setPlanned(long planned) {
+            this.planned = planned;
+        }
+
+        public long getRealised() {
+            return realised;
+        }
+
+        public void setRealised(long realised) {
+            this.realised = realised;
+        }
+
+        /**
+         * @return the realised part of the planned ouvrages, in percent, {@code null} when nothing is planned.
+         */
+        public Double getPercentage() {
+            return percentage;
+        }
+
+        public void setPercentage(Double percentage) {
+            this.percentage = percentage;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "CategoryRealisation{" +
+                "category='" + getCategory() + "'" +
+                ", planned=" + getPlanned() +
+                ", realised=" + getRealised() +
+                ", percentage=" + getPercentage() +
+                "}";
+        }
+    }
+
+    /**
+     * The realised ouvrages of a NatureOuvrage.
+     */
+    public static class NatureRealisation implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long natureOuvrageId;
+
+        private String libelle;
+
+        private PrevisionCategory category;
+
+        private long realised;
+
+        public Long getNatureOuvrageId() {
+            return natureOuvrageId;
+        }
+
+        public void setNatureOuvrageId(Long natureOuvrageId) {
+            this.natureOuvrageId = natureOuvrageId;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+
+        public void setLibelle(String libelle) {
+            this.libelle = libelle;
+        }
+
+        /**
+         * @return the category the nature counts for, {@code null} if it is not mapped to any.
+         */
+        public PrevisionCategory getCategory() {
+            return category;
+        }
+
+        public void setCategory(PrevisionCategory category) {
+            this.category = category;
+        }
+
+        public long getRealised() {
+            return realised;
+        }
+
+        public void setRealised(long realised) {
+            this.realised = realised;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "NatureRealisation{" +
+                "natureOuvrageId=" + getNatureOuvrageId() +
+                ", libelle='" + getLibelle() + "'" +
+                ", category='" + getCategory() + "'" +
+                ", realised=" + getRealised() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The timings of the queries of a QueryService method sharing a criteria shape, i.e. the same filtered fields and
+ * operators whatever their values.
+ */
+public class QueryShapeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String criteria;
+
+    private String operation;
+
+    private String shape;
+
+    private String source;
+
+    private long count;
+
+    private double totalTimeMillis;
+
+    private double meanTimeMillis;
+
+    private double maxTimeMillis;
+
+    private double meanRows;
+
+    public String getCriteria() {
+        return criteria;
+    }
+
+    public void setCriteria(String criteria) {
+        this.criteria = criteria;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @return the filtered fields and their operators, such as {@code centreId.in,nomBenef.contains}.
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    public void setShape(String shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * @return {@code cache} for the queries answered by the criteria result cache, {@code database} for the others.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotalTimeMillis() {
+        return totalTimeMillis;
+    }
+
+    public void setTotalTimeMillis(double totalTimeMillis) {
+        this.totalTimeMillis = totalTimeMillis;
+    }
+
+    public double getMeanTimeMillis() {
+        return meanTimeMillis;
+    }
+
+    public void setMeanTimeMillis(double meanTimeMillis) {
+        this.meanTimeMillis = meanTimeMillis;
+    }
+
+    /**
+     * @return the longest query of the recent time window.
+     */
+    public double getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    public void setMaxTimeMillis(double maxTimeMillis) {
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * @return the mean number of rows returned, or counted by the count queries.
+     */
+    public double getMeanRows() {
+        return meanRows;
+    }
+
+    public void setMeanRows(double meanRows) {
+        this.meanRows = meanRows;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "QueryShapeDTO{" +
+            "criteria='" + getCriteria() + "'" +
+            ", operation='" + getOperation() + "'" +
+            ", shape='" + getShape() + "'" +
+            ", source='" + getSource() + "'" +
+            ", count=" + getCount() +
+            ", totalTimeMillis=" + getTotalTimeMillis() +
+            ", meanTimeMillis=" + getMeanTimeMillis() +
+            ", maxTimeMillis=" + getMaxTimeMillis() +
+            ", meanRows=" + getMeanRows() +
+            "}";
+    }
+}
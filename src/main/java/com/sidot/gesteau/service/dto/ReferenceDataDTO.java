@@ -0,0 +1,122 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All the lookup entities a FicheSuiviOuvrage refers to, served together to the fiche form.
+ */
+public class ReferenceDataDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String version;
+
+    private List<MaconDTO> macons = new ArrayList<>();
+
+    private List<PrefabricantDTO> prefabricants = new ArrayList<>();
+
+    private List<NatureOuvrageDTO> natureOuvrages = new ArrayList<>();
+
+    private List<TypeHabitationDTO> typeHabitations = new ArrayList<>();
+
+    private List<SourceApprovEpDTO> sourceApprovEps = new ArrayList<>();
+
+    private List<ModeEvacuationEauUseeDTO> modeEvacuationEauUsees = new ArrayList<>();
+
+    private List<ModeEvacExcretaDTO> modeEvacExcretas = new ArrayList<>();
+
+    private List<AnneeDTO> annees = new ArrayList<>();
+
+    /**
+     * @return the digest of the reference data, identical on every instance for the same data.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public List<MaconDTO> getMacons() {
+        return macons;
+    }
+
+    public void setMacons(List<MaconDTO> macons) {
+        this.macons = macons;
+    }
+
+    public List<PrefabricantDTO> getPrefabricants() {
+        return prefabricants;
+    }
+
+    public void setPrefabricants(List<PrefabricantDTO> prefabricants) {
+        this.prefabricants = prefabricants;
+    }
+
+    public List<NatureOuvrageDTO> getNatureOuvrages() {
+        return natureOuvrages;
+    }
+
+    public void setNatureOuvrages(List<NatureOuvrageDTO> natureOuvrages) {
+        this.natureOuvrages = natureOuvrages;
+    }
+
+    public List<TypeHabitationDTO> getTypeHabitations() {
+        return typeHabitations;
+    }
+
+    public void setTypeHabitations(List<TypeHabitationDTO> typeHabitations) {
+        this.typeHabitations = typeHabitations;
+    }
+
+    public List<SourceApprovEpDTO> getSourceApprovEps() {
+        return sourceApprovEps;
+    }
+
+    public void setSourceApprovEps(List<SourceApprovEpDTO> sourceApprovEps) {
+        this.sourceApprovEps = sourceApprovEps;
+    }
+
+    public List<ModeEvacuationEauUseeDTO> getModeEvacuationEauUsees() {
+        return modeEvacuationEauUsees;
+    }
+
+    public void setModeEvacuationEauUsees(List<ModeEvacuationEauUseeDTO> modeEvacuationEauUsees) {
+        this.modeEvacuationEauUsees = modeEvacuationEauUsees;
+    }
+
+    public List<ModeEvacExcretaDTO> getModeEvacExcretas() {
+        return modeEvacExcretas;
+    }
+
+    public void setModeEvacExcretas(List<ModeEvacExcretaDTO> modeEvacExcretas) {
+        this.modeEvacExcretas = modeEvacExcretas;
+    }
+
+    public List<AnneeDTO> getAnnees() {
+        return annees;
+    }
+
+    public void setAnnees(List<AnneeDTO> annees) {
+        this.annees = annees;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReferenceDataDTO{" +
+            "version='" + getVersion() + "'" +
+            ", macons=" + getMacons().size() +
+            ", prefabricants=" + getPrefabricants().size() +
+            ", natureOuvrages=" + getNatureOuvrages().size() +
+            ", typeHabitations=" + getTypeHabitations().size() +
+            ", sourceApprovEps=" + getSourceApprovEps().size() +
+            ", modeEvacuationEauUsees=" + getModeEvacuationEauUsees().size() +
+            ", modeEvacExcretas=" + getModeEvacExcretas().size() +
+            ", annees=" + getAnnees().size() +
+            "}";
+    }
+}
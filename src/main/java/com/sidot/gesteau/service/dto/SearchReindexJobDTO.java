@@ -0,0 +1,159 @@
+package com.sidot.gesteau.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Progress of the bulk reindex of an indexed entity.
+ */
+public class SearchReindexJobDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private String entityType;
+
+    private State state;
+
+    private boolean resumed;
+
+    private long total;
+
+    private long indexed;
+
+    private int partitions;
+
+    private int completedPartitions;
+
+    private double documentsPerSecond;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return whether the job resumed from the checkpoints of an interrupted one.
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return the number of rows of the table when the job started.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the number of documents sent to Elasticsearch, including the ones of the interrupted job resumed.
+     */
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getCompletedPartitions() {
+        return completedPartitions;
+    }
+
+    public void setCompletedPartitions(int completedPartitions) {
+        this.completedPartitions = completedPartitions;
+    }
+
+    /**
+     * @return the throughput of this run, documents of a resumed job excluded.
+     */
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public void setDocumentsPerSecond(double documentsPerSecond) {
+        this.documentsPerSecond = documentsPerSecond;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchReindexJobDTO{" +
+            "entityType='" + getEntityType() + "'" +
+            ", state='" + getState() + "'" +
+            ", resumed='" + isResumed() + "'" +
+            ", total=" + getTotal() +
+            ", indexed=" + getIndexed() +
+            ", partitions=" + getPartitions() +
+            ", completedPartitions=" + getCompletedPartitions() +
+            ", documentsPerSecond=" + getDocumentsPerSecond() +
+            ", startedAt='" + getStartedAt() + "'" +
+            ", finishedAt='" + getFinishedAt() + "'" +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -2,6 +2,7 @@ package com.sidot.gesteau.service.mapper;
 
 import java.util.List;
 import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.mapstruct.NullValuePropertyMappingStrategy;
@@ -22,7 +23,12 @@ public interface EntityMapper<D, E> {
 
     List<D> toDto(List<E> entityList);
 
+    @Named("update")
+    @Mapping(target = "version", ignore = true)
+    void update(@MappingTarget E entity, D dto);
+
     @Named("partialUpdate")
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     void partialUpdate(@MappingTarget E entity, D dto);
 }
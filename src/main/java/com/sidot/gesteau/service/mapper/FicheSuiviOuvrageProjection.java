@@ -0,0 +1,150 @@
+package com.sidot.gesteau.service.mapper;
+
+import com.sidot.gesteau.domain.*;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.MaconDTO;
+import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
+import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
+import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
+import com.sidot.gesteau.service.dto.PrefabricantDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.dto.SourceApprovEpDTO;
+import com.sidot.gesteau.service.dto.TypeHabitationDTO;
+import com.sidot.gesteau.service.util.RowProjection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+/**
+ * Projection of the entity {@link FicheSuiviOuvrage} onto its DTO {@link FicheSuiviOuvrageDTO}.
+ * <p>
+ * It selects the scalar columns and the foreign keys only, and gives the same DTO as {@link FicheSuiviOuvrageMapper},
+ * the associations being reduced to their id. No association is joined nor loaded.
+ */
+public final class FicheSuiviOuvrageProjection implements RowProjection<FicheSuiviOuvrage, FicheSuiviOuvrageDTO> {
+
+    public static final FicheSuiviOuvrageProjection INSTANCE = new FicheSuiviOuvrageProjection();
+
+    private static final List<Column<?>> COLUMNS = new ArrayList<>();
+
+    static {
+        column(root -> root.get(FicheSuiviOuvrage_.id), FicheSuiviOuvrageDTO::setId);
+        column(root -> root.get(FicheSuiviOuvrage_.version), FicheSuiviOuvrageDTO::setVersion);
+        column(root -> root.get(FicheSuiviOuvrage_.prjAppuis), FicheSuiviOuvrageDTO::setPrjAppuis);
+        column(root -> root.get(FicheSuiviOuvrage_.nomBenef), FicheSuiviOuvrageDTO::setNomBenef);
+        column(root -> root.get(FicheSuiviOuvrage_.prenomBenef), FicheSuiviOuvrageDTO::setPrenomBenef);
+        column(root -> root.get(FicheSuiviOuvrage_.professionBenef), FicheSuiviOuvrageDTO::setProfessionBenef);
+        column(root -> root.get(FicheSuiviOuvrage_.nbUsagers), FicheSuiviOuvrageDTO::setNbUsagers);
+        column(root -> root.get(FicheSuiviOuvrage_.contacts), FicheSuiviOuvrageDTO::setContacts);
+        column(root -> root.get(FicheSuiviOuvrage_.longitude), FicheSuiviOuvrageDTO::setLongitude);
+        column(root -> root.get(FicheSuiviOuvrage_.latitude), FicheSuiviOuvrageDTO::setLatitude);
+        column(root -> root.get(FicheSuiviOuvrage_.dateRemiseDevis), FicheSuiviOuvrageDTO::setDateRemiseDevis);
+        column(root -> root.get(FicheSuiviOuvrage_.dateDebutTravaux), FicheSuiviOuvrageDTO::setDateDebutTravaux);
+        column(root -> root.get(FicheSuiviOuvrage_.dateFinTravaux), FicheSuiviOuvrageDTO::setDateFinTravaux);
+        column(root -> root.get(FicheSuiviOuvrage_.rue), FicheSuiviOuvrageDTO::setRue);
+        column(root -> root.get(FicheSuiviOuvrage_.porte), FicheSuiviOuvrageDTO::setPorte);
+        column(root -> root.get(FicheSuiviOuvrage_.coutMenage), FicheSuiviOuvrageDTO::setCoutMenage);
+        column(root -> root.get(FicheSuiviOuvrage_.subvOnea), FicheSuiviOuvrageDTO::setSubvOnea);
+        column(root -> root.get(FicheSuiviOuvrage_.subvProjet), FicheSuiviOuvrageDTO::setSubvProjet);
+        column(root -> root.get(FicheSuiviOuvrage_.autreSubv), FicheSuiviOuvrageDTO::setAutreSubv);
+        column(root -> root.get(FicheSuiviOuvrage_.toles), FicheSuiviOuvrageDTO::setToles);
+        column(root -> root.get(FicheSuiviOuvrage_.animateur), FicheSuiviOuvrageDTO::setAnimateur);
+        column(root -> root.get(FicheSuiviOuvrage_.superviseur), FicheSuiviOuvrageDTO::setSuperviseur);
+        column(root -> root.get(FicheSuiviOuvrage_.controleur), FicheSuiviOuvrageDTO::setControleur);
+        column(
+            root -> root.get(FicheSuiviOuvrage_.prevision).get(Prevision_.id),
+            reference(PrevisionDTO::new, PrevisionDTO::setId, FicheSuiviOuvrageDTO::setPrevision)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.natureouvrage).get(NatureOuvrage_.id),
+            reference(NatureOuvrageDTO::new, NatureOuvrageDTO::setId, FicheSuiviOuvrageDTO::setNatureouvrage)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.typehabitation).get(TypeHabitation_.id),
+            reference(TypeHabitationDTO::new, TypeHabitationDTO::setId, FicheSuiviOuvrageDTO::setTypehabitation)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.sourceapprovep).get(SourceApprovEp_.id),
+            reference(SourceApprovEpDTO::new, SourceApprovEpDTO::setId, FicheSuiviOuvrageDTO::setSourceapprovep)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.modeevacuationeauusee).get(ModeEvacuationEauUsee_.id),
+            reference(ModeEvacuationEauUseeDTO::new, ModeEvacuationEauUseeDTO::setId, FicheSuiviOuvrageDTO::setModeevacuationeauusee)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.modeevacexcreta).get(ModeEvacExcreta_.id),
+            reference(ModeEvacExcretaDTO::new, ModeEvacExcretaDTO::setId, FicheSuiviOuvrageDTO::setModeevacexcreta)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.macon).get(Macon_.id),
+            reference(MaconDTO::new, MaconDTO::setId, FicheSuiviOuvrageDTO::setMacon)
+        );
+        column(
+            root -> root.get(FicheSuiviOuvrage_.prefabricant).get(Prefabricant_.id),
+            reference(PrefabricantDTO::new, PrefabricantDTO::setId, FicheSuiviOuvrageDTO::setPrefabricant)
+        );
+    }
+
+    private FicheSuiviOuvrageProjection() {}
+
+    @Override
+    public List<Selection<?>> select(Root<FicheSuiviOuvrage> root) {
+        List<Selection<?>> selections = new ArrayList<>(COLUMNS.size());
+        for (Column<?> column : COLUMNS) {
+            selections.add(column.path.apply(root));
+        }
+        return selections;
+    }
+
+    @Override
+    public FicheSuiviOuvrageDTO map(Object[] row) {
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = new FicheSuiviOuvrageDTO();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMNS.get(i).set(ficheSuiviOuvrageDTO, row[i]);
+        }
+        return ficheSuiviOuvrageDTO;
+    }
+
+    private static <T> void column(Function<Root<FicheSuiviOuvrage>, Path<T>> path, BiConsumer<FicheSuiviOuvrageDTO, T> setter) {
+        COLUMNS.add(new Column<>(path, setter));
+    }
+
+    /**
+     * Setter of an association, given the id of the referenced entity.
+     */
+    private static <D> BiConsumer<FicheSuiviOuvrageDTO, Long> reference(
+        Supplier<D> factory,
+        BiConsumer<D, Long> idSetter,
+        BiConsumer<FicheSuiviOuvrageDTO, D> setter
+    ) {
+        return (ficheSuiviOuvrageDTO, id) -> {
+            if (id != null) {
+                D reference = factory.get();
+                idSetter.accept(reference, id);
+                setter.accept(ficheSuiviOuvrageDTO, reference);
+            }
+        };
+    }
+
+    private static final class Column<T> {
+
+        private final Function<Root<FicheSuiviOuvrage>, Path<T>> path;
+
+        private final BiConsumer<FicheSuiviOuvrageDTO, T> setter;
+
+        private Column(Function<Root<FicheSuiviOuvrage>, Path<T>> path, BiConsumer<FicheSuiviOuvrageDTO, T> setter) {
+            this.path = path;
+            this.setter = setter;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void set(FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO, Object value) {
+            setter.accept(ficheSuiviOuvrageDTO, (T) value);
+        }
+    }
+}
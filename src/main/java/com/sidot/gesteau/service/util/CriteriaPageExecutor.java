@@ -0,0 +1,335 @@
+package com.sidot.gesteau.service.util;
+
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.service.criteria.CountMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.Table;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs criteria queries, either on entities or on a {@link RowProjection}, paginated with a given {@link CountMode} or streamed.
+ * <p>
+ * A paginated result is a {@link Page} for {@link CountMode#EXACT} and {@link CountMode#ESTIMATED}, and a plain
+ * {@link Slice} for {@link CountMode#NONE}, or for {@link CountMode#ESTIMATED} when the count is capped. It must be
+ * called within a transaction.
+ */
+@Component
+public class CriteriaPageExecutor {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final Logger log = LoggerFactory.getLogger(CriteriaPageExecutor.class);
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private volatile Boolean postgresql;
+
+    public CriteriaPageExecutor(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Return the requested page of the entities matching the specification.
+     *
+     * @param repository the repository of the entities, used for the exact count.
+     * @param domainClass the class of the entities.
+     * @param specification the filters.
+     * @param pageable the page, which should be returned.
+     * @param countMode how the total number of matching entities is computed.
+     * @param <E> the type of the entities.
+     * @return the matching entities.
+     */
+    public <E> Slice<E> findAll(
+        JpaSpecificationExecutor<E> repository,
+        Class<E> domainClass,
+        Specification<E> specification,
+        Pageable pageable,
+        CountMode countMode
+    ) {
+        if (countMode == CountMode.EXACT || pageable.isUnpaged()) {
+            return repository.findAll(specification, pageable);
+        }
+        if (countMode == CountMode.NONE) {
+            // One extra row tells whether a following page exists
+            List<E> rows = findContent(domainClass, specification, pageable, pageable.getPageSize() + 1);
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        }
+        List<E> rows = findContent(domainClass, specification, pageable, pageable.getPageSize() + 1);
+        return estimatedPage(rows, pageable, () -> estimateCount(domainClass, specification));
+    }
+
+    /**
+     * Return the requested page of the projected entities matching the specification, with an exact count.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filters.
+     * @param projection the projection of the entities.
+     * @param pageable the page, which should be returned.
+     * @param <E> the type of the entities.
+     * @param <R> the type of the projection.
+     * @return the matching projections.
+     */
+    public <E, R> Page<R> findAll(Class<E> domainClass, Specification<E> specification, RowProjection<E, R> projection, Pageable pageable) {
+        List<R> rows = findProjected(domainClass, specification, projection, pageable, pageable.isPaged() ? pageable.getPageSize() : 0);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows);
+        }
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(domainClass, specification));
+    }
+
+    /**
+     * Return the requested page of the projected entities matching the specification.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filters.
+     * @param projection the projection of the entities.
+     * @param pageable the page, which should be returned.
+     * @param countMode how the total number of matching entities is computed.
+     * @param <E> the type of the entities.
+     * @param <R> the type of the projection.
+     * @return the matching projections.
+     */
+    public <E, R> Slice<R> findAll(
+        Class<E> domainClass,
+        Specification<E> specification,
+        RowProjection<E, R> projection,
+        Pageable pageable,
+        CountMode countMode
+    ) {
+        if (countMode == CountMode.EXACT || pageable.isUnpaged()) {
+            return findAll(domainClass, specification, projection, pageable);
+        }
+        if (countMode == CountMode.NONE) {
+            List<R> rows = findProjected(domainClass, specification, projection, pageable, pageable.getPageSize() + 1);
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        }
+        List<R> rows = findProjected(domainClass, specification, projection, pageable, pageable.getPageSize() + 1);
+        return estimatedPage(rows, pageable, () -> estimateCount(domainClass, specification));
+    }
+
+    /**
+     * Apply an action to all the projected entities matching the specification, read through a forward-only cursor.
+     * <p>
+     * Projected rows are not managed, so that the persistence context does not grow while the cursor is read.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filters.
+     * @param projection the projection of the entities.
+     * @param sort the order of the rows.
+     * @param fetchSize the number of rows fetched from the database at once.
+     * @param action the action applied to every projection.
+     * @param <E> the type of the entities.
+     * @param <R> the type of the projection.
+     * @return the number of matching entities.
+     */
+    public <E, R> long forEach(
+        Class<E> domainClass,
+        Specification<E> specification,
+        RowProjection<E, R> projection,
+        Sort sort,
+        int fetchSize,
+        Consumer<R> action
+    ) {
+        CriteriaQuery<Object[]> query = projectedQuery(domainClass, specification, projection, sort);
+        ScrollableResults results = entityManager
+            .createQuery(query)
+            .unwrap(Query.class)
+            .setFetchSize(fetchSize)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        long count = 0;
+        try {
+            while (results.next()) {
+                action.accept(projection.map(results.get()));
+                count++;
+            }
+        } finally {
+            results.close();
+        }
+        return count;
+    }
+
+    /**
+     * Return the exact number of entities matching the specification.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filters.
+     * @param <E> the type of the entities.
+     * @return the number of matching entities.
+     */
+    public <E> long count(Class<E> domainClass, Specification<E> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <E, R> List<R> findProjected(
+        Class<E> domainClass,
+        Specification<E> specification,
+        RowProjection<E, R> projection,
+        Pageable pageable,
+        int maxResults
+    ) {
+        TypedQuery<Object[]> query = entityManager.createQuery(projectedQuery(domainClass, specification, projection, pageable.getSort()));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(maxResults);
+        }
+        List<Object[]> rows = query.getResultList();
+        List<R> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(projection.map(row));
+        }
+        return result;
+    }
+
+    private <E> CriteriaQuery<Object[]> projectedQuery(
+        Class<E> domainClass,
+        Specification<E> specification,
+        RowProjection<E, ?> projection,
+        Sort sort
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<E> root = query.from(domainClass);
+        query.multiselect(projection.select(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+
+    private <E> List<E> findContent(Class<E> domainClass, Specification<E> specification, Pageable pageable, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(domainClass);
+        Root<E> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        return entityManager.createQuery(query).setFirstResult((int) pageable.getOffset()).setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * Build the page of an estimated count from its rows, fetched with one extra row telling whether a following page
+     * exists: the last page knows its total, the other ones estimate it, and are a plain {@link Slice} when more
+     * entities than {@code application.pagination.count-cap} match.
+     */
+    private <T> Slice<T> estimatedPage(List<T> rows, Pageable pageable, Supplier<OptionalLong> estimate) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        if (!hasNext && !content.isEmpty()) {
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        OptionalLong total = estimate.get();
+        if (total.isEmpty()) {
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+        return new PageImpl<>(content, pageable, total.getAsLong());
+    }
+
+    /**
+     * Estimate the number of entities matching the specification.
+     *
+     * @return the estimate, or empty if more entities than the cap match the filters.
+     */
+    private <E> OptionalLong estimateCount(Class<E> domainClass, Specification<E> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate == null) {
+            OptionalLong statistics = tableStatistics(domainClass);
+            if (statistics.isPresent()) {
+                return statistics;
+            }
+            return OptionalLong.of(count(domainClass, specification));
+        }
+        // Count the matching rows, but stop reading them past the cap
+        int countCap = applicationProperties.getPagination().getCountCap();
+        query.select(root.<Long>get("id")).where(predicate);
+        int matching = entityManager.createQuery(query).setMaxResults(countCap + 1).getResultList().size();
+        if (matching > countCap) {
+            log.debug("More than {} {} match, the count is capped", countCap, domainClass.getSimpleName());
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(matching);
+    }
+
+    /**
+     * Read the row count PostgreSQL keeps up to date on {@code VACUUM} and {@code ANALYZE}.
+     */
+    private OptionalLong tableStatistics(Class<?> domainClass) {
+        Table table = domainClass.getAnnotation(Table.class);
+        if (table == null || !isPostgresql()) {
+            return OptionalLong.empty();
+        }
+        List<?> rows = entityManager
+            .createNativeQuery("select reltuples from pg_class where oid = to_regclass(:table)")
+            .setParameter("table", table.name())
+            .getResultList();
+        if (rows.isEmpty() || ((Number) rows.get(0)).longValue() <= 0) {
+            // Never analyzed yet, the exact count is cheap enough on such a table
+            log.debug("No statistics for table {}", table.name());
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(((Number) rows.get(0)).longValue());
+    }
+
+    private boolean isPostgresql() {
+        Boolean result = postgresql;
+        if (result == null) {
+            String productName = entityManager
+                .unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            result = POSTGRESQL.equals(productName);
+            postgresql = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package com.sidot.gesteau.service.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward-only reader for RFC 4180 style CSV content.
+ * <p>
+ * The first record is read as the header, every following record is returned as a map from
+ * header name to (possibly {@code null}) cell value. Records are parsed one at a time, so the
+ * whole content is never held in memory.
+ */
+public class CsvReader implements Iterator<Map<String, String>> {
+
+    private final Reader reader;
+
+    private final char separator;
+
+    private final List<String> header;
+
+    private List<String> nextRecord;
+
+    private int pushback = -2;
+
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+        List<String> firstRecord = readRecord();
+        this.header = firstRecord == null ? new ArrayList<>() : firstRecord;
+        this.nextRecord = readRecord();
+    }
+
+    public List<String> getHeader() {
+        return header;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRecord != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (nextRecord == null) {
+            throw new NoSuchElementException();
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = i < nextRecord.size() ? nextRecord.get(i) : null;
+            row.put(header.get(i).trim(), value == null || value.isEmpty() ? null : value);
+        }
+        nextRecord = readRecord();
+        return row;
+    }
+
+    private List<String> readRecord() {
+        try {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted value in CSV content");
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.length() == 0) {
+                    quoted = true;
+                } else if (c == separator) {
+                    record.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            pushback = following;
+                        }
+                    }
+                    record.add(cell.toString());
+                    return record;
+                } else {
+                    cell.append((char) c);
+                }
+                c = read();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
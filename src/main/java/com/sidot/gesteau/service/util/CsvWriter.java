@@ -0,0 +1,48 @@
+package com.sidot.gesteau.service.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writer for RFC 4180 style CSV content, the counterpart of {@link CsvReader}.
+ * <p>
+ * Cells are quoted only when they hold the separator, a quote or a line break, and {@code null} cells are written empty.
+ * Records are written straight to the underlying writer, which is neither flushed nor closed.
+ */
+public class CsvWriter {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    private final char separator;
+
+    public CsvWriter(Writer writer, char separator) {
+        this.writer = writer;
+        this.separator = separator;
+    }
+
+    public void writeRecord(List<?> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            Object cell = cells.get(i);
+            if (cell != null) {
+                writeCell(cell.toString());
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeCell(String value) throws IOException {
+        if (value.indexOf(separator) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
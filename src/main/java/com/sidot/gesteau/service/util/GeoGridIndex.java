@@ -0,0 +1,256 @@
+package com.sidot.gesteau.service.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory spatial index of points identified by a {@code long}, bucketed in a grid of fixed size cells.
+ * <p>
+ * A query only reads the cells its bounding box overlaps, then checks the exact position of the points they hold.
+ * The index is safe for concurrent use: a point is moved between cells atomically, and a query never returns it twice.
+ */
+public class GeoGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Half of the circumference of the earth, no two points are further apart.
+     */
+    private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private final double cellSizeDegrees;
+
+    private final int rows;
+
+    private final int columns;
+
+    private final ConcurrentMap<Long, double[]> points = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("The cell size must be in ]0, 90] degrees: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.rows = (int) Math.ceil(180 / cellSizeDegrees);
+        this.columns = (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    /**
+     * Add a point, or move it if it is already indexed.
+     *
+     * @param id the id of the point.
+     * @param latitude the latitude, in degrees.
+     * @param longitude the longitude, in degrees.
+     */
+    public void put(long id, double latitude, double longitude) {
+        points.compute(
+            id,
+            (key, previous) -> {
+                long cell = cell(latitude, longitude);
+                if (previous != null && cell(previous[0], previous[1]) != cell) {
+                    removeFromCell(cell(previous[0], previous[1]), key);
+                }
+                cells.compute(
+                    cell,
+                    (cellKey, ids) -> {
+                        Set<Long> result = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                        result.add(key);
+                        return result;
+                    }
+                );
+                return new double[] { latitude, longitude };
+            }
+        );
+    }
+
+    /**
+     * Remove a point, if it is indexed.
+     *
+     * @param id the id of the point.
+     */
+    public void remove(long id) {
+        points.computeIfPresent(
+            id,
+            (key, previous) -> {
+                removeFromCell(cell(previous[0], previous[1]), key);
+                return null;
+            }
+        );
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Find the points inside a bounding box, the box crosses the antimeridian when {@code west > east}.
+     *
+     * @param south the minimum latitude, in degrees.
+     * @param west the western longitude, in degrees.
+     * @param north the maximum latitude, in degrees.
+     * @param east the eastern longitude, in degrees.
+     * @return the ids of the points, in no particular order.
+     */
+    public List<Long> withinBox(double south, double west, double north, double east) {
+        Map<Long, double[]> found = new HashMap<>();
+        collect(south, west, north, east, found);
+        return new ArrayList<>(found.keySet());
+    }
+
+    /**
+     * Find the points within a distance of a center.
+     *
+     * @param latitude the latitude of the center, in degrees.
+     * @param longitude the longitude of the center, in degrees.
+     * @param radiusKm the maximum distance to the center, in kilometers.
+     * @return the ids of the points, nearest first.
+     */
+    public List<Long> withinRadius(double latitude, double longitude, double radiusKm) {
+        Map<Long, double[]> found = new HashMap<>();
+        double radiusDegrees = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double south = latitude - radiusDegrees;
+        double north = latitude + radiusDegrees;
+        double ratio = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+        if (south <= -90 || north >= 90 || radiusKm >= MAX_DISTANCE_KM / 2 || ratio >= 1) {
+            // The circle holds a pole, or spans all the longitudes
+            collect(Math.max(south, -90), -180, Math.min(north, 90), 180, found);
+        } else {
+            double longitudeDegrees = Math.toDegrees(Math.asin(ratio));
+            double west = normalizeLongitude(longitude - longitudeDegrees);
+            double east = normalizeLongitude(longitude + longitudeDegrees);
+            collect(south, west, north, east, found);
+        }
+
+        List<Map.Entry<Long, Double>> distances = new ArrayList<>(found.size());
+        found.forEach(
+            (id, point) -> {
+                double distance = distanceKm(latitude, longitude, point[0], point[1]);
+                if (distance <= radiusKm) {
+                    distances.add(Map.entry(id, distance));
+                }
+            }
+        );
+        distances.sort(Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> result = new ArrayList<>(distances.size());
+        distances.forEach(entry -> result.add(entry.getKey()));
+        return result;
+    }
+
+    /**
+     * Find the points nearest to a center, by searching circles of growing radius until enough are found.
+     *
+     * @param latitude the latitude of the center, in degrees.
+     * @param longitude the longitude of the center, in degrees.
+     * @param count the maximum number of points.
+     * @return the ids of the points, nearest first.
+     */
+    public List<Long> nearest(double latitude, double longitude, int count) {
+        if (count <= 0 || points.isEmpty()) {
+            return List.of();
+        }
+        double radiusKm = Math.toRadians(cellSizeDegrees) * EARTH_RADIUS_KM;
+        while (true) {
+            List<Long> found = withinRadius(latitude, longitude, radiusKm);
+            if (found.size() >= count || radiusKm >= MAX_DISTANCE_KM) {
+                return found.subList(0, Math.min(count, found.size()));
+            }
+            radiusKm *= 2;
+        }
+    }
+
+    /**
+     * Great-circle distance between two points, with the haversine formula.
+     *
+     * @return the distance, in kilometers.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a =
+            Math.pow(Math.sin(deltaLatitude / 2), 2) +
+            Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(deltaLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void collect(double south, double west, double north, double east, Map<Long, double[]> found) {
+        if (west > east) {
+            collect(south, west, north, 180, found);
+            collect(south, -180, north, east, found);
+            return;
+        }
+        int rowMin = row(south);
+        int rowMax = row(north);
+        int columnMin = column(west);
+        int columnMax = column(east);
+        long spanned = (long) (rowMax - rowMin + 1) * (columnMax - columnMin + 1);
+        if (spanned > cells.size()) {
+            // Cheaper to go through the non-empty cells than through all the cells of the box
+            cells.forEach(
+                (cell, ids) -> {
+                    int row = (int) (cell / columns);
+                    int column = (int) (cell % columns);
+                    if (row >= rowMin && row <= rowMax && column >= columnMin && column <= columnMax) {
+                        collect(ids, south, west, north, east, found);
+                    }
+                }
+            );
+        } else {
+            for (int row = rowMin; row <= rowMax; row++) {
+                for (int column = columnMin; column <= columnMax; column++) {
+                    Set<Long> ids = cells.get((long) row * columns + column);
+                    if (ids != null) {
+                        collect(ids, south, west, north, east, found);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collect(Set<Long> ids, double south, double west, double north, double east, Map<Long, double[]> found) {
+        for (Long id : ids) {
+            double[] point = points.get(id);
+            if (point != null && point[0] >= south && point[0] <= north && point[1] >= west && point[1] <= east) {
+                found.put(id, point);
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, Long id) {
+        cells.computeIfPresent(
+            cell,
+            (cellKey, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            }
+        );
+    }
+
+    private long cell(double latitude, double longitude) {
+        return (long) row(latitude) * columns + column(longitude);
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellSizeDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude + 180) / cellSizeDegrees)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        return longitude;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sidot.gesteau.service.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding: a position is turned into a base 32 string, every character halving the cell alternately on the
+ * longitude and the latitude, so that the prefixes of a geohash are the cells holding it at lower precisions.
+ */
+public final class Geohash {
+
+    private static final String BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /**
+     * The highest supported precision, 60 bits fit in a {@code long}.
+     */
+    public static final int MAX_PRECISION = 12;
+
+    private Geohash() {}
+
+    /**
+     * @param latitude the latitude, in degrees.
+     * @param longitude the longitude, in degrees.
+     * @param precision the number of characters.
+     * @return the geohash of the cell holding the position.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        checkPrecision(precision);
+        double[] latitudeRange = { -90, 90 };
+        double[] longitudeRange = { -180, 180 };
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0;
+        int character = 0;
+        while (geohash.length() < precision) {
+            double[] range = even ? longitudeRange : latitudeRange;
+            double value = even ? longitude : latitude;
+            double middle = (range[0] + range[1]) / 2;
+            character <<= 1;
+            if (value >= middle) {
+                character |= 1;
+                range[0] = middle;
+            } else {
+                range[1] = middle;
+            }
+            even = !even;
+            if (++bit == 5) {
+                geohash.append(BASE_32.charAt(character));
+                bit = 0;
+                character = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * @param geohash a geohash.
+     * @return the center of its cell, as {@code {latitude, longitude}}.
+     * @throws IllegalArgumentException if the geohash is not valid.
+     */
+    public static double[] decode(String geohash) {
+        double[] latitudeRange = { -90, 90 };
+        double[] longitudeRange = { -180, 180 };
+        boolean even = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int character = BASE_32.indexOf(geohash.charAt(i));
+            if (character < 0) {
+                throw new IllegalArgumentException("Not a geohash: " + geohash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                double[] range = even ? longitudeRange : latitudeRange;
+                double middle = (range[0] + range[1]) / 2;
+                if ((character & mask) != 0) {
+                    range[0] = middle;
+                } else {
+                    range[1] = middle;
+                }
+                even = !even;
+            }
+        }
+        return new double[] { (latitudeRange[0] + latitudeRange[1]) / 2, (longitudeRange[0] + longitudeRange[1]) / 2 };
+    }
+
+    /**
+     * @return the width of the cells of a precision, in degrees of longitude.
+     */
+    public static double cellWidth(int precision) {
+        return 360 / Math.pow(2, Math.ceil(precision * 5 / 2.0));
+    }
+
+    /**
+     * @return the height of the cells of a precision, in degrees of latitude.
+     */
+    public static double cellHeight(int precision) {
+        return 180 / Math.pow(2, Math.floor(precision * 5 / 2.0));
+    }
+
+    /**
+     * Find the cells of a precision overlapping a bounding box, which must not cross the antimeridian.
+     *
+     * @return the geohashes of the cells.
+     */
+    public static Set<String> covering(double south, double west, double north, double east, int precision) {
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> geohashes = new LinkedHashSet<>();
+        for (double latitude = south;; latitude = Math.min(latitude + height, north)) {
+            for (double longitude = west;; longitude = Math.min(longitude + width, east)) {
+                geohashes.add(encode(latitude, longitude, precision));
+                if (longitude >= east) {
+                    break;
+                }
+            }
+            if (latitude >= north) {
+                break;
+            }
+        }
+        return geohashes;
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("The precision must be between 1 and " + MAX_PRECISION + ": " + precision);
+        }
+    }
+}
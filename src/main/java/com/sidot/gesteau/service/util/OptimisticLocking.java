@@ -0,0 +1,27 @@
+package com.sidot.gesteau.service.util;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Version check of the entities updated in place: Hibernate only checks, when flushing a loaded entity, the version it
+ * was loaded with, not the version the client read before sending its update.
+ */
+public final class OptimisticLocking {
+
+    private OptimisticLocking() {}
+
+    /**
+     * Check that a client updates the current version of an entity.
+     *
+     * @param entityClass the type of the entity.
+     * @param id the id of the entity.
+     * @param currentVersion the version of the entity, as loaded.
+     * @param expectedVersion the version the client read, or {@code null} if it did not give it.
+     * @throws ObjectOptimisticLockingFailureException if the entity was updated since the client read it.
+     */
+    public static void checkVersion(Class<?> entityClass, Object id, long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sidot.gesteau.service.util;
+
+import java.util.List;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+/**
+ * Projection of an entity query onto a read model: the selected columns and how a row of their values maps to the result.
+ * <p>
+ * Projected rows are never managed by the persistence context, and only the associations the selections traverse are joined.
+ *
+ * @param <E> the type of the queried entity.
+ * @param <R> the type of the result.
+ */
+public interface RowProjection<E, R> {
+    /**
+     * @param root the root of the query.
+     * @return the selections, in the order of the row values.
+     */
+    List<Selection<?>> select(Root<E> root);
+
+    /**
+     * @param row the values of the selections.
+     * @return the result.
+     */
+    R map(Object[] row);
+}
@@ -0,0 +1,4 @@
+/**
+ * Helpers shared by the service layer beans.
+ */
+package com.sidot.gesteau.service.util;
@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.AnneeRepository;
+import com.sidot.gesteau.domain.Annee;
 import com.sidot.gesteau.service.AnneeQueryService;
 import com.sidot.gesteau.service.AnneeService;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.criteria.AnneeCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.AnneeDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.Annee}.
@@ -46,14 +52,14 @@ public class AnneeResource {
 
     private final AnneeService anneeService;
 
-    private final AnneeRepository anneeRepository;
-
     private final AnneeQueryService anneeQueryService;
 
-    public AnneeResource(AnneeService anneeService, AnneeRepository anneeRepository, AnneeQueryService anneeQueryService) {
+    private final CriteriaResultCache criteriaResultCache;
+
+    public AnneeResource(AnneeService anneeService, AnneeQueryService anneeQueryService, CriteriaResultCache criteriaResultCache) {
         this.anneeService = anneeService;
-        this.anneeRepository = anneeRepository;
         this.anneeQueryService = anneeQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -80,15 +86,19 @@ public class AnneeResource {
      * {@code PUT  /annees/:id} : Updates an existing annee.
      *
      * @param id the id of the anneeDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the annee the client read, if any.
      * @param anneeDTO the anneeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated anneeDTO,
      * or with status {@code 400 (Bad Request)} if the anneeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the annee was updated since the version of the anneeDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the anneeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/annees/{id}")
     public ResponseEntity<AnneeDTO> updateAnnee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody AnneeDTO anneeDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Annee : {}, {}", id, anneeDTO);
@@ -99,13 +109,13 @@ public class AnneeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!anneeRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        AnneeDTO result = anneeService.save(anneeDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, anneeDTO::setVersion, ENTITY_NAME);
+        AnneeDTO result = anneeService
+            .update(anneeDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, anneeDTO.getId().toString()))
             .body(result);
     }
@@ -114,16 +124,20 @@ public class AnneeResource {
      * {@code PATCH  /annees/:id} : Partial updates given fields of an existing annee, field will ignore if it is null
      *
      * @param id the id of the anneeDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the annee the client read, if any.
      * @param anneeDTO the anneeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated anneeDTO,
      * or with status {@code 400 (Bad Request)} if the anneeDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the anneeDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the anneeDTO is not found,
+     * or with status {@code 409 (Conflict)} if the annee was updated since the version of the anneeDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the anneeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/annees/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<AnneeDTO> partialUpdateAnnee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody AnneeDTO anneeDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Annee partially : {}, {}", id, anneeDTO);
@@ -134,16 +148,15 @@ public class AnneeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!anneeRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<AnneeDTO> result = anneeService.partialUpdate(anneeDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, anneeDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, anneeDTO::setVersion, ENTITY_NAME);
+        AnneeDTO result = anneeService
+            .partialUpdate(anneeDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, anneeDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -151,14 +164,29 @@ public class AnneeResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of annees in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of annees in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/annees")
-    public ResponseEntity<List<AnneeDTO>> getAllAnnees(AnneeCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<AnneeDTO>> getAllAnnees(
+        AnneeCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get Annees by criteria: {}", criteria);
-        Page<AnneeDTO> page = anneeQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(Annee.class))) {
+            return null;
+        }
+        Slice<AnneeDTO> slice = anneeQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -175,6 +203,9 @@ public class AnneeResource {
 
     /**
      * {@code GET  /annees/:id} : get the "id" annee.
+     * <p>
+     * The version of the annee is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to the
+     * requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the anneeDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the anneeDTO, or with status {@code 404 (Not Found)}.
@@ -183,7 +214,7 @@ public class AnneeResource {
     public ResponseEntity<AnneeDTO> getAnnee(@PathVariable Long id) {
         log.debug("REST request to get Annee : {}", id);
         Optional<AnneeDTO> anneeDTO = anneeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(anneeDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(anneeDTO, AnneeDTO::getVersion);
     }
 
     /**
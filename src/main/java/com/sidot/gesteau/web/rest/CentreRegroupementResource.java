@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.CentreRegroupementRepository;
+import com.sidot.gesteau.domain.CentreRegroupement;
 import com.sidot.gesteau.service.CentreRegroupementQueryService;
 import com.sidot.gesteau.service.CentreRegroupementService;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.criteria.CentreRegroupementCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.CentreRegroupementDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.CentreRegroupement}.
@@ -46,18 +52,18 @@ public class CentreRegroupementResource {
 
     private final CentreRegroupementService centreRegroupementService;
 
-    private final CentreRegroupementRepository centreRegroupementRepository;
-
     private final CentreRegroupementQueryService centreRegroupementQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public CentreRegroupementResource(
         CentreRegroupementService centreRegroupementService,
-        CentreRegroupementRepository centreRegroupementRepository,
-        CentreRegroupementQueryService centreRegroupementQueryService
+        CentreRegroupementQueryService centreRegroupementQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.centreRegroupementService = centreRegroupementService;
-        this.centreRegroupementRepository = centreRegroupementRepository;
         this.centreRegroupementQueryService = centreRegroupementQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class CentreRegroupementResource {
      * {@code PUT  /centre-regroupements/:id} : Updates an existing centreRegroupement.
      *
      * @param id the id of the centreRegroupementDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the centreRegroupement the client read, if any.
      * @param centreRegroupementDTO the centreRegroupementDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreRegroupementDTO,
      * or with status {@code 400 (Bad Request)} if the centreRegroupementDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centreRegroupement was updated since the version of the centreRegroupementDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreRegroupementDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/centre-regroupements/{id}")
     public ResponseEntity<CentreRegroupementDTO> updateCentreRegroupement(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody CentreRegroupementDTO centreRegroupementDTO
     ) throws URISyntaxException {
         log.debug("REST request to update CentreRegroupement : {}, {}", id, centreRegroupementDTO);
@@ -104,13 +114,13 @@ public class CentreRegroupementResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!centreRegroupementRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        CentreRegroupementDTO result = centreRegroupementService.save(centreRegroupementDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, centreRegroupementDTO::setVersion, ENTITY_NAME);
+        CentreRegroupementDTO result = centreRegroupementService
+            .update(centreRegroupementDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreRegroupementDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class CentreRegroupementResource {
      * {@code PATCH  /centre-regroupements/:id} : Partial updates given fields of an existing centreRegroupement, field will ignore if it is null
      *
      * @param id the id of the centreRegroupementDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the centreRegroupement the client read, if any.
      * @param centreRegroupementDTO the centreRegroupementDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreRegroupementDTO,
      * or with status {@code 400 (Bad Request)} if the centreRegroupementDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the centreRegroupementDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the centreRegroupementDTO is not found,
+     * or with status {@code 409 (Conflict)} if the centreRegroupement was updated since the version of the centreRegroupementDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreRegroupementDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/centre-regroupements/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<CentreRegroupementDTO> partialUpdateCentreRegroupement(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody CentreRegroupementDTO centreRegroupementDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update CentreRegroupement partially : {}, {}", id, centreRegroupementDTO);
@@ -139,16 +153,15 @@ public class CentreRegroupementResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!centreRegroupementRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<CentreRegroupementDTO> result = centreRegroupementService.partialUpdate(centreRegroupementDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreRegroupementDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, centreRegroupementDTO::setVersion, ENTITY_NAME);
+        CentreRegroupementDTO result = centreRegroupementService
+            .partialUpdate(centreRegroupementDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreRegroupementDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class CentreRegroupementResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centreRegroupements in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centreRegroupements in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/centre-regroupements")
-    public ResponseEntity<List<CentreRegroupementDTO>> getAllCentreRegroupements(CentreRegroupementCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<CentreRegroupementDTO>> getAllCentreRegroupements(
+        CentreRegroupementCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get CentreRegroupements by criteria: {}", criteria);
-        Page<CentreRegroupementDTO> page = centreRegroupementQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(CentreRegroupement.class))) {
+            return null;
+        }
+        Slice<CentreRegroupementDTO> slice = centreRegroupementQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class CentreRegroupementResource {
 
     /**
      * {@code GET  /centre-regroupements/:id} : get the "id" centreRegroupement.
+     * <p>
+     * The version of the centreRegroupement is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)}
+     * to the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the centreRegroupementDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreRegroupementDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class CentreRegroupementResource {
     public ResponseEntity<CentreRegroupementDTO> getCentreRegroupement(@PathVariable Long id) {
         log.debug("REST request to get CentreRegroupement : {}", id);
         Optional<CentreRegroupementDTO> centreRegroupementDTO = centreRegroupementService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(centreRegroupementDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(centreRegroupementDTO, CentreRegroupementDTO::getVersion);
     }
 
     /**
@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.CentreRepository;
+import com.sidot.gesteau.domain.Centre;
 import com.sidot.gesteau.service.CentreQueryService;
 import com.sidot.gesteau.service.CentreService;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.criteria.CentreCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.dto.CentreDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.Centre}.
@@ -46,14 +52,14 @@ public class CentreResource {
 
     private final CentreService centreService;
 
-    private final CentreRepository centreRepository;
-
     private final CentreQueryService centreQueryService;
 
-    public CentreResource(CentreService centreService, CentreRepository centreRepository, CentreQueryService centreQueryService) {
+    private final CriteriaResultCache criteriaResultCache;
+
+    public CentreResource(CentreService centreService, CentreQueryService centreQueryService, CriteriaResultCache criteriaResultCache) {
         this.centreService = centreService;
-        this.centreRepository = centreRepository;
         this.centreQueryService = centreQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -80,15 +86,19 @@ public class CentreResource {
      * {@code PUT  /centres/:id} : Updates an existing centre.
      *
      * @param id the id of the centreDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the centre the client read, if any.
      * @param centreDTO the centreDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreDTO,
      * or with status {@code 400 (Bad Request)} if the centreDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centre was updated since the version of the centreDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/centres/{id}")
     public ResponseEntity<CentreDTO> updateCentre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody CentreDTO centreDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Centre : {}, {}", id, centreDTO);
@@ -99,13 +109,13 @@ public class CentreResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!centreRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        CentreDTO result = centreService.save(centreDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, centreDTO::setVersion, ENTITY_NAME);
+        CentreDTO result = centreService
+            .update(centreDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreDTO.getId().toString()))
             .body(result);
     }
@@ -114,16 +124,20 @@ public class CentreResource {
      * {@code PATCH  /centres/:id} : Partial updates given fields of an existing centre, field will ignore if it is null
      *
      * @param id the id of the centreDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the centre the client read, if any.
      * @param centreDTO the centreDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreDTO,
      * or with status {@code 400 (Bad Request)} if the centreDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the centreDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the centreDTO is not found,
+     * or with status {@code 409 (Conflict)} if the centre was updated since the version of the centreDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/centres/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<CentreDTO> partialUpdateCentre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody CentreDTO centreDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Centre partially : {}, {}", id, centreDTO);
@@ -134,16 +148,15 @@ public class CentreResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!centreRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<CentreDTO> result = centreService.partialUpdate(centreDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, centreDTO::setVersion, ENTITY_NAME);
+        CentreDTO result = centreService
+            .partialUpdate(centreDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, centreDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -151,14 +164,29 @@ public class CentreResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centres in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centres in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/centres")
-    public ResponseEntity<List<CentreDTO>> getAllCentres(CentreCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<CentreDTO>> getAllCentres(
+        CentreCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get Centres by criteria: {}", criteria);
-        Page<CentreDTO> page = centreQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(Centre.class))) {
+            return null;
+        }
+        Slice<CentreDTO> slice = centreQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -175,6 +203,9 @@ public class CentreResource {
 
     /**
      * {@code GET  /centres/:id} : get the "id" centre.
+     * <p>
+     * The version of the centre is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to the
+     * requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the centreDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreDTO, or with status {@code 404 (Not Found)}.
@@ -183,7 +214,7 @@ public class CentreResource {
     public ResponseEntity<CentreDTO> getCentre(@PathVariable Long id) {
         log.debug("REST request to get Centre : {}", id);
         Optional<CentreDTO> centreDTO = centreService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(centreDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(centreDTO, CentreDTO::getVersion);
     }
 
     /**
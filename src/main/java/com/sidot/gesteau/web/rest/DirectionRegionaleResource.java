@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.DirectionRegionaleRepository;
+import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.DirectionRegionaleQueryService;
 import com.sidot.gesteau.service.DirectionRegionaleService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.DirectionRegionaleCriteria;
 import com.sidot.gesteau.service.dto.DirectionRegionaleDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.DirectionRegionale}.
@@ -46,18 +52,18 @@ public class DirectionRegionaleResource {
 
     private final DirectionRegionaleService directionRegionaleService;
 
-    private final DirectionRegionaleRepository directionRegionaleRepository;
-
     private final DirectionRegionaleQueryService directionRegionaleQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public DirectionRegionaleResource(
         DirectionRegionaleService directionRegionaleService,
-        DirectionRegionaleRepository directionRegionaleRepository,
-        DirectionRegionaleQueryService directionRegionaleQueryService
+        DirectionRegionaleQueryService directionRegionaleQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.directionRegionaleService = directionRegionaleService;
-        this.directionRegionaleRepository = directionRegionaleRepository;
         this.directionRegionaleQueryService = directionRegionaleQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class DirectionRegionaleResource {
      * {@code PUT  /direction-regionales/:id} : Updates an existing directionRegionale.
      *
      * @param id the id of the directionRegionaleDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the directionRegionale the client read, if any.
      * @param directionRegionaleDTO the directionRegionaleDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated directionRegionaleDTO,
      * or with status {@code 400 (Bad Request)} if the directionRegionaleDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the directionRegionale was updated since the version of the directionRegionaleDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the directionRegionaleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/direction-regionales/{id}")
     public ResponseEntity<DirectionRegionaleDTO> updateDirectionRegionale(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody DirectionRegionaleDTO directionRegionaleDTO
     ) throws URISyntaxException {
         log.debug("REST request to update DirectionRegionale : {}, {}", id, directionRegionaleDTO);
@@ -104,13 +114,13 @@ public class DirectionRegionaleResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!directionRegionaleRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        DirectionRegionaleDTO result = directionRegionaleService.save(directionRegionaleDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, directionRegionaleDTO::setVersion, ENTITY_NAME);
+        DirectionRegionaleDTO result = directionRegionaleService
+            .update(directionRegionaleDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, directionRegionaleDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class DirectionRegionaleResource {
      * {@code PATCH  /direction-regionales/:id} : Partial updates given fields of an existing directionRegionale, field will ignore if it is null
      *
      * @param id the id of the directionRegionaleDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the directionRegionale the client read, if any.
      * @param directionRegionaleDTO the directionRegionaleDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated directionRegionaleDTO,
      * or with status {@code 400 (Bad Request)} if the directionRegionaleDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the directionRegionaleDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the directionRegionaleDTO is not found,
+     * or with status {@code 409 (Conflict)} if the directionRegionale was updated since the version of the directionRegionaleDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the directionRegionaleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/direction-regionales/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<DirectionRegionaleDTO> partialUpdateDirectionRegionale(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody DirectionRegionaleDTO directionRegionaleDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update DirectionRegionale partially : {}, {}", id, directionRegionaleDTO);
@@ -139,16 +153,15 @@ public class DirectionRegionaleResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!directionRegionaleRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<DirectionRegionaleDTO> result = directionRegionaleService.partialUpdate(directionRegionaleDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, directionRegionaleDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, directionRegionaleDTO::setVersion, ENTITY_NAME);
+        DirectionRegionaleDTO result = directionRegionaleService
+            .partialUpdate(directionRegionaleDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, directionRegionaleDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class DirectionRegionaleResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of directionRegionales in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of directionRegionales in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/direction-regionales")
-    public ResponseEntity<List<DirectionRegionaleDTO>> getAllDirectionRegionales(DirectionRegionaleCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<DirectionRegionaleDTO>> getAllDirectionRegionales(
+        DirectionRegionaleCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get DirectionRegionales by criteria: {}", criteria);
-        Page<DirectionRegionaleDTO> page = directionRegionaleQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(DirectionRegionale.class))) {
+            return null;
+        }
+        Slice<DirectionRegionaleDTO> slice = directionRegionaleQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class DirectionRegionaleResource {
 
     /**
      * {@code GET  /direction-regionales/:id} : get the "id" directionRegionale.
+     * <p>
+     * The version of the directionRegionale is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)}
+     * to the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the directionRegionaleDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the directionRegionaleDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class DirectionRegionaleResource {
     public ResponseEntity<DirectionRegionaleDTO> getDirectionRegionale(@PathVariable Long id) {
         log.debug("REST request to get DirectionRegionale : {}", id);
         Optional<DirectionRegionaleDTO> directionRegionaleDTO = directionRegionaleService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(directionRegionaleDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(directionRegionaleDTO, DirectionRegionaleDTO::getVersion);
     }
 
     /**
@@ -2,18 +2,36 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.service.CriteriaResultCache;
+import com.sidot.gesteau.service.FicheSuiviOuvrageClusterService;
+import com.sidot.gesteau.service.FicheSuiviOuvrageExportService;
+import com.sidot.gesteau.service.FicheSuiviOuvrageGeoService;
+import com.sidot.gesteau.service.FicheSuiviOuvrageImportService;
 import com.sidot.gesteau.service.FicheSuiviOuvrageQueryService;
 import com.sidot.gesteau.service.FicheSuiviOuvrageService;
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageClusterCriteria;
 import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import com.sidot.gesteau.service.dto.ExportFormat;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageClusterDTO;
 import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageImportReportDTO;
+import com.sidot.gesteau.service.dto.KeysetCursor;
+import com.sidot.gesteau.service.dto.KeysetSlice;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -21,14 +39,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.FicheSuiviOuvrage}.
@@ -46,18 +69,34 @@ public class FicheSuiviOuvrageResource {
 
     private final FicheSuiviOuvrageService ficheSuiviOuvrageService;
 
-    private final FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
-
     private final FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService;
 
+    private final FicheSuiviOuvrageImportService ficheSuiviOuvrageImportService;
+
+    private final FicheSuiviOuvrageExportService ficheSuiviOuvrageExportService;
+
+    private final FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public FicheSuiviOuvrageResource(
         FicheSuiviOuvrageService ficheSuiviOuvrageService,
-        FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
-        FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService
+        FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService,
+        FicheSuiviOuvrageImportService ficheSuiviOuvrageImportService,
+        FicheSuiviOuvrageExportService ficheSuiviOuvrageExportService,
+        FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.ficheSuiviOuvrageService = ficheSuiviOuvrageService;
-        this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
         this.ficheSuiviOuvrageQueryService = ficheSuiviOuvrageQueryService;
+        this.ficheSuiviOuvrageImportService = ficheSuiviOuvrageImportService;
+        this.ficheSuiviOuvrageExportService = ficheSuiviOuvrageExportService;
+        this.ficheSuiviOuvrageGeoService = ficheSuiviOuvrageGeoService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -81,19 +120,63 @@ public class FicheSuiviOuvrageResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /fiche-suivi-ouvrages/import} : Bulk import ficheSuiviOuvrages from CSV content.
+     * <p>
+     * The first line is the header, using the ficheSuiviOuvrage field names. Lookups are given by their
+     * {@code libelle} (columns {@code natureouvrage}, {@code macon}, ...) and the prevision by {@code previsionId}.
+     *
+     * @param content the CSV content.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     */
+    @PostMapping(value = "/fiche-suivi-ouvrages/import", consumes = "text/csv")
+    public ResponseEntity<FicheSuiviOuvrageImportReportDTO> importFicheSuiviOuvragesFromCsv(InputStream content) {
+        log.debug("REST request to import FicheSuiviOuvrages from CSV");
+        return importResponse(ficheSuiviOuvrageImportService.importCsv(content));
+    }
+
+    /**
+     * {@code POST  /fiche-suivi-ouvrages/import} : Bulk import ficheSuiviOuvrages from a JSON array.
+     *
+     * @param content the JSON array, with the same keys as the CSV header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     */
+    @PostMapping(value = "/fiche-suivi-ouvrages/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FicheSuiviOuvrageImportReportDTO> importFicheSuiviOuvragesFromJson(InputStream content) {
+        log.debug("REST request to import FicheSuiviOuvrages from JSON");
+        return importResponse(ficheSuiviOuvrageImportService.importJson(content));
+    }
+
+    private ResponseEntity<FicheSuiviOuvrageImportReportDTO> importResponse(FicheSuiviOuvrageImportReportDTO report) {
+        return ResponseEntity
+            .ok()
+            .headers(
+                HeaderUtil.createAlert(
+                    applicationName,
+                    applicationName + ".ficheSuiviOuvrage.imported",
+                    String.valueOf(report.getImported())
+                )
+            )
+            .body(report);
+    }
+
     /**
      * {@code PUT  /fiche-suivi-ouvrages/:id} : Updates an existing ficheSuiviOuvrage.
      *
      * @param id the id of the ficheSuiviOuvrageDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the ficheSuiviOuvrage the client read, if any.
      * @param ficheSuiviOuvrageDTO the ficheSuiviOuvrageDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ficheSuiviOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the ficheSuiviOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the ficheSuiviOuvrage was updated since the version of the ficheSuiviOuvrageDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the ficheSuiviOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/fiche-suivi-ouvrages/{id}")
     public ResponseEntity<FicheSuiviOuvrageDTO> updateFicheSuiviOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO
     ) throws URISyntaxException {
         log.debug("REST request to update FicheSuiviOuvrage : {}, {}", id, ficheSuiviOuvrageDTO);
@@ -104,13 +187,13 @@ public class FicheSuiviOuvrageResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!ficheSuiviOuvrageRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        FicheSuiviOuvrageDTO result = ficheSuiviOuvrageService.save(ficheSuiviOuvrageDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, ficheSuiviOuvrageDTO::setVersion, ENTITY_NAME);
+        FicheSuiviOuvrageDTO result = ficheSuiviOuvrageService
+            .update(ficheSuiviOuvrageDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, ficheSuiviOuvrageDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +202,20 @@ public class FicheSuiviOuvrageResource {
      * {@code PATCH  /fiche-suivi-ouvrages/:id} : Partial updates given fields of an existing ficheSuiviOuvrage, field will ignore if it is null
      *
      * @param id the id of the ficheSuiviOuvrageDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the ficheSuiviOuvrage the client read, if any.
      * @param ficheSuiviOuvrageDTO the ficheSuiviOuvrageDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ficheSuiviOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the ficheSuiviOuvrageDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the ficheSuiviOuvrageDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the ficheSuiviOuvrageDTO is not found,
+     * or with status {@code 409 (Conflict)} if the ficheSuiviOuvrage was updated since the version of the ficheSuiviOuvrageDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the ficheSuiviOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/fiche-suivi-ouvrages/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<FicheSuiviOuvrageDTO> partialUpdateFicheSuiviOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update FicheSuiviOuvrage partially : {}, {}", id, ficheSuiviOuvrageDTO);
@@ -139,31 +226,76 @@ public class FicheSuiviOuvrageResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!ficheSuiviOuvrageRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<FicheSuiviOuvrageDTO> result = ficheSuiviOuvrageService.partialUpdate(ficheSuiviOuvrageDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, ficheSuiviOuvrageDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, ficheSuiviOuvrageDTO::setVersion, ENTITY_NAME);
+        FicheSuiviOuvrageDTO result = ficheSuiviOuvrageService
+            .partialUpdate(ficheSuiviOuvrageDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, ficheSuiviOuvrageDTO.getId().toString()))
+            .body(result);
     }
 
     /**
      * {@code GET  /fiche-suivi-ouvrages} : get all the ficheSuiviOuvrages.
+     * <p>
+     * When the {@code after} parameter is present, even empty for the first page, the listing is keyset paginated:
+     * the page number is ignored, only the first sort order is used, and the {@code Link} header holds the next page.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param after the cursor returned with the previous page, in keyset mode.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has,
+     * or with status {@code 400 (Bad Request)} if the cursor or its sort is not valid.
      */
     @GetMapping("/fiche-suivi-ouvrages")
-    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getAllFicheSuiviOuvrages(FicheSuiviOuvrageCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getAllFicheSuiviOuvrages(
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        @RequestParam(value = PaginationHeaderUtil.AFTER_PARAMETER, required = false) String after,
+        WebRequest request
+    ) {
         log.debug("REST request to get FicheSuiviOuvrages by criteria: {}", criteria);
-        Page<FicheSuiviOuvrageDTO> page = ficheSuiviOuvrageQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(FicheSuiviOuvrage.class))) {
+            return null;
+        }
+        if (after != null) {
+            return getAllFicheSuiviOuvragesAfter(criteria, pageable, after);
+        }
+        Slice<FicheSuiviOuvrageDTO> slice = ficheSuiviOuvrageQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
+    }
+
+    private ResponseEntity<List<FicheSuiviOuvrageDTO>> getAllFicheSuiviOuvragesAfter(
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable pageable,
+        String after
+    ) {
+        KeysetSlice<FicheSuiviOuvrageDTO> slice;
+        try {
+            KeysetCursor cursor;
+            if (after.isEmpty()) {
+                Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+                cursor = KeysetCursor.first(order.getProperty(), order.getDirection());
+            } else {
+                cursor = KeysetCursor.decode(after);
+            }
+            slice = ficheSuiviOuvrageQueryService.findByCriteria(criteria, cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = PaginationHeaderUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -178,8 +310,149 @@ public class FicheSuiviOuvrageResource {
         return ResponseEntity.ok().body(ficheSuiviOuvrageQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/export} : export all the ficheSuiviOuvrages matching the criteria.
+     * <p>
+     * The content is streamed as it is read from the database, whatever the number of matching entities.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the content format: {@code ndjson} or {@code csv}.
+     * @param response the response the content is written to, with status {@code 200 (OK)}.
+     * @throws IOException if the content could not be written.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/export")
+    public void exportFicheSuiviOuvrages(
+        FicheSuiviOuvrageCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") ExportFormat format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export FicheSuiviOuvrages as {} by criteria: {}", format, criteria);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.builder("attachment").filename("fiche-suivi-ouvrages." + format.getExtension()).build().toString()
+        );
+        ficheSuiviOuvrageExportService.export(criteria, format, response.getOutputStream());
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/within-box} : get the ficheSuiviOuvrages inside a bounding box.
+     *
+     * @param south the minimum latitude.
+     * @param west the western longitude, the box crosses the antimeridian when it is greater than {@code east}.
+     * @param north the maximum latitude.
+     * @param east the eastern longitude.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body,
+     * or with status {@code 400 (Bad Request)} if the box is not valid or holds too many ouvrages.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/within-box")
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getFicheSuiviOuvragesWithinBox(
+        @RequestParam double south,
+        @RequestParam double west,
+        @RequestParam double north,
+        @RequestParam double east,
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get FicheSuiviOuvrages within [{}, {}, {}, {}] by criteria: {}", south, west, north, east, criteria);
+        Page<FicheSuiviOuvrageDTO> page;
+        try {
+            page = ficheSuiviOuvrageGeoService.findWithinBox(south, west, north, east, criteria, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "geoinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/within-radius} : get the ficheSuiviOuvrages within a distance of a center.
+     *
+     * @param latitude the latitude of the center.
+     * @param longitude the longitude of the center.
+     * @param radius the maximum distance to the center, in kilometers.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body,
+     * or with status {@code 400 (Bad Request)} if the circle is not valid or holds too many ouvrages.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/within-radius")
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getFicheSuiviOuvragesWithinRadius(
+        @RequestParam double latitude,
+        @RequestParam double longitude,
+        @RequestParam double radius,
+        FicheSuiviOuvrageCriteria criteria,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get FicheSuiviOuvrages within {} km of [{}, {}] by criteria: {}", radius, latitude, longitude, criteria);
+        Page<FicheSuiviOuvrageDTO> page;
+        try {
+            page = ficheSuiviOuvrageGeoService.findWithinRadius(latitude, longitude, radius, criteria, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "geoinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/nearest} : get the ficheSuiviOuvrages nearest to a center.
+     *
+     * @param latitude the latitude of the center.
+     * @param longitude the longitude of the center.
+     * @param count the maximum number of ficheSuiviOuvrages.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body, nearest first,
+     * or with status {@code 400 (Bad Request)} if the center or the count is not valid.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/nearest")
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getNearestFicheSuiviOuvrages(
+        @RequestParam double latitude,
+        @RequestParam double longitude,
+        @RequestParam(defaultValue = "10") int count,
+        FicheSuiviOuvrageCriteria criteria
+    ) {
+        log.debug("REST request to get the {} FicheSuiviOuvrages nearest to [{}, {}] by criteria: {}", count, latitude, longitude, criteria);
+        try {
+            return ResponseEntity.ok().body(ficheSuiviOuvrageGeoService.findNearest(latitude, longitude, count, criteria));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "geoinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/clusters/:zoom/:x/:y} : get the clusters of the ficheSuiviOuvrages of a map tile.
+     *
+     * @param zoom the zoom level of the web mercator tile.
+     * @param x the column of the tile, from the west.
+     * @param y the row of the tile, from the north.
+     * @param criteria the nature, prevision, annee and centre the clustered ouvrages should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of clusters in body,
+     * or with status {@code 400 (Bad Request)} if the tile or the criteria are not valid.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/clusters/{zoom}/{x}/{y}")
+    public ResponseEntity<List<FicheSuiviOuvrageClusterDTO>> getFicheSuiviOuvrageClusters(
+        @PathVariable int zoom,
+        @PathVariable int x,
+        @PathVariable int y,
+        FicheSuiviOuvrageClusterCriteria criteria
+    ) {
+        log.debug("REST request to get the clusters of FicheSuiviOuvrages of tile {}/{}/{} by criteria: {}", zoom, x, y, criteria);
+        try {
+            return ResponseEntity.ok().body(ficheSuiviOuvrageClusterService.findClusters(zoom, x, y, criteria));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "tileinvalid");
+        }
+    }
+
     /**
      * {@code GET  /fiche-suivi-ouvrages/:id} : get the "id" ficheSuiviOuvrage.
+     * <p>
+     * The version of the ficheSuiviOuvrage is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)}
+     * to the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the ficheSuiviOuvrageDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ficheSuiviOuvrageDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +461,7 @@ public class FicheSuiviOuvrageResource {
     public ResponseEntity<FicheSuiviOuvrageDTO> getFicheSuiviOuvrage(@PathVariable Long id) {
         log.debug("REST request to get FicheSuiviOuvrage : {}", id);
         Optional<FicheSuiviOuvrageDTO> ficheSuiviOuvrageDTO = ficheSuiviOuvrageService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(ficheSuiviOuvrageDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(ficheSuiviOuvrageDTO, FicheSuiviOuvrageDTO::getVersion);
     }
 
     /**
@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.MaconQueryService;
 import com.sidot.gesteau.service.MaconService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.MaconCriteria;
 import com.sidot.gesteau.service.dto.MaconDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.Macon}.
@@ -46,14 +52,14 @@ public class MaconResource {
 
     private final MaconService maconService;
 
-    private final MaconRepository maconRepository;
-
     private final MaconQueryService maconQueryService;
 
-    public MaconResource(MaconService maconService, MaconRepository maconRepository, MaconQueryService maconQueryService) {
+    private final CriteriaResultCache criteriaResultCache;
+
+    public MaconResource(MaconService maconService, MaconQueryService maconQueryService, CriteriaResultCache criteriaResultCache) {
         this.maconService = maconService;
-        this.maconRepository = maconRepository;
         this.maconQueryService = maconQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -80,15 +86,19 @@ public class MaconResource {
      * {@code PUT  /macons/:id} : Updates an existing macon.
      *
      * @param id the id of the maconDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the macon the client read, if any.
      * @param maconDTO the maconDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated maconDTO,
      * or with status {@code 400 (Bad Request)} if the maconDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the macon was updated since the version of the maconDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the maconDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/macons/{id}")
     public ResponseEntity<MaconDTO> updateMacon(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody MaconDTO maconDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Macon : {}, {}", id, maconDTO);
@@ -99,13 +109,13 @@ public class MaconResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!maconRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        MaconDTO result = maconService.save(maconDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, maconDTO::setVersion, ENTITY_NAME);
+        MaconDTO result = maconService
+            .update(maconDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, maconDTO.getId().toString()))
             .body(result);
     }
@@ -114,16 +124,20 @@ public class MaconResource {
      * {@code PATCH  /macons/:id} : Partial updates given fields of an existing macon, field will ignore if it is null
      *
      * @param id the id of the maconDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the macon the client read, if any.
      * @param maconDTO the maconDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated maconDTO,
      * or with status {@code 400 (Bad Request)} if the maconDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the maconDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the maconDTO is not found,
+     * or with status {@code 409 (Conflict)} if the macon was updated since the version of the maconDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the maconDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/macons/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<MaconDTO> partialUpdateMacon(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody MaconDTO maconDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Macon partially : {}, {}", id, maconDTO);
@@ -134,16 +148,15 @@ public class MaconResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!maconRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<MaconDTO> result = maconService.partialUpdate(maconDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, maconDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, maconDTO::setVersion, ENTITY_NAME);
+        MaconDTO result = maconService
+            .partialUpdate(maconDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, maconDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -151,14 +164,29 @@ public class MaconResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of macons in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of macons in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/macons")
-    public ResponseEntity<List<MaconDTO>> getAllMacons(MaconCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<MaconDTO>> getAllMacons(
+        MaconCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get Macons by criteria: {}", criteria);
-        Page<MaconDTO> page = maconQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(Macon.class))) {
+            return null;
+        }
+        Slice<MaconDTO> slice = maconQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -175,6 +203,9 @@ public class MaconResource {
 
     /**
      * {@code GET  /macons/:id} : get the "id" macon.
+     * <p>
+     * The version of the macon is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to the
+     * requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the maconDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the maconDTO, or with status {@code 404 (Not Found)}.
@@ -183,7 +214,7 @@ public class MaconResource {
     public ResponseEntity<MaconDTO> getMacon(@PathVariable Long id) {
         log.debug("REST request to get Macon : {}", id);
         Optional<MaconDTO> maconDTO = maconService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(maconDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(maconDTO, MaconDTO::getVersion);
     }
 
     /**
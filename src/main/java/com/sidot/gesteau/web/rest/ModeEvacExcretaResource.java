@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.ModeEvacExcretaRepository;
+import com.sidot.gesteau.domain.ModeEvacExcreta;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.ModeEvacExcretaQueryService;
 import com.sidot.gesteau.service.ModeEvacExcretaService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.ModeEvacExcretaCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.ModeEvacExcreta}.
@@ -46,18 +52,18 @@ public class ModeEvacExcretaResource {
 
     private final ModeEvacExcretaService modeEvacExcretaService;
 
-    private final ModeEvacExcretaRepository modeEvacExcretaRepository;
-
     private final ModeEvacExcretaQueryService modeEvacExcretaQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacExcretaResource(
         ModeEvacExcretaService modeEvacExcretaService,
-        ModeEvacExcretaRepository modeEvacExcretaRepository,
-        ModeEvacExcretaQueryService modeEvacExcretaQueryService
+        ModeEvacExcretaQueryService modeEvacExcretaQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacExcretaService = modeEvacExcretaService;
-        this.modeEvacExcretaRepository = modeEvacExcretaRepository;
         this.modeEvacExcretaQueryService = modeEvacExcretaQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class ModeEvacExcretaResource {
      * {@code PUT  /mode-evac-excretas/:id} : Updates an existing modeEvacExcreta.
      *
      * @param id the id of the modeEvacExcretaDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the modeEvacExcreta the client read, if any.
      * @param modeEvacExcretaDTO the modeEvacExcretaDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacExcretaDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacExcretaDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacExcreta was updated since the version of the modeEvacExcretaDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacExcretaDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/mode-evac-excretas/{id}")
     public ResponseEntity<ModeEvacExcretaDTO> updateModeEvacExcreta(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO
     ) throws URISyntaxException {
         log.debug("REST request to update ModeEvacExcreta : {}, {}", id, modeEvacExcretaDTO);
@@ -104,13 +114,13 @@ public class ModeEvacExcretaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeEvacExcretaRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        ModeEvacExcretaDTO result = modeEvacExcretaService.save(modeEvacExcretaDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, modeEvacExcretaDTO::setVersion, ENTITY_NAME);
+        ModeEvacExcretaDTO result = modeEvacExcretaService
+            .update(modeEvacExcretaDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacExcretaDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class ModeEvacExcretaResource {
      * {@code PATCH  /mode-evac-excretas/:id} : Partial updates given fields of an existing modeEvacExcreta, field will ignore if it is null
      *
      * @param id the id of the modeEvacExcretaDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the modeEvacExcreta the client read, if any.
      * @param modeEvacExcretaDTO the modeEvacExcretaDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacExcretaDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacExcretaDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the modeEvacExcretaDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the modeEvacExcretaDTO is not found,
+     * or with status {@code 409 (Conflict)} if the modeEvacExcreta was updated since the version of the modeEvacExcretaDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacExcretaDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/mode-evac-excretas/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ModeEvacExcretaDTO> partialUpdateModeEvacExcreta(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update ModeEvacExcreta partially : {}, {}", id, modeEvacExcretaDTO);
@@ -139,16 +153,15 @@ public class ModeEvacExcretaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeEvacExcretaRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<ModeEvacExcretaDTO> result = modeEvacExcretaService.partialUpdate(modeEvacExcretaDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacExcretaDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, modeEvacExcretaDTO::setVersion, ENTITY_NAME);
+        ModeEvacExcretaDTO result = modeEvacExcretaService
+            .partialUpdate(modeEvacExcretaDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacExcretaDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class ModeEvacExcretaResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacExcretas in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacExcretas in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/mode-evac-excretas")
-    public ResponseEntity<List<ModeEvacExcretaDTO>> getAllModeEvacExcretas(ModeEvacExcretaCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<ModeEvacExcretaDTO>> getAllModeEvacExcretas(
+        ModeEvacExcretaCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get ModeEvacExcretas by criteria: {}", criteria);
-        Page<ModeEvacExcretaDTO> page = modeEvacExcretaQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(ModeEvacExcreta.class))) {
+            return null;
+        }
+        Slice<ModeEvacExcretaDTO> slice = modeEvacExcretaQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class ModeEvacExcretaResource {
 
     /**
      * {@code GET  /mode-evac-excretas/:id} : get the "id" modeEvacExcreta.
+     * <p>
+     * The version of the modeEvacExcreta is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to
+     * the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the modeEvacExcretaDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacExcretaDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class ModeEvacExcretaResource {
     public ResponseEntity<ModeEvacExcretaDTO> getModeEvacExcreta(@PathVariable Long id) {
         log.debug("REST request to get ModeEvacExcreta : {}", id);
         Optional<ModeEvacExcretaDTO> modeEvacExcretaDTO = modeEvacExcretaService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(modeEvacExcretaDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(modeEvacExcretaDTO, ModeEvacExcretaDTO::getVersion);
     }
 
     /**
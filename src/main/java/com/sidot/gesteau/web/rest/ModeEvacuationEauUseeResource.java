@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.ModeEvacuationEauUseeRepository;
+import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.ModeEvacuationEauUseeQueryService;
 import com.sidot.gesteau.service.ModeEvacuationEauUseeService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.ModeEvacuationEauUseeCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.ModeEvacuationEauUsee}.
@@ -46,18 +52,18 @@ public class ModeEvacuationEauUseeResource {
 
     private final ModeEvacuationEauUseeService modeEvacuationEauUseeService;
 
-    private final ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository;
-
     private final ModeEvacuationEauUseeQueryService modeEvacuationEauUseeQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public ModeEvacuationEauUseeResource(
         ModeEvacuationEauUseeService modeEvacuationEauUseeService,
-        ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
-        ModeEvacuationEauUseeQueryService modeEvacuationEauUseeQueryService
+        ModeEvacuationEauUseeQueryService modeEvacuationEauUseeQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.modeEvacuationEauUseeService = modeEvacuationEauUseeService;
-        this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
         this.modeEvacuationEauUseeQueryService = modeEvacuationEauUseeQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -86,15 +92,19 @@ public class ModeEvacuationEauUseeResource {
      * {@code PUT  /mode-evacuation-eau-usees/:id} : Updates an existing modeEvacuationEauUsee.
      *
      * @param id the id of the modeEvacuationEauUseeDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the modeEvacuationEauUsee the client read, if any.
      * @param modeEvacuationEauUseeDTO the modeEvacuationEauUseeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacuationEauUseeDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacuationEauUseeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacuationEauUsee was updated since the version of the modeEvacuationEauUseeDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacuationEauUseeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/mode-evacuation-eau-usees/{id}")
     public ResponseEntity<ModeEvacuationEauUseeDTO> updateModeEvacuationEauUsee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO
     ) throws URISyntaxException {
         log.debug("REST request to update ModeEvacuationEauUsee : {}, {}", id, modeEvacuationEauUseeDTO);
@@ -105,13 +115,13 @@ public class ModeEvacuationEauUseeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeEvacuationEauUseeRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeService.save(modeEvacuationEauUseeDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, modeEvacuationEauUseeDTO::setVersion, ENTITY_NAME);
+        ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeService
+            .update(modeEvacuationEauUseeDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacuationEauUseeDTO.getId().toString()))
             .body(result);
     }
@@ -120,16 +130,20 @@ public class ModeEvacuationEauUseeResource {
      * {@code PATCH  /mode-evacuation-eau-usees/:id} : Partial updates given fields of an existing modeEvacuationEauUsee, field will ignore if it is null
      *
      * @param id the id of the modeEvacuationEauUseeDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the modeEvacuationEauUsee the client read, if any.
      * @param modeEvacuationEauUseeDTO the modeEvacuationEauUseeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacuationEauUseeDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacuationEauUseeDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the modeEvacuationEauUseeDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the modeEvacuationEauUseeDTO is not found,
+     * or with status {@code 409 (Conflict)} if the modeEvacuationEauUsee was updated since the version of the modeEvacuationEauUseeDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacuationEauUseeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/mode-evacuation-eau-usees/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ModeEvacuationEauUseeDTO> partialUpdateModeEvacuationEauUsee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update ModeEvacuationEauUsee partially : {}, {}", id, modeEvacuationEauUseeDTO);
@@ -140,16 +154,15 @@ public class ModeEvacuationEauUseeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeEvacuationEauUseeRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<ModeEvacuationEauUseeDTO> result = modeEvacuationEauUseeService.partialUpdate(modeEvacuationEauUseeDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacuationEauUseeDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, modeEvacuationEauUseeDTO::setVersion, ENTITY_NAME);
+        ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeService
+            .partialUpdate(modeEvacuationEauUseeDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modeEvacuationEauUseeDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -157,17 +170,29 @@ public class ModeEvacuationEauUseeResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacuationEauUsees in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacuationEauUsees in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/mode-evacuation-eau-usees")
     public ResponseEntity<List<ModeEvacuationEauUseeDTO>> getAllModeEvacuationEauUsees(
         ModeEvacuationEauUseeCriteria criteria,
-        Pageable pageable
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
     ) {
         log.debug("REST request to get ModeEvacuationEauUsees by criteria: {}", criteria);
-        Page<ModeEvacuationEauUseeDTO> page = modeEvacuationEauUseeQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(ModeEvacuationEauUsee.class))) {
+            return null;
+        }
+        Slice<ModeEvacuationEauUseeDTO> slice = modeEvacuationEauUseeQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -184,6 +209,9 @@ public class ModeEvacuationEauUseeResource {
 
     /**
      * {@code GET  /mode-evacuation-eau-usees/:id} : get the "id" modeEvacuationEauUsee.
+     * <p>
+     * The version of the modeEvacuationEauUsee is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not
+     * Modified)} to the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the modeEvacuationEauUseeDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacuationEauUseeDTO, or with status {@code 404 (Not Found)}.
@@ -192,7 +220,7 @@ public class ModeEvacuationEauUseeResource {
     public ResponseEntity<ModeEvacuationEauUseeDTO> getModeEvacuationEauUsee(@PathVariable Long id) {
         log.debug("REST request to get ModeEvacuationEauUsee : {}", id);
         Optional<ModeEvacuationEauUseeDTO> modeEvacuationEauUseeDTO = modeEvacuationEauUseeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(modeEvacuationEauUseeDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(modeEvacuationEauUseeDTO, ModeEvacuationEauUseeDTO::getVersion);
     }
 
     /**
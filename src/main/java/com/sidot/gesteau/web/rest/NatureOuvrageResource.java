@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.NatureOuvrageRepository;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.NatureOuvrageQueryService;
 import com.sidot.gesteau.service.NatureOuvrageService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.NatureOuvrageCriteria;
 import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.NatureOuvrage}.
@@ -46,18 +52,18 @@ public class NatureOuvrageResource {
 
     private final NatureOuvrageService natureOuvrageService;
 
-    private final NatureOuvrageRepository natureOuvrageRepository;
-
     private final NatureOuvrageQueryService natureOuvrageQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public NatureOuvrageResource(
         NatureOuvrageService natureOuvrageService,
-        NatureOuvrageRepository natureOuvrageRepository,
-        NatureOuvrageQueryService natureOuvrageQueryService
+        NatureOuvrageQueryService natureOuvrageQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.natureOuvrageService = natureOuvrageService;
-        this.natureOuvrageRepository = natureOuvrageRepository;
         this.natureOuvrageQueryService = natureOuvrageQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class NatureOuvrageResource {
      * {@code PUT  /nature-ouvrages/:id} : Updates an existing natureOuvrage.
      *
      * @param id the id of the natureOuvrageDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the natureOuvrage the client read, if any.
      * @param natureOuvrageDTO the natureOuvrageDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated natureOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the natureOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the natureOuvrage was updated since the version of the natureOuvrageDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the natureOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/nature-ouvrages/{id}")
     public ResponseEntity<NatureOuvrageDTO> updateNatureOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody NatureOuvrageDTO natureOuvrageDTO
     ) throws URISyntaxException {
         log.debug("REST request to update NatureOuvrage : {}, {}", id, natureOuvrageDTO);
@@ -104,13 +114,13 @@ public class NatureOuvrageResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!natureOuvrageRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        NatureOuvrageDTO result = natureOuvrageService.save(natureOuvrageDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, natureOuvrageDTO::setVersion, ENTITY_NAME);
+        NatureOuvrageDTO result = natureOuvrageService
+            .update(natureOuvrageDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, natureOuvrageDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class NatureOuvrageResource {
      * {@code PATCH  /nature-ouvrages/:id} : Partial updates given fields of an existing natureOuvrage, field will ignore if it is null
      *
      * @param id the id of the natureOuvrageDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the natureOuvrage the client read, if any.
      * @param natureOuvrageDTO the natureOuvrageDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated natureOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the natureOuvrageDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the natureOuvrageDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the natureOuvrageDTO is not found,
+     * or with status {@code 409 (Conflict)} if the natureOuvrage was updated since the version of the natureOuvrageDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the natureOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/nature-ouvrages/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<NatureOuvrageDTO> partialUpdateNatureOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody NatureOuvrageDTO natureOuvrageDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update NatureOuvrage partially : {}, {}", id, natureOuvrageDTO);
@@ -139,16 +153,15 @@ public class NatureOuvrageResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!natureOuvrageRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<NatureOuvrageDTO> result = natureOuvrageService.partialUpdate(natureOuvrageDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, natureOuvrageDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, natureOuvrageDTO::setVersion, ENTITY_NAME);
+        NatureOuvrageDTO result = natureOuvrageService
+            .partialUpdate(natureOuvrageDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, natureOuvrageDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class NatureOuvrageResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of natureOuvrages in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of natureOuvrages in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/nature-ouvrages")
-    public ResponseEntity<List<NatureOuvrageDTO>> getAllNatureOuvrages(NatureOuvrageCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<NatureOuvrageDTO>> getAllNatureOuvrages(
+        NatureOuvrageCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get NatureOuvrages by criteria: {}", criteria);
-        Page<NatureOuvrageDTO> page = natureOuvrageQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(NatureOuvrage.class))) {
+            return null;
+        }
+        Slice<NatureOuvrageDTO> slice = natureOuvrageQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class NatureOuvrageResource {
 
     /**
      * {@code GET  /nature-ouvrages/:id} : get the "id" natureOuvrage.
+     * <p>
+     * The version of the natureOuvrage is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to
+     * the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the natureOuvrageDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the natureOuvrageDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class NatureOuvrageResource {
     public ResponseEntity<NatureOuvrageDTO> getNatureOuvrage(@PathVariable Long id) {
         log.debug("REST request to get NatureOuvrage : {}", id);
         Optional<NatureOuvrageDTO> natureOuvrageDTO = natureOuvrageService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(natureOuvrageDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(natureOuvrageDTO, NatureOuvrageDTO::getVersion);
     }
 
     /**
@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.PrefabricantRepository;
+import com.sidot.gesteau.domain.Prefabricant;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.PrefabricantQueryService;
 import com.sidot.gesteau.service.PrefabricantService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.PrefabricantCriteria;
 import com.sidot.gesteau.service.dto.PrefabricantDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.Prefabricant}.
@@ -46,18 +52,18 @@ public class PrefabricantResource {
 
     private final PrefabricantService prefabricantService;
 
-    private final PrefabricantRepository prefabricantRepository;
-
     private final PrefabricantQueryService prefabricantQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrefabricantResource(
         PrefabricantService prefabricantService,
-        PrefabricantRepository prefabricantRepository,
-        PrefabricantQueryService prefabricantQueryService
+        PrefabricantQueryService prefabricantQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.prefabricantService = prefabricantService;
-        this.prefabricantRepository = prefabricantRepository;
         this.prefabricantQueryService = prefabricantQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class PrefabricantResource {
      * {@code PUT  /prefabricants/:id} : Updates an existing prefabricant.
      *
      * @param id the id of the prefabricantDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the prefabricant the client read, if any.
      * @param prefabricantDTO the prefabricantDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated prefabricantDTO,
      * or with status {@code 400 (Bad Request)} if the prefabricantDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prefabricant was updated since the version of the prefabricantDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the prefabricantDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/prefabricants/{id}")
     public ResponseEntity<PrefabricantDTO> updatePrefabricant(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody PrefabricantDTO prefabricantDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Prefabricant : {}, {}", id, prefabricantDTO);
@@ -104,13 +114,13 @@ public class PrefabricantResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!prefabricantRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        PrefabricantDTO result = prefabricantService.save(prefabricantDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, prefabricantDTO::setVersion, ENTITY_NAME);
+        PrefabricantDTO result = prefabricantService
+            .update(prefabricantDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, prefabricantDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class PrefabricantResource {
      * {@code PATCH  /prefabricants/:id} : Partial updates given fields of an existing prefabricant, field will ignore if it is null
      *
      * @param id the id of the prefabricantDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the prefabricant the client read, if any.
      * @param prefabricantDTO the prefabricantDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated prefabricantDTO,
      * or with status {@code 400 (Bad Request)} if the prefabricantDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the prefabricantDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the prefabricantDTO is not found,
+     * or with status {@code 409 (Conflict)} if the prefabricant was updated since the version of the prefabricantDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the prefabricantDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/prefabricants/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<PrefabricantDTO> partialUpdatePrefabricant(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody PrefabricantDTO prefabricantDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Prefabricant partially : {}, {}", id, prefabricantDTO);
@@ -139,16 +153,15 @@ public class PrefabricantResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!prefabricantRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<PrefabricantDTO> result = prefabricantService.partialUpdate(prefabricantDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, prefabricantDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, prefabricantDTO::setVersion, ENTITY_NAME);
+        PrefabricantDTO result = prefabricantService
+            .partialUpdate(prefabricantDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, prefabricantDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class PrefabricantResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prefabricants in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prefabricants in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/prefabricants")
-    public ResponseEntity<List<PrefabricantDTO>> getAllPrefabricants(PrefabricantCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<PrefabricantDTO>> getAllPrefabricants(
+        PrefabricantCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get Prefabricants by criteria: {}", criteria);
-        Page<PrefabricantDTO> page = prefabricantQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(Prefabricant.class))) {
+            return null;
+        }
+        Slice<PrefabricantDTO> slice = prefabricantQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class PrefabricantResource {
 
     /**
      * {@code GET  /prefabricants/:id} : get the "id" prefabricant.
+     * <p>
+     * The version of the prefabricant is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to
+     * the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the prefabricantDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the prefabricantDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class PrefabricantResource {
     public ResponseEntity<PrefabricantDTO> getPrefabricant(@PathVariable Long id) {
         log.debug("REST request to get Prefabricant : {}", id);
         Optional<PrefabricantDTO> prefabricantDTO = prefabricantService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(prefabricantDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(prefabricantDTO, PrefabricantDTO::getVersion);
     }
 
     /**
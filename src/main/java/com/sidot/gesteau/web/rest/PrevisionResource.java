@@ -2,12 +2,22 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.PrevisionRepository;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.service.CriteriaResultCache;
+import com.sidot.gesteau.service.PrevisionFreeSlotsService;
 import com.sidot.gesteau.service.PrevisionQueryService;
+import com.sidot.gesteau.service.PrevisionRealisationCounterService;
+import com.sidot.gesteau.service.PrevisionRealisationService;
 import com.sidot.gesteau.service.PrevisionService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.PrevisionCriteria;
 import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.dto.PrevisionFreeSlotsDTO;
+import com.sidot.gesteau.service.dto.PrevisionRealisationCounterDTO;
+import com.sidot.gesteau.service.dto.PrevisionRealisationDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +31,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.Prevision}.
@@ -46,18 +58,30 @@ public class PrevisionResource {
 
     private final PrevisionService previsionService;
 
-    private final PrevisionRepository previsionRepository;
-
     private final PrevisionQueryService previsionQueryService;
 
+    private final PrevisionRealisationService previsionRealisationService;
+
+    private final PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    private final PrevisionFreeSlotsService previsionFreeSlotsService;
+
+    private final CriteriaResultCache criteriaResultCache;
+
     public PrevisionResource(
         PrevisionService previsionService,
-        PrevisionRepository previsionRepository,
-        PrevisionQueryService previsionQueryService
+        PrevisionQueryService previsionQueryService,
+        PrevisionRealisationService previsionRealisationService,
+        PrevisionRealisationCounterService previsionRealisationCounterService,
+        PrevisionFreeSlotsService previsionFreeSlotsService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.previsionService = previsionService;
-        this.previsionRepository = previsionRepository;
         this.previsionQueryService = previsionQueryService;
+        this.previsionRealisationService = previsionRealisationService;
+        this.previsionRealisationCounterService = previsionRealisationCounterService;
+        this.previsionFreeSlotsService = previsionFreeSlotsService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -84,15 +108,19 @@ public class PrevisionResource {
      * {@code PUT  /previsions/:id} : Updates an existing prevision.
      *
      * @param id the id of the previsionDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the prevision the client read, if any.
      * @param previsionDTO the previsionDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated previsionDTO,
      * or with status {@code 400 (Bad Request)} if the previsionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prevision was updated since the version of the previsionDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the previsionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/previsions/{id}")
     public ResponseEntity<PrevisionDTO> updatePrevision(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody PrevisionDTO previsionDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Prevision : {}, {}", id, previsionDTO);
@@ -103,13 +131,13 @@ public class PrevisionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!previsionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        PrevisionDTO result = previsionService.save(previsionDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, previsionDTO::setVersion, ENTITY_NAME);
+        PrevisionDTO result = previsionService
+            .update(previsionDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, previsionDTO.getId().toString()))
             .body(result);
     }
@@ -118,16 +146,20 @@ public class PrevisionResource {
      * {@code PATCH  /previsions/:id} : Partial updates given fields of an existing prevision, field will ignore if it is null
      *
      * @param id the id of the previsionDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the prevision the client read, if any.
      * @param previsionDTO the previsionDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated previsionDTO,
      * or with status {@code 400 (Bad Request)} if the previsionDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the previsionDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the previsionDTO is not found,
+     * or with status {@code 409 (Conflict)} if the prevision was updated since the version of the previsionDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the previsionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/previsions/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<PrevisionDTO> partialUpdatePrevision(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody PrevisionDTO previsionDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Prevision partially : {}, {}", id, previsionDTO);
@@ -138,16 +170,15 @@ public class PrevisionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!previsionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<PrevisionDTO> result = previsionService.partialUpdate(previsionDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, previsionDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, previsionDTO::setVersion, ENTITY_NAME);
+        PrevisionDTO result = previsionService
+            .partialUpdate(previsionDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, previsionDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -155,14 +186,29 @@ public class PrevisionResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of previsions in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of previsions in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/previsions")
-    public ResponseEntity<List<PrevisionDTO>> getAllPrevisions(PrevisionCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<PrevisionDTO>> getAllPrevisions(
+        PrevisionCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get Previsions by criteria: {}", criteria);
-        Page<PrevisionDTO> page = previsionQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(Prevision.class))) {
+            return null;
+        }
+        Slice<PrevisionDTO> slice = previsionQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -177,8 +223,57 @@ public class PrevisionResource {
         return ResponseEntity.ok().body(previsionQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /previsions/realisation} : compare the planned ouvrages of the previsions of an annee with the realised ones.
+     *
+     * @param anneeId the id of the annee.
+     * @param centreId the id of the centre of the previsions, optional.
+     * @param centreRegroupementId the id of the regroupement of the centre of the previsions, optional.
+     * @param directionRegionaleId the id of the direction of the regroupement of the previsions, optional.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the planned and realised counts in body.
+     */
+    @GetMapping("/previsions/realisation")
+    public ResponseEntity<PrevisionRealisationDTO> getPrevisionRealisation(
+        @RequestParam Long anneeId,
+        @RequestParam(required = false) Long centreId,
+        @RequestParam(required = false) Long centreRegroupementId,
+        @RequestParam(required = false) Long directionRegionaleId
+    ) {
+        log.debug("REST request to get the realisation of the Previsions of Annee : {}", anneeId);
+        return ResponseEntity
+            .ok()
+            .body(previsionRealisationService.findRealisation(anneeId, centreId, centreRegroupementId, directionRegionaleId));
+    }
+
+    /**
+     * {@code GET  /previsions/free-slots} : get the centres and the annees a new prevision can be assigned to.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the centres and annees without prevision in body.
+     */
+    @GetMapping("/previsions/free-slots")
+    public ResponseEntity<PrevisionFreeSlotsDTO> getPrevisionFreeSlots() {
+        log.debug("REST request to get the Centres and Annees without Prevision");
+        return ResponseEntity.ok().body(previsionFreeSlotsService.findFreeSlots());
+    }
+
+    /**
+     * {@code GET  /previsions/:id/realisation-counters} : count the ficheSuiviOuvrages of the "id" prevision per natureOuvrage.
+     *
+     * @param id the id of the prevision.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counters in body, the natureOuvrages without any
+     * ficheSuiviOuvrage excluded.
+     */
+    @GetMapping("/previsions/{id}/realisation-counters")
+    public ResponseEntity<List<PrevisionRealisationCounterDTO>> getPrevisionRealisationCounters(@PathVariable Long id) {
+        log.debug("REST request to get the realisation counters of Prevision : {}", id);
+        return ResponseEntity.ok().body(previsionRealisationCounterService.findByPrevision(id));
+    }
+
     /**
      * {@code GET  /previsions/:id} : get the "id" prevision.
+     * <p>
+     * The version of the prevision is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to the
+     * requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the previsionDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the previsionDTO, or with status {@code 404 (Not Found)}.
@@ -187,7 +282,7 @@ public class PrevisionResource {
     public ResponseEntity<PrevisionDTO> getPrevision(@PathVariable Long id) {
         log.debug("REST request to get Prevision : {}", id);
         Optional<PrevisionDTO> previsionDTO = previsionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(previsionDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(previsionDTO, PrevisionDTO::getVersion);
     }
 
     /**
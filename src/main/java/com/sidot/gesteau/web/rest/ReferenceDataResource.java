@@ -0,0 +1,41 @@
+package com.sidot.gesteau.web.rest;
+
+import com.sidot.gesteau.service.ReferenceDataService;
+import com.sidot.gesteau.service.dto.ReferenceDataDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller serving the lookup entities of the fiche form in one response.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferenceDataResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReferenceDataResource.class);
+
+    private final ReferenceDataService referenceDataService;
+
+    public ReferenceDataResource(ReferenceDataService referenceDataService) {
+        this.referenceDataService = referenceDataService;
+    }
+
+    /**
+     * {@code GET  /reference-data} : get all the lookup entities of the fiche form.
+     * <p>
+     * The version of the reference data is sent as {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to the
+     * requests whose {@code If-None-Match} header matches it.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the reference data in body, or with status
+     * {@code 304 (Not Modified)} if they did not change since the version the client has.
+     */
+    @GetMapping("/reference-data")
+    public ResponseEntity<ReferenceDataDTO> getReferenceData() {
+        log.debug("REST request to get the reference data");
+        ReferenceDataDTO referenceData = referenceDataService.getSnapshot();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(referenceData.getVersion()).body(referenceData);
+    }
+}
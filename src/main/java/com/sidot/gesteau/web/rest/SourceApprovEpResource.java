@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.SourceApprovEpRepository;
+import com.sidot.gesteau.domain.SourceApprovEp;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.SourceApprovEpQueryService;
 import com.sidot.gesteau.service.SourceApprovEpService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.SourceApprovEpCriteria;
 import com.sidot.gesteau.service.dto.SourceApprovEpDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.SourceApprovEp}.
@@ -46,18 +52,18 @@ public class SourceApprovEpResource {
 
     private final SourceApprovEpService sourceApprovEpService;
 
-    private final SourceApprovEpRepository sourceApprovEpRepository;
-
     private final SourceApprovEpQueryService sourceApprovEpQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public SourceApprovEpResource(
         SourceApprovEpService sourceApprovEpService,
-        SourceApprovEpRepository sourceApprovEpRepository,
-        SourceApprovEpQueryService sourceApprovEpQueryService
+        SourceApprovEpQueryService sourceApprovEpQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.sourceApprovEpService = sourceApprovEpService;
-        this.sourceApprovEpRepository = sourceApprovEpRepository;
         this.sourceApprovEpQueryService = sourceApprovEpQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class SourceApprovEpResource {
      * {@code PUT  /source-approv-eps/:id} : Updates an existing sourceApprovEp.
      *
      * @param id the id of the sourceApprovEpDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the sourceApprovEp the client read, if any.
      * @param sourceApprovEpDTO the sourceApprovEpDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sourceApprovEpDTO,
      * or with status {@code 400 (Bad Request)} if the sourceApprovEpDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the sourceApprovEp was updated since the version of the sourceApprovEpDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the sourceApprovEpDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/source-approv-eps/{id}")
     public ResponseEntity<SourceApprovEpDTO> updateSourceApprovEp(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody SourceApprovEpDTO sourceApprovEpDTO
     ) throws URISyntaxException {
         log.debug("REST request to update SourceApprovEp : {}, {}", id, sourceApprovEpDTO);
@@ -104,13 +114,13 @@ public class SourceApprovEpResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!sourceApprovEpRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        SourceApprovEpDTO result = sourceApprovEpService.save(sourceApprovEpDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, sourceApprovEpDTO::setVersion, ENTITY_NAME);
+        SourceApprovEpDTO result = sourceApprovEpService
+            .update(sourceApprovEpDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, sourceApprovEpDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class SourceApprovEpResource {
      * {@code PATCH  /source-approv-eps/:id} : Partial updates given fields of an existing sourceApprovEp, field will ignore if it is null
      *
      * @param id the id of the sourceApprovEpDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the sourceApprovEp the client read, if any.
      * @param sourceApprovEpDTO the sourceApprovEpDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sourceApprovEpDTO,
      * or with status {@code 400 (Bad Request)} if the sourceApprovEpDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the sourceApprovEpDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the sourceApprovEpDTO is not found,
+     * or with status {@code 409 (Conflict)} if the sourceApprovEp was updated since the version of the sourceApprovEpDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the sourceApprovEpDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/source-approv-eps/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<SourceApprovEpDTO> partialUpdateSourceApprovEp(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody SourceApprovEpDTO sourceApprovEpDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update SourceApprovEp partially : {}, {}", id, sourceApprovEpDTO);
@@ -139,16 +153,15 @@ public class SourceApprovEpResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!sourceApprovEpRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<SourceApprovEpDTO> result = sourceApprovEpService.partialUpdate(sourceApprovEpDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, sourceApprovEpDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, sourceApprovEpDTO::setVersion, ENTITY_NAME);
+        SourceApprovEpDTO result = sourceApprovEpService
+            .partialUpdate(sourceApprovEpDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, sourceApprovEpDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class SourceApprovEpResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sourceApprovEps in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sourceApprovEps in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/source-approv-eps")
-    public ResponseEntity<List<SourceApprovEpDTO>> getAllSourceApprovEps(SourceApprovEpCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<SourceApprovEpDTO>> getAllSourceApprovEps(
+        SourceApprovEpCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get SourceApprovEps by criteria: {}", criteria);
-        Page<SourceApprovEpDTO> page = sourceApprovEpQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(SourceApprovEp.class))) {
+            return null;
+        }
+        Slice<SourceApprovEpDTO> slice = sourceApprovEpQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class SourceApprovEpResource {
 
     /**
      * {@code GET  /source-approv-eps/:id} : get the "id" sourceApprovEp.
+     * <p>
+     * The version of the sourceApprovEp is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to
+     * the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the sourceApprovEpDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sourceApprovEpDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class SourceApprovEpResource {
     public ResponseEntity<SourceApprovEpDTO> getSourceApprovEp(@PathVariable Long id) {
         log.debug("REST request to get SourceApprovEp : {}", id);
         Optional<SourceApprovEpDTO> sourceApprovEpDTO = sourceApprovEpService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(sourceApprovEpDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(sourceApprovEpDTO, SourceApprovEpDTO::getVersion);
     }
 
     /**
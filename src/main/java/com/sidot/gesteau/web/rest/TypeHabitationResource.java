@@ -2,12 +2,16 @@ package com.sidot.gesteau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
-import com.sidot.gesteau.repository.TypeHabitationRepository;
+import com.sidot.gesteau.domain.TypeHabitation;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.TypeHabitationQueryService;
 import com.sidot.gesteau.service.TypeHabitationService;
+import com.sidot.gesteau.service.criteria.CountMode;
 import com.sidot.gesteau.service.criteria.TypeHabitationCriteria;
 import com.sidot.gesteau.service.dto.TypeHabitationDTO;
 import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import com.sidot.gesteau.web.rest.util.ConditionalRequestUtil;
+import com.sidot.gesteau.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -21,14 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.sidot.gesteau.domain.TypeHabitation}.
@@ -46,18 +52,18 @@ public class TypeHabitationResource {
 
     private final TypeHabitationService typeHabitationService;
 
-    private final TypeHabitationRepository typeHabitationRepository;
-
     private final TypeHabitationQueryService typeHabitationQueryService;
 
+    private final CriteriaResultCache criteriaResultCache;
+
     public TypeHabitationResource(
         TypeHabitationService typeHabitationService,
-        TypeHabitationRepository typeHabitationRepository,
-        TypeHabitationQueryService typeHabitationQueryService
+        TypeHabitationQueryService typeHabitationQueryService,
+        CriteriaResultCache criteriaResultCache
     ) {
         this.typeHabitationService = typeHabitationService;
-        this.typeHabitationRepository = typeHabitationRepository;
         this.typeHabitationQueryService = typeHabitationQueryService;
+        this.criteriaResultCache = criteriaResultCache;
     }
 
     /**
@@ -85,15 +91,19 @@ public class TypeHabitationResource {
      * {@code PUT  /type-habitations/:id} : Updates an existing typeHabitation.
      *
      * @param id the id of the typeHabitationDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the typeHabitation the client read, if any.
      * @param typeHabitationDTO the typeHabitationDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeHabitationDTO,
      * or with status {@code 400 (Bad Request)} if the typeHabitationDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the typeHabitation was updated since the version of the typeHabitationDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the typeHabitationDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/type-habitations/{id}")
     public ResponseEntity<TypeHabitationDTO> updateTypeHabitation(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody TypeHabitationDTO typeHabitationDTO
     ) throws URISyntaxException {
         log.debug("REST request to update TypeHabitation : {}, {}", id, typeHabitationDTO);
@@ -104,13 +114,13 @@ public class TypeHabitationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!typeHabitationRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        TypeHabitationDTO result = typeHabitationService.save(typeHabitationDTO);
+        ConditionalRequestUtil.applyIfMatch(ifMatch, typeHabitationDTO::setVersion, ENTITY_NAME);
+        TypeHabitationDTO result = typeHabitationService
+            .update(typeHabitationDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, typeHabitationDTO.getId().toString()))
             .body(result);
     }
@@ -119,16 +129,20 @@ public class TypeHabitationResource {
      * {@code PATCH  /type-habitations/:id} : Partial updates given fields of an existing typeHabitation, field will ignore if it is null
      *
      * @param id the id of the typeHabitationDTO to save.
+     * @param ifMatch the {@code ETag} of the version of the typeHabitation the client read, if any.
      * @param typeHabitationDTO the typeHabitationDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeHabitationDTO,
      * or with status {@code 400 (Bad Request)} if the typeHabitationDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the typeHabitationDTO is not found,
+     * or with status {@code 400 (Bad Request)} if the typeHabitationDTO is not found,
+     * or with status {@code 409 (Conflict)} if the typeHabitation was updated since the version of the typeHabitationDTO,
+     * or with status {@code 412 (Precondition Failed)} if it was updated since the version of the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the typeHabitationDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/type-habitations/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<TypeHabitationDTO> partialUpdateTypeHabitation(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody TypeHabitationDTO typeHabitationDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update TypeHabitation partially : {}, {}", id, typeHabitationDTO);
@@ -139,16 +153,15 @@ public class TypeHabitationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!typeHabitationRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<TypeHabitationDTO> result = typeHabitationService.partialUpdate(typeHabitationDTO);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, typeHabitationDTO.getId().toString())
-        );
+        ConditionalRequestUtil.applyIfMatch(ifMatch, typeHabitationDTO::setVersion, ENTITY_NAME);
+        TypeHabitationDTO result = typeHabitationService
+            .partialUpdate(typeHabitationDTO)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalRequestUtil.weakETag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, typeHabitationDTO.getId().toString()))
+            .body(result);
     }
 
     /**
@@ -156,14 +169,29 @@ public class TypeHabitationResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeHabitations in body.
+     * @param countMode how the total number of matching entities is computed: {@code exact}, {@code estimated} or {@code none}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeHabitations in body,
+     * or with status {@code 304 (Not Modified)} if it did not change since the version the client has.
      */
     @GetMapping("/type-habitations")
-    public ResponseEntity<List<TypeHabitationDTO>> getAllTypeHabitations(TypeHabitationCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<TypeHabitationDTO>> getAllTypeHabitations(
+        TypeHabitationCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = PaginationHeaderUtil.COUNT_PARAMETER, defaultValue = "exact") CountMode countMode,
+        WebRequest request
+    ) {
         log.debug("REST request to get TypeHabitations by criteria: {}", criteria);
-        Page<TypeHabitationDTO> page = typeHabitationQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (ConditionalRequestUtil.checkNotModified(request, criteriaResultCache.getVersion(TypeHabitation.class))) {
+            return null;
+        }
+        Slice<TypeHabitationDTO> slice = typeHabitationQueryService.findByCriteria(criteria, pageable, countMode);
+        HttpHeaders headers = PaginationHeaderUtil.generateCountedHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            countMode
+        );
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).headers(headers).body(slice.getContent());
     }
 
     /**
@@ -180,6 +208,9 @@ public class TypeHabitationResource {
 
     /**
      * {@code GET  /type-habitations/:id} : get the "id" typeHabitation.
+     * <p>
+     * The version of the typeHabitation is sent as weak {@code ETag}, Spring MVC answering {@code 304 (Not Modified)} to
+     * the requests whose {@code If-None-Match} header matches it.
      *
      * @param id the id of the typeHabitationDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the typeHabitationDTO, or with status {@code 404 (Not Found)}.
@@ -188,7 +219,7 @@ public class TypeHabitationResource {
     public ResponseEntity<TypeHabitationDTO> getTypeHabitation(@PathVariable Long id) {
         log.debug("REST request to get TypeHabitation : {}", id);
         Optional<TypeHabitationDTO> typeHabitationDTO = typeHabitationService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(typeHabitationDTO);
+        return ConditionalRequestUtil.wrapOrNotFound(typeHabitationDTO, TypeHabitationDTO::getVersion);
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.sidot.gesteau.web.rest.util;
+
+import com.sidot.gesteau.web.rest.errors.BadRequestAlertException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for the conditional requests: the {@code GET} requests are answered with {@code 304 (Not Modified)} when
+ * the {@code If-None-Match} header of the client matches the weak {@code ETag} of the resource, and the updates are
+ * rejected when their {@code If-Match} header no longer does.
+ */
+public final class ConditionalRequestUtil {
+
+    private ConditionalRequestUtil() {}
+
+    /**
+     * Generate the weak {@code ETag} of a version.
+     *
+     * @param version the version of an entity, or of a listing.
+     * @return the {@code ETag}.
+     */
+    public static String weakETag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Wrap the entity, if present, into a {@code 200 (OK)} response with the weak {@code ETag} of its version, Spring MVC
+     * answering {@code 304 (Not Modified)} to the requests whose {@code If-None-Match} header matches it.
+     *
+     * @param maybeResponse the entity to wrap.
+     * @param version the version of the entity.
+     * @param <X> the type of the entity.
+     * @return the {@link ResponseEntity}.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the entity is absent.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, ToLongFunction<X> version) {
+        return maybeResponse
+            .map(
+                response -> {
+                    String eTag = weakETag(version.applyAsLong(response));
+                    return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(response);
+                }
+            )
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Check whether the client already has the current version of a listing, before running its query.
+     * <p>
+     * The {@code ETag} header is set on the response either way, and its status is {@code 304 (Not Modified)} when the
+     * listing did not change: the controller then returns {@code null} without running the query.
+     *
+     * @param request the current request.
+     * @param version the version of the listing.
+     * @return {@code true} if the listing did not change since the version the client has.
+     */
+    public static boolean checkNotModified(WebRequest request, long version) {
+        return request.checkNotModified(weakETag(version));
+    }
+
+    /**
+     * Give the version of an {@code If-Match} header to the update of an entity, which fails with an
+     * {@link org.springframework.dao.ConcurrencyFailureException} when the entity moved to another version.
+     * <p>
+     * The weak {@code ETag} sent with the entity is accepted, its version being exact. A missing header, or {@code *},
+     * leaves the version of the request body, if any.
+     *
+     * @param ifMatch the {@code If-Match} header, if any.
+     * @param versionSetter the setter of the version of the updated DTO.
+     * @param entityName the name of the entity, for the error.
+     * @throws BadRequestAlertException if the header does not hold a single {@code ETag} of a version.
+     */
+    public static void applyIfMatch(String ifMatch, Consumer<Long> versionSetter, String entityName) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                versionSetter.accept(Long.parseLong(eTag.substring(1, eTag.length() - 1)));
+                return;
+            } catch (NumberFormatException e) {
+                // Not the ETag of a version
+            }
+        }
+        throw new BadRequestAlertException("Invalid If-Match header", entityName, "ifmatchinvalid");
+    }
+}
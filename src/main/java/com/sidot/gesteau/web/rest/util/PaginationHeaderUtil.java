@@ -0,0 +1,105 @@
+package com.sidot.gesteau.web.rest.util;
+
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.dto.KeysetSlice;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for the pagination headers that {@link tech.jhipster.web.util.PaginationUtil} does not cover.
+ */
+public final class PaginationHeaderUtil {
+
+    /**
+     * Name of the request parameter carrying a keyset cursor.
+     */
+    public static final String AFTER_PARAMETER = "after";
+
+    /**
+     * Name of the request parameter carrying the {@link CountMode}.
+     */
+    public static final String COUNT_PARAMETER = "count";
+
+    /**
+     * Name of the response header telling how the total was computed.
+     */
+    public static final String COUNT_MODE_HEADER = "X-Count-Mode";
+
+    /**
+     * Value of the {@link #COUNT_MODE_HEADER} when more entities than the cap of the {@link CountMode#ESTIMATED} mode
+     * match, so that the total is unknown.
+     */
+    public static final String CAPPED_COUNT_MODE = "capped";
+
+    private PaginationHeaderUtil() {}
+
+    /**
+     * Generate the pagination headers of a criteria listing run with the given {@link CountMode}.
+     * <p>
+     * A {@link Page} gets the usual {@code X-Total-Count} and {@code Link} headers, holding an estimate in the
+     * {@link CountMode#ESTIMATED} mode. A {@link Slice} has no total, so its {@code Link} header has no {@code last} relation:
+     * in the {@link CountMode#ESTIMATED} mode, the count was capped and the {@link #COUNT_MODE_HEADER} is {@code capped}.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the returned slice or page.
+     * @param countMode the count mode used.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateCountedHttpHeaders(UriComponentsBuilder uriBuilder, Slice<?> slice, CountMode countMode) {
+        HttpHeaders headers;
+        if (slice instanceof Page) {
+            headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, (Page<?>) slice);
+        } else {
+            headers = generateSliceHttpHeaders(uriBuilder, slice);
+        }
+        boolean capped = countMode == CountMode.ESTIMATED && !(slice instanceof Page);
+        headers.add(COUNT_MODE_HEADER, capped ? CAPPED_COUNT_MODE : countMode.toParameter());
+        return headers;
+    }
+
+    private static HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<?> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next")).append(",");
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, slice.getSize(), "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+
+    /**
+     * Generate the pagination headers of a keyset paginated listing: a {@code Link} header with the {@code next}
+     * relation, when there is a following page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the returned slice.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<?> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        slice
+            .getNext()
+            .ifPresent(next -> {
+                String uri = uriBuilder.replaceQueryParam("page").replaceQueryParam(AFTER_PARAMETER, next.encode()).toUriString();
+                headers.add(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+            });
+        return headers;
+    }
+}
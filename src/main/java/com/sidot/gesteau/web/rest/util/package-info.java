@@ -0,0 +1,4 @@
+/**
+ * Helpers shared by the Spring MVC REST controllers.
+ */
+package com.sidot.gesteau.web.rest.util;
@@ -0,0 +1,112 @@
+package com.sidot.gesteau.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.sidot.gesteau.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unit tests for the {@link TimingAspect} class.
+ */
+class TimingAspectTest {
+
+    private MeterRegistry meterRegistry;
+
+    private Logger logger;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        logger = (Logger) LoggerFactory.getLogger(TimedService.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void teardown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void sampledCallsAreTimed() throws Throwable {
+        TimingAspect timingAspect = timingAspect(1, Duration.ofHours(1));
+
+        assertThat(timingAspect.timeAround(joinPoint("secret", 1L))).isEqualTo("result");
+        assertThat(timingAspect.timeAround(joinPoint("secret", 2L))).isEqualTo("result");
+
+        Timer timer = meterRegistry.find(TimingAspect.TIMER_NAME).tags("class", "TimedService", "method", "find").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void unsampledCallsAreNotTimed() throws Throwable {
+        TimingAspect timingAspect = timingAspect(0, Duration.ofHours(1));
+
+        assertThat(timingAspect.timeAround(joinPoint("secret", 1L))).isEqualTo("result");
+
+        assertThat(meterRegistry.find(TimingAspect.TIMER_NAME).timer()).isNull();
+    }
+
+    @Test
+    void slowCallsAreLoggedWithoutTheirArguments() throws Throwable {
+        TimingAspect timingAspect = timingAspect(0, Duration.ZERO);
+
+        assertThat(timingAspect.timeAround(joinPoint("secret", null))).isEqualTo("result");
+
+        assertThat(appender.list)
+            .singleElement()
+            .satisfies(
+                event -> {
+                    assertThat(event.getLevel()).isEqualTo(Level.WARN);
+                    assertThat(event.getFormattedMessage()).startsWith("Slow call: find(String, null) took ").doesNotContain("secret");
+                }
+            );
+    }
+
+    private TimingAspect timingAspect(double sampleRate, Duration slowThreshold) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTiming().setSampleRate(sampleRate);
+        applicationProperties.getTiming().setSlowThreshold(slowThreshold);
+        return new TimingAspect(applicationProperties, meterRegistry);
+    }
+
+    private ProceedingJoinPoint joinPoint(Object... args) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getName()).thenReturn("find");
+        when(signature.getDeclaringTypeName()).thenReturn(TimedService.class.getName());
+        when(signature.getDeclaringType()).thenReturn(TimedService.class);
+        when(signature.getMethod()).thenReturn(TimedService.class.getMethod("find", String.class, Long.class));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn("result");
+        return joinPoint;
+    }
+
+    static class TimedService {
+
+        public String find(String name, Long id) {
+            return name + id;
+        }
+    }
+}
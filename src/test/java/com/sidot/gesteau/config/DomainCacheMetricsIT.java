@@ -0,0 +1,63 @@
+package com.sidot.gesteau.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.sidot.gesteau.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the Hazelcast maps of the Hibernate second-level cache regions and {@link DomainCacheMetrics}.
+ */
+@IntegrationTest
+class DomainCacheMetricsIT {
+
+    private static final String NATURE_OUVRAGE_REGION = CacheConfiguration.DOMAIN_REGION_PREFIX + "NatureOuvrage";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private DomainCacheMetrics domainCacheMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void regionsAreBoundedAndLookupsNearCached() {
+        MapConfig ficheSuiviOuvrageRegion = hazelcastInstance
+            .getConfig()
+            .findMapConfig(CacheConfiguration.DOMAIN_REGION_PREFIX + "FicheSuiviOuvrage");
+        assertThat(ficheSuiviOuvrageRegion.getEvictionConfig().getMaxSizePolicy()).isEqualTo(MaxSizePolicy.PER_NODE);
+        assertThat(ficheSuiviOuvrageRegion.getEvictionConfig().getSize()).isEqualTo(1000);
+        assertThat(ficheSuiviOuvrageRegion.getInMemoryFormat()).isEqualTo(InMemoryFormat.BINARY);
+        assertThat(ficheSuiviOuvrageRegion.getNearCacheConfig()).isNull();
+
+        MapConfig natureOuvrageRegion = hazelcastInstance.getConfig().findMapConfig(NATURE_OUVRAGE_REGION);
+        assertThat(natureOuvrageRegion.getNearCacheConfig()).isNotNull();
+        assertThat(natureOuvrageRegion.getNearCacheConfig().isInvalidateOnChange()).isTrue();
+        assertThat(natureOuvrageRegion.getNearCacheConfig().getInMemoryFormat()).isEqualTo(InMemoryFormat.OBJECT);
+    }
+
+    @Test
+    void regionMetricsArePublished() {
+        IMap<Long, String> region = hazelcastInstance.getMap(NATURE_OUVRAGE_REGION);
+        try {
+            domainCacheMetrics.monitor(region);
+            region.put(1L, "Latrine");
+            region.get(1L);
+
+            assertThat(meterRegistry.get("cache.puts").tag("cache", NATURE_OUVRAGE_REGION).functionCounter().count()).isPositive();
+            assertThat(meterRegistry.get("cache.evictions").tag("cache", NATURE_OUVRAGE_REGION).counter().count()).isZero();
+            assertThat(meterRegistry.get("cache.expirations").tag("cache", NATURE_OUVRAGE_REGION).counter()).isNotNull();
+        } finally {
+            region.destroy();
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.sidot.gesteau.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.sidot.gesteau.config.ApplicationProperties;
 import com.sidot.gesteau.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
@@ -24,6 +27,7 @@ class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
 
     private Key key;
+    private SimpleMeterRegistry meterRegistry;
     private TokenProvider tokenProvider;
 
     @BeforeEach
@@ -31,7 +35,8 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), meterRegistry);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -89,7 +94,7 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,16 +106,82 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    @Test
+    void testResolveAuthenticationParsesTokenOnce() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.resolveAuthentication(token);
+        Authentication second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(first.getName()).isEqualTo("anonymous");
+        assertThat(first.getCredentials()).isEqualTo(token);
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(meterRegistry.get("security.jwt.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.jwt.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.jwt.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testResolveAuthenticationReturnsNullWhenJWTisInvalid() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token.substring(1))).isNull();
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isNull();
+        assertThat(tokenProvider.resolveAuthentication("")).isNull();
+        assertThat(meterRegistry.get("security.jwt.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void testResolveAuthenticationDoesNotCacheExpiredJWT() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+        assertThat(meterRegistry.get("security.jwt.cache.requests").tag("result", "hit").counter().count()).isZero();
+    }
+
+    @Test
+    void testResolveAuthenticationEvictsLeastRecentlyUsedJWT() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(Encoders.BASE64.encode(key.getEncoded()));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJwt().setCacheMaxSize(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, meterRegistry);
+        String first = tokenProvider.createToken(createAuthentication("first"), false);
+        String second = tokenProvider.createToken(createAuthentication("second"), false);
+        String third = tokenProvider.createToken(createAuthentication("third"), false);
+
+        tokenProvider.resolveAuthentication(first);
+        tokenProvider.resolveAuthentication(second);
+        // The first token is used again, so that the second one is the least recently used
+        tokenProvider.resolveAuthentication(first);
+        tokenProvider.resolveAuthentication(third);
+
+        assertThat(meterRegistry.get("security.jwt.cache.size").gauge().value()).isEqualTo(2);
+        assertThat(tokenProvider.resolveAuthentication(first).getName()).isEqualTo("first");
+        assertThat(meterRegistry.get("security.jwt.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(tokenProvider.resolveAuthentication(second).getName()).isEqualTo("second");
+        assertThat(meterRegistry.get("security.jwt.cache.requests").tag("result", "miss").counter().count()).isEqualTo(4);
+    }
+
     private Authentication createAuthentication() {
+        return createAuthentication("anonymous");
+    }
+
+    private Authentication createAuthentication(String name) {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
-        return new UsernamePasswordAuthenticationToken("anonymous", "anonymous", authorities);
+        return new UsernamePasswordAuthenticationToken(name, name, authorities);
     }
 
     private String createUnsupportedToken() {
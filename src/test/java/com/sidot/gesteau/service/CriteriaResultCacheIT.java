@@ -0,0 +1,189 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for {@link CriteriaResultCache}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.criteria-cache.enabled=true", "application.criteria-cache.count.enabled=true" })
+class CriteriaResultCacheIT {
+
+    @Autowired
+    private CriteriaResultCache criteriaResultCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private FicheSuiviOuvrageCriteria criteria;
+
+    @BeforeEach
+    public void initTest() {
+        criteriaResultCache.invalidateAll();
+        criteria = new FicheSuiviOuvrageCriteria();
+        StringFilter nomBenef = new StringFilter();
+        nomBenef.setContains("criteria-cache-" + System.nanoTime());
+        criteria.setNomBenef(nomBenef);
+    }
+
+    @Test
+    void pagesAreCachedByCriteriaPageAndCountMode() {
+        Pageable firstPage = PageRequest.of(0, 2);
+
+        Slice<String> slice = getSlice(criteria, firstPage, CountMode.EXACT);
+        Slice<String> cached = getSlice(criteria, firstPage, CountMode.EXACT);
+
+        assertThat(queries).hasValue(1);
+        assertThat(cached).isInstanceOf(Page.class);
+        assertThat(cached.getContent()).isEqualTo(slice.getContent());
+        assertThat(((Page<String>) cached).getTotalElements()).isEqualTo(5);
+
+        Slice<String> uncounted = getSlice(criteria, firstPage, CountMode.NONE);
+        assertThat(queries).hasValue(2);
+        Slice<String> cachedUncounted = getSlice(criteria, firstPage, CountMode.NONE);
+        assertThat(queries).hasValue(2);
+        assertThat(cachedUncounted).isNotInstanceOf(Page.class);
+        assertThat(cachedUncounted.hasNext()).isTrue();
+        assertThat(cachedUncounted.getContent()).isEqualTo(uncounted.getContent());
+
+        getSlice(criteria, PageRequest.of(1, 2), CountMode.EXACT);
+        assertThat(queries).hasValue(3);
+
+        FicheSuiviOuvrageCriteria otherCriteria = criteria.copy();
+        otherCriteria.getNomBenef().setContains(criteria.getNomBenef().getContains() + "-other");
+        getSlice(otherCriteria, firstPage, CountMode.EXACT);
+        assertThat(queries).hasValue(4);
+
+        assertThat(criteriaResultCache.getCount(FicheSuiviOuvrage.class, criteria, this::count)).isEqualTo(5);
+        assertThat(criteriaResultCache.getCount(FicheSuiviOuvrage.class, criteria.copy(), this::count)).isEqualTo(5);
+        assertThat(queries).hasValue(5);
+    }
+
+    @Test
+    void resultsAreDroppedOnceTheWriteCommits() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        getSlice(criteria, PageRequest.of(0, 2), CountMode.EXACT);
+
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                criteriaResultCache.invalidate(FicheSuiviOuvrage.class);
+                // The cached result is served until the write commits
+                getSlice(criteria, PageRequest.of(0, 2), CountMode.EXACT);
+                assertThat(queries).hasValue(1);
+                status.setRollbackOnly();
+            }
+        );
+        getSlice(criteria, PageRequest.of(0, 2), CountMode.EXACT);
+        assertThat(queries).hasValue(1);
+
+        transactionTemplate.executeWithoutResult(status -> criteriaResultCache.invalidate(FicheSuiviOuvrage.class));
+        getSlice(criteria, PageRequest.of(0, 2), CountMode.EXACT);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void countsAreDroppedByTheWritesOfTheFilteredEntities() {
+        assertThat(criteriaResultCache.getCount(NatureOuvrage.class, criteria, this::count)).isEqualTo(5);
+        criteriaResultCache.invalidate(Prevision.class);
+        assertThat(criteriaResultCache.getCount(NatureOuvrage.class, criteria, this::count)).isEqualTo(5);
+        assertThat(queries).hasValue(1);
+
+        // A ficheSuiviOuvrage moving to another nature changes the natures filtered on ficheSuiviOuvrageId
+        criteriaResultCache.invalidate(FicheSuiviOuvrage.class);
+        assertThat(criteriaResultCache.getCount(NatureOuvrage.class, criteria, this::count)).isEqualTo(5);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void totalCountsFollowTheCommittedInsertsAndDeletes() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, this::count)).isEqualTo(5);
+
+        transactionTemplate.executeWithoutResult(status -> criteriaResultCache.invalidate(NatureOuvrage.class, 2));
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, this::count)).isEqualTo(7);
+
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                criteriaResultCache.invalidate(NatureOuvrage.class, -1);
+                status.setRollbackOnly();
+            }
+        );
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, this::count)).isEqualTo(7);
+
+        criteriaResultCache.invalidate(NatureOuvrage.class, -1);
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, this::count)).isEqualTo(6);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void totalCountsReloadedBetweenACommitAndItsDeltaCountItOnce() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                // Registered first, so that the count is reloaded once committed, before the delta is applied
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, () -> count() + 1)).isEqualTo(6);
+                        }
+                    }
+                );
+                criteriaResultCache.invalidate(NatureOuvrage.class, 1);
+            }
+        );
+
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, () -> count() + 1)).isEqualTo(6);
+        assertThat(queries).hasValue(2);
+
+        // The count reloaded afterwards follows the next commits
+        criteriaResultCache.invalidate(NatureOuvrage.class, 1);
+        assertThat(criteriaResultCache.getTotalCount(NatureOuvrage.class, this::count)).isEqualTo(7);
+        assertThat(queries).hasValue(2);
+    }
+
+    private Slice<String> getSlice(FicheSuiviOuvrageCriteria criteria, Pageable page, CountMode countMode) {
+        return criteriaResultCache.getSlice(
+            FicheSuiviOuvrage.class,
+            criteria,
+            page,
+            countMode,
+            () -> {
+                queries.incrementAndGet();
+                List<String> content = List.of("row-" + page.getOffset(), "row-" + (page.getOffset() + 1));
+                return countMode == CountMode.NONE ? new SliceImpl<>(content, page, true) : new PageImpl<>(content, page, 5);
+            }
+        );
+    }
+
+    private long count() {
+        queries.incrementAndGet();
+        return 5;
+    }
+}
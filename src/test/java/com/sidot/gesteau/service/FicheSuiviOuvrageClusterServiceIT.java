@@ -0,0 +1,147 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageClusterCriteria;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageClusterDTO;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link FicheSuiviOuvrageClusterService}, whose writes really commit.
+ */
+@IntegrationTest
+class FicheSuiviOuvrageClusterServiceIT {
+
+    @Autowired
+    private FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    @Autowired
+    private FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    @Autowired
+    private FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    private FicheSuiviOuvrage ficheSuiviOuvrage;
+
+    private NatureOuvrage natureOuvrage;
+
+    private NatureOuvrage otherNatureOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                natureOuvrage = createNatureOuvrage();
+                em.persist(natureOuvrage);
+                otherNatureOuvrage = createNatureOuvrage();
+                em.persist(otherNatureOuvrage);
+                ficheSuiviOuvrage = createFicheSuiviOuvrage().natureouvrage(natureOuvrage);
+                em.persist(ficheSuiviOuvrage);
+            }
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                ficheSuiviOuvrageRepository.deleteById(ficheSuiviOuvrage.getId());
+                em.remove(em.find(NatureOuvrage.class, natureOuvrage.getId()));
+                em.remove(em.find(NatureOuvrage.class, otherNatureOuvrage.getId()));
+                searchIndexEventRepository.deleteAll();
+            }
+        );
+        ficheSuiviOuvrageClusterService.refresh();
+    }
+
+    @Test
+    void moveCommittedDuringARefreshIsReplayed() {
+        ficheSuiviOuvrageClusterService.refresh();
+        assertThat(findClusters(natureOuvrage)).extracting(FicheSuiviOuvrageClusterDTO::getCount).containsExactly(1L);
+
+        TransactionTemplate move = new TransactionTemplate(transactionManager);
+        move.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(
+            status ->
+                ficheSuiviOuvrageClusterService.refresh(
+                    // Committed once the query has started, so that the rows read still hold the previous nature
+                    () -> move.executeWithoutResult(moveStatus -> ficheSuiviOuvrageService.partialUpdate(reassign(otherNatureOuvrage)))
+                )
+        );
+
+        assertThat(findClusters(natureOuvrage)).isEmpty();
+        assertThat(findClusters(otherNatureOuvrage)).extracting(FicheSuiviOuvrageClusterDTO::getCount).containsExactly(1L);
+    }
+
+    private FicheSuiviOuvrageDTO reassign(NatureOuvrage natureOuvrage) {
+        NatureOuvrageDTO natureOuvrageDTO = new NatureOuvrageDTO();
+        natureOuvrageDTO.setId(natureOuvrage.getId());
+        FicheSuiviOuvrageDTO patch = new FicheSuiviOuvrageDTO();
+        patch.setId(ficheSuiviOuvrage.getId());
+        patch.setNatureouvrage(natureOuvrageDTO);
+        return patch;
+    }
+
+    private List<FicheSuiviOuvrageClusterDTO> findClusters(NatureOuvrage natureOuvrage) {
+        FicheSuiviOuvrageClusterCriteria criteria = new FicheSuiviOuvrageClusterCriteria();
+        criteria.natureouvrageId().setEquals(natureOuvrage.getId());
+        return ficheSuiviOuvrageClusterService.findClusters(0, 0, 0, criteria);
+    }
+
+    private static NatureOuvrage createNatureOuvrage() {
+        return new NatureOuvrage().libelle("AAAAAAAAAA");
+    }
+
+    private static FicheSuiviOuvrage createFicheSuiviOuvrage() {
+        return new FicheSuiviOuvrage()
+            .prjAppuis("AAAAAAAAAA")
+            .nomBenef("AAAAAAAAAA")
+            .prenomBenef("AAAAAAAAAA")
+            .professionBenef("AAAAAAAAAA")
+            .nbUsagers(1L)
+            .contacts("AAAAAAAAAA")
+            .longitude(1F)
+            .latitude(1F)
+            .dateRemiseDevis(Instant.ofEpochMilli(0L))
+            .dateDebutTravaux(Instant.ofEpochMilli(0L))
+            .dateFinTravaux(Instant.ofEpochMilli(0L))
+            .rue("AAAAAAAAAA")
+            .porte(1)
+            .coutMenage("AAAAAAAAAA")
+            .subvOnea(1)
+            .subvProjet(1)
+            .autreSubv(1)
+            .toles(1)
+            .animateur("AAAAAAAAAA")
+            .superviseur("AAAAAAAAAA")
+            .controleur("AAAAAAAAAA");
+    }
+}
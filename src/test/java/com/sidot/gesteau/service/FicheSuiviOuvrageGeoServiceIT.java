@@ -0,0 +1,132 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the in-memory index of {@link FicheSuiviOuvrageGeoService}, whose writes really commit.
+ */
+@IntegrationTest
+class FicheSuiviOuvrageGeoServiceIT {
+
+    @Autowired
+    private FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    @Autowired
+    private FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    @Autowired
+    private FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    private FicheSuiviOuvrage ficheSuiviOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                ficheSuiviOuvrage = createFicheSuiviOuvrage().latitude(-40F).longitude(-40F);
+                em.persist(ficheSuiviOuvrage);
+            }
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                ficheSuiviOuvrageRepository.deleteById(ficheSuiviOuvrage.getId());
+                searchIndexEventRepository.deleteAll();
+            }
+        );
+        ficheSuiviOuvrageGeoService.refresh();
+    }
+
+    @Test
+    void moveCommittedDuringARefreshIsReplayed() {
+        ficheSuiviOuvrageGeoService.refresh();
+        assertThat(findWithinBox(-41, -41, -39, -39)).contains(ficheSuiviOuvrage.getId());
+
+        TransactionTemplate move = new TransactionTemplate(transactionManager);
+        move.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(
+            status ->
+                ficheSuiviOuvrageGeoService.refresh(
+                    // Committed once the query has started, so that the rows read still hold the previous position
+                    () -> move.executeWithoutResult(moveStatus -> ficheSuiviOuvrageService.partialUpdate(relocate(40F, 40F)))
+                )
+        );
+
+        assertThat(findWithinBox(-41, -41, -39, -39)).doesNotContain(ficheSuiviOuvrage.getId());
+        assertThat(findWithinBox(39, 39, 41, 41)).contains(ficheSuiviOuvrage.getId());
+    }
+
+    private FicheSuiviOuvrageDTO relocate(Float latitude, Float longitude) {
+        FicheSuiviOuvrageDTO patch = new FicheSuiviOuvrageDTO();
+        patch.setId(ficheSuiviOuvrage.getId());
+        patch.setLatitude(latitude);
+        patch.setLongitude(longitude);
+        return patch;
+    }
+
+    private List<Long> findWithinBox(double south, double west, double north, double east) {
+        return ficheSuiviOuvrageGeoService
+            .findWithinBox(south, west, north, east, null, PageRequest.of(0, 20))
+            .stream()
+            .map(FicheSuiviOuvrageDTO::getId)
+            .collect(Collectors.toList());
+    }
+
+    private static FicheSuiviOuvrage createFicheSuiviOuvrage() {
+        return new FicheSuiviOuvrage()
+            .prjAppuis("AAAAAAAAAA")
+            .nomBenef("AAAAAAAAAA")
+            .prenomBenef("AAAAAAAAAA")
+            .professionBenef("AAAAAAAAAA")
+            .nbUsagers(1L)
+            .contacts("AAAAAAAAAA")
+            .longitude(1F)
+            .latitude(1F)
+            .dateRemiseDevis(Instant.ofEpochMilli(0L))
+            .dateDebutTravaux(Instant.ofEpochMilli(0L))
+            .dateFinTravaux(Instant.ofEpochMilli(0L))
+            .rue("AAAAAAAAAA")
+            .porte(1)
+            .coutMenage("AAAAAAAAAA")
+            .subvOnea(1)
+            .subvProjet(1)
+            .autreSubv(1)
+            .toles(1)
+            .animateur("AAAAAAAAAA")
+            .superviseur("AAAAAAAAAA")
+            .controleur("AAAAAAAAAA");
+    }
+}
@@ -0,0 +1,144 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageImportReportDTO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link FicheSuiviOuvrageImportService}, whose chunks really commit.
+ */
+@IntegrationTest
+class FicheSuiviOuvrageImportServiceIT {
+
+    private static final String NOM_BENEF = "IMPORTED";
+
+    private static final String HEADER =
+        "prjAppuis;nomBenef;prenomBenef;professionBenef;nbUsagers;contacts;longitude;latitude;dateRemiseDevis;" +
+        "dateDebutTravaux;dateFinTravaux;porte;coutMenage;subvOnea;subvProjet;autreSubv;toles;animateur;" +
+        "superviseur;controleur;rue";
+
+    private static final String OTHER_COLUMNS =
+        "AAAAAAAAAA;AAAAAAAAAA;1;AAAAAAAAAA;1.0;1.0;1970-01-01T00:00:00Z;1970-01-01T00:00:00Z;1970-01-01T00:00:00Z;" +
+        "1;AAAAAAAAAA;1;1;1;1;AAAAAAAAAA;AAAAAAAAAA;AAAAAAAAAA";
+
+    @Autowired
+    private FicheSuiviOuvrageImportService ficheSuiviOuvrageImportService;
+
+    @Autowired
+    private FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    @Autowired
+    private FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int chunkSize;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        chunkSize = applicationProperties.getBulk().getChunkSize();
+        applicationProperties.getBulk().setChunkSize(2);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        applicationProperties.getBulk().setChunkSize(chunkSize);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                em
+                    .createQuery("delete from FicheSuiviOuvrage f where f.nomBenef = :nomBenef")
+                    .setParameter("nomBenef", NOM_BENEF)
+                    .executeUpdate();
+                searchIndexEventRepository.deleteAll();
+            }
+        );
+        ficheSuiviOuvrageGeoService.refresh();
+        ficheSuiviOuvrageClusterService.refresh();
+    }
+
+    @Test
+    void everyChunkIsCommitted() {
+        FicheSuiviOuvrageImportReportDTO report = importCsv(row("row-1", "rue"), row("row-2", "rue"), row("row-3", "rue"));
+
+        assertThat(report.getTotal()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isZero();
+        assertThat(findImported()).containsExactlyInAnyOrder("row-1", "row-2", "row-3");
+    }
+
+    @Test
+    void chunkRejectedByTheDatabaseIsRetriedRowByRow() {
+        // The second row passes the validation, but its street does not fit in its column
+        FicheSuiviOuvrageImportReportDTO report = importCsv(
+            row("row-1", "rue"),
+            row("row-2", StringUtils.repeat('A', 256)),
+            row("row-3", "rue")
+        );
+
+        assertThat(report.getTotal()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors())
+            .singleElement()
+            .satisfies(
+                error -> {
+                    assertThat(error.getRow()).isEqualTo(2);
+                    assertThat(error.getMessages()).hasSize(1);
+                    assertThat(error.getMessages().get(0)).startsWith("rejected by the database: ");
+                }
+            );
+        // The valid rows of the rolled back chunk are inserted once
+        assertThat(findImported()).containsExactlyInAnyOrder("row-1", "row-3");
+    }
+
+    private FicheSuiviOuvrageImportReportDTO importCsv(String... rows) {
+        String content = HEADER + "\n" + String.join("\n", rows);
+        return ficheSuiviOuvrageImportService.importCsv(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<String> findImported() {
+        return ficheSuiviOuvrageRepository
+            .findAll()
+            .stream()
+            .filter(ficheSuiviOuvrage -> NOM_BENEF.equals(ficheSuiviOuvrage.getNomBenef()))
+            .map(FicheSuiviOuvrage::getPrjAppuis)
+            .collect(Collectors.toList());
+    }
+
+    private static String row(String prjAppuis, String rue) {
+        return String.join(";", prjAppuis, NOM_BENEF, OTHER_COLUMNS, rue);
+    }
+}
@@ -0,0 +1,335 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.*;
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.HibernateStatisticsDTO;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmark of the criteria queries of {@link FicheSuiviOuvrageQueryService} over a generated dataset, run on its own
+ * H2 database in PostgreSQL mode.
+ * <p>
+ * Every scenario of the catalogue is a realistic filter combination of the list endpoint, timed on
+ * {@code findByCriteria} (a sorted page of 20, with its count query) and on {@code countByCriteria}. The latency
+ * percentiles, the SQL statements and the rows fetched by Hibernate per call are written to
+ * {@code target/benchmark/fiche-suivi-ouvrage-criteria.csv}.
+ * <p>
+ * It is skipped by the build, run it with:
+ * {@code ./mvnw verify -Dit.test=FicheSuiviOuvrageQueryBenchmarkIT -Dbenchmark.criteria=true}
+ * and size it with {@code -Dbenchmark.fiches} (20000), {@code -Dbenchmark.previsions} (100, one centre and one annee
+ * each), {@code -Dbenchmark.macons} (200), {@code -Dbenchmark.warmup} (10) and {@code -Dbenchmark.iterations} (50).
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = "spring.datasource.url=jdbc:h2:mem:gesteau-benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+)
+@EnabledIfSystemProperty(named = "benchmark.criteria", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FicheSuiviOuvrageQueryBenchmarkIT {
+
+    private static final int FICHES = Integer.getInteger("benchmark.fiches", 20000);
+
+    private static final int PREVISIONS = Integer.getInteger("benchmark.previsions", 100);
+
+    private static final int MACONS = Integer.getInteger("benchmark.macons", 200);
+
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 10);
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final List<String> NOMS = List.of("Ouedraogo", "Sawadogo", "Kabore", "Traore", "Zongo", "Compaore", "Ilboudo", "Kone");
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dateRemiseDevis").and(Sort.by("id")));
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageQueryBenchmarkIT.class);
+
+    @Autowired
+    private FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService;
+
+    @Autowired
+    private HibernateStatisticsService hibernateStatisticsService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> previsionIds = new ArrayList<>();
+
+    private final List<Long> natureOuvrageIds = new ArrayList<>();
+
+    private final List<Long> maconIds = new ArrayList<>();
+
+    private final List<String> results = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        Random random = new Random(42);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> typeHabitationIds = new ArrayList<>();
+        List<Long> sourceApprovEpIds = new ArrayList<>();
+        List<Long> modeEvacuationEauUseeIds = new ArrayList<>();
+        List<Long> modeEvacExcretaIds = new ArrayList<>();
+        List<Long> prefabricantIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                for (String libelle : List.of("Latrine", "Puisard", "Latrine publique", "Latrine scolaire")) {
+                    natureOuvrageIds.add(persist(new NatureOuvrage().libelle(libelle)).getId());
+                }
+                for (int i = 1; i <= 3; i++) {
+                    typeHabitationIds.add(persist(new TypeHabitation().libelle("Habitation " + i)).getId());
+                    sourceApprovEpIds.add(persist(new SourceApprovEp().libelle("Source " + i)).getId());
+                    modeEvacuationEauUseeIds.add(persist(new ModeEvacuationEauUsee().libelle("Evacuation " + i)).getId());
+                    modeEvacExcretaIds.add(persist(new ModeEvacExcreta().libelle("Excreta " + i)).getId());
+                }
+                for (int i = 1; i <= 5; i++) {
+                    prefabricantIds.add(persist(new Prefabricant().libelle("Prefabricant " + i)).getId());
+                }
+                for (int i = 1; i <= MACONS; i++) {
+                    maconIds.add(persist(new Macon().libelle("Macon " + i)).getId());
+                }
+                for (int i = 1; i <= PREVISIONS; i++) {
+                    Annee annee = persist(new Annee().libelle(String.valueOf(2000 + i)));
+                    Centre centre = persist(new Centre().libelle("Centre " + i).responsable("Responsable " + i).contact("70000000"));
+                    Prevision prevision = persist(
+                        new Prevision().nbLatrine(300).nbPuisard(200).nbPublic(10).nbScolaire(10).annee(annee).centre(centre)
+                    );
+                    previsionIds.add(prevision.getId());
+                }
+            }
+        );
+        for (int chunk = 0; chunk < FICHES; chunk += CHUNK_SIZE) {
+            int size = Math.min(CHUNK_SIZE, FICHES - chunk);
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    for (int i = 0; i < size; i++) {
+                        Instant dateRemiseDevis = START.plus(random.nextInt(3 * 365), ChronoUnit.DAYS);
+                        FicheSuiviOuvrage ficheSuiviOuvrage = new FicheSuiviOuvrage()
+                            .prjAppuis("PAEA")
+                            .nomBenef(NOMS.get(random.nextInt(NOMS.size())))
+                            .prenomBenef("Prenom " + random.nextInt(1000))
+                            .professionBenef("Commercant")
+                            .nbUsagers(1L + random.nextInt(15))
+                            .contacts("70 00 00 00")
+                            .longitude(-5.5f + random.nextFloat() * 8)
+                            .latitude(9.5f + random.nextFloat() * 5.5f)
+                            .dateRemiseDevis(dateRemiseDevis)
+                            .dateDebutTravaux(dateRemiseDevis.plus(7, ChronoUnit.DAYS))
+                            .dateFinTravaux(dateRemiseDevis.plus(7 + random.nextInt(60), ChronoUnit.DAYS))
+                            .rue("Rue " + random.nextInt(500))
+                            .porte(random.nextInt(1000))
+                            .coutMenage("25000")
+                            .subvOnea(50000)
+                            .subvProjet(30000)
+                            .autreSubv(0)
+                            .toles(random.nextInt(8))
+                            .animateur("Animateur " + random.nextInt(20))
+                            .superviseur("Superviseur " + random.nextInt(10))
+                            .controleur("Controleur " + random.nextInt(10))
+                            .prevision(reference(Prevision.class, previsionIds, random))
+                            .natureouvrage(reference(NatureOuvrage.class, natureOuvrageIds, random))
+                            .typehabitation(reference(TypeHabitation.class, typeHabitationIds, random))
+                            .sourceapprovep(reference(SourceApprovEp.class, sourceApprovEpIds, random))
+                            .modeevacuationeauusee(reference(ModeEvacuationEauUsee.class, modeEvacuationEauUseeIds, random))
+                            .modeevacexcreta(reference(ModeEvacExcreta.class, modeEvacExcretaIds, random))
+                            // A tenth of the fiches have no macon yet
+                            .macon(random.nextInt(10) == 0 ? null : reference(Macon.class, maconIds, random))
+                            .prefabricant(reference(Prefabricant.class, prefabricantIds, random));
+                        em.persist(ficheSuiviOuvrage);
+                    }
+                    em.flush();
+                    em.clear();
+                }
+            );
+        }
+        hibernateStatisticsService.setEnabled(true);
+    }
+
+    @AfterAll
+    void report() throws IOException {
+        hibernateStatisticsService.setEnabled(false);
+        hibernateStatisticsService.clear();
+        String header = "scenario;operation;matched;p50Ms;p90Ms;p99Ms;maxMs;statementsPerCall;rowsFetchedPerCall";
+        Path csv = Paths.get("target", "benchmark", "fiche-suivi-ouvrage-criteria.csv");
+        Files.createDirectories(csv.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv))) {
+            writer.println(header);
+            results.forEach(writer::println);
+        }
+        log.info("FicheSuiviOuvrage criteria queries, {} fiches, {} iterations, written to {}", FICHES, ITERATIONS, csv.toAbsolutePath());
+    }
+
+    @Test
+    void benchmarkCriteriaQueries() {
+        Instant middle = START.plus(365, ChronoUnit.DAYS);
+        scenario("no filter", FicheSuiviOuvrageCriteria::new);
+        scenario(
+            "nomBenef contains",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.nomBenef().setContains("dogo");
+                return criteria;
+            }
+        );
+        scenario(
+            "prevision equals",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.previsionId().setEquals(previsionIds.get(0));
+                return criteria;
+            }
+        );
+        scenario(
+            "natureouvrage in",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.natureouvrageId().setIn(natureOuvrageIds.subList(0, 2));
+                return criteria;
+            }
+        );
+        scenario(
+            "macon equals, dateFinTravaux range",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.maconId().setEquals(maconIds.get(0));
+                criteria.dateFinTravaux().setGreaterThanOrEqual(middle);
+                return criteria;
+            }
+        );
+        scenario(
+            "prevision in, natureouvrage equals, macon specified",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.previsionId().setIn(previsionIds.subList(0, Math.min(10, previsionIds.size())));
+                criteria.natureouvrageId().setEquals(natureOuvrageIds.get(0));
+                criteria.maconId().setSpecified(true);
+                return criteria;
+            }
+        );
+        scenario(
+            "natureouvrage equals, dateRemiseDevis range",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.natureouvrageId().setEquals(natureOuvrageIds.get(1));
+                criteria.dateRemiseDevis().setGreaterThanOrEqual(middle);
+                criteria.dateRemiseDevis().setLessThan(middle.plus(90, ChronoUnit.DAYS));
+                return criteria;
+            }
+        );
+        scenario(
+            "without macon",
+            () -> {
+                FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+                criteria.maconId().setSpecified(false);
+                return criteria;
+            }
+        );
+    }
+
+    private void scenario(String name, Supplier<FicheSuiviOuvrageCriteria> criteria) {
+        long matched = ficheSuiviOuvrageQueryService.countByCriteria(criteria.get());
+        Page<FicheSuiviOuvrageDTO> page = (Page<FicheSuiviOuvrageDTO>) ficheSuiviOuvrageQueryService.findByCriteria(
+            criteria.get(),
+            PAGE,
+            CountMode.EXACT
+        );
+        assertThat(page.getTotalElements()).as(name).isEqualTo(matched);
+        assertThat(page.getContent()).as(name).hasSize((int) Math.min(matched, PAGE.getPageSize()));
+
+        measure(name, "findByCriteria", matched, c -> ficheSuiviOuvrageQueryService.findByCriteria(c, PAGE, CountMode.EXACT), criteria);
+        measure(name, "countByCriteria", matched, ficheSuiviOuvrageQueryService::countByCriteria, criteria);
+    }
+
+    private void measure(
+        String name,
+        String operation,
+        long matched,
+        Function<FicheSuiviOuvrageCriteria, ?> query,
+        Supplier<FicheSuiviOuvrageCriteria> criteria
+    ) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.apply(criteria.get());
+        }
+        hibernateStatisticsService.clear();
+        long[] durations = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            FicheSuiviOuvrageCriteria c = criteria.get();
+            long start = System.nanoTime();
+            query.apply(c);
+            durations[i] = System.nanoTime() - start;
+        }
+        HibernateStatisticsDTO statistics = hibernateStatisticsService.getStatistics(Integer.MAX_VALUE);
+        long queryRows = statistics.getSlowestQueries().stream().mapToLong(HibernateStatisticsDTO.Query::getExecutionRowCount).sum();
+        long rowsFetched = queryRows + statistics.getEntityLoadCount() + statistics.getEntityFetchCount();
+
+        Arrays.sort(durations);
+        results.add(
+            String.format(
+                Locale.ROOT,
+                "%s;%s;%d;%.2f;%.2f;%.2f;%.2f;%.1f;%.1f",
+                name,
+                operation,
+                matched,
+                percentile(durations, 0.50),
+                percentile(durations, 0.90),
+                percentile(durations, 0.99),
+                durations[durations.length - 1] / 1e6,
+                (double) statistics.getPrepareStatementCount() / ITERATIONS,
+                (double) rowsFetched / ITERATIONS
+            )
+        );
+    }
+
+    private static double percentile(long[] sortedDurations, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedDurations.length) - 1;
+        return sortedDurations[Math.max(index, 0)] / 1e6;
+    }
+
+    private <T> T persist(T entity) {
+        em.persist(entity);
+        return entity;
+    }
+
+    private <T> T reference(Class<T> entityClass, List<Long> ids, Random random) {
+        return em.getReference(entityClass, ids.get(random.nextInt(ids.size())));
+    }
+}
@@ -0,0 +1,70 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.Annee;
+import com.sidot.gesteau.service.dto.HibernateStatisticsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link HibernateStatisticsService}.
+ */
+@IntegrationTest
+@Transactional
+class HibernateStatisticsServiceIT {
+
+    @Autowired
+    private HibernateStatisticsService hibernateStatisticsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @AfterEach
+    public void disableStatistics() {
+        hibernateStatisticsService.setEnabled(false);
+        hibernateStatisticsService.clear();
+    }
+
+    @Test
+    void statisticsAreCollectedOnlyWhenEnabled() {
+        Annee annee = new Annee().libelle("AAAAAAAAAA");
+        em.persist(annee);
+        em.flush();
+        em.clear();
+
+        hibernateStatisticsService.clear();
+        em.find(Annee.class, annee.getId());
+        em.clear();
+        assertThat(hibernateStatisticsService.isEnabled()).isFalse();
+        assertThat(hibernateStatisticsService.getStatistics(20).getEntityLoadCount()).isZero();
+
+        hibernateStatisticsService.setEnabled(true);
+        em.find(Annee.class, annee.getId());
+        em.createQuery("select annee from Annee annee where annee.id = :id", Annee.class).setParameter("id", annee.getId()).getResultList();
+
+        HibernateStatisticsDTO statistics = hibernateStatisticsService.getStatistics(20);
+        assertThat(statistics.isEnabled()).isTrue();
+        assertThat(statistics.getEntityLoadCount()).isPositive();
+        assertThat(statistics.getQueryExecutionCount()).isPositive();
+        assertThat(statistics.getSlowestQueries())
+            .filteredOn(query -> query.getQuery().contains("from Annee annee"))
+            .singleElement()
+            .satisfies(
+                query -> {
+                    assertThat(query.getExecutionCount()).isEqualTo(1);
+                    assertThat(query.getExecutionRowCount()).isEqualTo(1);
+                }
+            );
+        assertThat(meterRegistry.get("hibernate.statistics.entities").tag("operation", "load").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("hibernate.statistics.queries").functionCounter().count()).isPositive();
+    }
+}
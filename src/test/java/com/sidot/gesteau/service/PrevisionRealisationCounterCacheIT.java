@@ -0,0 +1,132 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.PrevisionRealisationCounter;
+import com.sidot.gesteau.repository.PrevisionRealisationCounterRepository;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the in-memory counters of {@link PrevisionRealisationCounterService}, whose writes really commit.
+ */
+@IntegrationTest
+class PrevisionRealisationCounterCacheIT {
+
+    @Autowired
+    private PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    @Autowired
+    private PrevisionRealisationCounterRepository previsionRealisationCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Prevision prevision;
+
+    private NatureOuvrage natureOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                prevision = createPrevision();
+                em.persist(prevision);
+                natureOuvrage = createNatureOuvrage();
+                em.persist(natureOuvrage);
+            }
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                previsionRealisationCounterRepository.deleteByPrevisionId(prevision.getId());
+                em.remove(em.find(Prevision.class, prevision.getId()));
+                em.remove(em.find(NatureOuvrage.class, natureOuvrage.getId()));
+            }
+        );
+    }
+
+    @Test
+    void countersLoadedBeforeACommitGetItsDelta() {
+        assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId())).isEmpty();
+
+        count();
+
+        assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId()))
+            .extracting("natureOuvrageId", "realised")
+            .containsExactly(tuple(natureOuvrage.getId(), 1L));
+    }
+
+    @Test
+    void countersReloadedBetweenACommitAndItsDeltaCountItOnce() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                // Registered first, so that the counters are reloaded once committed, before the delta is applied
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            TransactionTemplate reload = new TransactionTemplate(transactionManager);
+                            reload.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                            reload.executeWithoutResult(
+                                reloadStatus ->
+                                    assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId()))
+                                        .extracting("natureOuvrageId", "realised")
+                                        .containsExactly(tuple(natureOuvrage.getId(), 1L))
+                            );
+                        }
+                    }
+                );
+                previsionRealisationCounterService.move(null, key());
+            }
+        );
+
+        assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId()))
+            .extracting("natureOuvrageId", "realised")
+            .containsExactly(tuple(natureOuvrage.getId(), 1L));
+
+        // The counters reloaded afterwards follow the next commits
+        count();
+
+        assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId()))
+            .extracting("natureOuvrageId", "realised")
+            .containsExactly(tuple(natureOuvrage.getId(), 2L));
+    }
+
+    private void count() {
+        transactionTemplate.executeWithoutResult(status -> previsionRealisationCounterService.move(null, key()));
+    }
+
+    private PrevisionRealisationCounter.Key key() {
+        return new PrevisionRealisationCounter.Key(prevision.getId(), natureOuvrage.getId());
+    }
+
+    private static Prevision createPrevision() {
+        return new Prevision().nbLatrine(1).nbPuisard(1).nbPublic(1).nbScolaire(1);
+    }
+
+    private static NatureOuvrage createNatureOuvrage() {
+        return new NatureOuvrage().libelle("AAAAAAAAAA");
+    }
+}
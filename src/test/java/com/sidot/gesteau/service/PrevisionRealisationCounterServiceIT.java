@@ -0,0 +1,169 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.repository.PrevisionRealisationCounterRepository;
+import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
+import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import org.assertj.core.api.MapAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link PrevisionRealisationCounterService}.
+ */
+@IntegrationTest
+@Transactional
+class PrevisionRealisationCounterServiceIT {
+
+    @Autowired
+    private PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    @Autowired
+    private PrevisionRealisationCounterRepository previsionRealisationCounterRepository;
+
+    @Autowired
+    private FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    @Autowired
+    private FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    private Prevision prevision;
+
+    private Prevision otherPrevision;
+
+    private NatureOuvrage natureOuvrage;
+
+    private NatureOuvrage otherNatureOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        prevision = createPrevision();
+        em.persist(prevision);
+        otherPrevision = createPrevision();
+        em.persist(otherPrevision);
+        natureOuvrage = createNatureOuvrage();
+        em.persist(natureOuvrage);
+        otherNatureOuvrage = createNatureOuvrage();
+        em.persist(otherNatureOuvrage);
+        em.flush();
+    }
+
+    @Test
+    void countersFollowTheFicheSuiviOuvrages() {
+        FicheSuiviOuvrageDTO first = ficheSuiviOuvrageService.save(createDto(prevision, natureOuvrage));
+        FicheSuiviOuvrageDTO second = ficheSuiviOuvrageService.save(createDto(prevision, natureOuvrage));
+        assertThatCounters(prevision).containsOnly(entry(natureOuvrage.getId(), 2L));
+
+        // Reassign a ficheSuiviOuvrage to another nature
+        second.setNatureouvrage(toDto(otherNatureOuvrage));
+        ficheSuiviOuvrageService.save(second);
+        assertThatCounters(prevision).containsOnly(entry(natureOuvrage.getId(), 1L), entry(otherNatureOuvrage.getId(), 1L));
+
+        // Reassign a ficheSuiviOuvrage to another prevision
+        FicheSuiviOuvrageDTO patch = new FicheSuiviOuvrageDTO();
+        patch.setId(first.getId());
+        patch.setPrevision(toDto(otherPrevision));
+        ficheSuiviOuvrageService.partialUpdate(patch);
+        assertThatCounters(prevision).containsOnly(entry(otherNatureOuvrage.getId(), 1L));
+        assertThatCounters(otherPrevision).containsOnly(entry(natureOuvrage.getId(), 1L));
+
+        // The counter of the last ficheSuiviOuvrage deleted is removed
+        ficheSuiviOuvrageService.delete(first.getId());
+        assertThatCounters(otherPrevision).isEmpty();
+        assertThat(previsionRealisationCounterService.reconcile(prevision.getId())).isFalse();
+        assertThat(previsionRealisationCounterService.reconcile(otherPrevision.getId())).isFalse();
+    }
+
+    @Test
+    void reconcileRebuildsDriftedCounters() {
+        em.persist(createFicheSuiviOuvrage().prevision(prevision).natureouvrage(natureOuvrage));
+        em.flush();
+        assertThatCounters(prevision).isEmpty();
+
+        assertThat(previsionRealisationCounterService.reconcile(prevision.getId())).isTrue();
+
+        assertThatCounters(prevision).containsOnly(entry(natureOuvrage.getId(), 1L));
+        assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId()))
+            .extracting("natureOuvrageId", "realised")
+            .containsExactly(tuple(natureOuvrage.getId(), 1L));
+    }
+
+    private MapAssert<Long, Long> assertThatCounters(Prevision prevision) {
+        Map<Long, Long> realisedByNature = new HashMap<>();
+        for (Object[] row : previsionRealisationCounterRepository.findRealisedByPrevisionId(prevision.getId())) {
+            realisedByNature.put((Long) row[0], (Long) row[1]);
+        }
+        return assertThat(realisedByNature);
+    }
+
+    private FicheSuiviOuvrageDTO createDto(Prevision prevision, NatureOuvrage natureOuvrage) {
+        FicheSuiviOuvrage ficheSuiviOuvrage = createFicheSuiviOuvrage();
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+        ficheSuiviOuvrageDTO.setPrevision(toDto(prevision));
+        ficheSuiviOuvrageDTO.setNatureouvrage(toDto(natureOuvrage));
+        return ficheSuiviOuvrageDTO;
+    }
+
+    private static PrevisionDTO toDto(Prevision prevision) {
+        PrevisionDTO previsionDTO = new PrevisionDTO();
+        previsionDTO.setId(prevision.getId());
+        return previsionDTO;
+    }
+
+    private static NatureOuvrageDTO toDto(NatureOuvrage natureOuvrage) {
+        NatureOuvrageDTO natureOuvrageDTO = new NatureOuvrageDTO();
+        natureOuvrageDTO.setId(natureOuvrage.getId());
+        return natureOuvrageDTO;
+    }
+
+    private static Prevision createPrevision() {
+        return new Prevision().nbLatrine(1).nbPuisard(1).nbPublic(1).nbScolaire(1);
+    }
+
+    private static NatureOuvrage createNatureOuvrage() {
+        return new NatureOuvrage().libelle("AAAAAAAAAA");
+    }
+
+    private static FicheSuiviOuvrage createFicheSuiviOuvrage() {
+        return new FicheSuiviOuvrage()
+            .prjAppuis("AAAAAAAAAA")
+            .nomBenef("AAAAAAAAAA")
+            .prenomBenef("AAAAAAAAAA")
+            .professionBenef("AAAAAAAAAA")
+            .nbUsagers(1L)
+            .contacts("AAAAAAAAAA")
+            .longitude(1F)
+            .latitude(1F)
+            .dateRemiseDevis(Instant.ofEpochMilli(0L))
+            .dateDebutTravaux(Instant.ofEpochMilli(0L))
+            .dateFinTravaux(Instant.ofEpochMilli(0L))
+            .rue("AAAAAAAAAA")
+            .porte(1)
+            .coutMenage("AAAAAAAAAA")
+            .subvOnea(1)
+            .subvProjet(1)
+            .autreSubv(1)
+            .toles(1)
+            .animateur("AAAAAAAAAA")
+            .superviseur("AAAAAAAAAA")
+            .controleur("AAAAAAAAAA");
+    }
+}
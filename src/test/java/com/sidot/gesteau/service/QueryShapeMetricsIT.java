@@ -0,0 +1,126 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.Annee;
+import com.sidot.gesteau.service.criteria.AnneeCriteria;
+import com.sidot.gesteau.service.criteria.CountMode;
+import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
+import com.sidot.gesteau.service.dto.QueryShapeDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link QueryShapeMetrics}.
+ */
+@IntegrationTest
+@Transactional
+@TestPropertySource(properties = { "application.criteria-cache.enabled=true", "application.criteria-cache.count.enabled=true" })
+class QueryShapeMetricsIT {
+
+    @Autowired
+    private QueryShapeMetrics queryShapeMetrics;
+
+    @Autowired
+    private AnneeQueryService anneeQueryService;
+
+    @Autowired
+    private FicheSuiviOuvrageQueryService ficheSuiviOuvrageQueryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void shapeOfIgnoresFilterValues() {
+        AnneeCriteria criteria = new AnneeCriteria();
+        criteria.libelle().setContains("AAA");
+        criteria.id().setIn(List.of(1L, 2L));
+        criteria.previsionId().setSpecified(false);
+
+        AnneeCriteria otherCriteria = new AnneeCriteria();
+        otherCriteria.previsionId().setSpecified(false);
+        otherCriteria.id().setIn(List.of(3L));
+        otherCriteria.libelle().setContains("BBB");
+
+        assertThat(queryShapeMetrics.shapeOf(criteria)).isEqualTo("id.in,libelle.contains,previsionId.specified=false");
+        assertThat(queryShapeMetrics.shapeOf(otherCriteria)).isEqualTo(queryShapeMetrics.shapeOf(criteria));
+        assertThat(queryShapeMetrics.shapeOf(new AnneeCriteria())).isEqualTo(QueryShapeMetrics.NO_FILTER_SHAPE);
+        assertThat(queryShapeMetrics.shapeOf(null)).isEqualTo(QueryShapeMetrics.NO_FILTER_SHAPE);
+    }
+
+    @Test
+    void queryServicesAreRecordedPerShape() {
+        Annee annee = new Annee().libelle("AAAAAAAAAA");
+        em.persist(annee);
+        em.flush();
+        AnneeCriteria criteria = new AnneeCriteria();
+        criteria.id().setEquals(annee.getId());
+        criteria.id().setGreaterThan(0L);
+
+        assertThat(anneeQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(anneeQueryService.findByCriteria(criteria, PageRequest.of(0, 10), CountMode.EXACT)).hasSize(1);
+
+        String shape = "id.equals,id.greaterThan";
+        assertThat(meterRegistry.find(QueryShapeMetrics.TIMER_NAME).tag("shape", shape).timers())
+            .extracting(timer -> timer.getId().getTag("criteria"), timer -> timer.getId().getTag("operation"))
+            .contains(tuple("AnneeCriteria", "countByCriteria"), tuple("AnneeCriteria", "findByCriteria"));
+        assertThat(meterRegistry.find(QueryShapeMetrics.TIMER_NAME).timers())
+            .allSatisfy(timer -> assertThat(timer.getId().getTag("shape")).doesNotContain(String.valueOf(annee.getId())));
+
+        List<QueryShapeDTO> slowest = queryShapeMetrics.findSlowest(Integer.MAX_VALUE);
+        assertThat(slowest).extracting(QueryShapeDTO::getShape).contains(shape);
+        assertThat(slowest)
+            .filteredOn(queryShape -> shape.equals(queryShape.getShape()) && "countByCriteria".equals(queryShape.getOperation()))
+            .singleElement()
+            .satisfies(queryShape -> assertThat(queryShape.getMeanRows()).isEqualTo(1));
+        assertThat(slowest).isSortedAccordingTo((a, b) -> Double.compare(b.getMeanTimeMillis(), a.getMeanTimeMillis()));
+    }
+
+    @Test
+    void cacheHitsAreRecordedApart() {
+        AnneeCriteria criteria = new AnneeCriteria();
+        criteria.libelle().setEquals("query-shape-" + System.nanoTime());
+        long database = countQueries("libelle.equals", QueryShapeMetrics.DATABASE_SOURCE);
+        long cache = countQueries("libelle.equals", QueryShapeMetrics.CACHE_SOURCE);
+
+        assertThat(anneeQueryService.countByCriteria(criteria)).isZero();
+        assertThat(anneeQueryService.countByCriteria(criteria)).isZero();
+
+        assertThat(countQueries("libelle.equals", QueryShapeMetrics.DATABASE_SOURCE)).isEqualTo(database + 1);
+        assertThat(countQueries("libelle.equals", QueryShapeMetrics.CACHE_SOURCE)).isEqualTo(cache + 1);
+        assertThat(queryShapeMetrics.findSlowest(Integer.MAX_VALUE))
+            .filteredOn(queryShape -> "libelle.equals".equals(queryShape.getShape()) && "AnneeCriteria".equals(queryShape.getCriteria()))
+            .extracting(QueryShapeDTO::getSource)
+            .contains(QueryShapeMetrics.DATABASE_SOURCE, QueryShapeMetrics.CACHE_SOURCE);
+    }
+
+    @Test
+    void streamingQueriesAreNotRecorded() {
+        FicheSuiviOuvrageCriteria criteria = new FicheSuiviOuvrageCriteria();
+        criteria.id().setEquals(Long.MAX_VALUE);
+
+        assertThat(ficheSuiviOuvrageQueryService.forEachByCriteria(criteria, 10, ficheSuiviOuvrage -> {})).isZero();
+
+        assertThat(meterRegistry.find(QueryShapeMetrics.TIMER_NAME).tag("operation", "forEachByCriteria").timers()).isEmpty();
+    }
+
+    private long countQueries(String shape, String source) {
+        Timer timer = meterRegistry
+            .find(QueryShapeMetrics.TIMER_NAME)
+            .tags("criteria", "AnneeCriteria", "operation", "countByCriteria", "shape", shape, "source", source)
+            .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.SearchIndexEvent;
+import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.repository.search.MaconSearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link SearchIndexRelay}.
+ */
+@IntegrationTest
+@Transactional
+class SearchIndexRelayIT {
+
+    private static final Long DELETED_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private SearchIndexOutbox searchIndexOutbox;
+
+    @Autowired
+    private SearchIndexRelay searchIndexRelay;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private MaconRepository maconRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * This repository is mocked in the com.sidot.gesteau.repository.search test package.
+     *
+     * @see com.sidot.gesteau.repository.search.MaconSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private MaconSearchRepository mockMaconSearchRepository;
+
+    private Macon macon;
+
+    @BeforeEach
+    public void initTest() {
+        macon = maconRepository.saveAndFlush(new Macon().libelle("AAAAAAAAAA"));
+    }
+
+    @Test
+    void relayIndexesCoalescedEventsInOneBulkRequest() {
+        searchIndexOutbox.enqueue(Macon.class, macon.getId());
+        searchIndexOutbox.enqueue(Macon.class, macon.getId());
+
+        assertThat(searchIndexRelay.drain()).isEqualTo(2);
+
+        verify(mockMaconSearchRepository, times(1)).saveAll(List.of(macon));
+        verify(mockMaconSearchRepository, times(0)).deleteById(anyLong());
+        assertThat(searchIndexEventRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void relayRemovesDocumentsOfDeletedEntities() {
+        searchIndexOutbox.enqueue(Macon.class, DELETED_ID);
+
+        assertThat(searchIndexRelay.drain()).isEqualTo(1);
+
+        verify(mockMaconSearchRepository, times(0)).saveAll(anyIterable());
+        verify(mockMaconSearchRepository, times(1)).deleteById(DELETED_ID);
+        assertThat(searchIndexEventRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void relayRetriesFailedEventsLater() {
+        when(mockMaconSearchRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("Elasticsearch unavailable"));
+        searchIndexOutbox.enqueue(Macon.class, macon.getId());
+
+        assertThat(searchIndexRelay.drain()).isEqualTo(1);
+
+        List<SearchIndexEvent> events = searchIndexEventRepository.findAll();
+        assertThat(events).hasSize(1);
+        SearchIndexEvent event = events.get(0);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(event.getLastError()).isEqualTo("Elasticsearch unavailable");
+
+        // The event is not due again before its backoff
+        assertThat(searchIndexRelay.drain()).isZero();
+    }
+
+    @Test
+    void lagIsReadFromThePendingEventsWithoutDraining() {
+        double pending = meterRegistry.get("search.index.pending").gauge().value();
+        Instant anHourAgo = Instant.now().minus(Duration.ofHours(1));
+        SearchIndexEvent event = new SearchIndexEvent()
+            .entityType(Macon.class.getSimpleName())
+            .entityId(macon.getId())
+            .createdDate(anHourAgo)
+            .nextAttemptAt(anHourAgo);
+        searchIndexEventRepository.saveAndFlush(event);
+
+        assertThat(meterRegistry.get("search.index.pending").gauge().value()).isEqualTo(pending + 1);
+        assertThat(meterRegistry.get("search.index.lag").gauge().value()).isGreaterThanOrEqualTo(Duration.ofHours(1).getSeconds());
+    }
+}
@@ -0,0 +1,113 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.repository.search.MaconSearchRepository;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the locking of the outbox by {@link SearchIndexRelay}, whose batches really commit.
+ */
+@IntegrationTest
+class SearchIndexRelayLockingIT {
+
+    @Autowired
+    private SearchIndexOutbox searchIndexOutbox;
+
+    @Autowired
+    private SearchIndexRelay searchIndexRelay;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private MaconRepository maconRepository;
+
+    /**
+     * This repository is mocked in the com.sidot.gesteau.repository.search test package.
+     *
+     * @see com.sidot.gesteau.repository.search.MaconSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private MaconSearchRepository mockMaconSearchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    private Macon macon;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadExecutor();
+        searchIndexEventRepository.deleteAll();
+        macon = maconRepository.saveAndFlush(new Macon().libelle("AAAAAAAAAA"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        executor.shutdownNow();
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                maconRepository.deleteById(macon.getId());
+                searchIndexEventRepository.deleteAll();
+            }
+        );
+    }
+
+    @Test
+    void concurrentRelaysIndexAnEventOnce() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> searchIndexOutbox.enqueue(Macon.class, macon.getId()));
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<Integer> concurrentDrain = new CompletableFuture<>();
+        when(mockMaconSearchRepository.saveAll(anyIterable()))
+            .thenAnswer(
+                invocation -> {
+                    // The second relay polls the outbox while the first one holds the lock on the event
+                    if (started.compareAndSet(false, true)) {
+                        executor.execute(() -> drain(concurrentDrain));
+                        try {
+                            concurrentDrain.get(200, TimeUnit.MILLISECONDS);
+                        } catch (TimeoutException e) {
+                            // Waiting for the lock, without SKIP LOCKED
+                        }
+                    }
+                    return invocation.getArgument(0);
+                }
+            );
+
+        assertThat(searchIndexRelay.drain()).isEqualTo(1);
+        assertThat(concurrentDrain.get(10, TimeUnit.SECONDS)).isZero();
+
+        verify(mockMaconSearchRepository, times(1)).saveAll(anyIterable());
+        assertThat(searchIndexEventRepository.findAll()).isEmpty();
+    }
+
+    private void drain(CompletableFuture<Integer> result) {
+        try {
+            result.complete(searchIndexRelay.drain());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
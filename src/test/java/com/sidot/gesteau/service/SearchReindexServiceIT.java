@@ -0,0 +1,122 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.SearchReindexPartition;
+import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.repository.SearchReindexPartitionRepository;
+import com.sidot.gesteau.repository.search.MaconSearchRepository;
+import com.sidot.gesteau.service.dto.SearchReindexJobDTO;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SearchReindexService}.
+ * <p>
+ * Not transactional: the partitions are read by worker threads, which only see committed rows.
+ */
+@IntegrationTest
+class SearchReindexServiceIT {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Autowired
+    private SearchReindexService searchReindexService;
+
+    @Autowired
+    private SearchReindexPartitionRepository searchReindexPartitionRepository;
+
+    @Autowired
+    private MaconRepository maconRepository;
+
+    /**
+     * This repository is mocked in the com.sidot.gesteau.repository.search test package.
+     *
+     * @see com.sidot.gesteau.repository.search.MaconSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private MaconSearchRepository mockMaconSearchRepository;
+
+    private List<Macon> macons;
+
+    @BeforeEach
+    public void initTest() {
+        macons =
+            maconRepository.saveAll(
+                List.of(new Macon().libelle("AAAAAAAAAA"), new Macon().libelle("BBBBBBBBBB"), new Macon().libelle("CCCCCCCCCC"))
+            );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        maconRepository.deleteAll(macons);
+        searchReindexPartitionRepository.deleteAll();
+    }
+
+    @Test
+    void reindexSendsAllRows() throws Exception {
+        searchReindexService.reindex("Macon", false);
+
+        SearchReindexJobDTO job = awaitJob("Macon");
+        assertThat(job.getState()).isEqualTo(SearchReindexJobDTO.State.COMPLETED);
+        assertThat(job.isResumed()).isFalse();
+        assertThat(job.getIndexed()).isEqualTo(maconRepository.count());
+        assertThat(job.getCompletedPartitions()).isEqualTo(job.getPartitions());
+        verify(mockMaconSearchRepository, atLeastOnce()).saveAll(anyIterable());
+        assertThat(searchReindexPartitionRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void reindexResumesFromCheckpoint() throws Exception {
+        Macon first = macons.get(0);
+        Macon last = macons.get(macons.size() - 1);
+        searchReindexPartitionRepository.saveAndFlush(
+            new SearchReindexPartition()
+                .entityType("Macon")
+                .rangeStart(first.getId() - 1)
+                .rangeEnd(last.getId())
+                .lastId(last.getId() - 1)
+                .indexed(2)
+                .completed(false)
+                .lastModifiedDate(Instant.now())
+        );
+
+        searchReindexService.reindex("Macon", false);
+
+        SearchReindexJobDTO job = awaitJob("Macon");
+        assertThat(job.getState()).isEqualTo(SearchReindexJobDTO.State.COMPLETED);
+        assertThat(job.isResumed()).isTrue();
+        assertThat(job.getIndexed()).isEqualTo(3);
+        verify(mockMaconSearchRepository, times(1)).saveAll(List.of(last));
+    }
+
+    @Test
+    void reindexUnknownEntity() {
+        assertThatThrownBy(() -> searchReindexService.reindex("Unknown", false)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SearchReindexJobDTO awaitJob(String entityType) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            for (SearchReindexJobDTO job : searchReindexService.findAll()) {
+                if (
+                    job.getEntityType().equals(entityType) &&
+                    job.getState() != SearchReindexJobDTO.State.QUEUED &&
+                    job.getState() != SearchReindexJobDTO.State.RUNNING
+                ) {
+                    return job;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Reindex of " + entityType + " did not finish in time");
+    }
+}
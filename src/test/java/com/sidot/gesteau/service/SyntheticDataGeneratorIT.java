@@ -0,0 +1,85 @@
+package com.sidot.gesteau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.config.ApplicationProperties;
+import com.sidot.gesteau.domain.Centre;
+import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.Prevision;
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link SyntheticDataGenerator}.
+ */
+@IntegrationTest
+@Transactional
+class SyntheticDataGeneratorIT {
+
+    private static final String GENERATED = " where f.prevision.centre.libelle like 'Centre %'";
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void generatesTheHierarchyAndSkewedFicheSuiviOuvrages() {
+        ApplicationProperties.SyntheticData settings = new ApplicationProperties.SyntheticData();
+        settings.setDirections(2);
+        settings.setRegroupementsPerDirection(2);
+        settings.setCentresPerRegroupement(3);
+        settings.setFirstYear(2016);
+        settings.setYears(3);
+        settings.setMacons(10);
+        settings.setFiches(1000);
+        settings.setBatchSize(100);
+        settings.setReindex(false);
+        long directionsBefore = count(DirectionRegionale.class);
+        long centresBefore = count(Centre.class);
+        long previsionsBefore = count(Prevision.class);
+        long fichesBefore = count(FicheSuiviOuvrage.class);
+
+        assertThat(syntheticDataGenerator.generate(settings)).isEqualTo(1000);
+
+        assertThat(count(DirectionRegionale.class)).isEqualTo(directionsBefore + 2);
+        assertThat(count(Centre.class)).isEqualTo(centresBefore + 12);
+        assertThat(count(Prevision.class)).isEqualTo(previsionsBefore + 12);
+        assertThat(count(FicheSuiviOuvrage.class)).isEqualTo(fichesBefore + 1000);
+
+        List<Long> fichesPerPrevision = em
+            .createQuery(
+                "select count(f) from FicheSuiviOuvrage f" + GENERATED + " group by f.prevision.id order by count(f) desc",
+                Long.class
+            )
+            .getResultList();
+        assertThat(fichesPerPrevision).hasSize(12);
+        assertThat(fichesPerPrevision.get(0)).isGreaterThan(3 * fichesPerPrevision.get(fichesPerPrevision.size() - 1));
+
+        Object[] ranges = em
+            .createQuery(
+                "select min(f.dateRemiseDevis), max(f.dateRemiseDevis), min(f.latitude), max(f.latitude)," +
+                " min(f.longitude), max(f.longitude) from FicheSuiviOuvrage f" +
+                GENERATED,
+                Object[].class
+            )
+            .getSingleResult();
+        assertThat((Instant) ranges[0]).isAfterOrEqualTo(Instant.parse("2016-01-01T00:00:00Z"));
+        assertThat((Instant) ranges[1]).isBefore(Instant.parse("2019-01-01T00:00:00Z"));
+        assertThat((Float) ranges[2]).isGreaterThanOrEqualTo(9.4f);
+        assertThat((Float) ranges[3]).isLessThanOrEqualTo(15.1f);
+        assertThat((Float) ranges[4]).isGreaterThanOrEqualTo(-5.5f);
+        assertThat((Float) ranges[5]).isLessThanOrEqualTo(2.4f);
+    }
+
+    private long count(Class<?> entityClass) {
+        return em.createQuery("select count(e) from " + entityClass.getSimpleName() + " e", Long.class).getSingleResult();
+    }
+}
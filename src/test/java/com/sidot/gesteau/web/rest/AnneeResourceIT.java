@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.Annee;
 import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.AnneeRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.AnneeSearchRepository;
 import com.sidot.gesteau.service.criteria.AnneeCriteria;
 import com.sidot.gesteau.service.dto.AnneeDTO;
@@ -67,6 +70,9 @@ class AnneeResourceIT {
     @Autowired
     private AnneeSearchRepository mockAnneeSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +124,10 @@ class AnneeResourceIT {
         Annee testAnnee = anneeList.get(anneeList.size() - 1);
         assertThat(testAnnee.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository, times(1)).save(testAnnee);
+        // Validate the Annee indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Annee", testAnnee.getId()));
     }
 
     @Test
@@ -308,6 +316,23 @@ class AnneeResourceIT {
         defaultAnneeShouldNotBeFound("previsionId.equals=" + (previsionId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllAnneesByPrevisionIsNull() throws Exception {
+        // Initialize the database
+        anneeRepository.saveAndFlush(annee);
+
+        // Get all the anneeList without prevision
+        defaultAnneeShouldBeFound("previsionId.specified=false");
+
+        Prevision prevision = PrevisionResourceIT.createEntity(em).annee(annee);
+        em.persist(prevision);
+        em.flush();
+
+        // Get all the anneeList without prevision, once the annee has one
+        defaultAnneeShouldNotBeFound("previsionId.specified=false");
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -382,8 +407,10 @@ class AnneeResourceIT {
         Annee testAnnee = anneeList.get(anneeList.size() - 1);
         assertThat(testAnnee.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository).save(testAnnee);
+        // Validate the Annee indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Annee", testAnnee.getId()));
     }
 
     @Test
@@ -609,8 +636,10 @@ class AnneeResourceIT {
         List<Annee> anneeList = anneeRepository.findAll();
         assertThat(anneeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository, times(1)).deleteById(annee.getId());
+        // Validate the Annee removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Annee", annee.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -11,7 +12,9 @@ import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.Centre;
 import com.sidot.gesteau.domain.CentreRegroupement;
 import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.CentreRegroupementRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.CentreRegroupementSearchRepository;
 import com.sidot.gesteau.service.criteria.CentreRegroupementCriteria;
 import com.sidot.gesteau.service.dto.CentreRegroupementDTO;
@@ -74,6 +77,9 @@ class CentreRegroupementResourceIT {
     @Autowired
     private CentreRegroupementSearchRepository mockCentreRegroupementSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -137,8 +143,10 @@ class CentreRegroupementResourceIT {
         assertThat(testCentreRegroupement.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testCentreRegroupement.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository, times(1)).save(testCentreRegroupement);
+        // Validate the CentreRegroupement indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("CentreRegroupement", testCentreRegroupement.getId()));
     }
 
     @Test
@@ -635,8 +643,10 @@ class CentreRegroupementResourceIT {
         assertThat(testCentreRegroupement.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testCentreRegroupement.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository).save(testCentreRegroupement);
+        // Validate the CentreRegroupement indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("CentreRegroupement", testCentreRegroupement.getId()));
     }
 
     @Test
@@ -874,8 +884,10 @@ class CentreRegroupementResourceIT {
         List<CentreRegroupement> centreRegroupementList = centreRegroupementRepository.findAll();
         assertThat(centreRegroupementList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository, times(1)).deleteById(centreRegroupement.getId());
+        // Validate the CentreRegroupement removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("CentreRegroupement", centreRegroupement.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -11,7 +12,9 @@ import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.Centre;
 import com.sidot.gesteau.domain.CentreRegroupement;
 import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.CentreRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.CentreSearchRepository;
 import com.sidot.gesteau.service.criteria.CentreCriteria;
 import com.sidot.gesteau.service.dto.CentreDTO;
@@ -74,6 +77,9 @@ class CentreResourceIT {
     @Autowired
     private CentreSearchRepository mockCentreSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -127,8 +133,10 @@ class CentreResourceIT {
         assertThat(testCentre.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testCentre.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository, times(1)).save(testCentre);
+        // Validate the Centre indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Centre", testCentre.getId()));
     }
 
     @Test
@@ -513,6 +521,23 @@ class CentreResourceIT {
         defaultCentreShouldNotBeFound("previsionId.equals=" + (previsionId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllCentresByPrevisionIsNull() throws Exception {
+        // Initialize the database
+        centreRepository.saveAndFlush(centre);
+
+        // Get all the centreList without prevision
+        defaultCentreShouldBeFound("previsionId.specified=false");
+
+        Prevision prevision = PrevisionResourceIT.createEntity(em).centre(centre);
+        em.persist(prevision);
+        em.flush();
+
+        // Get all the centreList without prevision, once the centre has one
+        defaultCentreShouldNotBeFound("previsionId.specified=false");
+    }
+
     @Test
     @Transactional
     void getAllCentresByCentreRegroupementIsEqualToSomething() throws Exception {
@@ -610,8 +635,10 @@ class CentreResourceIT {
         assertThat(testCentre.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testCentre.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository).save(testCentre);
+        // Validate the Centre indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Centre", testCentre.getId()));
     }
 
     @Test
@@ -841,8 +868,10 @@ class CentreResourceIT {
         List<Centre> centreList = centreRepository.findAll();
         assertThat(centreList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository, times(1)).deleteById(centre.getId());
+        // Validate the Centre removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Centre", centre.getId()));
     }
 
     @Test
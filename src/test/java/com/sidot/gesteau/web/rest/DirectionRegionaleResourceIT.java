@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.CentreRegroupement;
 import com.sidot.gesteau.domain.DirectionRegionale;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.DirectionRegionaleRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.DirectionRegionaleSearchRepository;
 import com.sidot.gesteau.service.criteria.DirectionRegionaleCriteria;
 import com.sidot.gesteau.service.dto.DirectionRegionaleDTO;
@@ -73,6 +76,9 @@ class DirectionRegionaleResourceIT {
     @Autowired
     private DirectionRegionaleSearchRepository mockDirectionRegionaleSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -136,8 +142,10 @@ class DirectionRegionaleResourceIT {
         assertThat(testDirectionRegionale.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testDirectionRegionale.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository, times(1)).save(testDirectionRegionale);
+        // Validate the DirectionRegionale indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("DirectionRegionale", testDirectionRegionale.getId()));
     }
 
     @Test
@@ -615,8 +623,10 @@ class DirectionRegionaleResourceIT {
         assertThat(testDirectionRegionale.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testDirectionRegionale.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository).save(testDirectionRegionale);
+        // Validate the DirectionRegionale indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("DirectionRegionale", testDirectionRegionale.getId()));
     }
 
     @Test
@@ -852,8 +862,10 @@ class DirectionRegionaleResourceIT {
         List<DirectionRegionale> directionRegionaleList = directionRegionaleRepository.findAll();
         assertThat(directionRegionaleList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository, times(1)).deleteById(directionRegionale.getId());
+        // Validate the DirectionRegionale removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("DirectionRegionale", directionRegionale.getId()));
     }
 
     @Test
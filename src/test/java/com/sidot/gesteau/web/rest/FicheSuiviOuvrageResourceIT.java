@@ -1,13 +1,21 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.config.ApplicationProperties;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.Macon;
 import com.sidot.gesteau.domain.ModeEvacExcreta;
@@ -15,13 +23,25 @@ import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
 import com.sidot.gesteau.domain.NatureOuvrage;
 import com.sidot.gesteau.domain.Prefabricant;
 import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.domain.SourceApprovEp;
 import com.sidot.gesteau.domain.TypeHabitation;
 import com.sidot.gesteau.repository.FicheSuiviOuvrageRepository;
+import com.sidot.gesteau.repository.PrevisionRealisationCounterRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.sidot.gesteau.service.FicheSuiviOuvrageClusterService;
+import com.sidot.gesteau.service.FicheSuiviOuvrageGeoService;
+import com.sidot.gesteau.service.FicheSuiviOuvrageService;
+import com.sidot.gesteau.service.PrevisionRealisationCounterService;
 import com.sidot.gesteau.service.criteria.FicheSuiviOuvrageCriteria;
 import com.sidot.gesteau.service.dto.FicheSuiviOuvrageDTO;
+import com.sidot.gesteau.service.dto.KeysetCursor;
+import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
+import com.sidot.gesteau.service.dto.PrevisionDTO;
 import com.sidot.gesteau.service.mapper.FicheSuiviOuvrageMapper;
+import com.sidot.gesteau.web.rest.errors.ErrorConstants;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
@@ -38,10 +58,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration tests for the {@link FicheSuiviOuvrageResource} REST controller.
@@ -144,6 +168,30 @@ class FicheSuiviOuvrageResourceIT {
     @Autowired
     private FicheSuiviOuvrageSearchRepository mockFicheSuiviOuvrageSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private FicheSuiviOuvrageGeoService ficheSuiviOuvrageGeoService;
+
+    @Autowired
+    private FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    @Autowired
+    private PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    @Autowired
+    private PrevisionRealisationCounterRepository previsionRealisationCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private EntityManager em;
 
@@ -261,8 +309,10 @@ class FicheSuiviOuvrageResourceIT {
         assertThat(testFicheSuiviOuvrage.getSuperviseur()).isEqualTo(DEFAULT_SUPERVISEUR);
         assertThat(testFicheSuiviOuvrage.getControleur()).isEqualTo(DEFAULT_CONTROLEUR);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository, times(1)).save(testFicheSuiviOuvrage);
+        // Validate the FicheSuiviOuvrage indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("FicheSuiviOuvrage", testFicheSuiviOuvrage.getId()));
     }
 
     @Test
@@ -766,6 +816,179 @@ class FicheSuiviOuvrageResourceIT {
             .andExpect(jsonPath("$.[*].controleur").value(hasItem(DEFAULT_CONTROLEUR)));
     }
 
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithAssociationIds() throws Exception {
+        // Initialize the database, the list is projected from the foreign keys without loading the associations
+        NatureOuvrage natureouvrage = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(natureouvrage);
+        ficheSuiviOuvrage.setNatureouvrage(natureouvrage);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        em.clear();
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(ficheSuiviOuvrage.getId().intValue()))
+            .andExpect(jsonPath("$.[0].nomBenef").value(DEFAULT_NOM_BENEF))
+            .andExpect(jsonPath("$.[0].natureouvrage.id").value(natureouvrage.getId().intValue()))
+            .andExpect(jsonPath("$.[0].natureouvrage.libelle").doesNotExist())
+            .andExpect(jsonPath("$.[0].prevision").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithCountMode() throws Exception {
+        // Initialize the database
+        FicheSuiviOuvrage second = createEntity(em);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageRepository.saveAndFlush(second);
+
+        // Without count, only the following page is linked
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?count=none&size=1&sort=id,asc&id.greaterThanOrEqual=" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ficheSuiviOuvrage.getId().intValue())))
+            .andExpect(header().string("X-Count-Mode", "none"))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+
+        // With an estimated count, the filtered total is counted up to the cap
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?count=estimated&size=1&sort=id,asc&id.greaterThanOrEqual=" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Count-Mode", "estimated"))
+            .andExpect(header().string("X-Total-Count", "2"));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Count-Mode", "exact"));
+
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_API_URL + "?count=approximate")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllFicheSuiviOuvragesNotModified() throws Exception {
+        // Initialize the database, committed so that the deletion below moves the listing to another version
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        try {
+            // Get the ficheSuiviOuvrages and the ETag of their listing
+            String eTag = restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+            // A committed write moves the listing to another version
+            restFicheSuiviOuvrageMockMvc
+                .perform(delete(ENTITY_API_URL_ID, ficheSuiviOuvrage.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(ficheSuiviOuvrage.getId().intValue()))));
+        } finally {
+            if (ficheSuiviOuvrageRepository.existsById(ficheSuiviOuvrage.getId())) {
+                ficheSuiviOuvrageRepository.deleteById(ficheSuiviOuvrage.getId());
+            }
+            searchIndexEventRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithCappedEstimatedCount() throws Exception {
+        // Initialize the database
+        FicheSuiviOuvrage second = createEntity(em);
+        FicheSuiviOuvrage third = createEntity(em);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageRepository.saveAndFlush(second);
+        ficheSuiviOuvrageRepository.saveAndFlush(third);
+
+        int countCap = applicationProperties.getPagination().getCountCap();
+        applicationProperties.getPagination().setCountCap(1);
+        try {
+            // More rows match than the cap: no total, only the following page is linked
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "?count=estimated&size=1&sort=id,asc&id.greaterThanOrEqual=" + ficheSuiviOuvrage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(ficheSuiviOuvrage.getId().intValue())))
+                .andExpect(header().string("X-Count-Mode", "capped"))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+
+            // The last page knows the total from its own rows
+            restFicheSuiviOuvrageMockMvc
+                .perform(
+                    get(ENTITY_API_URL + "?count=estimated&page=1&size=2&sort=id,asc&id.greaterThanOrEqual=" + ficheSuiviOuvrage.getId())
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())))
+                .andExpect(header().string("X-Count-Mode", "estimated"))
+                .andExpect(header().string("X-Total-Count", "3"));
+        } finally {
+            applicationProperties.getPagination().setCountCap(countCap);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithCursor() throws Exception {
+        // Initialize the database, the three fiches share the same sort key so that the id breaks the ties
+        FicheSuiviOuvrage second = createEntity(em);
+        FicheSuiviOuvrage third = createEntity(em);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageRepository.saveAndFlush(second);
+        ficheSuiviOuvrageRepository.saveAndFlush(third);
+
+        // Get the first page, the cursor of the following one is in the Link header
+        String link = restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=dateRemiseDevis,asc&id.greaterThanOrEqual=" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(ficheSuiviOuvrage.getId().intValue(), second.getId().intValue())))
+            .andExpect(header().string(HttpHeaders.LINK, endsWith("; rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+
+        // Get the last page
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(link.substring(link.indexOf('<') + 1, link.indexOf('>'))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithInvalidCursor() throws Exception {
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_API_URL + "?after=notacursor")).andExpect(status().isBadRequest());
+
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=rue,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesWithMalformedDateCursor() throws Exception {
+        String cursor = KeysetCursor.first("dateRemiseDevis", Sort.Direction.ASC).after(1L, "notadate").encode();
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + cursor))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+    }
+
     @Test
     @Transactional
     void getFicheSuiviOuvrage() throws Exception {
@@ -2797,6 +3020,160 @@ class FicheSuiviOuvrageResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvrages() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        Long id = ficheSuiviOuvrage.getId();
+
+        // Export as NDJSON, the default format
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/export?id.equals=" + id))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(startsWith("{\"id\":" + id + ",")))
+            .andExpect(content().string(endsWith("}\n")));
+
+        // Export as CSV
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + id))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(startsWith("id;prjAppuis;nomBenef;")))
+            .andExpect(content().string(containsString("\r\n" + id + ";" + DEFAULT_PRJ_APPUIS + ";" + DEFAULT_NOM_BENEF + ";")));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragesWithinBox() throws Exception {
+        // Initialize the database, the tests use the in-memory spatial index
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageGeoService.refresh();
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-box?south=0&west=0&north=2&east=2&nomBenef.equals=" + DEFAULT_NOM_BENEF))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())));
+
+        // The criteria filters apply to the ouvrages of the box
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-box?south=0&west=0&north=2&east=2&nomBenef.equals=" + UPDATED_NOM_BENEF))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(ficheSuiviOuvrage.getId().intValue()))));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-box?south=3&west=3&north=4&east=4"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(ficheSuiviOuvrage.getId().intValue()))));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-box?south=2&west=0&north=0&east=2"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragesWithinRadius() throws Exception {
+        // Initialize the database, the default ouvrage is about 11 km away from the center
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageGeoService.refresh();
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-radius?latitude=1.1&longitude=1&radius=20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-radius?latitude=1.1&longitude=1&radius=5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(ficheSuiviOuvrage.getId().intValue()))));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-radius?latitude=1&longitude=1&radius=-1"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getNearestFicheSuiviOuvrages() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        FicheSuiviOuvrage other = createEntity(em).latitude(UPDATED_LATITUDE).longitude(UPDATED_LONGITUDE);
+        ficheSuiviOuvrageRepository.saveAndFlush(other);
+        ficheSuiviOuvrageGeoService.refresh();
+        String ids = "&id.in=" + ficheSuiviOuvrage.getId() + "," + other.getId();
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/nearest?latitude=1.9&longitude=1.9&count=2" + ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(other.getId().intValue(), ficheSuiviOuvrage.getId().intValue())));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/nearest?latitude=1.9&longitude=1.9&count=1&id.in=" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ficheSuiviOuvrage.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragesWithinBoxBeyondTheInMemoryIndexCapacity() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        int memoryMaxPositions = applicationProperties.getGeo().getMemoryMaxPositions();
+        applicationProperties.getGeo().setMemoryMaxPositions(0);
+        try {
+            assertThatThrownBy(() -> ficheSuiviOuvrageGeoService.refresh()).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> ficheSuiviOuvrageGeoService.findWithinBox(0, 0, 2, 2, null, PageRequest.of(0, 20)))
+                .isInstanceOf(IllegalStateException.class);
+        } finally {
+            applicationProperties.getGeo().setMemoryMaxPositions(memoryMaxPositions);
+        }
+
+        ficheSuiviOuvrageGeoService.refresh();
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/within-box?south=0&west=0&north=2&east=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvrageClusters() throws Exception {
+        // Initialize the database
+        NatureOuvrage natureouvrage = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(natureouvrage);
+        ficheSuiviOuvrage.setNatureouvrage(natureouvrage);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        ficheSuiviOuvrageClusterService.refresh();
+        Long natureouvrageId = natureouvrage.getId();
+
+        // The whole world
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/clusters/0/0/0?natureouvrageId.equals=" + natureouvrageId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].count").value(contains(1)))
+            .andExpect(jsonPath("$.[*].latitude").value(contains(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(contains(DEFAULT_LONGITUDE.doubleValue())));
+
+        // The tile holding the default position at zoom 10, and its neighbour
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/clusters/10/514/509?natureouvrageId.equals=" + natureouvrageId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].count").value(contains(1)));
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/clusters/10/515/509?natureouvrageId.equals=" + natureouvrageId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "/clusters/0/0/0?natureouvrageId.equals=" + (natureouvrageId + 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_API_URL + "/clusters/1/2/0")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingFicheSuiviOuvrage() throws Exception {
@@ -2874,8 +3251,10 @@ class FicheSuiviOuvrageResourceIT {
         assertThat(testFicheSuiviOuvrage.getSuperviseur()).isEqualTo(UPDATED_SUPERVISEUR);
         assertThat(testFicheSuiviOuvrage.getControleur()).isEqualTo(UPDATED_CONTROLEUR);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository).save(testFicheSuiviOuvrage);
+        // Validate the FicheSuiviOuvrage indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("FicheSuiviOuvrage", testFicheSuiviOuvrage.getId()));
     }
 
     @Test
@@ -2894,7 +3273,8 @@ class FicheSuiviOuvrageResourceIT {
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.idnotfound"));
 
         // Validate the FicheSuiviOuvrage in the database
         List<FicheSuiviOuvrage> ficheSuiviOuvrageList = ficheSuiviOuvrageRepository.findAll();
@@ -2904,6 +3284,82 @@ class FicheSuiviOuvrageResourceIT {
         verify(mockFicheSuiviOuvrageSearchRepository, times(0)).save(ficheSuiviOuvrage);
     }
 
+    @Test
+    void putFicheSuiviOuvrageWithIfMatchMovesItsCountersAndCluster() throws Exception {
+        // Initialize the database, committed so that the counters and clusters follow the update once it commits
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Prevision prevision = PrevisionResourceIT.createEntity(em);
+        Prevision otherPrevision = PrevisionResourceIT.createEntity(em);
+        NatureOuvrage natureouvrage = NatureOuvrageResourceIT.createEntity(em);
+        NatureOuvrage otherNatureouvrage = NatureOuvrageResourceIT.createEntity(em);
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = transactionTemplate.execute(
+            status -> {
+                em.persist(prevision);
+                em.persist(otherPrevision);
+                em.persist(natureouvrage);
+                em.persist(otherNatureouvrage);
+                ficheSuiviOuvrage.prevision(prevision).natureouvrage(natureouvrage);
+                return ficheSuiviOuvrageService.save(ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage));
+            }
+        );
+        try {
+            ficheSuiviOuvrageClusterService.refresh();
+            long version = ficheSuiviOuvrageDTO.getVersion();
+            String eTag = "W/\"" + version + "\"";
+
+            // Reassign the ficheSuiviOuvrage to another prevision and nature
+            PrevisionDTO otherPrevisionDTO = new PrevisionDTO();
+            otherPrevisionDTO.setId(otherPrevision.getId());
+            NatureOuvrageDTO otherNatureouvrageDTO = new NatureOuvrageDTO();
+            otherNatureouvrageDTO.setId(otherNatureouvrage.getId());
+            ficheSuiviOuvrageDTO.setPrevision(otherPrevisionDTO);
+            ficheSuiviOuvrageDTO.setNatureouvrage(otherNatureouvrageDTO);
+            ficheSuiviOuvrageDTO.setVersion(null);
+
+            restFicheSuiviOuvrageMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, ficheSuiviOuvrageDTO.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageDTO))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (version + 1) + "\""))
+                .andExpect(jsonPath("$.version").value(version + 1))
+                .andExpect(jsonPath("$.prevision.id").value(otherPrevision.getId().intValue()));
+
+            // The realisation counters moved
+            assertThat(previsionRealisationCounterService.findByPrevision(prevision.getId())).isEmpty();
+            assertThat(previsionRealisationCounterService.findByPrevision(otherPrevision.getId()))
+                .extracting("natureOuvrageId", "realised")
+                .containsExactly(tuple(otherNatureouvrage.getId(), 1L));
+
+            // The cluster moved
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "/clusters/0/0/0?natureouvrageId.equals=" + natureouvrage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_API_URL + "/clusters/0/0/0?natureouvrageId.equals=" + otherNatureouvrage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].count").value(contains(1)));
+        } finally {
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    previsionRealisationCounterRepository.deleteByPrevisionId(prevision.getId());
+                    previsionRealisationCounterRepository.deleteByPrevisionId(otherPrevision.getId());
+                    ficheSuiviOuvrageRepository.deleteById(ficheSuiviOuvrageDTO.getId());
+                    em.remove(em.find(Prevision.class, prevision.getId()));
+                    em.remove(em.find(Prevision.class, otherPrevision.getId()));
+                    em.remove(em.find(NatureOuvrage.class, natureouvrage.getId()));
+                    em.remove(em.find(NatureOuvrage.class, otherNatureouvrage.getId()));
+                    searchIndexEventRepository.deleteAll();
+                }
+            );
+            ficheSuiviOuvrageClusterService.refresh();
+        }
+    }
+
     @Test
     @Transactional
     void putWithIdMismatchFicheSuiviOuvrage() throws Exception {
@@ -3101,7 +3557,8 @@ class FicheSuiviOuvrageResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.idnotfound"));
 
         // Validate the FicheSuiviOuvrage in the database
         List<FicheSuiviOuvrage> ficheSuiviOuvrageList = ficheSuiviOuvrageRepository.findAll();
@@ -3111,6 +3568,35 @@ class FicheSuiviOuvrageResourceIT {
         verify(mockFicheSuiviOuvrageSearchRepository, times(0)).save(ficheSuiviOuvrage);
     }
 
+    @Test
+    @Transactional
+    void patchFicheSuiviOuvrageWithOutdatedIfMatch() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        String eTag = "W/\"" + ficheSuiviOuvrage.getVersion() + "\"";
+
+        // Another client updates the ficheSuiviOuvrage, which moves it to another version
+        ficheSuiviOuvrage.setNomBenef(UPDATED_NOM_BENEF);
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+
+        FicheSuiviOuvrage partialUpdatedFicheSuiviOuvrage = new FicheSuiviOuvrage();
+        partialUpdatedFicheSuiviOuvrage.setId(ficheSuiviOuvrage.getId());
+        partialUpdatedFicheSuiviOuvrage.nomBenef(DEFAULT_NOM_BENEF);
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedFicheSuiviOuvrage.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedFicheSuiviOuvrage))
+            )
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_CONCURRENCY_FAILURE));
+
+        // Validate the FicheSuiviOuvrage in the database
+        assertThat(ficheSuiviOuvrageRepository.findById(ficheSuiviOuvrage.getId()).get().getNomBenef()).isEqualTo(UPDATED_NOM_BENEF);
+    }
+
     @Test
     @Transactional
     void patchWithIdMismatchFicheSuiviOuvrage() throws Exception {
@@ -3180,8 +3666,72 @@ class FicheSuiviOuvrageResourceIT {
         List<FicheSuiviOuvrage> ficheSuiviOuvrageList = ficheSuiviOuvrageRepository.findAll();
         assertThat(ficheSuiviOuvrageList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository, times(1)).deleteById(ficheSuiviOuvrage.getId());
+        // Validate the FicheSuiviOuvrage removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("FicheSuiviOuvrage", ficheSuiviOuvrage.getId()));
+    }
+
+    @Test
+    @Transactional
+    void importFicheSuiviOuvragesFromCsv() throws Exception {
+        NatureOuvrage natureOuvrage = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(natureOuvrage);
+        em.flush();
+        int databaseSizeBeforeImport = ficheSuiviOuvrageRepository.findAll().size();
+
+        String header =
+            "prjAppuis;nomBenef;prenomBenef;professionBenef;nbUsagers;contacts;longitude;latitude;dateRemiseDevis;" +
+            "dateDebutTravaux;dateFinTravaux;rue;porte;coutMenage;subvOnea;subvProjet;autreSubv;toles;animateur;" +
+            "superviseur;controleur;natureouvrage";
+        String validRow =
+            "AAAAAAAAAA;AAAAAAAAAA;AAAAAAAAAA;AAAAAAAAAA;1;AAAAAAAAAA;1.0;1.0;1970-01-01T00:00:00Z;" +
+            "1970-01-01T00:00:00Z;1970-01-01T00:00:00Z;AAAAAAAAAA;1;AAAAAAAAAA;1;1;1;1;AAAAAAAAAA;AAAAAAAAAA;AAAAAAAAAA;" +
+            natureOuvrage.getLibelle();
+        String invalidRow =
+            "AAAAAAAAAA;;AAAAAAAAAA;AAAAAAAAAA;not-a-number;AAAAAAAAAA;1.0;1.0;1970-01-01T00:00:00Z;" +
+            "1970-01-01T00:00:00Z;1970-01-01T00:00:00Z;AAAAAAAAAA;1;AAAAAAAAAA;1;1;1;1;AAAAAAAAAA;AAAAAAAAAA;AAAAAAAAAA;unknown";
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/import")
+                    .contentType("text/csv")
+                    .content(String.join("\n", header, validRow, invalidRow).getBytes(StandardCharsets.UTF_8))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.errors[0].row").value(2))
+            .andExpect(jsonPath("$.errors[0].messages").value(hasItem("nbUsagers: invalid value 'not-a-number'")))
+            .andExpect(jsonPath("$.errors[0].messages").value(hasItem("natureouvrage: unknown libelle 'unknown'")));
+
+        List<FicheSuiviOuvrage> ficheSuiviOuvrageList = ficheSuiviOuvrageRepository.findAll();
+        assertThat(ficheSuiviOuvrageList).hasSize(databaseSizeBeforeImport + 1);
+        FicheSuiviOuvrage testFicheSuiviOuvrage = ficheSuiviOuvrageList.get(ficheSuiviOuvrageList.size() - 1);
+        assertThat(testFicheSuiviOuvrage.getNbUsagers()).isEqualTo(DEFAULT_NB_USAGERS);
+        assertThat(testFicheSuiviOuvrage.getDateRemiseDevis()).isEqualTo(DEFAULT_DATE_REMISE_DEVIS);
+        assertThat(testFicheSuiviOuvrage.getNatureouvrage().getId()).isEqualTo(natureOuvrage.getId());
+    }
+
+    @Test
+    @Transactional
+    void importFicheSuiviOuvragesFromJson() throws Exception {
+        int databaseSizeBeforeImport = ficheSuiviOuvrageRepository.findAll().size();
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/import")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(ficheSuiviOuvrageDTO, ficheSuiviOuvrageDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(0));
+
+        assertThat(ficheSuiviOuvrageRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
     }
 
     @Test
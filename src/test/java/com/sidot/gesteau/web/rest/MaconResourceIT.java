@@ -1,8 +1,10 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -10,8 +12,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.Macon;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.MaconRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.MaconSearchRepository;
+import com.sidot.gesteau.service.CriteriaResultCache;
 import com.sidot.gesteau.service.criteria.MaconCriteria;
 import com.sidot.gesteau.service.dto.MaconDTO;
 import com.sidot.gesteau.service.mapper.MaconMapper;
@@ -29,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -67,6 +73,12 @@ class MaconResourceIT {
     @Autowired
     private MaconSearchRepository mockMaconSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private CriteriaResultCache criteriaResultCache;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +130,10 @@ class MaconResourceIT {
         Macon testMacon = maconList.get(maconList.size() - 1);
         assertThat(testMacon.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository, times(1)).save(testMacon);
+        // Validate the Macon indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Macon", testMacon.getId()));
     }
 
     @Test
@@ -192,6 +206,60 @@ class MaconResourceIT {
             .andExpect(jsonPath("$.libelle").value(DEFAULT_LIBELLE));
     }
 
+    @Test
+    @Transactional
+    void getMaconNotModified() throws Exception {
+        // Initialize the database
+        maconRepository.saveAndFlush(macon);
+
+        // Get the macon and its ETag
+        String eTag = restMaconMockMvc
+            .perform(get(ENTITY_API_URL_ID, macon.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + macon.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restMaconMockMvc
+            .perform(get(ENTITY_API_URL_ID, macon.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Update the macon, which moves it to another version
+        macon.setLibelle(UPDATED_LIBELLE);
+        maconRepository.saveAndFlush(macon);
+
+        restMaconMockMvc
+            .perform(get(ENTITY_API_URL_ID, macon.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.libelle").value(UPDATED_LIBELLE));
+    }
+
+    @Test
+    void getAllMaconsNotModified() throws Exception {
+        // Get the macons and the ETag of their listing
+        String eTag = restMaconMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restMaconMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A committed write moves the listing to another version
+        criteriaResultCache.invalidate(Macon.class);
+
+        restMaconMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
     @Test
     @Transactional
     void getMaconsByIdFiltering() throws Exception {
@@ -381,8 +449,88 @@ class MaconResourceIT {
         Macon testMacon = maconList.get(maconList.size() - 1);
         assertThat(testMacon.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository).save(testMacon);
+        // Validate the Macon indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Macon", testMacon.getId()));
+    }
+
+    @Test
+    @Transactional
+    void putMaconWithStaleVersion() throws Exception {
+        // Initialize the database
+        maconRepository.saveAndFlush(macon);
+
+        Macon updatedMacon = maconRepository.findById(macon.getId()).get();
+        em.detach(updatedMacon);
+        updatedMacon.libelle(UPDATED_LIBELLE);
+        MaconDTO maconDTO = maconMapper.toDto(updatedMacon);
+
+        // Update the macon concurrently, which moves it to another version
+        macon.setLibelle(DEFAULT_LIBELLE + "-concurrent");
+        maconRepository.saveAndFlush(macon);
+
+        restMaconMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, maconDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(maconDTO))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void putMaconWithIfMatch() throws Exception {
+        // Initialize the database
+        maconRepository.saveAndFlush(macon);
+        String eTag = "W/\"" + macon.getVersion() + "\"";
+
+        MaconDTO maconDTO = maconMapper.toDto(macon);
+        maconDTO.setLibelle(UPDATED_LIBELLE);
+        maconDTO.setVersion(null);
+
+        restMaconMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, maconDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(maconDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + macon.getVersion() + "\""))
+            .andExpect(jsonPath("$.version").value(macon.getVersion()));
+        assertThat(macon.getLibelle()).isEqualTo(UPDATED_LIBELLE);
+
+        // The version of the If-Match header is now outdated
+        maconDTO.setLibelle(DEFAULT_LIBELLE);
+        restMaconMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, maconDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(maconDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+        assertThat(maconRepository.findById(macon.getId()).get().getLibelle()).isEqualTo(UPDATED_LIBELLE);
+    }
+
+    @Test
+    @Transactional
+    void putMaconWithInvalidIfMatch() throws Exception {
+        // Initialize the database
+        maconRepository.saveAndFlush(macon);
+
+        MaconDTO maconDTO = maconMapper.toDto(macon);
+
+        restMaconMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, maconDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"not-a-version\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(maconDTO))
+            )
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -517,6 +665,32 @@ class MaconResourceIT {
         assertThat(testMacon.getLibelle()).isEqualTo(UPDATED_LIBELLE);
     }
 
+    @Test
+    @Transactional
+    void patchMaconWithOutdatedIfMatch() throws Exception {
+        // Initialize the database
+        maconRepository.saveAndFlush(macon);
+        String eTag = "W/\"" + macon.getVersion() + "\"";
+
+        // Update the macon concurrently, which moves it to another version
+        macon.setLibelle(UPDATED_LIBELLE);
+        maconRepository.saveAndFlush(macon);
+
+        Macon partialUpdatedMacon = new Macon();
+        partialUpdatedMacon.setId(macon.getId());
+        partialUpdatedMacon.libelle(DEFAULT_LIBELLE);
+
+        restMaconMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedMacon.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedMacon))
+            )
+            .andExpect(status().isPreconditionFailed());
+        assertThat(maconRepository.findById(macon.getId()).get().getLibelle()).isEqualTo(UPDATED_LIBELLE);
+    }
+
     @Test
     @Transactional
     void patchNonExistingMacon() throws Exception {
@@ -608,8 +782,10 @@ class MaconResourceIT {
         List<Macon> maconList = maconRepository.findAll();
         assertThat(maconList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository, times(1)).deleteById(macon.getId());
+        // Validate the Macon removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Macon", macon.getId()));
     }
 
     @Test
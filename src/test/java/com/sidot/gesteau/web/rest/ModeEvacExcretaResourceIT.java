@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.ModeEvacExcreta;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.ModeEvacExcretaRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.ModeEvacExcretaSearchRepository;
 import com.sidot.gesteau.service.criteria.ModeEvacExcretaCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacExcretaDTO;
@@ -67,6 +70,9 @@ class ModeEvacExcretaResourceIT {
     @Autowired
     private ModeEvacExcretaSearchRepository mockModeEvacExcretaSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +126,10 @@ class ModeEvacExcretaResourceIT {
         ModeEvacExcreta testModeEvacExcreta = modeEvacExcretaList.get(modeEvacExcretaList.size() - 1);
         assertThat(testModeEvacExcreta.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository, times(1)).save(testModeEvacExcreta);
+        // Validate the ModeEvacExcreta indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacExcreta", testModeEvacExcreta.getId()));
     }
 
     @Test
@@ -387,8 +395,10 @@ class ModeEvacExcretaResourceIT {
         ModeEvacExcreta testModeEvacExcreta = modeEvacExcretaList.get(modeEvacExcretaList.size() - 1);
         assertThat(testModeEvacExcreta.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository).save(testModeEvacExcreta);
+        // Validate the ModeEvacExcreta indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacExcreta", testModeEvacExcreta.getId()));
     }
 
     @Test
@@ -620,8 +630,10 @@ class ModeEvacExcretaResourceIT {
         List<ModeEvacExcreta> modeEvacExcretaList = modeEvacExcretaRepository.findAll();
         assertThat(modeEvacExcretaList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository, times(1)).deleteById(modeEvacExcreta.getId());
+        // Validate the ModeEvacExcreta removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacExcreta", modeEvacExcreta.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.ModeEvacuationEauUsee;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.ModeEvacuationEauUseeRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.ModeEvacuationEauUseeSearchRepository;
 import com.sidot.gesteau.service.criteria.ModeEvacuationEauUseeCriteria;
 import com.sidot.gesteau.service.dto.ModeEvacuationEauUseeDTO;
@@ -67,6 +70,9 @@ class ModeEvacuationEauUseeResourceIT {
     @Autowired
     private ModeEvacuationEauUseeSearchRepository mockModeEvacuationEauUseeSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -122,8 +128,10 @@ class ModeEvacuationEauUseeResourceIT {
         ModeEvacuationEauUsee testModeEvacuationEauUsee = modeEvacuationEauUseeList.get(modeEvacuationEauUseeList.size() - 1);
         assertThat(testModeEvacuationEauUsee.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository, times(1)).save(testModeEvacuationEauUsee);
+        // Validate the ModeEvacuationEauUsee indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacuationEauUsee", testModeEvacuationEauUsee.getId()));
     }
 
     @Test
@@ -393,8 +401,10 @@ class ModeEvacuationEauUseeResourceIT {
         ModeEvacuationEauUsee testModeEvacuationEauUsee = modeEvacuationEauUseeList.get(modeEvacuationEauUseeList.size() - 1);
         assertThat(testModeEvacuationEauUsee.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository).save(testModeEvacuationEauUsee);
+        // Validate the ModeEvacuationEauUsee indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacuationEauUsee", testModeEvacuationEauUsee.getId()));
     }
 
     @Test
@@ -628,8 +638,10 @@ class ModeEvacuationEauUseeResourceIT {
         List<ModeEvacuationEauUsee> modeEvacuationEauUseeList = modeEvacuationEauUseeRepository.findAll();
         assertThat(modeEvacuationEauUseeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository, times(1)).deleteById(modeEvacuationEauUsee.getId());
+        // Validate the ModeEvacuationEauUsee removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("ModeEvacuationEauUsee", modeEvacuationEauUsee.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.NatureOuvrage;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.NatureOuvrageRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.NatureOuvrageSearchRepository;
 import com.sidot.gesteau.service.criteria.NatureOuvrageCriteria;
 import com.sidot.gesteau.service.dto.NatureOuvrageDTO;
@@ -67,6 +70,9 @@ class NatureOuvrageResourceIT {
     @Autowired
     private NatureOuvrageSearchRepository mockNatureOuvrageSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +126,10 @@ class NatureOuvrageResourceIT {
         NatureOuvrage testNatureOuvrage = natureOuvrageList.get(natureOuvrageList.size() - 1);
         assertThat(testNatureOuvrage.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository, times(1)).save(testNatureOuvrage);
+        // Validate the NatureOuvrage indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("NatureOuvrage", testNatureOuvrage.getId()));
     }
 
     @Test
@@ -387,8 +395,10 @@ class NatureOuvrageResourceIT {
         NatureOuvrage testNatureOuvrage = natureOuvrageList.get(natureOuvrageList.size() - 1);
         assertThat(testNatureOuvrage.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository).save(testNatureOuvrage);
+        // Validate the NatureOuvrage indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("NatureOuvrage", testNatureOuvrage.getId()));
     }
 
     @Test
@@ -618,8 +628,10 @@ class NatureOuvrageResourceIT {
         List<NatureOuvrage> natureOuvrageList = natureOuvrageRepository.findAll();
         assertThat(natureOuvrageList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository, times(1)).deleteById(natureOuvrage.getId());
+        // Validate the NatureOuvrage removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("NatureOuvrage", natureOuvrage.getId()));
     }
 
     @Test
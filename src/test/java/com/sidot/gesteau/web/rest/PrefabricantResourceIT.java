@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -10,7 +11,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
 import com.sidot.gesteau.domain.Prefabricant;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.PrefabricantRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.PrefabricantSearchRepository;
 import com.sidot.gesteau.service.criteria.PrefabricantCriteria;
 import com.sidot.gesteau.service.dto.PrefabricantDTO;
@@ -67,6 +70,9 @@ class PrefabricantResourceIT {
     @Autowired
     private PrefabricantSearchRepository mockPrefabricantSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +126,10 @@ class PrefabricantResourceIT {
         Prefabricant testPrefabricant = prefabricantList.get(prefabricantList.size() - 1);
         assertThat(testPrefabricant.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository, times(1)).save(testPrefabricant);
+        // Validate the Prefabricant indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prefabricant", testPrefabricant.getId()));
     }
 
     @Test
@@ -387,8 +395,10 @@ class PrefabricantResourceIT {
         Prefabricant testPrefabricant = prefabricantList.get(prefabricantList.size() - 1);
         assertThat(testPrefabricant.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository).save(testPrefabricant);
+        // Validate the Prefabricant indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prefabricant", testPrefabricant.getId()));
     }
 
     @Test
@@ -618,8 +628,10 @@ class PrefabricantResourceIT {
         List<Prefabricant> prefabricantList = prefabricantRepository.findAll();
         assertThat(prefabricantList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository, times(1)).deleteById(prefabricant.getId());
+        // Validate the Prefabricant removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prefabricant", prefabricant.getId()));
     }
 
     @Test
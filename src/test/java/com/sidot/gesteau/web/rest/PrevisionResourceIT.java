@@ -1,8 +1,10 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -11,9 +13,14 @@ import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.Annee;
 import com.sidot.gesteau.domain.Centre;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.NatureOuvrage;
 import com.sidot.gesteau.domain.Prevision;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.repository.PrevisionRepository;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.search.PrevisionSearchRepository;
+import com.sidot.gesteau.service.PrevisionFreeSlotsService;
+import com.sidot.gesteau.service.PrevisionRealisationCounterService;
 import com.sidot.gesteau.service.criteria.PrevisionCriteria;
 import com.sidot.gesteau.service.dto.PrevisionDTO;
 import com.sidot.gesteau.service.mapper.PrevisionMapper;
@@ -29,6 +36,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -82,6 +90,15 @@ class PrevisionResourceIT {
     @Autowired
     private PrevisionSearchRepository mockPrevisionSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private PrevisionRealisationCounterService previsionRealisationCounterService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private EntityManager em;
 
@@ -144,8 +161,10 @@ class PrevisionResourceIT {
         assertThat(testPrevision.getNbPublic()).isEqualTo(DEFAULT_NB_PUBLIC);
         assertThat(testPrevision.getNbScolaire()).isEqualTo(DEFAULT_NB_SCOLAIRE);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository, times(1)).save(testPrevision);
+        // Validate the Prevision indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prevision", testPrevision.getId()));
     }
 
     @Test
@@ -810,6 +829,108 @@ class PrevisionResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getPrevisionRealisation() throws Exception {
+        // Initialize the database
+        Annee annee = AnneeResourceIT.createEntity(em);
+        em.persist(annee);
+        prevision.nbLatrine(4).annee(annee);
+        em.persist(prevision);
+        NatureOuvrage latrine = new NatureOuvrage().libelle("latrine");
+        em.persist(latrine);
+        NatureOuvrage autre = new NatureOuvrage().libelle("Autre");
+        em.persist(autre);
+        for (NatureOuvrage natureOuvrage : List.of(latrine, latrine, autre)) {
+            em.persist(FicheSuiviOuvrageResourceIT.createEntity(em).prevision(prevision).natureouvrage(natureOuvrage));
+        }
+        em.flush();
+        previsionRealisationCounterService.reconcile(prevision.getId());
+
+        // Get the realisation of the previsions of the annee
+        restPrevisionMockMvc
+            .perform(get(ENTITY_API_URL + "/realisation?anneeId={anneeId}", annee.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.previsions").value(1))
+            .andExpect(jsonPath("$.categories[0].category").value("LATRINE"))
+            .andExpect(jsonPath("$.categories[0].planned").value(4))
+            .andExpect(jsonPath("$.categories[0].realised").value(2))
+            .andExpect(jsonPath("$.categories[0].percentage").value(50.0))
+            .andExpect(jsonPath("$.categories[1].category").value("PUISARD"))
+            .andExpect(jsonPath("$.categories[1].planned").value(DEFAULT_NB_PUISARD))
+            .andExpect(jsonPath("$.categories[1].realised").value(0))
+            .andExpect(jsonPath("$.natures[0].natureOuvrageId").value(latrine.getId().intValue()))
+            .andExpect(jsonPath("$.natures[0].category").value("LATRINE"))
+            .andExpect(jsonPath("$.natures[0].realised").value(2))
+            .andExpect(jsonPath("$.natures[1].natureOuvrageId").value(autre.getId().intValue()))
+            .andExpect(jsonPath("$.natures[1].realised").value(1));
+
+        // Get the realisation of the previsions of the annee in another centre
+        restPrevisionMockMvc
+            .perform(get(ENTITY_API_URL + "/realisation?anneeId={anneeId}&centreId={centreId}", annee.getId(), Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.previsions").value(0))
+            .andExpect(jsonPath("$.categories[0].planned").value(0))
+            .andExpect(jsonPath("$.categories[0].percentage").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getPrevisionRealisationCounters() throws Exception {
+        // Initialize the database
+        em.persist(prevision);
+        NatureOuvrage latrine = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(latrine);
+        NatureOuvrage autre = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(autre);
+        for (NatureOuvrage natureOuvrage : List.of(latrine, latrine, autre)) {
+            em.persist(FicheSuiviOuvrageResourceIT.createEntity(em).prevision(prevision).natureouvrage(natureOuvrage));
+        }
+        em.flush();
+        previsionRealisationCounterService.reconcile(prevision.getId());
+
+        // Get the realisation counters of the prevision
+        restPrevisionMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/realisation-counters", prevision.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].natureOuvrageId").value(latrine.getId().intValue()))
+            .andExpect(jsonPath("$.[0].realised").value(2))
+            .andExpect(jsonPath("$.[1].natureOuvrageId").value(autre.getId().intValue()))
+            .andExpect(jsonPath("$.[1].realised").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getPrevisionFreeSlots() throws Exception {
+        // The free slots are only evicted once the writes commit
+        cacheManager.getCache(PrevisionFreeSlotsService.PREVISION_FREE_SLOTS_CACHE).clear();
+
+        // Initialize the database
+        Annee freeAnnee = AnneeResourceIT.createEntity(em);
+        em.persist(freeAnnee);
+        Annee annee = AnneeResourceIT.createEntity(em);
+        em.persist(annee);
+        Centre freeCentre = CentreResourceIT.createEntity(em);
+        em.persist(freeCentre);
+        Centre centre = CentreResourceIT.createEntity(em);
+        em.persist(centre);
+        prevision.annee(annee).centre(centre);
+        em.persist(prevision);
+        em.flush();
+
+        // Get the centres and annees without prevision
+        restPrevisionMockMvc
+            .perform(get(ENTITY_API_URL + "/free-slots"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.centres.[*].id").value(hasItem(freeCentre.getId().intValue())))
+            .andExpect(jsonPath("$.centres.[*].id").value(not(hasItem(centre.getId().intValue()))))
+            .andExpect(jsonPath("$.annees.[*].id").value(hasItem(freeAnnee.getId().intValue())))
+            .andExpect(jsonPath("$.annees.[*].id").value(not(hasItem(annee.getId().intValue()))));
+    }
+
     @Test
     @Transactional
     void getNonExistingPrevision() throws Exception {
@@ -853,8 +974,10 @@ class PrevisionResourceIT {
         assertThat(testPrevision.getNbPublic()).isEqualTo(UPDATED_NB_PUBLIC);
         assertThat(testPrevision.getNbScolaire()).isEqualTo(UPDATED_NB_SCOLAIRE);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository).save(testPrevision);
+        // Validate the Prevision indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prevision", testPrevision.getId()));
     }
 
     @Test
@@ -1096,8 +1219,10 @@ class PrevisionResourceIT {
         List<Prevision> previsionList = previsionRepository.findAll();
         assertThat(previsionList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository, times(1)).deleteById(prevision.getId());
+        // Validate the Prevision removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("Prevision", prevision.getId()));
     }
 
     @Test
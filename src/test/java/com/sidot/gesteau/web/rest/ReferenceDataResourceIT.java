@@ -0,0 +1,84 @@
+package com.sidot.gesteau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.sidot.gesteau.IntegrationTest;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
+import com.sidot.gesteau.service.MaconService;
+import com.sidot.gesteau.service.dto.MaconDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link ReferenceDataResource} REST controller.
+ * <p>
+ * Not transactional: the snapshot is only dropped once the writes commit.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ReferenceDataResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/reference-data";
+
+    @Autowired
+    private MaconService maconService;
+
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
+    @Autowired
+    private MockMvc restReferenceDataMockMvc;
+
+    private MaconDTO macon;
+
+    @AfterEach
+    public void cleanup() {
+        if (macon != null) {
+            maconService.delete(macon.getId());
+        }
+        searchIndexEventRepository.deleteAll();
+    }
+
+    @Test
+    void getReferenceData() throws Exception {
+        MaconDTO maconDTO = new MaconDTO();
+        maconDTO.setLibelle("AAAAAAAAAA");
+        macon = maconService.save(maconDTO);
+
+        String eTag = restReferenceDataMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.macons.[*].id").value(hasItem(macon.getId().intValue())))
+            .andExpect(jsonPath("$.macons.[*].libelle").value(hasItem("AAAAAAAAAA")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Unchanged reference data
+        restReferenceDataMockMvc.perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+        // A lookup entity changed
+        macon.setLibelle("BBBBBBBBBB");
+        maconService.save(macon);
+        String updatedETag = restReferenceDataMockMvc
+            .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.macons.[*].libelle").value(hasItem("BBBBBBBBBB")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(updatedETag).isNotEqualTo(eTag);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.domain.SourceApprovEp;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.SourceApprovEpRepository;
 import com.sidot.gesteau.repository.search.SourceApprovEpSearchRepository;
 import com.sidot.gesteau.service.criteria.SourceApprovEpCriteria;
@@ -67,6 +70,9 @@ class SourceApprovEpResourceIT {
     @Autowired
     private SourceApprovEpSearchRepository mockSourceApprovEpSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +126,10 @@ class SourceApprovEpResourceIT {
         SourceApprovEp testSourceApprovEp = sourceApprovEpList.get(sourceApprovEpList.size() - 1);
         assertThat(testSourceApprovEp.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository, times(1)).save(testSourceApprovEp);
+        // Validate the SourceApprovEp indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("SourceApprovEp", testSourceApprovEp.getId()));
     }
 
     @Test
@@ -387,8 +395,10 @@ class SourceApprovEpResourceIT {
         SourceApprovEp testSourceApprovEp = sourceApprovEpList.get(sourceApprovEpList.size() - 1);
         assertThat(testSourceApprovEp.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository).save(testSourceApprovEp);
+        // Validate the SourceApprovEp indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("SourceApprovEp", testSourceApprovEp.getId()));
     }
 
     @Test
@@ -618,8 +628,10 @@ class SourceApprovEpResourceIT {
         List<SourceApprovEp> sourceApprovEpList = sourceApprovEpRepository.findAll();
         assertThat(sourceApprovEpList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository, times(1)).deleteById(sourceApprovEp.getId());
+        // Validate the SourceApprovEp removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("SourceApprovEp", sourceApprovEp.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.sidot.gesteau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.sidot.gesteau.IntegrationTest;
 import com.sidot.gesteau.domain.FicheSuiviOuvrage;
+import com.sidot.gesteau.domain.SearchIndexEvent;
 import com.sidot.gesteau.domain.TypeHabitation;
+import com.sidot.gesteau.repository.SearchIndexEventRepository;
 import com.sidot.gesteau.repository.TypeHabitationRepository;
 import com.sidot.gesteau.repository.search.TypeHabitationSearchRepository;
 import com.sidot.gesteau.service.criteria.TypeHabitationCriteria;
@@ -67,6 +70,9 @@ class TypeHabitationResourceIT {
     @Autowired
     private TypeHabitationSearchRepository mockTypeHabitationSearchRepository;
 
+    @Autowired
+    private SearchIndexEventRepository searchIndexEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +126,10 @@ class TypeHabitationResourceIT {
         TypeHabitation testTypeHabitation = typeHabitationList.get(typeHabitationList.size() - 1);
         assertThat(testTypeHabitation.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository, times(1)).save(testTypeHabitation);
+        // Validate the TypeHabitation indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("TypeHabitation", testTypeHabitation.getId()));
     }
 
     @Test
@@ -387,8 +395,10 @@ class TypeHabitationResourceIT {
         TypeHabitation testTypeHabitation = typeHabitationList.get(typeHabitationList.size() - 1);
         assertThat(testTypeHabitation.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository).save(testTypeHabitation);
+        // Validate the TypeHabitation indexing is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("TypeHabitation", testTypeHabitation.getId()));
     }
 
     @Test
@@ -620,8 +630,10 @@ class TypeHabitationResourceIT {
         List<TypeHabitation> typeHabitationList = typeHabitationRepository.findAll();
         assertThat(typeHabitationList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository, times(1)).deleteById(typeHabitation.getId());
+        // Validate the TypeHabitation removal is queued for Elasticsearch
+        assertThat(searchIndexEventRepository.findAll())
+            .extracting(SearchIndexEvent::getEntityType, SearchIndexEvent::getEntityId)
+            .containsOnlyOnce(tuple("TypeHabitation", typeHabitation.getId()));
     }
 
     @Test